@@ -0,0 +1,95 @@
+package com.craighdav.medical_claims_validator.benchmarks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+import com.craighdav.medical_claims_validator.generator.ClaimsDatasetGenerator;
+import com.craighdav.medical_claims_validator.generator.ClaimsDatasetOptions;
+import com.craighdav.medical_claims_validator.generator.ClaimsDatasetOptions.OutputFormat;
+import com.craighdav.medical_claims_validator.model.RawMedicalClaimsData;
+
+/**
+ * This class is purposed to build deterministic claims batches for the benchmarks.
+ * 
+ * Class BenchmarkDataset configures ClaimsDatasetGenerator for a target number of charges:
+ * claims carry between one and five charges (three on average) and patients have about four
+ * claims each. The share of charges with a restricted procedure code (split evenly between
+ * 9xxxx and 6xxxx), the duplicate rate and the orphan rate are tunable so that every branch
+ * of the validation rules can be weighted.
+ */
+public final class BenchmarkDataset {
+
+	/**
+	 * All benchmarks evaluate patient ages against this fixed clock.
+	 */
+	public static final Clock CLOCK = Clock.fixed(Instant.parse("2025-07-05T12:00:00Z"), ZoneId.of("UTC"));
+
+	private static final int MAX_CHARGES_PER_CLAIM = 5;
+	private static final int MEAN_CHARGES_PER_CLAIM = 3;
+	private static final int CLAIMS_PER_PATIENT = 4;
+	private static final long SEED = 20250705L;
+
+	private BenchmarkDataset() {
+	}
+
+	/**
+	 * This method builds a claims batch with the requested shape in memory.
+	 * 
+	 * @param chargeCount The approximate total number of charges
+	 * @param restrictedCodeShare The share of charges with a 9xxxx or 6xxxx procedure code
+	 * @param duplicateRate The share of claims repeating a procedure code
+	 * @param orphanRate The share of charges referencing a claim that does not exist
+	 * @return The generated batch
+	 */
+	public static RawMedicalClaimsData create(int chargeCount, double restrictedCodeShare,
+												double duplicateRate, double orphanRate) {
+		
+		return createGenerator(chargeCount, restrictedCodeShare, duplicateRate, orphanRate, OutputFormat.JSON)
+					.generateRawMedicalClaimsData();
+	}
+
+	/**
+	 * This method writes a claims batch with the requested shape as a JSON request body.
+	 * 
+	 * @see #create(int, double, double, double)
+	 */
+	public static byte[] createJson(int chargeCount, double restrictedCodeShare,
+										double duplicateRate, double orphanRate) {
+		
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		
+		try {
+			createGenerator(chargeCount, restrictedCodeShare, duplicateRate, orphanRate, OutputFormat.JSON)
+					.generate(outputStream);
+		} catch (IOException ioException) {
+			throw new UncheckedIOException(ioException);
+		}
+		
+		return outputStream.toByteArray();
+	}
+
+	private static ClaimsDatasetGenerator createGenerator(int chargeCount, double restrictedCodeShare,
+										double duplicateRate, double orphanRate, OutputFormat format) {
+		
+		int claimCount = Math.max(1, chargeCount / MEAN_CHARGES_PER_CLAIM);
+		
+		ClaimsDatasetOptions options = new ClaimsDatasetOptions();
+		options.setSeed(SEED);
+		options.setFormat(format);
+		options.setReferenceDate(LocalDate.now(CLOCK));
+		options.setClaimCount(claimCount);
+		options.setPatientCount(Math.max(1, claimCount / CLAIMS_PER_PATIENT));
+		options.setMaxChargesPerClaim(MAX_CHARGES_PER_CLAIM);
+		options.setProcedureCode9Share(restrictedCodeShare / 2);
+		options.setProcedureCode6Share(restrictedCodeShare / 2);
+		options.setDuplicateRate(duplicateRate);
+		options.setOrphanRate(orphanRate);
+		
+		return new ClaimsDatasetGenerator(options);
+	}
+}
@@ -0,0 +1,94 @@
+package com.craighdav.medical_claims_validator.benchmarks;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.craighdav.medical_claims_validator.constraints.ModelConstraintChecker;
+import com.craighdav.medical_claims_validator.model.Charge;
+import com.craighdav.medical_claims_validator.model.Claim;
+import com.craighdav.medical_claims_validator.model.Patient;
+import com.craighdav.medical_claims_validator.model.RawMedicalClaimsData;
+
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+
+/*
+ * Measures checking every patient, claim and charge of a batch against its constraints, as
+ * the NDJSON stream endpoint does record by record, with Bean Validation and with the
+ * ModelConstraintChecker. The generated records are all valid, so the checker never falls
+ * back to Bean Validation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class ConstraintCheckingBenchmark {
+
+	@Param({ "1000", "100000" })
+	private int chargeCount;
+
+	private List<Patient> patientList;
+	private List<Claim> claimList;
+	private List<Charge> chargeList;
+	private Validator validator;
+	private ModelConstraintChecker modelConstraintChecker;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		RawMedicalClaimsData rawMedicalClaimsData = BenchmarkDataset.create(chargeCount, 0.1, 0.05, 0.01);
+		patientList = rawMedicalClaimsData.getPatientList();
+		claimList = rawMedicalClaimsData.getClaimList();
+		chargeList = rawMedicalClaimsData.getChargeList();
+
+		validator = Validation.buildDefaultValidatorFactory().getValidator();
+		modelConstraintChecker = new ModelConstraintChecker(Clock.systemUTC(), true);
+	}
+
+	@Benchmark
+	public int validateWithBeanValidation() {
+		int violationCount = 0;
+		for (Patient patient : patientList) {
+			violationCount += validator.validate(patient).size();
+		}
+		for (Claim claim : claimList) {
+			violationCount += validator.validate(claim).size();
+		}
+		for (Charge charge : chargeList) {
+			violationCount += validator.validate(charge).size();
+		}
+
+		return violationCount;
+	}
+
+	@Benchmark
+	public int checkWithModelConstraintChecker() {
+		int failedCount = 0;
+		for (Patient patient : patientList) {
+			failedCount += modelConstraintChecker.satisfiesConstraints((Object) patient) ? 0 : 1;
+		}
+		for (Claim claim : claimList) {
+			failedCount += modelConstraintChecker.satisfiesConstraints((Object) claim) ? 0 : 1;
+		}
+		for (Charge charge : chargeList) {
+			failedCount += modelConstraintChecker.satisfiesConstraints((Object) charge) ? 0 : 1;
+		}
+
+		return failedCount;
+	}
+}
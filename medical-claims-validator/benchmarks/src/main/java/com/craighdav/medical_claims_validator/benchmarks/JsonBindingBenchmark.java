@@ -0,0 +1,52 @@
+package com.craighdav.medical_claims_validator.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.craighdav.medical_claims_validator.model.RawMedicalClaimsData;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+/*
+ * Measures Jackson deserialization of a request body into RawMedicalClaimsData, which is what
+ * the /validateClaims endpoint does before validation starts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class JsonBindingBenchmark {
+
+	@Param({ "1000", "100000", "1000000" })
+	private int chargeCount;
+	
+	private ObjectMapper objectMapper;
+	private byte[] requestBody;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		// Configured like Spring Boot's auto-configured ObjectMapper for java.time values
+		objectMapper = JsonMapper.builder().findAndAddModules().build();
+		requestBody = BenchmarkDataset.createJson(chargeCount, 0.1, 0.05, 0.01);
+	}
+
+	@Benchmark
+	public RawMedicalClaimsData readRawMedicalClaimsData() throws IOException {
+		return objectMapper.readValue(requestBody, RawMedicalClaimsData.class);
+	}
+}
@@ -0,0 +1,61 @@
+package com.craighdav.medical_claims_validator.benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.craighdav.util.MathUtils;
+
+/*
+ * Measures MathUtils.getLeftmostDigit per call over a fixed array of inputs, either typical
+ * five-digit procedure codes or values spread over the whole positive long range.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MathUtilsBenchmark {
+
+	private static final int VALUE_COUNT = 4_096;
+
+	@Param({ "PROCEDURE_CODES", "FULL_RANGE" })
+	private String valueDistribution;
+	
+	private long[] values;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		SplittableRandom random = new SplittableRandom(42L);
+		values = new long[VALUE_COUNT];
+		
+		for (int index = 0; index < VALUE_COUNT; index++) {
+			values[index] = valueDistribution.equals("PROCEDURE_CODES")
+								? 10_000L + random.nextInt(90_000)
+								: random.nextLong(1L, Long.MAX_VALUE);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(VALUE_COUNT)
+	public void getLeftmostDigit(Blackhole blackhole) {
+		for (long value : values) {
+			blackhole.consume(MathUtils.getLeftmostDigit(value));
+		}
+	}
+}
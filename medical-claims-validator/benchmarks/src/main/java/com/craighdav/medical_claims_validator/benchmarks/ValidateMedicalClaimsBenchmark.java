@@ -0,0 +1,69 @@
+package com.craighdav.medical_claims_validator.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.craighdav.medical_claims_validator.config.MedicalClaimsValidatorProperties;
+import com.craighdav.medical_claims_validator.config.MedicalClaimsValidatorProperties.ValidationEngine;
+import com.craighdav.medical_claims_validator.model.ProcessedMedicalClaimsData;
+import com.craighdav.medical_claims_validator.model.RawMedicalClaimsData;
+import com.craighdav.medical_claims_validator.service.MedicalClaimsValidatorService;
+
+/*
+ * Measures MedicalClaimsValidatorService.validateMedicalClaims end to end, excluding JSON
+ * binding, for every validation engine and dataset shape.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx4g" })
+public class ValidateMedicalClaimsBenchmark {
+
+	@Param({ "1000", "100000", "1000000" })
+	private int chargeCount;
+	
+	@Param({ "0.0", "0.1", "0.5" })
+	private double restrictedCodeShare;
+	
+	@Param({ "0.0", "0.05", "0.25" })
+	private double duplicateRate;
+	
+	@Param({ "0.0", "0.01", "0.1" })
+	private double orphanRate;
+	
+	@Param({ "STREAMS", "SINGLE_PASS", "PARALLEL", "COLUMNAR" })
+	private ValidationEngine validationEngine;
+	
+	private RawMedicalClaimsData rawMedicalClaimsData;
+	private MedicalClaimsValidatorService medicalClaimsValidatorService;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		rawMedicalClaimsData = BenchmarkDataset.create(chargeCount, restrictedCodeShare, duplicateRate, orphanRate);
+		
+		MedicalClaimsValidatorProperties medicalClaimsValidatorProperties = new MedicalClaimsValidatorProperties();
+		medicalClaimsValidatorProperties.setValidationEngine(validationEngine);
+		
+		medicalClaimsValidatorService 
+					= new MedicalClaimsValidatorService(BenchmarkDataset.CLOCK, medicalClaimsValidatorProperties);
+	}
+
+	@Benchmark
+	public ProcessedMedicalClaimsData validateMedicalClaims() {
+		return medicalClaimsValidatorService.validateMedicalClaims(rawMedicalClaimsData);
+	}
+}
@@ -0,0 +1,23 @@
+package com.craighdav.medical_claims_validator.admission;
+
+import java.time.Duration;
+
+/**
+ * AdmissionRejectedException is thrown when a request cannot be admitted without exceeding
+ * the charges the service accepts at once. The request may be retried after getRetryAfter.
+ */
+public class AdmissionRejectedException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final Duration retryAfter;
+
+	public AdmissionRejectedException(String message, Duration retryAfter) {
+		super(message);
+		this.retryAfter = retryAfter;
+	}
+
+	public Duration getRetryAfter() {
+		return retryAfter;
+	}
+}
@@ -0,0 +1,71 @@
+package com.craighdav.medical_claims_validator.admission;
+
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import com.craighdav.medical_claims_validator.admission.ChargeAdmissionLimiter.Permit;
+import com.craighdav.medical_claims_validator.wire.ClaimsBatchFormat;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * This class is purposed to admit a request to the ChargeAdmissionLimiter before its body is
+ * read, so that a request that cannot be admitted costs neither the reading nor the binding
+ * of its body.
+ *
+ * Class ChargeAdmissionInterceptor weighs a request by the most charges its Content-Length
+ * can hold, the length divided by the size of the shortest charge record of its content type.
+ * A request of unknown length (chunked) is weighed as the largest large batch. The permit is
+ * held until the request is complete. A request that cannot be admitted fails with an
+ * AdmissionRejectedException, which its controller answers with 429 (Too Many Requests).
+ *
+ * The interceptor is meant for handlers that complete on the request thread; a handler
+ * writing its response asynchronously releases its own permit, as /validateClaims/stream
+ * does.
+ *
+ * This class is thread-safe.
+ */
+public final class ChargeAdmissionInterceptor implements HandlerInterceptor {
+
+	// The shortest JSON charge record, {"id":1,"claimId":1,"procedureCode":1,"amount":1}
+	static final long MIN_JSON_CHARGE_BYTES = 49L;
+
+	// A charge of the binary claims batch format, four longs
+	static final long MIN_BINARY_CHARGE_BYTES = 32L;
+
+	// Request attribute holding the permit of the request
+	private static final String PERMIT_ATTRIBUTE = ChargeAdmissionInterceptor.class.getName() + ".permit";
+
+	private final ChargeAdmissionLimiter chargeAdmissionLimiter;
+
+	public ChargeAdmissionInterceptor(ChargeAdmissionLimiter chargeAdmissionLimiter) {
+		this.chargeAdmissionLimiter = chargeAdmissionLimiter;
+	}
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+
+		long contentLength = request.getContentLengthLong();
+
+		Permit permit = (contentLength < 0L) ? chargeAdmissionLimiter.admitUnknownSize()
+					: chargeAdmissionLimiter.admit(contentLength / getMinChargeBytes(request.getContentType()));
+		request.setAttribute(PERMIT_ATTRIBUTE, permit);
+
+		return true;
+	}
+
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+									Exception exception) {
+
+		if (request.getAttribute(PERMIT_ATTRIBUTE) instanceof Permit permit) {
+			request.removeAttribute(PERMIT_ATTRIBUTE);
+			permit.close();
+		}
+	}
+
+	private static long getMinChargeBytes(String contentType) {
+		return ((contentType != null) && contentType.startsWith(ClaimsBatchFormat.MEDIA_TYPE_VALUE))
+					? MIN_BINARY_CHARGE_BYTES : MIN_JSON_CHARGE_BYTES;
+	}
+}
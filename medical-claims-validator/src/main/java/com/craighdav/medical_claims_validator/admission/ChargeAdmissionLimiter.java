@@ -0,0 +1,164 @@
+package com.craighdav.medical_claims_validator.admission;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.craighdav.medical_claims_validator.config.MedicalClaimsValidatorProperties;
+
+/**
+ * This class is purposed to bound the work the validation API accepts at once, so that a
+ * burst of large batches cannot delay every other request.
+ *
+ * Class ChargeAdmissionLimiter weighs each request by its number of charges rather than
+ * counting requests, and admits it only while the charges in flight stay within
+ * maxInFlightCharges. Requests of at most smallRequestCharges charges are small; a
+ * reservedCharges share of the limit is set aside for them, so large batches may together
+ * use only maxInFlightCharges - reservedCharges and small requests are admitted while
+ * large batches run. A request that cannot be admitted is rejected at once with an
+ * AdmissionRejectedException rather than queued; its caller is expected to retry after
+ * retryAfter.
+ *
+ * A large batch weighs at most the large share, so that a batch exceeding it is still
+ * admitted once no other large batch is in flight. A maxInFlightCharges of 0 disables the
+ * limiter.
+ *
+ * This class is thread-safe.
+ */
+@Component
+public class ChargeAdmissionLimiter {
+
+	private final long maxInFlightCharges;
+	private final long smallRequestCharges;
+	private final long largeRequestCapacity;
+	private final Duration retryAfter;
+
+	private long inFlightCharges;
+	private long largeInFlightCharges;
+
+	@Autowired
+	public ChargeAdmissionLimiter(MedicalClaimsValidatorProperties medicalClaimsValidatorProperties) {
+		this(medicalClaimsValidatorProperties.getAdmissionMaxInFlightCharges(),
+				medicalClaimsValidatorProperties.getAdmissionSmallRequestCharges(),
+				medicalClaimsValidatorProperties.getAdmissionReservedCharges(),
+				medicalClaimsValidatorProperties.getAdmissionRetryAfter());
+	}
+
+	/**
+	 * @param maxInFlightCharges The maximum number of charges in flight, 0 to disable the limiter
+	 * @param smallRequestCharges The maximum number of charges of a small request
+	 * @param reservedCharges The share of maxInFlightCharges only small requests may use
+	 * @param retryAfter The time after which a rejected request should be retried
+	 */
+	public ChargeAdmissionLimiter(long maxInFlightCharges, long smallRequestCharges, long reservedCharges,
+									Duration retryAfter) {
+
+		if ((maxInFlightCharges > 0L) && (reservedCharges >= maxInFlightCharges)) {
+			throw new IllegalArgumentException("Reserved charges " + reservedCharges
+								+ " must be less than the maximum in-flight charges " + maxInFlightCharges);
+		}
+
+		this.maxInFlightCharges = maxInFlightCharges;
+		this.smallRequestCharges = smallRequestCharges;
+		this.largeRequestCapacity = maxInFlightCharges - reservedCharges;
+		this.retryAfter = retryAfter;
+	}
+
+	public boolean isEnabled() {
+		return maxInFlightCharges > 0L;
+	}
+
+	public Duration getRetryAfter() {
+		return retryAfter;
+	}
+
+	public synchronized long getInFlightCharges() {
+		return inFlightCharges;
+	}
+
+	/**
+	 * This method admits a request of a known number of charges.
+	 *
+	 * @param chargeCount The number of charges of the request
+	 * @return The permit of the request, to be closed once the request is complete
+	 * @throws AdmissionRejectedException if admitting the request would exceed the limit
+	 */
+	public Permit admit(long chargeCount) {
+		return admit(chargeCount, chargeCount <= smallRequestCharges);
+	}
+
+	/**
+	 * This method admits a request whose number of charges is not known up front, weighing
+	 * it as the largest large batch.
+	 *
+	 * @return The permit of the request, to be closed once the request is complete
+	 * @throws AdmissionRejectedException if admitting the request would exceed the limit
+	 */
+	public Permit admitUnknownSize() {
+		return admit(Long.MAX_VALUE, false);
+	}
+
+	private synchronized Permit admit(long chargeCount, boolean isSmall) {
+
+		if (!isEnabled()) {
+			return new Permit(this, 0L, isSmall);
+		}
+
+		long weight = isSmall ? chargeCount : Math.min(chargeCount, largeRequestCapacity);
+
+		boolean isAdmitted = (inFlightCharges + weight <= maxInFlightCharges)
+								&& (isSmall || (largeInFlightCharges + weight <= largeRequestCapacity));
+		if (!isAdmitted) {
+			throw new AdmissionRejectedException("Too many charges in flight to admit a request of "
+							+ ((chargeCount == Long.MAX_VALUE) ? "unknown size" : chargeCount + " charges"),
+							retryAfter);
+		}
+
+		inFlightCharges += weight;
+		if (!isSmall) {
+			largeInFlightCharges += weight;
+		}
+
+		return new Permit(this, weight, isSmall);
+	}
+
+	private synchronized void release(Permit permit) {
+
+		if (permit.isReleased) {
+			return;
+		}
+
+		permit.isReleased = true;
+
+		inFlightCharges -= permit.weight;
+		if (!permit.isSmall) {
+			largeInFlightCharges -= permit.weight;
+		}
+	}
+
+	/**
+	 * Permit represents the charges of an admitted request, held until the request is
+	 * complete. Closing a permit more than once has no effect.
+	 */
+	public static final class Permit implements AutoCloseable {
+
+		private final ChargeAdmissionLimiter chargeAdmissionLimiter;
+		private final long weight;
+		private final boolean isSmall;
+
+		// Guarded by chargeAdmissionLimiter
+		private boolean isReleased;
+
+		private Permit(ChargeAdmissionLimiter chargeAdmissionLimiter, long weight, boolean isSmall) {
+			this.chargeAdmissionLimiter = chargeAdmissionLimiter;
+			this.weight = weight;
+			this.isSmall = isSmall;
+		}
+
+		@Override
+		public void close() {
+			chargeAdmissionLimiter.release(this);
+		}
+	}
+}
@@ -0,0 +1,48 @@
+package com.craighdav.medical_claims_validator.admission;
+
+import java.util.concurrent.Callable;
+
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+
+import com.craighdav.medical_claims_validator.admission.ChargeAdmissionLimiter.Permit;
+
+/**
+ * This class is purposed to release the permit of a request whose response is written
+ * asynchronously, however its async processing ends.
+ *
+ * Class PermitReleasingInterceptor closes its permit when the request's async processing
+ * times out, fails or completes, including when the response task never ran because the
+ * client disconnected first. The task itself is expected to close the permit as well once
+ * it has written the response; a permit is released only once however often it is closed.
+ * The interceptor leaves the handling of timeouts and errors to the next interceptor.
+ *
+ * This class is thread-safe.
+ */
+public final class PermitReleasingInterceptor implements CallableProcessingInterceptor {
+
+	private final Permit permit;
+
+	public PermitReleasingInterceptor(Permit permit) {
+		this.permit = permit;
+	}
+
+	@Override
+	public <T> Object handleTimeout(NativeWebRequest request, Callable<T> task) {
+		permit.close();
+
+		return RESULT_NONE;
+	}
+
+	@Override
+	public <T> Object handleError(NativeWebRequest request, Callable<T> task, Throwable throwable) {
+		permit.close();
+
+		return RESULT_NONE;
+	}
+
+	@Override
+	public <T> void afterCompletion(NativeWebRequest request, Callable<T> task) {
+		permit.close();
+	}
+}
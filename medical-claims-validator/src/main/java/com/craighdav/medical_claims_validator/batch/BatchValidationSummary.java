@@ -0,0 +1,33 @@
+package com.craighdav.medical_claims_validator.batch;
+
+public class BatchValidationSummary {
+
+	private final long validClaimCount;
+	private final long invalidClaimCount;
+	private final String ruleSetVersion;
+
+	/**
+	 * BatchValidationSummary represents the totals of one ClaimsBatchFileValidator run.
+	 * 
+	 * @param validClaimCount The number of claims without issues
+	 * @param invalidClaimCount The number of claims with issues, including orphan claim IDs
+	 * @param ruleSetVersion The version of the rule set the claims were validated with
+	 */
+	public BatchValidationSummary(long validClaimCount, long invalidClaimCount, String ruleSetVersion) {
+		this.validClaimCount = validClaimCount;
+		this.invalidClaimCount = invalidClaimCount;
+		this.ruleSetVersion = ruleSetVersion;
+	}
+
+	public long getValidClaimCount() {
+		return validClaimCount;
+	}
+
+	public long getInvalidClaimCount() {
+		return invalidClaimCount;
+	}
+
+	public String getRuleSetVersion() {
+		return ruleSetVersion;
+	}
+}
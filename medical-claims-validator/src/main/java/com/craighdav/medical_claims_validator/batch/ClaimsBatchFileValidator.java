@@ -0,0 +1,276 @@
+package com.craighdav.medical_claims_validator.batch;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.craighdav.medical_claims_validator.model.Charge;
+import com.craighdav.medical_claims_validator.model.Claim;
+import com.craighdav.medical_claims_validator.model.ClaimIssue;
+import com.craighdav.medical_claims_validator.model.ClaimValidationResult;
+import com.craighdav.medical_claims_validator.model.IssueFormat;
+import com.craighdav.medical_claims_validator.model.Patient;
+import com.craighdav.medical_claims_validator.rules.RuleSet;
+import com.craighdav.medical_claims_validator.service.MedicalClaimsValidatorService;
+import com.craighdav.medical_claims_validator.wire.MalformedClaimsBatchException;
+import com.craighdav.medical_claims_validator.wire.MappedClaimsBatch;
+import com.craighdav.util.LongIntHashMap;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * This class is purposed to validate claims batch files on local disk without HTTP.
+ *
+ * Class ClaimsBatchFileValidator reads a ClaimsBatchFormat CLAIMS frame through a
+ * MappedClaimsBatch and writes one NDJSON ClaimValidationResult line per claim, in the
+ * format of POST /validateClaims/stream, to an output file. Claims are validated with
+ * MedicalClaimsValidatorService.validateClaim, so the issues are identical to those of the
+ * endpoints.
+ *
+ * The charges are grouped by claim exactly like the single-pass engine groups them, but on
+ * the mapped columns: only the slot index arrays (two ints per charge) and the ID maps live
+ * on the heap. Patient, Claim and Charge objects are created for one claim at a time and
+ * become garbage as soon as its result is written, so the heap needed does not grow with the
+ * size of the records in the file.
+ */
+public class ClaimsBatchFileValidator {
+
+	private static final int OUTPUT_BUFFER_SIZE = 1 << 20;
+
+	private final MedicalClaimsValidatorService medicalClaimsValidatorService;
+	private final ObjectMapper objectMapper;
+	private final Clock clock;
+
+	/**
+	 * @param medicalClaimsValidatorService The service whose rules and evaluation date apply
+	 * @param objectMapper The mapper used to write the result lines
+	 * @param clock The clock against which dates must lie in the past
+	 */
+	public ClaimsBatchFileValidator(MedicalClaimsValidatorService medicalClaimsValidatorService,
+										ObjectMapper objectMapper,
+										Clock clock) {
+		this.medicalClaimsValidatorService = medicalClaimsValidatorService;
+		this.objectMapper = objectMapper;
+		this.clock = clock;
+	}
+
+	/**
+	 * This method validates the claims batch file at inputPath into the file at outputPath.
+	 *
+	 * Method validate first checks every record against the model's Bean Validation
+	 * constraints, which the endpoints apply through @Valid, and rejects the whole file with
+	 * the first violation before any output is written. Results follow the order of the
+	 * claims in the file, followed by the claim IDs of charges without a matching claim.
+	 *
+	 * @param inputPath The ClaimsBatchFormat CLAIMS frame to validate
+	 * @param outputPath The NDJSON result file, created or replaced
+	 * @param issueFormat The format of each result's issues
+	 * @return The number of valid and invalid claims written
+	 * @throws MalformedClaimsBatchException If the input is not a complete CLAIMS frame
+	 * @throws IllegalArgumentException If a record violates a model constraint
+	 * @throws IllegalStateException If a patient ID or claim ID occurs more than once
+	 * @throws IOException If the input cannot be read or the output cannot be written
+	 */
+	public BatchValidationSummary validate(Path inputPath, Path outputPath, IssueFormat issueFormat)
+																				throws IOException {
+
+		try (MappedClaimsBatch mappedClaimsBatch = new MappedClaimsBatch(inputPath)) {
+			checkConstraints(mappedClaimsBatch);
+
+			try (OutputStream outputStream
+						= new BufferedOutputStream(Files.newOutputStream(outputPath), OUTPUT_BUFFER_SIZE)) {
+				return validateClaims(mappedClaimsBatch, outputStream, issueFormat);
+			}
+		}
+	}
+
+	private BatchValidationSummary validateClaims(MappedClaimsBatch mappedClaimsBatch, OutputStream outputStream,
+													IssueFormat issueFormat) throws IOException {
+
+		RuleSet ruleSet = medicalClaimsValidatorService.getRuleSet();
+
+		int patientCount = mappedClaimsBatch.getPatientCount();
+		int claimCount = mappedClaimsBatch.getClaimCount();
+		int chargeCount = mappedClaimsBatch.getChargeCount();
+
+		// Map patient IDs to patient rows; patients are read from the file per claim
+		LongIntHashMap patientRowMap = new LongIntHashMap(patientCount);
+		for (int patientRow = 0; patientRow < patientCount; patientRow++) {
+			long patientId = mappedClaimsBatch.getPatientId(patientRow);
+
+			if (patientRowMap.containsKey(patientId)) {
+				throw new IllegalStateException("Duplicate key " + patientId);
+			}
+			patientRowMap.put(patientId, patientRow);
+		}
+
+		// Assign every claim a slot (its row), followed by one slot per orphan claim ID
+		LongIntHashMap claimSlotMap = new LongIntHashMap(claimCount);
+		for (int claimRow = 0; claimRow < claimCount; claimRow++) {
+			long claimId = mappedClaimsBatch.getClaimId(claimRow);
+
+			if (!claimSlotMap.put(claimId, claimRow)) {
+				throw new IllegalStateException("Duplicate key " + claimId);
+			}
+		}
+
+		List<Long> orphanClaimIdList = new ArrayList<>();
+		int[] chargeSlots = new int[chargeCount];
+		int slotCount = claimCount;
+
+		for (int chargeRow = 0; chargeRow < chargeCount; chargeRow++) {
+			long claimId = mappedClaimsBatch.getChargeClaimId(chargeRow);
+			int claimSlot = claimSlotMap.getOrDefault(claimId, -1);
+
+			if (claimSlot < 0) {
+				claimSlot = slotCount++;
+				claimSlotMap.put(claimId, claimSlot);
+				orphanClaimIdList.add(claimId);
+			}
+
+			chargeSlots[chargeRow] = claimSlot;
+		}
+
+		// Counting sort of the charge rows by slot, as in the single-pass engine
+		int[] slotOffsets = new int[slotCount + 1];
+		for (int chargeSlot : chargeSlots) {
+			slotOffsets[chargeSlot + 1]++;
+		}
+		for (int slot = 0; slot < slotCount; slot++) {
+			slotOffsets[slot + 1] += slotOffsets[slot];
+		}
+
+		int[] slotFillPositions = Arrays.copyOf(slotOffsets, slotCount);
+		int[] groupedChargeRows = new int[chargeCount];
+		for (int chargeRow = 0; chargeRow < chargeCount; chargeRow++) {
+			groupedChargeRows[slotFillPositions[chargeSlots[chargeRow]]++] = chargeRow;
+		}
+		chargeSlots = null;
+		slotFillPositions = null;
+
+		long validClaimCount = 0;
+		long invalidClaimCount = 0;
+		List<Charge> chargeList = new ArrayList<>();
+
+		try (JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+			generator.setRootValueSeparator(null);
+
+			for (int slot = 0; slot < slotCount; slot++) {
+				Claim claim = (slot < claimCount) ? readClaim(mappedClaimsBatch, slot) : null;
+				long claimId = (claim != null) ? claim.getId() : orphanClaimIdList.get(slot - claimCount);
+				Patient patient = (claim != null)
+									? readPatient(mappedClaimsBatch, patientRowMap, claim.getPatientId())
+									: null;
+
+				chargeList.clear();
+				for (int position = slotOffsets[slot]; position < slotOffsets[slot + 1]; position++) {
+					chargeList.add(readCharge(mappedClaimsBatch, groupedChargeRows[position]));
+				}
+
+				List<ClaimIssue> claimIssueList
+							= medicalClaimsValidatorService.validateClaim(claimId, claim, patient, chargeList, ruleSet);
+
+				if (claimIssueList.isEmpty()) {
+					validClaimCount++;
+				} else {
+					invalidClaimCount++;
+				}
+
+				generator.writeObject(new ClaimValidationResult(claimId, claimIssueList, issueFormat));
+				generator.writeRaw('\n');
+			}
+		}
+
+		return new BatchValidationSummary(validClaimCount, invalidClaimCount, ruleSet.getVersion());
+	}
+
+	/*
+	 * Apply the constraints of Patient, Claim and Charge to the mapped columns, with the
+	 * messages of their Bean Validation annotations.
+	 */
+	private void checkConstraints(MappedClaimsBatch mappedClaimsBatch) {
+
+		LocalDate today = LocalDate.now(clock);
+
+		for (int patientRow = 0; patientRow < mappedClaimsBatch.getPatientCount(); patientRow++) {
+			LocalDate birthDate = mappedClaimsBatch.getPatientBirthDate(patientRow);
+
+			checkConstraint(mappedClaimsBatch.getPatientId(patientRow) > 0,
+								"Patient", patientRow, "Patient: id must be a valid positive integer");
+			checkConstraint(!mappedClaimsBatch.isPatientFirstNameNull(patientRow),
+								"Patient", patientRow, "Patient: first name must not be null");
+			checkConstraint(!mappedClaimsBatch.isPatientLastNameNull(patientRow),
+								"Patient", patientRow, "Patient: last name must not be null");
+			checkConstraint(birthDate != null,
+								"Patient", patientRow, "Patient: birth date must not be null");
+			checkConstraint(birthDate.isBefore(today),
+								"Patient", patientRow, "Patient: birth date must be in the past");
+		}
+
+		for (int claimRow = 0; claimRow < mappedClaimsBatch.getClaimCount(); claimRow++) {
+			LocalDate serviceDate = mappedClaimsBatch.getClaimServiceDate(claimRow);
+
+			checkConstraint(mappedClaimsBatch.getClaimId(claimRow) > 0,
+								"Claim", claimRow, "Claim: id must be a valid positive integer");
+			checkConstraint(mappedClaimsBatch.getClaimPatientId(claimRow) > 0,
+								"Claim", claimRow, "Claim: patient id must be a valid positive integer");
+			checkConstraint(serviceDate != null,
+								"Claim", claimRow, "Claim: service date must not be null");
+			checkConstraint(serviceDate.isBefore(today),
+								"Claim", claimRow, "Claim: service date must be in the past");
+			checkConstraint(mappedClaimsBatch.getClaimPlaceOfService(claimRow) != null,
+								"Claim", claimRow, "Claim: place of service must not be null");
+		}
+
+		for (int chargeRow = 0; chargeRow < mappedClaimsBatch.getChargeCount(); chargeRow++) {
+			long amount = mappedClaimsBatch.getChargeAmount(chargeRow);
+
+			checkConstraint(mappedClaimsBatch.getChargeId(chargeRow) > 0,
+								"Charge", chargeRow, "Charge: id must be a valid positive integer");
+			checkConstraint(mappedClaimsBatch.getChargeClaimId(chargeRow) > 0,
+								"Charge", chargeRow, "Charge: claim id must be a valid positive integer");
+			checkConstraint(mappedClaimsBatch.getChargeProcedureCode(chargeRow) > 0,
+								"Charge", chargeRow, "Charge: procedure code must be a valid positive integer");
+			checkConstraint((amount >= Integer.MIN_VALUE) && (amount <= Integer.MAX_VALUE),
+								"Charge", chargeRow, "Charge: amount must be a valid integer");
+		}
+	}
+
+	private void checkConstraint(boolean isSatisfied, String recordType, int row, String message) {
+		if (!isSatisfied) {
+			throw new IllegalArgumentException(recordType + " row " + row + ": " + message);
+		}
+	}
+
+	private Patient readPatient(MappedClaimsBatch mappedClaimsBatch, LongIntHashMap patientRowMap, long patientId) {
+
+		int patientRow = patientRowMap.getOrDefault(patientId, -1);
+		if (patientRow < 0) {
+			return null;
+		}
+
+		// The names stay in the file: no rule reads them and their presence is already checked
+		return new Patient(patientId, null, null, mappedClaimsBatch.getPatientBirthDate(patientRow));
+	}
+
+	private Claim readClaim(MappedClaimsBatch mappedClaimsBatch, int claimRow) {
+		return new Claim(mappedClaimsBatch.getClaimId(claimRow),
+							mappedClaimsBatch.getClaimPatientId(claimRow),
+							mappedClaimsBatch.getClaimServiceDate(claimRow),
+							mappedClaimsBatch.getClaimPlaceOfService(claimRow));
+	}
+
+	private Charge readCharge(MappedClaimsBatch mappedClaimsBatch, int chargeRow) {
+		return new Charge(mappedClaimsBatch.getChargeId(chargeRow),
+							mappedClaimsBatch.getChargeClaimId(chargeRow),
+							mappedClaimsBatch.getChargeProcedureCode(chargeRow),
+							(int) mappedClaimsBatch.getChargeAmount(chargeRow));
+	}
+}
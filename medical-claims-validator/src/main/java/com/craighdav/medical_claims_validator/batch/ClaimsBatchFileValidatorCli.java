@@ -0,0 +1,85 @@
+package com.craighdav.medical_claims_validator.batch;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Locale;
+
+import com.craighdav.medical_claims_validator.config.MedicalClaimsValidatorProperties;
+import com.craighdav.medical_claims_validator.model.IssueFormat;
+import com.craighdav.medical_claims_validator.service.MedicalClaimsValidatorService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+/**
+ * This class is purposed to run ClaimsBatchFileValidator from the command line.
+ * 
+ * The options are given as --name=value, for example:
+ * 
+ *   --input=claims.bin --output=results.ndjson --issues=codes
+ *   --rules-location=file:/etc/claims/rules.json --evaluation-date=2025-06-30
+ * 
+ * --input (a ClaimsBatchFormat file, e.g. from ClaimsDatasetGeneratorCli --format=binary)
+ * and --output are required. --evaluation-date fixes the date that patient ages are
+ * computed for, so that a reprocessing run reproduces the ages of the original run; it
+ * defaults to today. Using the executable jar:
+ * 
+ *   java -cp medical-claims-validator-0.0.1-SNAPSHOT-exec.jar
+ *        -Dloader.main=com.craighdav.medical_claims_validator.batch.ClaimsBatchFileValidatorCli
+ *        org.springframework.boot.loader.launch.PropertiesLauncher --input=claims.bin ...
+ */
+public class ClaimsBatchFileValidatorCli {
+
+	public static void main(String[] args) throws IOException {
+		
+		MedicalClaimsValidatorProperties medicalClaimsValidatorProperties = new MedicalClaimsValidatorProperties();
+		Path inputPath = null;
+		Path outputPath = null;
+		IssueFormat issueFormat = IssueFormat.TEXT;
+		Clock clock = Clock.systemDefaultZone();
+		
+		for (String arg : args) {
+			int separatorIndex = arg.indexOf('=');
+			if (!arg.startsWith("--") || separatorIndex < 0) {
+				throw new IllegalArgumentException("Expected --name=value but was: " + arg);
+			}
+			
+			String name = arg.substring(2, separatorIndex);
+			String value = arg.substring(separatorIndex + 1);
+			
+			switch (name) {
+				case "input" -> inputPath = Path.of(value);
+				case "output" -> outputPath = Path.of(value);
+				case "issues" -> issueFormat = IssueFormat.valueOf(value.toUpperCase(Locale.ROOT));
+				case "rules-location" -> medicalClaimsValidatorProperties.setRulesLocation(value);
+				case "evaluation-date" -> clock = Clock.fixed(
+								LocalDate.parse(value).atStartOfDay(ZoneOffset.UTC).toInstant(), ZoneOffset.UTC);
+				default -> throw new IllegalArgumentException("Unknown option: --" + name);
+			}
+		}
+		
+		if ((inputPath == null) || (outputPath == null)) {
+			throw new IllegalArgumentException("Both --input and --output are required");
+		}
+		
+		MedicalClaimsValidatorService medicalClaimsValidatorService 
+					= new MedicalClaimsValidatorService(clock, medicalClaimsValidatorProperties);
+		ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+		ClaimsBatchFileValidator claimsBatchFileValidator 
+					= new ClaimsBatchFileValidator(medicalClaimsValidatorService, objectMapper, clock);
+		
+		long startNanos = System.nanoTime();
+		BatchValidationSummary batchValidationSummary 
+					= claimsBatchFileValidator.validate(inputPath, outputPath, issueFormat);
+		long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+		
+		System.err.println("Validated " + (batchValidationSummary.getValidClaimCount() 
+												+ batchValidationSummary.getInvalidClaimCount()) 
+							+ " claims (" + batchValidationSummary.getValidClaimCount() + " valid, " 
+							+ batchValidationSummary.getInvalidClaimCount() + " invalid) with rule set " 
+							+ batchValidationSummary.getRuleSetVersion() + " in " + elapsedMillis + " ms; "
+							+ "results written to " + outputPath);
+	}
+}
@@ -0,0 +1,36 @@
+package com.craighdav.medical_claims_validator.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.craighdav.medical_claims_validator.admission.ChargeAdmissionInterceptor;
+import com.craighdav.medical_claims_validator.admission.ChargeAdmissionLimiter;
+
+/**
+ * This class is purposed to admit the requests carrying claims batches before their bodies
+ * are bound.
+ *
+ * The batch endpoints completing on the request thread are admitted by a
+ * ChargeAdmissionInterceptor; /validateClaims/stream admits itself, as its permit is held
+ * until its response has been written asynchronously. The interceptor runs ahead of every
+ * other interceptor, since the ResultCacheLookupInterceptor reads the body it guards.
+ */
+@Configuration
+public class AdmissionWebConfig implements WebMvcConfigurer {
+
+	private final ChargeAdmissionLimiter chargeAdmissionLimiter;
+
+	public AdmissionWebConfig(ChargeAdmissionLimiter chargeAdmissionLimiter) {
+		this.chargeAdmissionLimiter = chargeAdmissionLimiter;
+	}
+
+	@Override
+	public void addInterceptors(InterceptorRegistry interceptorRegistry) {
+		interceptorRegistry.addInterceptor(new ChargeAdmissionInterceptor(chargeAdmissionLimiter))
+					.addPathPatterns("/validateClaims", "/validateClaims/sharded", "/validateClaims/incremental",
+										"/jobs/validateClaims")
+					.order(Ordered.HIGHEST_PRECEDENCE);
+	}
+}
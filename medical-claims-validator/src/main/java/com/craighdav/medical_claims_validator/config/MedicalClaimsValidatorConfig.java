@@ -1,11 +1,17 @@
 package com.craighdav.medical_claims_validator.config;
 
 import java.time.Clock;
+import java.util.Locale;
 
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+
+import com.craighdav.medical_claims_validator.model.IssueFormat;
 
 @Configuration
+@EnableConfigurationProperties(MedicalClaimsValidatorProperties.class)
 public class MedicalClaimsValidatorConfig {
 
 	@Bean
@@ -14,4 +20,21 @@ public class MedicalClaimsValidatorConfig {
 		
 		return clock;
 	}
+	
+	/**
+	 * This method provides the converter of the "issues" request parameter, so that the
+	 * format may be given in lower case (e.g. ?issues=codes).
+	 * 
+	 * @return A case-insensitive String to IssueFormat converter
+	 */
+	@Bean
+	public Converter<String, IssueFormat> issueFormatConverter() {
+		// An anonymous class keeps the generic types Spring needs to register the converter
+		return new Converter<String, IssueFormat>() {
+			@Override
+			public IssueFormat convert(String issueFormatName) {
+				return IssueFormat.valueOf(issueFormatName.trim().toUpperCase(Locale.ROOT));
+			}
+		};
+	}
 }
@@ -0,0 +1,404 @@
+package com.craighdav.medical_claims_validator.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * MedicalClaimsValidatorProperties holds the tunable settings of the validation service.
+ * 
+ * Class MedicalClaimsValidatorProperties is bound from the "medical-claims-validator.*"
+ * entries of application.properties. Every field is initialized with its default so that
+ * an instance created directly (e.g. in unit tests) behaves like an unconfigured service.
+ */
+@ConfigurationProperties(prefix = "medical-claims-validator")
+public class MedicalClaimsValidatorProperties {
+
+	/**
+	 * ValidationEngine selects the implementation used by validateMedicalClaims.
+	 * 
+	 * STREAMS is the original pipeline of separate Stream API passes for the per-charge
+	 * rules and the duplicate detection. SINGLE_PASS groups the charges by claim once and
+	 * evaluates every rule, including duplicate detection, in a single pass per claim.
+	 * PARALLEL groups the charges like SINGLE_PASS and validates shards of claims on a
+	 * fork/join pool, falling back to SINGLE_PASS for batches below parallelThreshold.
+	 * COLUMNAR converts the batch into columns of primitives (ColumnarClaimsBatch) and
+	 * validates it in a single pass per claim over those columns.
+	 */
+	public enum ValidationEngine {
+		STREAMS,
+		SINGLE_PASS,
+		PARALLEL,
+		COLUMNAR
+	}
+
+	private ValidationEngine validationEngine = ValidationEngine.STREAMS;
+
+	/**
+	 * ConstraintChecking selects how request bodies and streamed records are checked against
+	 * the Bean Validation constraints of the model classes.
+	 * 
+	 * FAST checks the constraints with hand-written comparisons (ModelConstraintChecker) and
+	 * falls back to Bean Validation only for a value that does not pass them, so that any
+	 * violation is reported exactly as Bean Validation reports it. BEAN_VALIDATION always
+	 * validates through Bean Validation.
+	 */
+	public enum ConstraintChecking {
+		FAST,
+		BEAN_VALIDATION
+	}
+
+	private ConstraintChecking constraintChecking = ConstraintChecking.FAST;
+
+	// Spring resource location of the rule set file evaluated against every charge
+	private String rulesLocation = "classpath:rules/default-rules.json";
+
+	// Reload the rule set whenever its file changes (only for "file:" rules locations)
+	private boolean rulesReloadEnabled = true;
+
+	// Minimum number of charges in a batch for the PARALLEL engine to split it into shards
+	private int parallelThreshold = 100_000;
+
+	// Maximum number of charges validated by one shard of the PARALLEL engine
+	private int parallelShardChargeCount = 16_384;
+
+	// Size of a dedicated fork/join pool for the PARALLEL engine, 0 to use the common pool
+	private int parallelism = 0;
+
+	// Hold the patient and claim lookups of the STREAMS engine in direct (off-heap) memory
+	private boolean offHeapLookupsEnabled = false;
+
+	// Maximum direct memory for off-heap lookups, shared by all concurrent batches
+	private long offHeapMaxBytes = 256L * 1024 * 1024;
+
+	// Size of each pooled direct buffer holding off-heap lookups
+	private int offHeapChunkBytes = 4 * 1024 * 1024;
+
+	// Merge-join batches whose claims and charges are already in claim ID order (STREAMS and
+	// SINGLE_PASS engines) instead of indexing them; off by default so that the configured
+	// engine validates every batch
+	private boolean sortedInputJoinEnabled = false;
+
+	// Duplicate detection (STREAMS engine): maximum number of charges sorted in memory; larger
+	// batches are sorted in runs written to the directory (blank for the temporary directory)
+	private int duplicateSortMaxInMemoryCharges = 16_777_216;
+	private String duplicateSortDirectory = "";
+
+	// File persisting the patient registry, blank to disable the registry
+	private String patientRegistryFile = "";
+
+	// Maximum number of registered patients held in memory
+	private int patientRegistryCacheSize = 100_000;
+
+	// Streaming validation: maximum number of charges held ahead of their claim
+	private int streamMaxPendingCharges = 1_000_000;
+
+	// Incremental validation: maximum number of claims and of their charges kept in memory
+	private int incrementalMaxClaims = 100_000;
+	private long incrementalMaxCharges = 1_000_000L;
+
+	// Incremental validation: time after its last use at which a claim's state is evicted
+	private Duration incrementalStateTtl = Duration.ofHours(1);
+
+	// Admission: maximum number of charges of all requests in flight, 0 to admit every request
+	private long admissionMaxInFlightCharges = 2_000_000L;
+
+	// Admission: maximum number of charges of a small request, and the share of the in-flight
+	// charges reserved for small requests
+	private long admissionSmallRequestCharges = 10_000L;
+	private long admissionReservedCharges = 200_000L;
+
+	// Admission: time after which a rejected request should be retried (Retry-After)
+	private Duration admissionRetryAfter = Duration.ofSeconds(1);
+
+	// Validation jobs: number of worker threads, and number of jobs waiting for a worker
+	private int jobWorkers = 2;
+	private int jobQueueCapacity = 16;
+
+	// Validation jobs: directory of the result files, blank for a temporary directory
+	private String jobDirectory = "";
+
+	// Validation jobs: number of claim results per page, and time a finished job is kept
+	private int jobResultPageSize = 1_000;
+	private Duration jobRetention = Duration.ofHours(1);
+
+	// Result cache: maximum estimated bytes of cached validation results, 0 to disable the cache
+	private long resultCacheMaxBytes = 0L;
+
+	// Sharded validation: base URLs of the shard nodes, none to disable the coordinator
+	private List<String> coordinatorNodeUrls = new ArrayList<>();
+
+	// Sharded validation: number of shards per shard node, and attempts per shard before the
+	// batch fails
+	private int coordinatorShardsPerNode = 4;
+	private int coordinatorShardAttempts = 3;
+
+	// Sharded validation: time a shard node has to answer the request for one shard
+	private Duration coordinatorShardTimeout = Duration.ofMinutes(10);
+
+	public ValidationEngine getValidationEngine() {
+		return validationEngine;
+	}
+
+	public void setValidationEngine(ValidationEngine validationEngine) {
+		this.validationEngine = validationEngine;
+	}
+
+	public ConstraintChecking getConstraintChecking() {
+		return constraintChecking;
+	}
+
+	public void setConstraintChecking(ConstraintChecking constraintChecking) {
+		this.constraintChecking = constraintChecking;
+	}
+
+	public String getRulesLocation() {
+		return rulesLocation;
+	}
+
+	public void setRulesLocation(String rulesLocation) {
+		this.rulesLocation = rulesLocation;
+	}
+
+	public boolean isRulesReloadEnabled() {
+		return rulesReloadEnabled;
+	}
+
+	public void setRulesReloadEnabled(boolean rulesReloadEnabled) {
+		this.rulesReloadEnabled = rulesReloadEnabled;
+	}
+
+	public int getParallelThreshold() {
+		return parallelThreshold;
+	}
+
+	public void setParallelThreshold(int parallelThreshold) {
+		this.parallelThreshold = parallelThreshold;
+	}
+
+	public int getParallelShardChargeCount() {
+		return parallelShardChargeCount;
+	}
+
+	public void setParallelShardChargeCount(int parallelShardChargeCount) {
+		this.parallelShardChargeCount = parallelShardChargeCount;
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
+
+	public boolean isOffHeapLookupsEnabled() {
+		return offHeapLookupsEnabled;
+	}
+
+	public void setOffHeapLookupsEnabled(boolean offHeapLookupsEnabled) {
+		this.offHeapLookupsEnabled = offHeapLookupsEnabled;
+	}
+
+	public long getOffHeapMaxBytes() {
+		return offHeapMaxBytes;
+	}
+
+	public void setOffHeapMaxBytes(long offHeapMaxBytes) {
+		this.offHeapMaxBytes = offHeapMaxBytes;
+	}
+
+	public int getOffHeapChunkBytes() {
+		return offHeapChunkBytes;
+	}
+
+	public void setOffHeapChunkBytes(int offHeapChunkBytes) {
+		this.offHeapChunkBytes = offHeapChunkBytes;
+	}
+
+	public boolean isSortedInputJoinEnabled() {
+		return sortedInputJoinEnabled;
+	}
+
+	public void setSortedInputJoinEnabled(boolean sortedInputJoinEnabled) {
+		this.sortedInputJoinEnabled = sortedInputJoinEnabled;
+	}
+
+	public int getDuplicateSortMaxInMemoryCharges() {
+		return duplicateSortMaxInMemoryCharges;
+	}
+
+	public void setDuplicateSortMaxInMemoryCharges(int duplicateSortMaxInMemoryCharges) {
+		this.duplicateSortMaxInMemoryCharges = duplicateSortMaxInMemoryCharges;
+	}
+
+	public String getDuplicateSortDirectory() {
+		return duplicateSortDirectory;
+	}
+
+	public void setDuplicateSortDirectory(String duplicateSortDirectory) {
+		this.duplicateSortDirectory = duplicateSortDirectory;
+	}
+
+	public String getPatientRegistryFile() {
+		return patientRegistryFile;
+	}
+
+	public void setPatientRegistryFile(String patientRegistryFile) {
+		this.patientRegistryFile = patientRegistryFile;
+	}
+
+	public int getPatientRegistryCacheSize() {
+		return patientRegistryCacheSize;
+	}
+
+	public void setPatientRegistryCacheSize(int patientRegistryCacheSize) {
+		this.patientRegistryCacheSize = patientRegistryCacheSize;
+	}
+
+	public int getStreamMaxPendingCharges() {
+		return streamMaxPendingCharges;
+	}
+
+	public void setStreamMaxPendingCharges(int streamMaxPendingCharges) {
+		this.streamMaxPendingCharges = streamMaxPendingCharges;
+	}
+
+	public int getIncrementalMaxClaims() {
+		return incrementalMaxClaims;
+	}
+
+	public void setIncrementalMaxClaims(int incrementalMaxClaims) {
+		this.incrementalMaxClaims = incrementalMaxClaims;
+	}
+
+	public long getIncrementalMaxCharges() {
+		return incrementalMaxCharges;
+	}
+
+	public void setIncrementalMaxCharges(long incrementalMaxCharges) {
+		this.incrementalMaxCharges = incrementalMaxCharges;
+	}
+
+	public Duration getIncrementalStateTtl() {
+		return incrementalStateTtl;
+	}
+
+	public void setIncrementalStateTtl(Duration incrementalStateTtl) {
+		this.incrementalStateTtl = incrementalStateTtl;
+	}
+
+	public long getAdmissionMaxInFlightCharges() {
+		return admissionMaxInFlightCharges;
+	}
+
+	public void setAdmissionMaxInFlightCharges(long admissionMaxInFlightCharges) {
+		this.admissionMaxInFlightCharges = admissionMaxInFlightCharges;
+	}
+
+	public long getAdmissionSmallRequestCharges() {
+		return admissionSmallRequestCharges;
+	}
+
+	public void setAdmissionSmallRequestCharges(long admissionSmallRequestCharges) {
+		this.admissionSmallRequestCharges = admissionSmallRequestCharges;
+	}
+
+	public long getAdmissionReservedCharges() {
+		return admissionReservedCharges;
+	}
+
+	public void setAdmissionReservedCharges(long admissionReservedCharges) {
+		this.admissionReservedCharges = admissionReservedCharges;
+	}
+
+	public Duration getAdmissionRetryAfter() {
+		return admissionRetryAfter;
+	}
+
+	public void setAdmissionRetryAfter(Duration admissionRetryAfter) {
+		this.admissionRetryAfter = admissionRetryAfter;
+	}
+
+	public int getJobWorkers() {
+		return jobWorkers;
+	}
+
+	public void setJobWorkers(int jobWorkers) {
+		this.jobWorkers = jobWorkers;
+	}
+
+	public int getJobQueueCapacity() {
+		return jobQueueCapacity;
+	}
+
+	public void setJobQueueCapacity(int jobQueueCapacity) {
+		this.jobQueueCapacity = jobQueueCapacity;
+	}
+
+	public String getJobDirectory() {
+		return jobDirectory;
+	}
+
+	public void setJobDirectory(String jobDirectory) {
+		this.jobDirectory = jobDirectory;
+	}
+
+	public int getJobResultPageSize() {
+		return jobResultPageSize;
+	}
+
+	public void setJobResultPageSize(int jobResultPageSize) {
+		this.jobResultPageSize = jobResultPageSize;
+	}
+
+	public Duration getJobRetention() {
+		return jobRetention;
+	}
+
+	public void setJobRetention(Duration jobRetention) {
+		this.jobRetention = jobRetention;
+	}
+
+	public long getResultCacheMaxBytes() {
+		return resultCacheMaxBytes;
+	}
+
+	public void setResultCacheMaxBytes(long resultCacheMaxBytes) {
+		this.resultCacheMaxBytes = resultCacheMaxBytes;
+	}
+
+	public List<String> getCoordinatorNodeUrls() {
+		return coordinatorNodeUrls;
+	}
+
+	public void setCoordinatorNodeUrls(List<String> coordinatorNodeUrls) {
+		this.coordinatorNodeUrls = coordinatorNodeUrls;
+	}
+
+	public int getCoordinatorShardsPerNode() {
+		return coordinatorShardsPerNode;
+	}
+
+	public void setCoordinatorShardsPerNode(int coordinatorShardsPerNode) {
+		this.coordinatorShardsPerNode = coordinatorShardsPerNode;
+	}
+
+	public int getCoordinatorShardAttempts() {
+		return coordinatorShardAttempts;
+	}
+
+	public void setCoordinatorShardAttempts(int coordinatorShardAttempts) {
+		this.coordinatorShardAttempts = coordinatorShardAttempts;
+	}
+
+	public Duration getCoordinatorShardTimeout() {
+		return coordinatorShardTimeout;
+	}
+
+	public void setCoordinatorShardTimeout(Duration coordinatorShardTimeout) {
+		this.coordinatorShardTimeout = coordinatorShardTimeout;
+	}
+}
@@ -0,0 +1,47 @@
+package com.craighdav.medical_claims_validator.config;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.craighdav.medical_claims_validator.controller.BufferedRequestBodyFilter;
+import com.craighdav.medical_claims_validator.controller.ResultCacheLookupInterceptor;
+import com.craighdav.medical_claims_validator.service.ValidationResultCache;
+
+/**
+ * This class is purposed to answer repeated POST /validateClaims batches from the
+ * ValidationResultCache before their bodies are bound.
+ *
+ * With the cache enabled, the BufferedRequestBodyFilter lets the ResultCacheLookupInterceptor
+ * read the body, which it does after the ChargeAdmissionInterceptor has admitted the request.
+ */
+@Configuration
+public class ResultCacheWebConfig implements WebMvcConfigurer {
+
+	private final ValidationResultCache validationResultCache;
+
+	public ResultCacheWebConfig(ValidationResultCache validationResultCache) {
+		this.validationResultCache = validationResultCache;
+	}
+
+	@Bean
+	public FilterRegistrationBean<BufferedRequestBodyFilter> bufferedRequestBodyFilter() {
+
+		FilterRegistrationBean<BufferedRequestBodyFilter> filterRegistrationBean
+					= new FilterRegistrationBean<>(new BufferedRequestBodyFilter());
+		filterRegistrationBean.addUrlPatterns("/validateClaims");
+		filterRegistrationBean.setEnabled(validationResultCache.isEnabled());
+
+		return filterRegistrationBean;
+	}
+
+	@Override
+	public void addInterceptors(InterceptorRegistry interceptorRegistry) {
+		if (validationResultCache.isEnabled()) {
+			interceptorRegistry.addInterceptor(new ResultCacheLookupInterceptor(validationResultCache))
+						.addPathPatterns("/validateClaims");
+		}
+	}
+}
@@ -0,0 +1,43 @@
+package com.craighdav.medical_claims_validator.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.validation.Validator;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.craighdav.medical_claims_validator.constraints.ConstraintCheckingValidator;
+import com.craighdav.medical_claims_validator.constraints.ModelConstraintChecker;
+import com.craighdav.medical_claims_validator.metrics.TimedValidator;
+import com.craighdav.medical_claims_validator.metrics.ValidationMetrics;
+
+/**
+ * This class is purposed to provide the MVC validator of @Valid request bodies.
+ *
+ * Bodies are checked by the ModelConstraintChecker, falling back to the application's Bean
+ * Validation validator for any body that does not pass (or for every body when constraint
+ * checking is BEAN_VALIDATION), and the whole check is timed by a TimedValidator.
+ */
+@Configuration
+public class ValidatorWebConfig implements WebMvcConfigurer {
+
+	private final jakarta.validation.Validator beanValidator;
+	private final ModelConstraintChecker modelConstraintChecker;
+	private final ValidationMetrics validationMetrics;
+
+	public ValidatorWebConfig(jakarta.validation.Validator beanValidator, 
+								ModelConstraintChecker modelConstraintChecker,
+								ValidationMetrics validationMetrics) {
+		this.beanValidator = beanValidator;
+		this.modelConstraintChecker = modelConstraintChecker;
+		this.validationMetrics = validationMetrics;
+	}
+
+	@Override
+	public Validator getValidator() {
+		SpringValidatorAdapter beanValidationValidator = new SpringValidatorAdapter(beanValidator);
+
+		return new TimedValidator(
+					new ConstraintCheckingValidator(modelConstraintChecker, beanValidationValidator),
+					validationMetrics);
+	}
+}
@@ -0,0 +1,55 @@
+package com.craighdav.medical_claims_validator.constraints;
+
+import org.springframework.validation.Errors;
+import org.springframework.validation.SmartValidator;
+
+/**
+ * This class is purposed to validate @Valid request bodies with the ModelConstraintChecker,
+ * keeping Bean Validation as the fallback.
+ *
+ * Class ConstraintCheckingValidator accepts a body that passes its check without further
+ * work and validates every other body with the Bean Validation validator, so that violations
+ * reach the Errors with the same fields, codes and messages as before. Validation with
+ * hints (groups) is always left to Bean Validation.
+ */
+public class ConstraintCheckingValidator implements SmartValidator {
+
+	private final ModelConstraintChecker modelConstraintChecker;
+	private final SmartValidator beanValidationValidator;
+
+	public ConstraintCheckingValidator(ModelConstraintChecker modelConstraintChecker,
+										SmartValidator beanValidationValidator) {
+		this.modelConstraintChecker = modelConstraintChecker;
+		this.beanValidationValidator = beanValidationValidator;
+	}
+
+	@Override
+	public boolean supports(Class<?> targetClass) {
+		return beanValidationValidator.supports(targetClass);
+	}
+
+	@Override
+	public void validate(Object target, Errors errors) {
+		if (!modelConstraintChecker.satisfiesConstraints(target)) {
+			beanValidationValidator.validate(target, errors);
+		}
+	}
+
+	@Override
+	public void validate(Object target, Errors errors, Object... validationHints) {
+		if ((validationHints.length > 0) || !modelConstraintChecker.satisfiesConstraints(target)) {
+			beanValidationValidator.validate(target, errors, validationHints);
+		}
+	}
+
+	@Override
+	public void validateValue(Class<?> targetType, String fieldName, Object value, Errors errors,
+								Object... validationHints) {
+		beanValidationValidator.validateValue(targetType, fieldName, value, errors, validationHints);
+	}
+
+	@Override
+	public <T> T unwrap(Class<T> type) {
+		return beanValidationValidator.unwrap(type);
+	}
+}
@@ -0,0 +1,225 @@
+package com.craighdav.medical_claims_validator.constraints;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.craighdav.medical_claims_validator.config.MedicalClaimsValidatorProperties;
+import com.craighdav.medical_claims_validator.config.MedicalClaimsValidatorProperties.ConstraintChecking;
+import com.craighdav.medical_claims_validator.model.Charge;
+import com.craighdav.medical_claims_validator.model.Claim;
+import com.craighdav.medical_claims_validator.model.ClaimDeltaBatch;
+import com.craighdav.medical_claims_validator.model.Patient;
+import com.craighdav.medical_claims_validator.model.PatientRegistration;
+import com.craighdav.medical_claims_validator.model.RawMedicalClaimsData;
+
+/**
+ * This class is purposed to check the model classes against their Bean Validation constraints
+ * without the reflective property access and metadata lookups of Bean Validation.
+ *
+ * Class ModelConstraintChecker mirrors the constraints declared on Patient, Claim, Charge,
+ * RawMedicalClaimsData, PatientRegistration and ClaimDeltaBatch with plain comparisons. A
+ * check only answers whether a value certainly satisfies its constraints. A value that does
+ * not pass is meant to be validated with Bean Validation, which then reports its violations
+ * with the constraints' own messages. A check may therefore be stricter than the constraints,
+ * but never more lenient:
+ *
+ *   @Past         a date passes only if it lies before yesterday in UTC, which is before
+ *                 today in every time zone; more recent dates are left to Bean Validation
+ *                 and its clock
+ *   @Digits       integer = 10, fraction = 0 holds for every int amount
+ *
+ * The checks must be changed together with the annotations of the model classes.
+ */
+@Component
+public class ModelConstraintChecker {
+
+	private static final long MILLIS_PER_DAY = 86_400_000L;
+
+	private final Clock clock;
+	private final boolean enabled;
+
+	@Autowired
+	public ModelConstraintChecker(MedicalClaimsValidatorProperties medicalClaimsValidatorProperties) {
+		this(Clock.systemUTC(),
+				medicalClaimsValidatorProperties.getConstraintChecking() == ConstraintChecking.FAST);
+	}
+
+	public ModelConstraintChecker(Clock clock, boolean enabled) {
+		this.clock = clock;
+		this.enabled = enabled;
+	}
+
+	/**
+	 * This method reports whether values are checked at all. When disabled, no value passes
+	 * a check, so that every value is validated with Bean Validation.
+	 *
+	 * @return true if constraint checking is FAST
+	 */
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * This method checks a value of any of the model classes against its constraints.
+	 *
+	 * @param value The value to check
+	 * @return true if value certainly satisfies its constraints, false if it must be validated
+	 *         with Bean Validation (including values of any other class)
+	 */
+	public boolean satisfiesConstraints(Object value) {
+
+		// Ordered by how often each class is checked in a batch
+		if (value instanceof Charge) {
+			return satisfiesConstraints((Charge) value);
+		} else if (value instanceof Claim) {
+			return satisfiesConstraints((Claim) value);
+		} else if (value instanceof Patient) {
+			return satisfiesConstraints((Patient) value);
+		} else if (value instanceof RawMedicalClaimsData) {
+			return satisfiesConstraints((RawMedicalClaimsData) value);
+		} else if (value instanceof PatientRegistration) {
+			return satisfiesConstraints((PatientRegistration) value);
+		} else if (value instanceof ClaimDeltaBatch) {
+			return satisfiesConstraints((ClaimDeltaBatch) value);
+		}
+
+		return false;
+	}
+
+	/**
+	 * This method checks a charge against its constraints.
+	 *
+	 * @param charge The charge to check
+	 * @return true if charge certainly satisfies its constraints
+	 */
+	public boolean satisfiesConstraints(Charge charge) {
+		return enabled
+				&& (charge.getId() > 0)
+				&& (charge.getClaimId() > 0)
+				&& (charge.getProcedureCode() > 0);
+	}
+
+	/**
+	 * This method checks a claim against its constraints.
+	 *
+	 * @param claim The claim to check
+	 * @return true if claim certainly satisfies its constraints
+	 */
+	public boolean satisfiesConstraints(Claim claim) {
+		return enabled
+				&& (claim.getId() > 0)
+				&& (claim.getPatientId() > 0)
+				&& isCertainlyPast(claim.getServiceDate(), getCertainlyPastEpochDayBound())
+				&& (claim.getPlaceOfService() != null);
+	}
+
+	/**
+	 * This method checks a patient against its constraints.
+	 *
+	 * @param patient The patient to check
+	 * @return true if patient certainly satisfies its constraints
+	 */
+	public boolean satisfiesConstraints(Patient patient) {
+		return enabled && satisfiesConstraints(patient, getCertainlyPastEpochDayBound());
+	}
+
+	/**
+	 * This method checks a validation request against its constraints. Its patients, claims
+	 * and charges are not checked, just as they are not cascaded to by Bean Validation.
+	 *
+	 * @param rawMedicalClaimsData The request to check
+	 * @return true if rawMedicalClaimsData certainly satisfies its constraints
+	 */
+	public boolean satisfiesConstraints(RawMedicalClaimsData rawMedicalClaimsData) {
+		return enabled
+				&& (rawMedicalClaimsData.getClaimList() != null)
+				&& (rawMedicalClaimsData.getChargeList() != null);
+	}
+
+	/**
+	 * This method checks a patient registration, including each of its patients, against
+	 * their constraints.
+	 *
+	 * @param patientRegistration The registration to check
+	 * @return true if patientRegistration certainly satisfies its constraints
+	 */
+	public boolean satisfiesConstraints(PatientRegistration patientRegistration) {
+
+		List<Patient> patientList = patientRegistration.getPatientList();
+		if (!enabled || (patientList == null)) {
+			return false;
+		}
+
+		long certainlyPastEpochDayBound = getCertainlyPastEpochDayBound();
+		for (int patientIndex = 0; patientIndex < patientList.size(); patientIndex++) {
+			Patient patient = patientList.get(patientIndex);
+
+			// A null patient is left to Bean Validation, which skips it
+			if ((patient == null) || !satisfiesConstraints(patient, certainlyPastEpochDayBound)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * This method checks an incremental validation request, including each of its patients,
+	 * claims and added charges, against their constraints.
+	 *
+	 * @param claimDeltaBatch The request to check
+	 * @return true if claimDeltaBatch certainly satisfies its constraints
+	 */
+	public boolean satisfiesConstraints(ClaimDeltaBatch claimDeltaBatch) {
+
+		if (!enabled) {
+			return false;
+		}
+
+		// Null elements are left to Bean Validation, which skips them
+		long certainlyPastEpochDayBound = getCertainlyPastEpochDayBound();
+		for (Patient patient : claimDeltaBatch.getPatientList()) {
+			if ((patient == null) || !satisfiesConstraints(patient, certainlyPastEpochDayBound)) {
+				return false;
+			}
+		}
+
+		for (Claim claim : claimDeltaBatch.getClaimList()) {
+			if ((claim == null) || !satisfiesConstraints(claim)) {
+				return false;
+			}
+		}
+
+		for (Charge charge : claimDeltaBatch.getAddedChargeList()) {
+			if ((charge == null) || !satisfiesConstraints(charge)) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	private static boolean satisfiesConstraints(Patient patient, long certainlyPastEpochDayBound) {
+		return (patient.getId() > 0)
+				&& (patient.getFirstName() != null)
+				&& (patient.getLastName() != null)
+				&& isCertainlyPast(patient.getBirthDate(), certainlyPastEpochDayBound);
+	}
+
+	/*
+	 * Return the epoch day of yesterday in UTC. Since local time zones differ from UTC by at
+	 * most 18 hours, today's date in any zone is at least yesterday's date in UTC, so a date
+	 * before it is in the past wherever Bean Validation's clock is.
+	 */
+	private long getCertainlyPastEpochDayBound() {
+		return Math.floorDiv(clock.millis(), MILLIS_PER_DAY) - 1L;
+	}
+
+	private static boolean isCertainlyPast(LocalDate date, long certainlyPastEpochDayBound) {
+		return (date != null) && (date.toEpochDay() < certainlyPastEpochDayBound);
+	}
+}
@@ -0,0 +1,121 @@
+package com.craighdav.medical_claims_validator.controller;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * This class is purposed to let a handler interceptor read a request body ahead of its
+ * binding.
+ *
+ * Class BufferedRequestBodyFilter wraps each request it filters in a BufferedBodyRequest,
+ * which reads nothing by itself. Once its body has been read with readBody, the request
+ * replays the buffered bytes to the message converters, or no bytes at all once the body
+ * has been discarded, so that a request answered without its batch is not bound. The filter
+ * is meant only for requests whose whole body is read into memory anyway.
+ */
+public final class BufferedRequestBodyFilter extends OncePerRequestFilter {
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+																		throws ServletException, IOException {
+		filterChain.doFilter(new BufferedBodyRequest(request), response);
+	}
+
+	/*
+	 * A request whose body, once read, is served from memory. A request is handled by one
+	 * thread at a time, so it is not thread-safe.
+	 */
+	static final class BufferedBodyRequest extends HttpServletRequestWrapper {
+
+		private static final byte[] NO_BYTES = new byte[0];
+
+		private byte[] body;
+
+		private BufferedBodyRequest(HttpServletRequest request) {
+			super(request);
+		}
+
+		byte[] readBody() throws IOException {
+			if (body == null) {
+				body = getRequest().getInputStream().readAllBytes();
+			}
+
+			return body;
+		}
+
+		void discardBody() {
+			body = NO_BYTES;
+		}
+
+		@Override
+		public ServletInputStream getInputStream() throws IOException {
+			return (body == null) ? super.getInputStream() : new BufferedServletInputStream(body);
+		}
+
+		@Override
+		public BufferedReader getReader() throws IOException {
+
+			if (body == null) {
+				return super.getReader();
+			}
+
+			// ISO-8859-1 is the Servlet specification's default request encoding
+			String characterEncoding = getCharacterEncoding();
+			Charset charset = (characterEncoding == null) ? StandardCharsets.ISO_8859_1
+								: Charset.forName(characterEncoding);
+
+			return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body), charset));
+		}
+	}
+
+	/*
+	 * A blocking ServletInputStream over a buffered body.
+	 */
+	private static final class BufferedServletInputStream extends ServletInputStream {
+
+		private final ByteArrayInputStream bodyStream;
+
+		private BufferedServletInputStream(byte[] body) {
+			this.bodyStream = new ByteArrayInputStream(body);
+		}
+
+		@Override
+		public int read() {
+			return bodyStream.read();
+		}
+
+		@Override
+		public int read(byte[] bytes, int offset, int length) {
+			return bodyStream.read(bytes, offset, length);
+		}
+
+		@Override
+		public boolean isFinished() {
+			return bodyStream.available() == 0;
+		}
+
+		@Override
+		public boolean isReady() {
+			return true;
+		}
+
+		@Override
+		public void setReadListener(ReadListener readListener) {
+			throw new UnsupportedOperationException("A buffered body is read blocking only");
+		}
+	}
+}
@@ -0,0 +1,71 @@
+package com.craighdav.medical_claims_validator.controller;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+
+import com.craighdav.medical_claims_validator.model.ProcessedMedicalClaimsData;
+import com.craighdav.medical_claims_validator.model.RawMedicalClaimsData;
+import com.craighdav.medical_claims_validator.wire.ClaimsBatchDecoder;
+import com.craighdav.medical_claims_validator.wire.ClaimsBatchEncoder;
+import com.craighdav.medical_claims_validator.wire.ClaimsBatchFormat;
+import com.craighdav.medical_claims_validator.wire.MalformedClaimsBatchException;
+
+/**
+ * This class is purposed to bind application/x-claims-batch bodies of POST /validateClaims.
+ * 
+ * Class ClaimsBatchHttpMessageConverter reads a RawMedicalClaimsData request body and writes
+ * a ProcessedMedicalClaimsData response body in ClaimsBatchFormat. Spring Boot registers it
+ * next to the JSON converter, so @Valid, the rule set header and the issues parameter apply
+ * to either format; a malformed frame is answered like malformed JSON, with 400 Bad Request.
+ */
+@Component
+public class ClaimsBatchHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+	public static final MediaType CLAIMS_BATCH = MediaType.parseMediaType(ClaimsBatchFormat.MEDIA_TYPE_VALUE);
+
+	private final ClaimsBatchEncoder claimsBatchEncoder = new ClaimsBatchEncoder();
+	private final ClaimsBatchDecoder claimsBatchDecoder = new ClaimsBatchDecoder();
+
+	public ClaimsBatchHttpMessageConverter() {
+		super(CLAIMS_BATCH);
+	}
+
+	@Override
+	protected boolean supports(Class<?> clazz) {
+		return RawMedicalClaimsData.class.equals(clazz) || ProcessedMedicalClaimsData.class.equals(clazz);
+	}
+
+	@Override
+	public boolean canRead(Class<?> clazz, MediaType mediaType) {
+		return RawMedicalClaimsData.class.equals(clazz) && canRead(mediaType);
+	}
+
+	@Override
+	public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+		return ProcessedMedicalClaimsData.class.equals(clazz) && canWrite(mediaType);
+	}
+
+	@Override
+	protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+		
+		try {
+			return claimsBatchDecoder.decodeClaims(inputMessage.getBody());
+		} catch (MalformedClaimsBatchException malformedClaimsBatchException) {
+			throw new HttpMessageNotReadableException(malformedClaimsBatchException.getMessage(), 
+														malformedClaimsBatchException, inputMessage);
+		}
+	}
+
+	@Override
+	protected void writeInternal(Object processedMedicalClaimsData, HttpOutputMessage outputMessage) 
+																				throws IOException {
+		claimsBatchEncoder.encodeResult((ProcessedMedicalClaimsData) processedMedicalClaimsData, 
+											outputMessage.getBody());
+	}
+}
@@ -1,32 +1,295 @@
 package com.craighdav.medical_claims_validator.controller;
 
+import java.io.InputStream;
+import java.net.URI;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.craighdav.medical_claims_validator.admission.AdmissionRejectedException;
+import com.craighdav.medical_claims_validator.admission.ChargeAdmissionLimiter;
+import com.craighdav.medical_claims_validator.admission.ChargeAdmissionLimiter.Permit;
+import com.craighdav.medical_claims_validator.admission.PermitReleasingInterceptor;
+import com.craighdav.medical_claims_validator.coordinator.ShardedValidationCoordinator;
+import com.craighdav.medical_claims_validator.coordinator.ShardedValidationException;
+import com.craighdav.medical_claims_validator.job.ValidationJobService;
+import com.craighdav.medical_claims_validator.model.ClaimDeltaBatch;
+import com.craighdav.medical_claims_validator.model.IncrementalValidationResult;
+import com.craighdav.medical_claims_validator.model.IssueFormat;
+import com.craighdav.medical_claims_validator.model.Patient;
+import com.craighdav.medical_claims_validator.model.PatientRegistration;
 import com.craighdav.medical_claims_validator.model.ProcessedMedicalClaimsData;
 import com.craighdav.medical_claims_validator.model.RawMedicalClaimsData;
-import com.craighdav.medical_claims_validator.service.MedicalClaimsValidatorService;
+import com.craighdav.medical_claims_validator.model.ValidationJobResultPage;
+import com.craighdav.medical_claims_validator.model.ValidationJobStatus;
+import com.craighdav.medical_claims_validator.model.ValidationJobStatus.State;
+import com.craighdav.medical_claims_validator.registry.PatientRegistry;
+import com.craighdav.medical_claims_validator.service.IncrementalClaimValidatorService;
+import com.craighdav.medical_claims_validator.service.MedicalClaimsStreamingValidatorService;
+import com.craighdav.medical_claims_validator.service.ValidationResultCache;
+import com.craighdav.medical_claims_validator.service.ValidationResultCache.ResultKey;
+import com.craighdav.medical_claims_validator.wire.ClaimsBatchFormat;
 
 import jakarta.validation.Valid;
 
 @RestController
 public class MedicalClaimsValidatorController {
-	private final MedicalClaimsValidatorService medicalClaimsValidatorService;
+	
+	// Response header naming the rule set version that produced the response
+	public static final String RULE_SET_VERSION_HEADER = "X-Rule-Set-Version";
+	
+	// The shortest NDJSON charge record, {"charge":{"id":1,"claimId":1,"procedureCode":1,"amount":1}},
+	// so that a stream's Content-Length bounds its number of charges
+	private static final long MIN_STREAM_CHARGE_BYTES = 56L;
+	
+	// Key of the interceptor releasing a stream's permit when its async processing ends
+	private static final String STREAM_PERMIT_INTERCEPTOR_KEY
+						= MedicalClaimsValidatorController.class.getName() + ".streamPermit";
+	
+	private final ValidationResultCache validationResultCache;
+	private final MedicalClaimsStreamingValidatorService medicalClaimsStreamingValidatorService;
+	private final IncrementalClaimValidatorService incrementalClaimValidatorService;
+	private final PatientRegistry patientRegistry;
+	private final ChargeAdmissionLimiter chargeAdmissionLimiter;
+	private final ValidationJobService validationJobService;
+	private final ShardedValidationCoordinator shardedValidationCoordinator;
 	
 	public MedicalClaimsValidatorController(
-							MedicalClaimsValidatorService medicalClaimsValidatorService) {
-		this.medicalClaimsValidatorService = medicalClaimsValidatorService;
+							ValidationResultCache validationResultCache,
+							MedicalClaimsStreamingValidatorService medicalClaimsStreamingValidatorService,
+							IncrementalClaimValidatorService incrementalClaimValidatorService,
+							PatientRegistry patientRegistry,
+							ChargeAdmissionLimiter chargeAdmissionLimiter,
+							ValidationJobService validationJobService,
+							ShardedValidationCoordinator shardedValidationCoordinator) {
+		this.validationResultCache = validationResultCache;
+		this.medicalClaimsStreamingValidatorService = medicalClaimsStreamingValidatorService;
+		this.incrementalClaimValidatorService = incrementalClaimValidatorService;
+		this.patientRegistry = patientRegistry;
+		this.chargeAdmissionLimiter = chargeAdmissionLimiter;
+		this.validationJobService = validationJobService;
+		this.shardedValidationCoordinator = shardedValidationCoordinator;
 	}
 	
-	@PostMapping("/validateClaims")
+	// JSON is listed first so that it remains the response format for "Accept: */*"; the
+	// request is admitted by the ChargeAdmissionInterceptor before its body is bound. The
+	// ResultCacheLookupInterceptor discards the body of a batch whose result is cached, so
+	// the body is optional here and only missing when no cached result stands in for it
+	@PostMapping(path = "/validateClaims",
+					produces = { MediaType.APPLICATION_JSON_VALUE, ClaimsBatchFormat.MEDIA_TYPE_VALUE })
 	public ResponseEntity<ProcessedMedicalClaimsData> validateMedicalClaims(
-							@Valid @RequestBody RawMedicalClaimsData rawMedicalClaimsData) {
+							@Valid @RequestBody(required = false) RawMedicalClaimsData rawMedicalClaimsData, 
+							@RequestParam(name = "issues", defaultValue = "text") IssueFormat issueFormat,
+							@RequestAttribute(name = ResultCacheLookupInterceptor.CACHED_RESULT_ATTRIBUTE,
+												required = false) ProcessedMedicalClaimsData cachedMedicalClaimsData,
+							@RequestAttribute(name = ResultCacheLookupInterceptor.RESULT_KEY_ATTRIBUTE,
+												required = false) ResultKey resultKey) {
+		
+		ProcessedMedicalClaimsData processedMedicalClaimsData;
+		if (cachedMedicalClaimsData != null) {
+			processedMedicalClaimsData = cachedMedicalClaimsData;
+		} else if (rawMedicalClaimsData == null) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Required request body is missing");
+		} else {
+			processedMedicalClaimsData = validationResultCache.validateMedicalClaims(rawMedicalClaimsData, resultKey);
+		}
+		
+		return ResponseEntity.ok()
+					.header(RULE_SET_VERSION_HEADER, processedMedicalClaimsData.getRuleSetVersion())
+					.body(processedMedicalClaimsData.withIssueFormat(issueFormat));
+	}
+	
+	// The shards go to POST /validateClaims of the shard nodes, so a node that is itself a
+	// coordinator does not shard them again
+	@PostMapping(path = "/validateClaims/sharded",
+					produces = { MediaType.APPLICATION_JSON_VALUE, ClaimsBatchFormat.MEDIA_TYPE_VALUE })
+	public ResponseEntity<ProcessedMedicalClaimsData> validateMedicalClaimsSharded(
+							@Valid @RequestBody RawMedicalClaimsData rawMedicalClaimsData, 
+							@RequestParam(name = "issues", defaultValue = "text") IssueFormat issueFormat) {
+		
+		if (!shardedValidationCoordinator.isEnabled()) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "No shard nodes are configured");
+		}
 		
 		ProcessedMedicalClaimsData processedMedicalClaimsData
-					= medicalClaimsValidatorService.validateMedicalClaims(rawMedicalClaimsData);
+					= shardedValidationCoordinator.validateMedicalClaims(rawMedicalClaimsData, issueFormat);
+		
+		return ResponseEntity.ok()
+					.header(RULE_SET_VERSION_HEADER, processedMedicalClaimsData.getRuleSetVersion())
+					.body(processedMedicalClaimsData);
+	}
+	
+	@PostMapping(path = "/validateClaims/stream",
+					consumes = MediaType.APPLICATION_NDJSON_VALUE,
+					produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> validateMedicalClaimsStream(
+							InputStream requestBodyStream, 
+							@RequestParam(name = "issues", defaultValue = "text") IssueFormat issueFormat,
+							@RequestHeader(name = HttpHeaders.CONTENT_LENGTH, required = false) Long contentLength,
+							NativeWebRequest nativeWebRequest) {
+		
+		// A chunked stream of unknown length is admitted as the largest batch
+		Permit permit = (contentLength == null) ? chargeAdmissionLimiter.admitUnknownSize()
+					: chargeAdmissionLimiter.admit(contentLength / MIN_STREAM_CHARGE_BYTES);
+		
+		// The permit is held until the response has been written on the async thread, and is
+		// also released when the async processing times out, fails or ends without running it
+		WebAsyncUtils.getAsyncManager(nativeWebRequest).registerCallableInterceptor(
+												STREAM_PERMIT_INTERCEPTOR_KEY, new PermitReleasingInterceptor(permit));
+		
+		StreamingResponseBody streamingResponseBody = responseBodyStream -> {
+			try (permit) {
+				medicalClaimsStreamingValidatorService.validateMedicalClaims(
+												requestBodyStream, responseBodyStream, issueFormat);
+			}
+		};
+		
+		return ResponseEntity.ok()
+					.contentType(MediaType.APPLICATION_NDJSON)
+					.body(streamingResponseBody);
+	}
+	
+	@PostMapping(path = "/validateClaims/incremental",
+					consumes = MediaType.APPLICATION_JSON_VALUE,
+					produces = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<IncrementalValidationResult> validateClaimDeltas(
+							@Valid @RequestBody ClaimDeltaBatch claimDeltaBatch, 
+							@RequestParam(name = "issues", defaultValue = "text") IssueFormat issueFormat) {
+		
+		IncrementalValidationResult incrementalValidationResult
+					= incrementalClaimValidatorService.validateClaimDeltas(claimDeltaBatch);
+		
+		return ResponseEntity.ok()
+					.header(RULE_SET_VERSION_HEADER, incrementalValidationResult.getRuleSetVersion())
+					.body(incrementalValidationResult.withIssueFormat(issueFormat));
+	}
+	
+	@PostMapping(path = "/jobs/validateClaims", produces = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<ValidationJobStatus> submitValidationJob(
+							@Valid @RequestBody RawMedicalClaimsData rawMedicalClaimsData, 
+							@RequestParam(name = "issues", defaultValue = "text") IssueFormat issueFormat) {
+		
+		ValidationJobStatus validationJobStatus = validationJobService.submit(rawMedicalClaimsData, issueFormat);
+		
+		return ResponseEntity.accepted()
+					.location(URI.create("/jobs/" + validationJobStatus.getJobId()))
+					.body(validationJobStatus);
+	}
+	
+	@GetMapping(path = "/jobs/{jobId}", produces = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<ValidationJobStatus> getValidationJobStatus(@PathVariable("jobId") String jobId) {
 		
-		return ResponseEntity.ok(processedMedicalClaimsData);
+		ValidationJobStatus validationJobStatus = validationJobService.getStatus(jobId);
+		
+		return (validationJobStatus == null) ? ResponseEntity.notFound().build() 
+					: ResponseEntity.ok(validationJobStatus);
+	}
+	
+	@GetMapping(path = "/jobs/{jobId}/results", produces = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<ValidationJobResultPage> getValidationJobResults(@PathVariable("jobId") String jobId,
+							@RequestParam(name = "page", defaultValue = "0") int page) {
+		
+		ValidationJobStatus validationJobStatus = validationJobService.getStatus(jobId);
+		if (validationJobStatus == null) {
+			return ResponseEntity.notFound().build();
+		}
+		
+		if (validationJobStatus.getState() != State.COMPLETED) {
+			throw new ResponseStatusException(HttpStatus.CONFLICT, 
+								"Validation job " + jobId + " is " + validationJobStatus.getState());
+		}
+		
+		if ((page < 0) || (page >= validationJobStatus.getPageCount())) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "Validation job " + jobId + " has no page " + page);
+		}
+		
+		ValidationJobResultPage validationJobResultPage = validationJobService.getResultPage(jobId, page);
+		
+		return (validationJobResultPage == null) ? ResponseEntity.notFound().build() 
+					: ResponseEntity.ok(validationJobResultPage);
+	}
+	
+	@PutMapping(path = "/patients", consumes = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<Void> registerPatients(@Valid @RequestBody PatientRegistration patientRegistration) {
+		
+		requirePatientRegistry();
+		patientRegistry.upsert(patientRegistration.getPatientList());
+		
+		return ResponseEntity.noContent().build();
+	}
+	
+	@GetMapping(path = "/patients/{patientId}", produces = MediaType.APPLICATION_JSON_VALUE)
+	public ResponseEntity<Patient> getRegisteredPatient(@PathVariable("patientId") long patientId) {
+		
+		requirePatientRegistry();
+		Patient patient = patientRegistry.findPatient(patientId);
+		
+		return (patient == null) ? ResponseEntity.notFound().build() : ResponseEntity.ok(patient);
+	}
+	
+	/**
+	 * This method rejects a request the ChargeAdmissionLimiter could not admit with status
+	 * 429 (Too Many Requests) and a Retry-After header in whole seconds.
+	 * 
+	 * @param admissionRejectedException The rejection of the request
+	 * @return A response without a body
+	 */
+	@ExceptionHandler(AdmissionRejectedException.class)
+	public ResponseEntity<Void> rejectRequest(AdmissionRejectedException admissionRejectedException) {
+		
+		long retryAfterSeconds = Math.max(1L, 
+					(admissionRejectedException.getRetryAfter().toMillis() + 999L) / 1000L);
+		
+		return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+					.header(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds))
+					.build();
+	}
+	
+	/**
+	 * This method fails a stream still running after spring.mvc.async.request-timeout with
+	 * status 503 (Service Unavailable). The response has no body, as an error body cannot be
+	 * written in the stream's NDJSON content type.
+	 * 
+	 * @param asyncRequestTimeoutException The timeout of the stream
+	 * @return A response without a body
+	 */
+	@ExceptionHandler(AsyncRequestTimeoutException.class)
+	public ResponseEntity<Void> failTimedOutStream(AsyncRequestTimeoutException asyncRequestTimeoutException) {
+		return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+	}
+	
+	/**
+	 * This method fails a sharded validation whose shards could not be validated by the
+	 * shard nodes with status 502 (Bad Gateway).
+	 * 
+	 * @param shardedValidationException The failure of the sharded validation
+	 * @return A response without a body
+	 */
+	@ExceptionHandler(ShardedValidationException.class)
+	public ResponseEntity<Void> failShardedValidation(ShardedValidationException shardedValidationException) {
+		return ResponseEntity.status(HttpStatus.BAD_GATEWAY).build();
+	}
+	
+	private void requirePatientRegistry() {
+		if (!patientRegistry.isEnabled()) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND, "The patient registry is not enabled");
+		}
 	}
 }
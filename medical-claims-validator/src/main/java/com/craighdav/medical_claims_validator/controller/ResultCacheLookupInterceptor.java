@@ -0,0 +1,70 @@
+package com.craighdav.medical_claims_validator.controller;
+
+import java.io.IOException;
+
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.util.WebUtils;
+
+import com.craighdav.medical_claims_validator.controller.BufferedRequestBodyFilter.BufferedBodyRequest;
+import com.craighdav.medical_claims_validator.model.ProcessedMedicalClaimsData;
+import com.craighdav.medical_claims_validator.service.ValidationResultCache;
+import com.craighdav.medical_claims_validator.service.ValidationResultCache.ResultKey;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * This class is purposed to answer a repeated claims batch from the ValidationResultCache
+ * before its body is bound.
+ *
+ * Class ResultCacheLookupInterceptor reads the body of a request wrapped by the
+ * BufferedRequestBodyFilter and looks up the result of its key. A cached result is set as
+ * the CACHED_RESULT_ATTRIBUTE and the body is discarded, so that the handler receives no
+ * batch; otherwise the key is set as the RESULT_KEY_ATTRIBUTE, for the handler to cache the
+ * result of the bound batch under. A result is only cached once its body has been bound and
+ * validated, so a body is never answered from the cache unless it would bind and validate.
+ *
+ * The interceptor must run after the ChargeAdmissionInterceptor, so that no body is read
+ * before its request has been admitted.
+ *
+ * This class is thread-safe.
+ */
+public final class ResultCacheLookupInterceptor implements HandlerInterceptor {
+
+	// Request attribute holding the cached result of the request's batch; constant
+	// expressions, as the handler names them in @RequestAttribute
+	public static final String CACHED_RESULT_ATTRIBUTE
+						= "com.craighdav.medical_claims_validator.controller.ResultCacheLookupInterceptor.cachedResult";
+
+	// Request attribute holding the key of the request's batch, when its result is not cached
+	public static final String RESULT_KEY_ATTRIBUTE
+						= "com.craighdav.medical_claims_validator.controller.ResultCacheLookupInterceptor.resultKey";
+
+	private final ValidationResultCache validationResultCache;
+
+	public ResultCacheLookupInterceptor(ValidationResultCache validationResultCache) {
+		this.validationResultCache = validationResultCache;
+	}
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+																		throws IOException {
+
+		BufferedBodyRequest bufferedBodyRequest = WebUtils.getNativeRequest(request, BufferedBodyRequest.class);
+		if ((bufferedBodyRequest == null) || !validationResultCache.isEnabled()) {
+			return true;
+		}
+
+		ResultKey resultKey = validationResultCache.createKey(request.getContentType(), bufferedBodyRequest.readBody());
+
+		ProcessedMedicalClaimsData cachedProcessedMedicalClaimsData = validationResultCache.getCachedResult(resultKey);
+		if (cachedProcessedMedicalClaimsData != null) {
+			bufferedBodyRequest.discardBody();
+			request.setAttribute(CACHED_RESULT_ATTRIBUTE, cachedProcessedMedicalClaimsData);
+		} else {
+			request.setAttribute(RESULT_KEY_ATTRIBUTE, resultKey);
+		}
+
+		return true;
+	}
+}
@@ -0,0 +1,634 @@
+package com.craighdav.medical_claims_validator.coordinator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.NetworkInterface;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpRequest.BodyPublishers;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.craighdav.medical_claims_validator.config.MedicalClaimsValidatorProperties;
+import com.craighdav.medical_claims_validator.model.Charge;
+import com.craighdav.medical_claims_validator.model.Claim;
+import com.craighdav.medical_claims_validator.model.ClaimIssue;
+import com.craighdav.medical_claims_validator.model.IssueCode;
+import com.craighdav.medical_claims_validator.model.IssueFormat;
+import com.craighdav.medical_claims_validator.model.Patient;
+import com.craighdav.medical_claims_validator.model.ProcessedMedicalClaimsData;
+import com.craighdav.medical_claims_validator.model.RawMedicalClaimsData;
+import com.craighdav.medical_claims_validator.service.MedicalClaimsValidatorService;
+import com.craighdav.medical_claims_validator.wire.ClaimsBatchDecoder;
+import com.craighdav.medical_claims_validator.wire.ClaimsBatchEncoder;
+import com.craighdav.medical_claims_validator.wire.ClaimsBatchFormat;
+import com.craighdav.medical_claims_validator.wire.ClaimsBatchResult;
+import com.craighdav.util.LongHashSet;
+import com.craighdav.util.LongIntHashMap;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * This class is purposed to validate a batch too large for one node by splitting it across
+ * several instances of the service and merging their results.
+ *
+ * Class ShardedValidationCoordinator splits a batch by patient ID into shardsPerNode shards
+ * per shard node. Every claim goes to the shard of its patient, every charge to the shard of
+ * its claim and every orphan charge to a shard chosen by its claim ID, so that each claim is
+ * validated with all of its charges and its patient on one node, exactly as on a single node.
+ * Each shard is sent to POST /validateClaims of a shard node in the binary claims batch
+ * format, and the results are merged into one ProcessedMedicalClaimsData.
+ *
+ * Every shard node pulls shards from a shared queue, so a faster or less loaded node takes
+ * more shards than a slower one. A shard whose request fails or times out is put back on
+ * the queue for the other nodes, and the failing node takes no further shards of the batch.
+ * The batch fails with ShardedValidationException once a shard has failed maxShardAttempts
+ * times, once no node is left, or if the nodes report different rule set versions.
+ *
+ * A node answering 429 (Too Many Requests) or 503 (Service Unavailable) is busy rather than
+ * failing: the shard is sent to it again after its Retry-After, without counting an attempt.
+ * A batch not validated within its deadline fails as well, so that a request waiting for
+ * busy nodes is not held indefinitely. Each node validates its shards in turn, so the
+ * deadline is shardTimeout times the number of shards per node, rounded up, plus the
+ * maxShardAttempts - 1 retries one of them may take.
+ *
+ * The merged result holds the issues in the format they were requested from the shard
+ * nodes, so it must be serialized with that format. Shard requests are counted in
+ * "claims.validation.shard.requests" (tag "result": success, failure or busy).
+ *
+ * This class is thread-safe.
+ */
+@Service
+public class ShardedValidationCoordinator {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ShardedValidationCoordinator.class);
+
+	// 2^64 divided by the golden ratio, spreading sequential patient IDs evenly over the shards
+	private static final long SHARD_HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+	// Time an idle node waits for a failed shard to be put back before checking for completion
+	private static final long SHARD_POLL_MILLIS = 20L;
+
+	// Time a busy node is given when its response carries no usable Retry-After header
+	private static final Duration DEFAULT_RETRY_AFTER = Duration.ofSeconds(1);
+
+	private final List<String> nodeUrlList;
+	private final int shardsPerNode;
+	private final int maxShardAttempts;
+	private final Duration shardTimeout;
+	private final MedicalClaimsValidatorService medicalClaimsValidatorService;
+
+	private final HttpClient httpClient;
+	private final ClaimsBatchEncoder claimsBatchEncoder = new ClaimsBatchEncoder();
+	private final ClaimsBatchDecoder claimsBatchDecoder = new ClaimsBatchDecoder();
+
+	private final Counter shardSuccessCounter;
+	private final Counter shardFailureCounter;
+	private final Counter shardBusyCounter;
+
+	@Autowired
+	public ShardedValidationCoordinator(MedicalClaimsValidatorProperties medicalClaimsValidatorProperties,
+											MedicalClaimsValidatorService medicalClaimsValidatorService,
+											MeterRegistry meterRegistry) {
+		this(medicalClaimsValidatorProperties.getCoordinatorNodeUrls(),
+				medicalClaimsValidatorProperties.getCoordinatorShardsPerNode(),
+				medicalClaimsValidatorProperties.getCoordinatorShardAttempts(),
+				medicalClaimsValidatorProperties.getCoordinatorShardTimeout(),
+				medicalClaimsValidatorService, meterRegistry);
+	}
+
+	public ShardedValidationCoordinator(List<String> nodeUrlList, int shardsPerNode, int maxShardAttempts,
+											Duration shardTimeout,
+											MedicalClaimsValidatorService medicalClaimsValidatorService,
+											MeterRegistry meterRegistry) {
+
+		// Base URLs are kept without a trailing slash, so that the endpoint path can be appended
+		List<String> normalizedNodeUrlList = new ArrayList<>();
+		for (String nodeUrl : nodeUrlList) {
+			String trimmedNodeUrl = nodeUrl.trim();
+			if (!trimmedNodeUrl.isEmpty()) {
+				String normalizedNodeUrl = trimmedNodeUrl.endsWith("/")
+									? trimmedNodeUrl.substring(0, trimmedNodeUrl.length() - 1) : trimmedNodeUrl;
+				requireHttpUrl(normalizedNodeUrl);
+				normalizedNodeUrlList.add(normalizedNodeUrl);
+			}
+		}
+
+		this.nodeUrlList = Collections.unmodifiableList(normalizedNodeUrlList);
+		this.shardsPerNode = Math.max(shardsPerNode, 1);
+		this.maxShardAttempts = Math.max(maxShardAttempts, 1);
+		this.shardTimeout = shardTimeout;
+		this.medicalClaimsValidatorService = medicalClaimsValidatorService;
+
+		this.httpClient = HttpClient.newBuilder()
+					.connectTimeout(shardTimeout)
+					.build();
+
+		this.shardSuccessCounter = Counter.builder("claims.validation.shard.requests")
+					.description("Shards sent to shard nodes by the sharded validation coordinator")
+					.tag("result", "success")
+					.register(meterRegistry);
+		this.shardFailureCounter = Counter.builder("claims.validation.shard.requests")
+					.description("Shards sent to shard nodes by the sharded validation coordinator")
+					.tag("result", "failure")
+					.register(meterRegistry);
+		this.shardBusyCounter = Counter.builder("claims.validation.shard.requests")
+					.description("Shards sent to shard nodes by the sharded validation coordinator")
+					.tag("result", "busy")
+					.register(meterRegistry);
+	}
+
+	public boolean isEnabled() {
+		return !nodeUrlList.isEmpty();
+	}
+
+	/**
+	 * This method rejects a node list that contains this instance once its web server is up.
+	 *
+	 * Method rejectLocalNodeUrls is called with the port the server has bound. A shard sent to
+	 * this instance would wait for the admission permit the coordinating request itself holds,
+	 * so a node URL naming a local address on that port fails the startup.
+	 *
+	 * @param webServerInitializedEvent The event carrying the local port
+	 * @throws IllegalStateException If a node URL names this instance
+	 */
+	@EventListener
+	public void rejectLocalNodeUrls(WebServerInitializedEvent webServerInitializedEvent) {
+		rejectLocalNodeUrls(webServerInitializedEvent.getWebServer().getPort());
+	}
+
+	/**
+	 * This method rejects a node list that contains an instance listening on localPort of
+	 * this host.
+	 *
+	 * @param localPort The port this instance listens on
+	 * @throws IllegalStateException If a node URL names this instance
+	 */
+	public void rejectLocalNodeUrls(int localPort) {
+		for (String nodeUrl : nodeUrlList) {
+			URI nodeUri = URI.create(nodeUrl);
+			int nodePort = (nodeUri.getPort() >= 0) ? nodeUri.getPort()
+						: ("https".equalsIgnoreCase(nodeUri.getScheme()) ? 443 : 80);
+
+			if ((nodePort == localPort) && isLocalHost(nodeUri.getHost())) {
+				throw new IllegalStateException("Shard node " + nodeUrl + " is this coordinator");
+			}
+		}
+	}
+
+	/**
+	 * This method validates a claims batch on the shard nodes.
+	 *
+	 * Method validateMedicalClaims first resolves registered patients on this node, then
+	 * splits the batch, validates the shards and merges their results. The result is the one
+	 * a single node validating the whole batch returns, provided every node has the same rule
+	 * set, and clock date, as this one.
+	 *
+	 * @param rawMedicalClaimsData The batch to validate
+	 * @param issueFormat The format of the issues requested from the shard nodes
+	 * @return The merged results, to be serialized with issueFormat
+	 * @throws IllegalStateException If a patient ID or claim ID occurs more than once
+	 * @throws ShardedValidationException If a shard cannot be validated by any shard node in time
+	 */
+	public ProcessedMedicalClaimsData validateMedicalClaims(RawMedicalClaimsData rawMedicalClaimsData,
+																IssueFormat issueFormat) {
+
+		List<Shard> shardList = splitByPatient(medicalClaimsValidatorService.addRegisteredPatients(rawMedicalClaimsData),
+													nodeUrlList.size() * shardsPerNode);
+
+		ClaimsBatchResult[] claimsBatchResults = validateShards(shardList, issueFormat);
+
+		return mergeResults(claimsBatchResults, issueFormat);
+	}
+
+	/*
+	 * Split a batch into at most shardCount encoded shards; shards without claims and
+	 * charges are left out, as there is nothing for them to validate.
+	 */
+	private List<Shard> splitByPatient(RawMedicalClaimsData rawMedicalClaimsData, int shardCount) {
+
+		List<List<Patient>> shardPatientLists = new ArrayList<>(shardCount);
+		List<List<Claim>> shardClaimLists = new ArrayList<>(shardCount);
+		List<List<Charge>> shardChargeLists = new ArrayList<>(shardCount);
+		for (int shardIndex = 0; shardIndex < shardCount; shardIndex++) {
+			shardPatientLists.add(new ArrayList<>());
+			shardClaimLists.add(new ArrayList<>());
+			shardChargeLists.add(new ArrayList<>());
+		}
+
+		// Duplicate IDs are rejected here as a single node would, rather than by a shard node
+		List<Patient> patientList = rawMedicalClaimsData.getPatientList();
+		LongHashSet patientIdSet = new LongHashSet(patientList.size());
+		for (Patient patient : patientList) {
+			if (!patientIdSet.add(patient.getId())) {
+				throw new IllegalStateException("Duplicate key " + patient.getId());
+			}
+
+			shardPatientLists.get(getShardIndex(patient.getId(), shardCount)).add(patient);
+		}
+
+		List<Claim> claimList = rawMedicalClaimsData.getClaimList();
+		LongIntHashMap claimShardMap = new LongIntHashMap(claimList.size());
+		for (Claim claim : claimList) {
+			int shardIndex = getShardIndex(claim.getPatientId(), shardCount);
+
+			if (!claimShardMap.put(claim.getId(), shardIndex)) {
+				throw new IllegalStateException("Duplicate key " + claim.getId());
+			}
+
+			shardClaimLists.get(shardIndex).add(claim);
+		}
+
+		// Orphan charges of one claim ID share a shard, so that their duplicates are found
+		for (Charge charge : rawMedicalClaimsData.getChargeList()) {
+			int shardIndex = claimShardMap.getOrDefault(charge.getClaimId(), -1);
+			if (shardIndex < 0) {
+				shardIndex = getShardIndex(charge.getClaimId(), shardCount);
+			}
+
+			shardChargeLists.get(shardIndex).add(charge);
+		}
+
+		List<Shard> shardList = new ArrayList<>(shardCount);
+		for (int shardIndex = 0; shardIndex < shardCount; shardIndex++) {
+			if (shardClaimLists.get(shardIndex).isEmpty() && shardChargeLists.get(shardIndex).isEmpty()) {
+				continue;
+			}
+
+			shardList.add(new Shard(shardList.size(), encodeShard(new RawMedicalClaimsData(
+						shardPatientLists.get(shardIndex), shardClaimLists.get(shardIndex),
+						shardChargeLists.get(shardIndex)))));
+		}
+
+		return shardList;
+	}
+
+	private static void requireHttpUrl(String nodeUrl) {
+
+		URI nodeUri;
+		try {
+			nodeUri = new URI(nodeUrl);
+		} catch (URISyntaxException uriSyntaxException) {
+			throw new IllegalArgumentException("Invalid shard node URL " + nodeUrl, uriSyntaxException);
+		}
+
+		boolean isHttpScheme = "http".equalsIgnoreCase(nodeUri.getScheme())
+								|| "https".equalsIgnoreCase(nodeUri.getScheme());
+		if (!isHttpScheme || (nodeUri.getHost() == null)) {
+			throw new IllegalArgumentException("Shard node URL " + nodeUrl + " is not an http(s) URL with a host");
+		}
+	}
+
+	/*
+	 * A host that resolves to a loopback address or to an address of one of this host's
+	 * interfaces; a host that does not resolve is not local.
+	 */
+	private static boolean isLocalHost(String host) {
+		try {
+			for (InetAddress inetAddress : InetAddress.getAllByName(host)) {
+				if (inetAddress.isLoopbackAddress() || inetAddress.isAnyLocalAddress()
+						|| (NetworkInterface.getByInetAddress(inetAddress) != null)) {
+					return true;
+				}
+			}
+		} catch (IOException ioException) {
+			// Neither UnknownHostException nor SocketException makes the host local
+		}
+
+		return false;
+	}
+
+	private static int getShardIndex(long id, int shardCount) {
+		return (int) (((id * SHARD_HASH_MULTIPLIER) >>> 1) % shardCount);
+	}
+
+	private byte[] encodeShard(RawMedicalClaimsData shardMedicalClaimsData) {
+
+		ByteArrayOutputStream shardOutputStream = new ByteArrayOutputStream();
+		try {
+			claimsBatchEncoder.encodeClaims(shardMedicalClaimsData, shardOutputStream);
+		} catch (IOException ioException) {
+			// A ByteArrayOutputStream does not throw
+			throw new UncheckedIOException(ioException);
+		}
+
+		return shardOutputStream.toByteArray();
+	}
+
+	/*
+	 * Validate every shard on the shard nodes, one virtual thread per node pulling shards
+	 * from a shared queue, and return the results in shard order.
+	 */
+	private ClaimsBatchResult[] validateShards(List<Shard> shardList, IssueFormat issueFormat) {
+
+		ClaimsBatchResult[] claimsBatchResults = new ClaimsBatchResult[shardList.size()];
+		ShardDispatch shardDispatch = new ShardDispatch(shardList, nodeUrlList.size());
+
+		ExecutorService nodeExecutor = Executors.newVirtualThreadPerTaskExecutor();
+		try {
+			for (String nodeUrl : nodeUrlList) {
+				nodeExecutor.execute(() -> validateShardsOnNode(nodeUrl, shardDispatch, claimsBatchResults, issueFormat));
+			}
+
+			// Busy nodes may keep a shard waiting, so the batch as a whole has a deadline
+			long batchTimeoutMillis = getBatchTimeout(shardList.size()).toMillis();
+			if (!shardDispatch.remainingShardLatch.await(batchTimeoutMillis, TimeUnit.MILLISECONDS)) {
+				shardDispatch.failBatch(new ShardedValidationException(
+							"Shards not validated within " + Duration.ofMillis(batchTimeoutMillis)));
+			}
+		} catch (InterruptedException interruptedException) {
+			Thread.currentThread().interrupt();
+			throw new ShardedValidationException("Interrupted while waiting for the shard nodes", interruptedException);
+		} finally {
+			// Requests still in flight after a failure are abandoned
+			nodeExecutor.shutdownNow();
+		}
+
+		ShardedValidationException shardedValidationException = shardDispatch.failureReference.get();
+		if (shardedValidationException != null) {
+			throw shardedValidationException;
+		}
+
+		return claimsBatchResults;
+	}
+
+	/*
+	 * The time a batch of shardCount shards may take: each node validates its share of the
+	 * shards one after the other, and one shard may be retried maxShardAttempts - 1 times.
+	 */
+	private Duration getBatchTimeout(int shardCount) {
+
+		int nodeCount = nodeUrlList.size();
+		int shardsPerNodeCount = (shardCount + nodeCount - 1) / nodeCount;
+
+		return shardTimeout.multipliedBy(shardsPerNodeCount + maxShardAttempts - 1L);
+	}
+
+	/*
+	 * Take shards from the queue and validate them on one node until every shard has been
+	 * validated. After a failure the shard is put back for the other nodes, and this node
+	 * leaves the batch.
+	 */
+	private void validateShardsOnNode(String nodeUrl, ShardDispatch shardDispatch,
+										ClaimsBatchResult[] claimsBatchResults, IssueFormat issueFormat) {
+
+		while (shardDispatch.remainingShardLatch.getCount() > 0) {
+			Shard shard;
+			try {
+				shard = shardDispatch.pendingShardQueue.poll(SHARD_POLL_MILLIS, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException interruptedException) {
+				return;
+			}
+
+			if (shard == null) {
+				continue;
+			}
+
+			try {
+				claimsBatchResults[shard.index] = validateShard(nodeUrl, shard, issueFormat);
+			} catch (InterruptedException interruptedException) {
+				return;
+			} catch (IOException | RuntimeException exception) {
+				// A RuntimeException (e.g. a malformed response) fails the shard as well, so
+				// that the batch never waits for a node thread that has died
+				shardFailureCounter.increment();
+				shardDispatch.failShard(nodeUrl, shard, maxShardAttempts, exception);
+				return;
+			}
+
+			shardSuccessCounter.increment();
+			shardDispatch.remainingShardLatch.countDown();
+		}
+	}
+
+	private ClaimsBatchResult validateShard(String nodeUrl, Shard shard, IssueFormat issueFormat)
+																		throws IOException, InterruptedException {
+
+		HttpRequest httpRequest = HttpRequest.newBuilder(URI.create(nodeUrl + "/validateClaims?issues="
+											+ issueFormat.name().toLowerCase(Locale.ROOT)))
+					.timeout(shardTimeout)
+					.header("Content-Type", ClaimsBatchFormat.MEDIA_TYPE_VALUE)
+					.header("Accept", ClaimsBatchFormat.MEDIA_TYPE_VALUE)
+					.POST(BodyPublishers.ofByteArray(shard.encodedBatch))
+					.build();
+
+		// A busy node is asked again after its Retry-After; the batch deadline bounds the waits
+		while (true) {
+			HttpResponse<InputStream> httpResponse = httpClient.send(httpRequest, BodyHandlers.ofInputStream());
+
+			try (InputStream responseBodyStream = httpResponse.body()) {
+				int statusCode = httpResponse.statusCode();
+
+				if ((statusCode == 429) || (statusCode == 503)) {
+					shardBusyCounter.increment();
+				} else if (statusCode != 200) {
+					throw new IOException("Shard node " + nodeUrl + " answered with status " + statusCode);
+				} else {
+					return claimsBatchDecoder.decodeResult(responseBodyStream);
+				}
+			}
+
+			Thread.sleep(getRetryAfter(httpResponse).toMillis());
+		}
+	}
+
+	/*
+	 * The delay-seconds form of a Retry-After header, which is the form the service sends,
+	 * capped at the shard timeout.
+	 */
+	private Duration getRetryAfter(HttpResponse<?> httpResponse) {
+
+		Duration retryAfter = DEFAULT_RETRY_AFTER;
+		String retryAfterValue = httpResponse.headers().firstValue("Retry-After").orElse(null);
+		if (retryAfterValue != null) {
+			try {
+				retryAfter = Duration.ofSeconds(Math.max(Long.parseLong(retryAfterValue.trim()), 0L));
+			} catch (NumberFormatException numberFormatException) {
+				// An HTTP date is not expected from a shard node; the default applies
+			}
+		}
+
+		return (retryAfter.compareTo(shardTimeout) > 0) ? shardTimeout : retryAfter;
+	}
+
+	/*
+	 * Merge the shard results, which hold disjoint sets of claims, checking that every shard
+	 * was validated with the same rule set.
+	 */
+	private ProcessedMedicalClaimsData mergeResults(ClaimsBatchResult[] claimsBatchResults, IssueFormat issueFormat) {
+
+		String ruleSetVersion = null;
+		Set<Long> validClaimIdSet = new HashSet<>();
+		Map<Long, List<ClaimIssue>> invalidClaimIssueMap = new HashMap<>();
+
+		for (ClaimsBatchResult claimsBatchResult : claimsBatchResults) {
+			if (ruleSetVersion == null) {
+				ruleSetVersion = claimsBatchResult.getRuleSetVersion();
+			} else if (!ruleSetVersion.equals(claimsBatchResult.getRuleSetVersion())) {
+				throw new ShardedValidationException("Shard nodes validated with different rule sets: "
+										+ ruleSetVersion + " and " + claimsBatchResult.getRuleSetVersion());
+			}
+
+			validClaimIdSet.addAll(claimsBatchResult.getValidClaimIdSet());
+
+			if (issueFormat == IssueFormat.CODES) {
+				claimsBatchResult.getInvalidClaimIssueCodeMap().forEach((claimId, issueCodeSet) -> {
+					List<ClaimIssue> claimIssueList = new ArrayList<>(issueCodeSet.size());
+					for (IssueCode issueCode : issueCodeSet) {
+						claimIssueList.add(new ShardClaimIssue(null, issueCode));
+					}
+					invalidClaimIssueMap.put(claimId, claimIssueList);
+				});
+			} else {
+				claimsBatchResult.getInvalidClaimWithIssuesMap().forEach((claimId, issueSet) -> {
+					List<ClaimIssue> claimIssueList = new ArrayList<>(issueSet.size());
+					for (String issue : issueSet) {
+						claimIssueList.add(new ShardClaimIssue(issue, null));
+					}
+					invalidClaimIssueMap.put(claimId, claimIssueList);
+				});
+			}
+		}
+
+		// A batch without claims or charges was not sent to any node
+		if (ruleSetVersion == null) {
+			ruleSetVersion = medicalClaimsValidatorService.getRuleSet().getVersion();
+		}
+
+		return new ProcessedMedicalClaimsData(
+					Collections.unmodifiableSet(validClaimIdSet),
+					Collections.unmodifiableMap(invalidClaimIssueMap),
+					ruleSetVersion).withIssueFormat(issueFormat);
+	}
+
+
+	/*
+	 * One shard of a batch, encoded once and resent as is on every attempt. The attempt count
+	 * is only updated by the node holding the shard, which the queue hands over safely.
+	 */
+	private static final class Shard {
+
+		private final int index;
+		private final byte[] encodedBatch;
+		private int attemptCount;
+
+		private Shard(int index, byte[] encodedBatch) {
+			this.index = index;
+			this.encodedBatch = encodedBatch;
+		}
+	}
+
+	/*
+	 * The state the nodes of one batch share: the shards waiting for a node, a latch released
+	 * once every shard has been validated (or the batch has failed), and the first failure.
+	 */
+	private static final class ShardDispatch {
+
+		private final LinkedBlockingQueue<Shard> pendingShardQueue;
+		private final CountDownLatch remainingShardLatch;
+		private final AtomicInteger availableNodeCount;
+		private final AtomicReference<ShardedValidationException> failureReference = new AtomicReference<>();
+
+		private ShardDispatch(List<Shard> shardList, int nodeCount) {
+			this.pendingShardQueue = new LinkedBlockingQueue<>(shardList);
+			this.remainingShardLatch = new CountDownLatch(shardList.size());
+			this.availableNodeCount = new AtomicInteger(nodeCount);
+		}
+
+		/*
+		 * Put a failed shard back for the other nodes, or fail the batch when the shard has
+		 * used up its attempts or the failing node was the last one available.
+		 */
+		private void failShard(String nodeUrl, Shard shard, int maxShardAttempts, Exception exception) {
+
+			shard.attemptCount++;
+			LOGGER.warn("Shard {} failed on {} (attempt {} of {}): {}", shard.index, nodeUrl, shard.attemptCount,
+							maxShardAttempts, exception.toString());
+
+			if (shard.attemptCount >= maxShardAttempts) {
+				failBatch(new ShardedValidationException(
+							"Shard " + shard.index + " failed on " + shard.attemptCount + " attempts", exception));
+			} else if (availableNodeCount.decrementAndGet() == 0) {
+				failBatch(new ShardedValidationException("No shard node is left to validate the batch", exception));
+			} else {
+				pendingShardQueue.add(shard);
+			}
+		}
+
+		private void failBatch(ShardedValidationException shardedValidationException) {
+
+			failureReference.compareAndSet(null, shardedValidationException);
+
+			while (remainingShardLatch.getCount() > 0) {
+				remainingShardLatch.countDown();
+			}
+		}
+	}
+
+	/*
+	 * An issue received from a shard node, already rendered (TEXT) or as its code (CODES).
+	 * It only holds the format it was requested in.
+	 */
+	private static final class ShardClaimIssue extends ClaimIssue {
+
+		private final String message;
+		private final IssueCode issueCode;
+
+		private ShardClaimIssue(String message, IssueCode issueCode) {
+			this.message = message;
+			this.issueCode = issueCode;
+		}
+
+		@Override
+		public void renderMessage(StringBuilder issueBuilder) {
+			if (message != null) {
+				issueBuilder.append(message);
+			}
+		}
+
+		@Override
+		public void addIssueCodes(Collection<IssueCode> issueCodes) {
+			if (issueCode != null) {
+				issueCodes.add(issueCode);
+			}
+		}
+
+		@Override
+		public void forEachRuleId(Consumer<String> ruleIdConsumer) {
+			if (issueCode != null) {
+				ruleIdConsumer.accept(issueCode.getRuleId());
+			}
+		}
+	}
+}
@@ -0,0 +1,19 @@
+package com.craighdav.medical_claims_validator.coordinator;
+
+/**
+ * ShardedValidationException is thrown when a batch split across shard nodes cannot be
+ * validated: a shard failed on every attempt, no shard node is left to take it, or the shard
+ * nodes validated with different rule sets.
+ */
+public class ShardedValidationException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public ShardedValidationException(String message) {
+		super(message);
+	}
+
+	public ShardedValidationException(String message, Throwable cause) {
+		super(message, cause);
+	}
+}
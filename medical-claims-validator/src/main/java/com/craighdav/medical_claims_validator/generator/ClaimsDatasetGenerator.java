@@ -0,0 +1,315 @@
+package com.craighdav.medical_claims_validator.generator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import com.craighdav.medical_claims_validator.generator.ClaimsDatasetOptions.OutputFormat;
+import com.craighdav.medical_claims_validator.model.Charge;
+import com.craighdav.medical_claims_validator.model.Claim;
+import com.craighdav.medical_claims_validator.model.Patient;
+import com.craighdav.medical_claims_validator.model.RawMedicalClaimsData;
+import com.craighdav.medical_claims_validator.wire.ClaimsBatchEncoder;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * This class is purposed to generate synthetic claims datasets for load and scale testing.
+ * 
+ * Class ClaimsDatasetGenerator writes RawMedicalClaimsData-compatible JSON, or NDJSON for the
+ * streaming endpoint, directly to an output stream with the Jackson streaming generator, so
+ * files of any size can be produced without holding the dataset in memory.
+ * 
+ * Every patient and every claim (together with its charges) is derived from its own random
+ * stream, seeded from the dataset seed and the patient or claim ID. The output is therefore
+ * fully determined by ClaimsDatasetOptions, and the claims section and the charges section
+ * of a JSON document can be written in two separate passes that agree with each other.
+ */
+public class ClaimsDatasetGenerator {
+
+	private static final long PATIENT_STREAM = 1L;
+	private static final long CLAIM_STREAM = 2L;
+	
+	private static final int[] THRESHOLD_AGES = { 17, 18, 39, 40 };
+	private static final int[] OTHER_LEADING_DIGITS = { 1, 2, 3, 4, 5, 7, 8 };
+	private static final String[] NON_OFFICE_PLACES_OF_SERVICE = { "hospital", "home" };
+
+	private final ClaimsDatasetOptions options;
+
+	/**
+	 * ClaimConsumer accepts a generated claim together with the charges generated in its slot.
+	 * Orphan charges in chargeList reference a claim ID other than claim.getId().
+	 */
+	@FunctionalInterface
+	private interface ClaimConsumer {
+		void accept(Claim claim, List<Charge> chargeList) throws IOException;
+	}
+
+	/**
+	 * @param options The dataset settings; they are validated here and must not be changed
+	 *                while the generator is in use
+	 */
+	public ClaimsDatasetGenerator(ClaimsDatasetOptions options) {
+		options.validate();
+		
+		this.options = options;
+	}
+
+	/**
+	 * This method writes the dataset to outputStream in the configured format.
+	 * 
+	 * Method generate writes JSON and NDJSON records as they are generated and never holds
+	 * more than one claim's charges in memory. The columnar BINARY format needs every value
+	 * of a column before the next column, so that dataset is built in memory first. The
+	 * output stream is flushed but not closed.
+	 * 
+	 * @param outputStream The destination of the JSON, NDJSON or BINARY dataset
+	 * @throws IOException If the output cannot be written
+	 */
+	public void generate(OutputStream outputStream) throws IOException {
+		
+		if (options.getFormat() == OutputFormat.BINARY) {
+			new ClaimsBatchEncoder().encodeClaims(generateRawMedicalClaimsData(), outputStream);
+			return;
+		}
+		
+		try (JsonGenerator generator = new JsonFactory().createGenerator(outputStream, JsonEncoding.UTF8)) {
+			generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+			
+			if (options.getFormat() == OutputFormat.NDJSON) {
+				generateNdjson(generator);
+			} else {
+				generateJson(generator);
+			}
+		}
+	}
+
+	/**
+	 * This method builds the dataset in memory, e.g. for tests and benchmarks.
+	 * 
+	 * @return The same patients, claims and charges that generate would write
+	 */
+	public RawMedicalClaimsData generateRawMedicalClaimsData() {
+		
+		List<Patient> patientList = new ArrayList<>(options.getPatientCount());
+		List<Claim> claimList = new ArrayList<>(options.getClaimCount());
+		List<Charge> allChargeList = new ArrayList<>();
+		
+		for (long patientId = 1; patientId <= options.getPatientCount(); patientId++) {
+			patientList.add(createPatient(patientId));
+		}
+		
+		try {
+			forEachClaim((claim, chargeList) -> {
+				claimList.add(claim);
+				allChargeList.addAll(chargeList);
+			});
+		} catch (IOException ioException) {
+			// Only writing to an output stream can fail
+			throw new IllegalStateException(ioException);
+		}
+		
+		return new RawMedicalClaimsData(patientList, claimList, allChargeList);
+	}
+
+	private void generateJson(JsonGenerator generator) throws IOException {
+		
+		generator.writeStartObject();
+		
+		generator.writeArrayFieldStart("patients");
+		for (long patientId = 1; patientId <= options.getPatientCount(); patientId++) {
+			writePatient(generator, createPatient(patientId));
+		}
+		generator.writeEndArray();
+		
+		generator.writeArrayFieldStart("claims");
+		forEachClaim((claim, chargeList) -> writeClaim(generator, claim));
+		generator.writeEndArray();
+		
+		generator.writeArrayFieldStart("charges");
+		forEachClaim((claim, chargeList) -> {
+			for (Charge charge : chargeList) {
+				writeCharge(generator, charge);
+			}
+		});
+		generator.writeEndArray();
+		
+		generator.writeEndObject();
+	}
+
+	private void generateNdjson(JsonGenerator generator) throws IOException {
+		
+		// Records are separated by the newline written after each one
+		generator.setRootValueSeparator(null);
+		
+		for (long patientId = 1; patientId <= options.getPatientCount(); patientId++) {
+			generator.writeStartObject();
+			generator.writeFieldName("patient");
+			writePatient(generator, createPatient(patientId));
+			generator.writeEndObject();
+			generator.writeRaw('\n');
+		}
+		
+		forEachClaim((claim, chargeList) -> {
+			generator.writeStartObject();
+			generator.writeFieldName("claim");
+			writeClaim(generator, claim);
+			generator.writeEndObject();
+			generator.writeRaw('\n');
+			
+			for (Charge charge : chargeList) {
+				generator.writeStartObject();
+				generator.writeFieldName("charge");
+				writeCharge(generator, charge);
+				generator.writeEndObject();
+				generator.writeRaw('\n');
+			}
+		});
+	}
+
+	/*
+	 * Generate the claims in ID order. Charge IDs are assigned sequentially across claims, so
+	 * every pass over the claims yields identical charges.
+	 */
+	private void forEachClaim(ClaimConsumer claimConsumer) throws IOException {
+		
+		int claimCount = options.getClaimCount();
+		List<Charge> chargeList = new ArrayList<>(options.getMaxChargesPerClaim());
+		long chargeId = 1;
+		
+		for (long claimId = 1; claimId <= claimCount; claimId++) {
+			SplittableRandom random = new SplittableRandom(streamSeed(CLAIM_STREAM, claimId));
+			
+			long patientId = 1 + random.nextInt(options.getPatientCount());
+			String placeOfService = (random.nextDouble() < options.getOfficeShare())
+						? "office"
+						: NON_OFFICE_PLACES_OF_SERVICE[random.nextInt(NON_OFFICE_PLACES_OF_SERVICE.length)];
+			LocalDate serviceDate = options.getReferenceDate().minusDays(1 + random.nextInt(365));
+			
+			int claimChargeCount = nextChargeCount(random);
+			boolean hasDuplicate = (claimChargeCount > 1) && (random.nextDouble() < options.getDuplicateRate());
+			
+			chargeList.clear();
+			long firstProcedureCode = 0L;
+			
+			for (int position = 0; position < claimChargeCount; position++) {
+				long procedureCode = (hasDuplicate && position == claimChargeCount - 1)
+										? firstProcedureCode
+										: nextProcedureCode(random);
+				if (position == 0) {
+					firstProcedureCode = procedureCode;
+				}
+				
+				long chargeClaimId = (random.nextDouble() < options.getOrphanRate())
+										? claimCount + 1L + random.nextInt(claimCount)
+										: claimId;
+				
+				chargeList.add(new Charge(chargeId++, chargeClaimId, procedureCode, 10 + random.nextInt(5_000)));
+			}
+			
+			claimConsumer.accept(new Claim(claimId, patientId, serviceDate, placeOfService), chargeList);
+		}
+	}
+
+	/*
+	 * Patients are aged exactly 17, 18, 39 or 40 with thresholdAgeShare, otherwise under 18,
+	 * 18 to 39 or 40 to 90. The birth date is drawn so that the patient has exactly that age
+	 * on the reference date and is never born on the reference date itself.
+	 */
+	private Patient createPatient(long patientId) {
+		
+		SplittableRandom random = new SplittableRandom(streamSeed(PATIENT_STREAM, patientId));
+		int age;
+		
+		if (random.nextDouble() < options.getThresholdAgeShare()) {
+			age = THRESHOLD_AGES[random.nextInt(THRESHOLD_AGES.length)];
+		} else {
+			double ageBand = random.nextDouble();
+			
+			if (ageBand < options.getUnder18Share()) {
+				age = random.nextInt(18);
+			} else if (ageBand < options.getUnder18Share() + options.getOver39Share()) {
+				age = 40 + random.nextInt(51);
+			} else {
+				age = 18 + random.nextInt(22);
+			}
+		}
+		
+		LocalDate referenceDate = options.getReferenceDate();
+		LocalDate earliestBirthDate = referenceDate.minusYears(age + 1L).plusDays(1);
+		LocalDate latestBirthDate = referenceDate.minusYears(age).minusDays(1);
+		long birthDateRange = ChronoUnit.DAYS.between(earliestBirthDate, latestBirthDate) + 1;
+		LocalDate birthDate = earliestBirthDate.plusDays(random.nextLong(birthDateRange));
+		
+		return new Patient(patientId, "First" + patientId, "Last" + patientId, birthDate);
+	}
+
+	/*
+	 * With a skew of 0 the count is uniform between 1 and maxChargesPerClaim; raising u to a
+	 * higher power moves most claims towards a single charge while keeping a long tail.
+	 */
+	private int nextChargeCount(SplittableRandom random) {
+		
+		int maxChargesPerClaim = options.getMaxChargesPerClaim();
+		double skewedFraction = Math.pow(random.nextDouble(), 1.0 + options.getChargesPerClaimSkew());
+		
+		return Math.min(maxChargesPerClaim, 1 + (int) (maxChargesPerClaim * skewedFraction));
+	}
+
+	private long nextProcedureCode(SplittableRandom random) {
+		
+		double codeFamily = random.nextDouble();
+		
+		if (codeFamily < options.getProcedureCode9Share()) {
+			if (random.nextDouble() < options.getAgeRestrictedShare()) {
+				return random.nextBoolean() ? 99129L : 99396L;
+			}
+			
+			return 90_000L + random.nextInt(10_000);
+		}
+		
+		if (codeFamily < options.getProcedureCode9Share() + options.getProcedureCode6Share()) {
+			return 60_000L + random.nextInt(10_000);
+		}
+		
+		int leadingDigit = OTHER_LEADING_DIGITS[random.nextInt(OTHER_LEADING_DIGITS.length)];
+		
+		return leadingDigit * 10_000L + random.nextInt(10_000);
+	}
+
+	private long streamSeed(long stream, long id) {
+		return (options.getSeed() * 0x9E3779B97F4A7C15L) + (stream * 0xC2B2AE3D27D4EB4FL) + id;
+	}
+
+	private static void writePatient(JsonGenerator generator, Patient patient) throws IOException {
+		generator.writeStartObject();
+		generator.writeNumberField("id", patient.getId());
+		generator.writeStringField("firstName", patient.getFirstName());
+		generator.writeStringField("lastName", patient.getLastName());
+		generator.writeStringField("birthDate", patient.getBirthDate().toString());
+		generator.writeEndObject();
+	}
+
+	private static void writeClaim(JsonGenerator generator, Claim claim) throws IOException {
+		generator.writeStartObject();
+		generator.writeNumberField("id", claim.getId());
+		generator.writeNumberField("patientId", claim.getPatientId());
+		generator.writeStringField("serviceDate", claim.getServiceDate().toString());
+		generator.writeStringField("placeOfService", claim.getPlaceOfService());
+		generator.writeEndObject();
+	}
+
+	private static void writeCharge(JsonGenerator generator, Charge charge) throws IOException {
+		generator.writeStartObject();
+		generator.writeNumberField("id", charge.getId());
+		generator.writeNumberField("claimId", charge.getClaimId());
+		generator.writeNumberField("procedureCode", charge.getProcedureCode());
+		generator.writeNumberField("amount", charge.getAmount());
+		generator.writeEndObject();
+	}
+}
@@ -0,0 +1,82 @@
+package com.craighdav.medical_claims_validator.generator;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Locale;
+
+import com.craighdav.medical_claims_validator.generator.ClaimsDatasetOptions.OutputFormat;
+
+/**
+ * This class is purposed to run ClaimsDatasetGenerator from the command line.
+ * 
+ * Every setting of ClaimsDatasetOptions can be given as --name=value, for example:
+ * 
+ *   --output=claims.ndjson --format=ndjson --seed=7 --patient-count=100000
+ *   --claim-count=2000000 --charges-per-claim-skew=1.5 --orphan-rate=0.001
+ * 
+ * Without --output the dataset is written to standard output. Using the executable jar:
+ * 
+ *   java -cp medical-claims-validator-0.0.1-SNAPSHOT-exec.jar
+ *        -Dloader.main=com.craighdav.medical_claims_validator.generator.ClaimsDatasetGeneratorCli
+ *        org.springframework.boot.loader.launch.PropertiesLauncher --output=claims.json
+ */
+public class ClaimsDatasetGeneratorCli {
+
+	private static final int OUTPUT_BUFFER_SIZE = 1 << 20;
+
+	public static void main(String[] args) throws IOException {
+		
+		ClaimsDatasetOptions options = new ClaimsDatasetOptions();
+		Path outputPath = null;
+		
+		for (String arg : args) {
+			int separatorIndex = arg.indexOf('=');
+			if (!arg.startsWith("--") || separatorIndex < 0) {
+				throw new IllegalArgumentException("Expected --name=value but was: " + arg);
+			}
+			
+			String name = arg.substring(2, separatorIndex);
+			String value = arg.substring(separatorIndex + 1);
+			
+			switch (name) {
+				case "output" -> outputPath = Path.of(value);
+				case "format" -> options.setFormat(OutputFormat.valueOf(value.toUpperCase(Locale.ROOT)));
+				case "seed" -> options.setSeed(Long.parseLong(value));
+				case "reference-date" -> options.setReferenceDate(LocalDate.parse(value));
+				case "patient-count" -> options.setPatientCount(Integer.parseInt(value));
+				case "claim-count" -> options.setClaimCount(Integer.parseInt(value));
+				case "max-charges-per-claim" -> options.setMaxChargesPerClaim(Integer.parseInt(value));
+				case "charges-per-claim-skew" -> options.setChargesPerClaimSkew(Double.parseDouble(value));
+				case "office-share" -> options.setOfficeShare(Double.parseDouble(value));
+				case "procedure-code-9-share" -> options.setProcedureCode9Share(Double.parseDouble(value));
+				case "procedure-code-6-share" -> options.setProcedureCode6Share(Double.parseDouble(value));
+				case "age-restricted-share" -> options.setAgeRestrictedShare(Double.parseDouble(value));
+				case "threshold-age-share" -> options.setThresholdAgeShare(Double.parseDouble(value));
+				case "under-18-share" -> options.setUnder18Share(Double.parseDouble(value));
+				case "over-39-share" -> options.setOver39Share(Double.parseDouble(value));
+				case "duplicate-rate" -> options.setDuplicateRate(Double.parseDouble(value));
+				case "orphan-rate" -> options.setOrphanRate(Double.parseDouble(value));
+				default -> throw new IllegalArgumentException("Unknown option: --" + name);
+			}
+		}
+		
+		ClaimsDatasetGenerator claimsDatasetGenerator = new ClaimsDatasetGenerator(options);
+		
+		if (outputPath == null) {
+			OutputStream outputStream = new BufferedOutputStream(System.out, OUTPUT_BUFFER_SIZE);
+			claimsDatasetGenerator.generate(outputStream);
+			outputStream.flush();
+		} else {
+			try (OutputStream outputStream 
+						= new BufferedOutputStream(Files.newOutputStream(outputPath), OUTPUT_BUFFER_SIZE)) {
+				claimsDatasetGenerator.generate(outputStream);
+			}
+			
+			System.err.println("Wrote " + Files.size(outputPath) + " bytes to " + outputPath);
+		}
+	}
+}
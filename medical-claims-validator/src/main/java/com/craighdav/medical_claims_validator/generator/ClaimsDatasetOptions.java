@@ -0,0 +1,256 @@
+package com.craighdav.medical_claims_validator.generator;
+
+import java.time.LocalDate;
+
+/**
+ * ClaimsDatasetOptions holds the settings of a synthetic claims dataset.
+ * 
+ * Class ClaimsDatasetOptions is a simple settings holder for ClaimsDatasetGenerator. Every
+ * field is initialized with a default, so only the settings of interest need to be changed.
+ * Shares and rates are fractions between 0.0 and 1.0 and are checked by validate().
+ * 
+ * Patient ages are measured on referenceDate, which defaults to a fixed date (rather than
+ * today) so that a given seed always produces the same file.
+ */
+public class ClaimsDatasetOptions {
+
+	/**
+	 * OutputFormat selects the layout written by ClaimsDatasetGenerator.generate.
+	 * 
+	 * JSON writes a single RawMedicalClaimsData document for POST /validateClaims. NDJSON
+	 * writes one record per line for POST /validateClaims/stream: all patients first, then
+	 * each claim followed by its charges. BINARY writes a ClaimsBatchFormat CLAIMS frame for
+	 * POST /validateClaims with Content-Type application/x-claims-batch.
+	 */
+	public enum OutputFormat {
+		JSON,
+		NDJSON,
+		BINARY
+	}
+
+	private long seed = 1L;
+	private OutputFormat format = OutputFormat.JSON;
+	private LocalDate referenceDate = LocalDate.of(2025, 7, 5);
+	
+	private int patientCount = 1_000;
+	private int claimCount = 5_000;
+	private int maxChargesPerClaim = 5;
+	private double chargesPerClaimSkew = 0.0;
+	
+	private double officeShare = 0.6;
+	private double procedureCode9Share = 0.2;
+	private double procedureCode6Share = 0.1;
+	private double ageRestrictedShare = 0.3;
+	
+	private double thresholdAgeShare = 0.2;
+	private double under18Share = 0.2;
+	private double over39Share = 0.4;
+	
+	private double duplicateRate = 0.05;
+	private double orphanRate = 0.01;
+
+	/**
+	 * Method validate checks that every setting is within its allowed range.
+	 * 
+	 * @throws IllegalArgumentException If any setting is out of range
+	 */
+	public void validate() {
+		requirePositive("patientCount", patientCount);
+		requirePositive("claimCount", claimCount);
+		requirePositive("maxChargesPerClaim", maxChargesPerClaim);
+		
+		if (chargesPerClaimSkew < 0.0) {
+			throw new IllegalArgumentException("chargesPerClaimSkew must not be negative: " + chargesPerClaimSkew);
+		}
+		
+		requireShare("officeShare", officeShare);
+		requireShare("procedureCode9Share", procedureCode9Share);
+		requireShare("procedureCode6Share", procedureCode6Share);
+		requireShare("procedureCode9Share + procedureCode6Share", procedureCode9Share + procedureCode6Share);
+		requireShare("ageRestrictedShare", ageRestrictedShare);
+		requireShare("thresholdAgeShare", thresholdAgeShare);
+		requireShare("under18Share", under18Share);
+		requireShare("over39Share", over39Share);
+		requireShare("under18Share + over39Share", under18Share + over39Share);
+		requireShare("duplicateRate", duplicateRate);
+		requireShare("orphanRate", orphanRate);
+		
+		if ((format == null) || (referenceDate == null)) {
+			throw new IllegalArgumentException("format and referenceDate must not be null");
+		}
+	}
+
+	private static void requirePositive(String name, int value) {
+		if (value <= 0) {
+			throw new IllegalArgumentException(name + " must be positive: " + value);
+		}
+	}
+
+	private static void requireShare(String name, double value) {
+		if ((value < 0.0) || (value > 1.0)) {
+			throw new IllegalArgumentException(name + " must be between 0.0 and 1.0: " + value);
+		}
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	public OutputFormat getFormat() {
+		return format;
+	}
+
+	public void setFormat(OutputFormat format) {
+		this.format = format;
+	}
+
+	/**
+	 * @return The date on which generated patient ages hold and before which service dates lie
+	 */
+	public LocalDate getReferenceDate() {
+		return referenceDate;
+	}
+
+	public void setReferenceDate(LocalDate referenceDate) {
+		this.referenceDate = referenceDate;
+	}
+
+	public int getPatientCount() {
+		return patientCount;
+	}
+
+	public void setPatientCount(int patientCount) {
+		this.patientCount = patientCount;
+	}
+
+	public int getClaimCount() {
+		return claimCount;
+	}
+
+	public void setClaimCount(int claimCount) {
+		this.claimCount = claimCount;
+	}
+
+	public int getMaxChargesPerClaim() {
+		return maxChargesPerClaim;
+	}
+
+	public void setMaxChargesPerClaim(int maxChargesPerClaim) {
+		this.maxChargesPerClaim = maxChargesPerClaim;
+	}
+
+	/**
+	 * @return The skew of charges per claim: 0.0 spreads counts uniformly between 1 and
+	 *         maxChargesPerClaim, larger values favour small claims with a long tail
+	 */
+	public double getChargesPerClaimSkew() {
+		return chargesPerClaimSkew;
+	}
+
+	public void setChargesPerClaimSkew(double chargesPerClaimSkew) {
+		this.chargesPerClaimSkew = chargesPerClaimSkew;
+	}
+
+	/**
+	 * @return The share of claims whose place of service is "office"
+	 */
+	public double getOfficeShare() {
+		return officeShare;
+	}
+
+	public void setOfficeShare(double officeShare) {
+		this.officeShare = officeShare;
+	}
+
+	/**
+	 * @return The share of charges with a procedure code starting with 9
+	 */
+	public double getProcedureCode9Share() {
+		return procedureCode9Share;
+	}
+
+	public void setProcedureCode9Share(double procedureCode9Share) {
+		this.procedureCode9Share = procedureCode9Share;
+	}
+
+	/**
+	 * @return The share of charges with a procedure code starting with 6
+	 */
+	public double getProcedureCode6Share() {
+		return procedureCode6Share;
+	}
+
+	public void setProcedureCode6Share(double procedureCode6Share) {
+		this.procedureCode6Share = procedureCode6Share;
+	}
+
+	/**
+	 * @return The share of 9xxxx procedure codes that are the age-restricted 99129 or 99396
+	 */
+	public double getAgeRestrictedShare() {
+		return ageRestrictedShare;
+	}
+
+	public void setAgeRestrictedShare(double ageRestrictedShare) {
+		this.ageRestrictedShare = ageRestrictedShare;
+	}
+
+	/**
+	 * @return The share of patients aged exactly 17, 18, 39 or 40 on the reference date
+	 */
+	public double getThresholdAgeShare() {
+		return thresholdAgeShare;
+	}
+
+	public void setThresholdAgeShare(double thresholdAgeShare) {
+		this.thresholdAgeShare = thresholdAgeShare;
+	}
+
+	/**
+	 * @return The share of the remaining patients aged under 18
+	 */
+	public double getUnder18Share() {
+		return under18Share;
+	}
+
+	public void setUnder18Share(double under18Share) {
+		this.under18Share = under18Share;
+	}
+
+	/**
+	 * @return The share of the remaining patients aged over 39
+	 */
+	public double getOver39Share() {
+		return over39Share;
+	}
+
+	public void setOver39Share(double over39Share) {
+		this.over39Share = over39Share;
+	}
+
+	/**
+	 * @return The share of claims (with at least two charges) repeating a procedure code
+	 */
+	public double getDuplicateRate() {
+		return duplicateRate;
+	}
+
+	public void setDuplicateRate(double duplicateRate) {
+		this.duplicateRate = duplicateRate;
+	}
+
+	/**
+	 * @return The share of charges referencing a claim ID that does not exist
+	 */
+	public double getOrphanRate() {
+		return orphanRate;
+	}
+
+	public void setOrphanRate(double orphanRate) {
+		this.orphanRate = orphanRate;
+	}
+}
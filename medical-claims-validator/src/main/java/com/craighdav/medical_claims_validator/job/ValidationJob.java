@@ -0,0 +1,125 @@
+package com.craighdav.medical_claims_validator.job;
+
+import java.nio.file.Path;
+
+import com.craighdav.medical_claims_validator.model.IssueFormat;
+import com.craighdav.medical_claims_validator.model.RawMedicalClaimsData;
+import com.craighdav.medical_claims_validator.model.ValidationJobStatus;
+import com.craighdav.medical_claims_validator.model.ValidationJobStatus.State;
+
+/**
+ * This class is purposed to track one batch submitted to ValidationJobService.
+ *
+ * Class ValidationJob holds the batch only until a worker starts validating it, so that a
+ * running or completed job does not keep its input on the heap. Its results are written to
+ * resultPath; once the job is COMPLETED, pageOffsets holds the file offset at which each
+ * page of results starts, followed by the length of the file.
+ *
+ * A job is updated by the one worker running it and read by any request thread; every
+ * field read by getStatus is therefore volatile.
+ */
+final class ValidationJob {
+
+	private final String jobId;
+	private final IssueFormat issueFormat;
+	private final Path resultPath;
+
+	private RawMedicalClaimsData rawMedicalClaimsData;
+
+	private volatile State state = State.QUEUED;
+	private volatile long totalClaimCount;
+	private volatile long processedClaimCount;
+	private volatile long validClaimCount;
+	private volatile long invalidClaimCount;
+	private volatile String ruleSetVersion;
+	private volatile String error;
+	private volatile long[] pageOffsets;
+	private volatile long finishedMillis;
+
+	ValidationJob(String jobId, RawMedicalClaimsData rawMedicalClaimsData, IssueFormat issueFormat,
+					Path resultPath) {
+		this.jobId = jobId;
+		this.rawMedicalClaimsData = rawMedicalClaimsData;
+		this.issueFormat = issueFormat;
+		this.resultPath = resultPath;
+		this.totalClaimCount = rawMedicalClaimsData.getClaimList().size();
+	}
+
+	String getJobId() {
+		return jobId;
+	}
+
+	IssueFormat getIssueFormat() {
+		return issueFormat;
+	}
+
+	Path getResultPath() {
+		return resultPath;
+	}
+
+	State getState() {
+		return state;
+	}
+
+	long[] getPageOffsets() {
+		return pageOffsets;
+	}
+
+	long getFinishedMillis() {
+		return finishedMillis;
+	}
+
+	boolean isFinished() {
+		return (state == State.COMPLETED) || (state == State.FAILED);
+	}
+
+	/**
+	 * This method marks the job as RUNNING and hands its batch over to the worker.
+	 *
+	 * @return The batch to be validated, which the job no longer references
+	 */
+	RawMedicalClaimsData start(String ruleSetVersion) {
+		RawMedicalClaimsData startedRawMedicalClaimsData = rawMedicalClaimsData;
+
+		this.rawMedicalClaimsData = null;
+		this.ruleSetVersion = ruleSetVersion;
+		this.state = State.RUNNING;
+
+		return startedRawMedicalClaimsData;
+	}
+
+	void setTotalClaimCount(long totalClaimCount) {
+		this.totalClaimCount = totalClaimCount;
+	}
+
+	void recordResult(boolean isValid) {
+		if (isValid) {
+			validClaimCount++;
+		} else {
+			invalidClaimCount++;
+		}
+
+		processedClaimCount++;
+	}
+
+	void complete(long[] pageOffsets, long finishedMillis) {
+		this.pageOffsets = pageOffsets;
+		this.finishedMillis = finishedMillis;
+		this.state = State.COMPLETED;
+	}
+
+	void fail(String error, long finishedMillis) {
+		this.rawMedicalClaimsData = null;
+		this.error = error;
+		this.finishedMillis = finishedMillis;
+		this.state = State.FAILED;
+	}
+
+	ValidationJobStatus getStatus() {
+		long[] completedPageOffsets = pageOffsets;
+		int pageCount = (completedPageOffsets == null) ? 0 : completedPageOffsets.length - 1;
+
+		return new ValidationJobStatus(jobId, state, totalClaimCount, processedClaimCount, validClaimCount,
+										invalidClaimCount, pageCount, ruleSetVersion, error);
+	}
+}
@@ -0,0 +1,363 @@
+package com.craighdav.medical_claims_validator.job;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.craighdav.medical_claims_validator.admission.AdmissionRejectedException;
+import com.craighdav.medical_claims_validator.config.MedicalClaimsValidatorProperties;
+import com.craighdav.medical_claims_validator.model.Charge;
+import com.craighdav.medical_claims_validator.model.Claim;
+import com.craighdav.medical_claims_validator.model.ClaimIssue;
+import com.craighdav.medical_claims_validator.model.ClaimValidationResult;
+import com.craighdav.medical_claims_validator.model.IssueFormat;
+import com.craighdav.medical_claims_validator.model.Patient;
+import com.craighdav.medical_claims_validator.model.RawMedicalClaimsData;
+import com.craighdav.medical_claims_validator.model.ValidationJobResultPage;
+import com.craighdav.medical_claims_validator.model.ValidationJobStatus;
+import com.craighdav.medical_claims_validator.model.ValidationJobStatus.State;
+import com.craighdav.medical_claims_validator.rules.RuleSet;
+import com.craighdav.medical_claims_validator.service.MedicalClaimsValidatorService;
+import com.craighdav.util.LongHashSet;
+import com.craighdav.util.LongObjectHashMap;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * This class is purposed to validate large batches in the background, so that clients do
+ * not hold a connection open while a batch is validated.
+ *
+ * Class ValidationJobService queues each submitted batch as a ValidationJob in a bounded
+ * queue served by a fixed pool of worker threads; a batch submitted while the queue is
+ * full is rejected with an AdmissionRejectedException. A worker validates the claims of a
+ * job one at a time with MedicalClaimsValidatorService.validateClaim, counting its progress
+ * as it goes, and writes one result per claim to a file in the job directory (the same
+ * NDJSON lines as /validateClaims/stream, in claim order followed by the claims referenced
+ * only by orphan charges). Completed results therefore occupy disk rather than heap, and are
+ * read back one page at a time through an index of the file offset of every page.
+ *
+ * Finished jobs and their result files are removed once they are older than the configured
+ * retention.
+ */
+@Service
+public class ValidationJobService {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ValidationJobService.class);
+
+	private final MedicalClaimsValidatorService medicalClaimsValidatorService;
+	private final ObjectMapper objectMapper;
+	private final Clock clock;
+
+	private final ThreadPoolExecutor jobExecutor;
+	private final Path jobDirectory;
+	private final boolean isTemporaryJobDirectory;
+	private final int resultPageSize;
+	private final long retentionMillis;
+	private final Duration retryAfter;
+
+	private final Map<String, ValidationJob> jobMap = new ConcurrentHashMap<>();
+
+	public ValidationJobService(Clock clock,
+								MedicalClaimsValidatorProperties medicalClaimsValidatorProperties,
+								MedicalClaimsValidatorService medicalClaimsValidatorService,
+								ObjectMapper objectMapper) {
+		this.medicalClaimsValidatorService = medicalClaimsValidatorService;
+		this.objectMapper = objectMapper;
+		this.clock = clock;
+
+		this.resultPageSize = medicalClaimsValidatorProperties.getJobResultPageSize();
+		this.retentionMillis = medicalClaimsValidatorProperties.getJobRetention().toMillis();
+		this.retryAfter = medicalClaimsValidatorProperties.getAdmissionRetryAfter();
+
+		String configuredJobDirectory = medicalClaimsValidatorProperties.getJobDirectory();
+		this.isTemporaryJobDirectory = (configuredJobDirectory == null) || configuredJobDirectory.isBlank();
+		try {
+			this.jobDirectory = isTemporaryJobDirectory ? Files.createTempDirectory("validation-jobs")
+								: Files.createDirectories(Path.of(configuredJobDirectory.trim()));
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to create validation job directory", e);
+		}
+
+		// Jobs are CPU-bound, so they run on a fixed number of platform threads rather than on
+		// the virtual threads serving requests
+		int jobWorkerCount = medicalClaimsValidatorProperties.getJobWorkers();
+		this.jobExecutor = new ThreadPoolExecutor(jobWorkerCount, jobWorkerCount, 0L, TimeUnit.MILLISECONDS,
+						new ArrayBlockingQueue<>(medicalClaimsValidatorProperties.getJobQueueCapacity()),
+						Thread.ofPlatform().name("validation-job-", 1).daemon().factory());
+	}
+
+	/**
+	 * This method queues a batch to be validated in the background.
+	 *
+	 * @param rawMedicalClaimsData The patients, claims and charges to validate
+	 * @param issueFormat The format of the issues of the job's results
+	 * @return The status of the QUEUED job, carrying its ID
+	 * @throws AdmissionRejectedException if the job queue is full
+	 */
+	public ValidationJobStatus submit(RawMedicalClaimsData rawMedicalClaimsData, IssueFormat issueFormat) {
+
+		removeExpiredJobs();
+
+		String jobId = UUID.randomUUID().toString();
+		ValidationJob validationJob = new ValidationJob(jobId, rawMedicalClaimsData, issueFormat,
+														jobDirectory.resolve(jobId + ".ndjson"));
+
+		jobMap.put(jobId, validationJob);
+		try {
+			jobExecutor.execute(() -> runJob(validationJob));
+		} catch (RejectedExecutionException e) {
+			jobMap.remove(jobId);
+			throw new AdmissionRejectedException("The validation job queue is full", retryAfter);
+		}
+
+		return validationJob.getStatus();
+	}
+
+	/**
+	 * This method reports the progress of a job.
+	 *
+	 * @param jobId The ID of the job
+	 * @return The status of the job, or null if there is no such job or it has expired
+	 */
+	public ValidationJobStatus getStatus(String jobId) {
+
+		removeExpiredJobs();
+
+		ValidationJob validationJob = jobMap.get(jobId);
+
+		return (validationJob == null) ? null : validationJob.getStatus();
+	}
+
+	/**
+	 * This method reads one page of the results of a COMPLETED job from disk.
+	 *
+	 * @param jobId The ID of the job
+	 * @param page The zero-based index of the page
+	 * @return The page, or null if there is no such job or it has expired
+	 * @throws IllegalStateException if the job is not COMPLETED
+	 * @throws IndexOutOfBoundsException if the job has no such page
+	 * @throws UncheckedIOException if the result file cannot be read
+	 */
+	public ValidationJobResultPage getResultPage(String jobId, int page) {
+
+		ValidationJob validationJob = jobMap.get(jobId);
+		if (validationJob == null) {
+			return null;
+		}
+
+		if (validationJob.getState() != State.COMPLETED) {
+			throw new IllegalStateException("Validation job " + jobId + " is " + validationJob.getState());
+		}
+
+		long[] pageOffsets = validationJob.getPageOffsets();
+		int pageCount = pageOffsets.length - 1;
+		if ((page < 0) || (page >= pageCount)) {
+			throw new IndexOutOfBoundsException("Validation job " + jobId + " has no page " + page);
+		}
+
+		ByteBuffer pageBuffer = ByteBuffer.allocate(Math.toIntExact(pageOffsets[page + 1] - pageOffsets[page]));
+
+		try (FileChannel resultChannel = FileChannel.open(validationJob.getResultPath(), StandardOpenOption.READ)) {
+			while (pageBuffer.hasRemaining()) {
+				if (resultChannel.read(pageBuffer, pageOffsets[page] + pageBuffer.position()) < 0) {
+					throw new EOFException("Truncated results of validation job " + jobId);
+				}
+			}
+
+			List<JsonNode> resultList = objectMapper.readerFor(JsonNode.class)
+											.<JsonNode>readValues(pageBuffer.array()).readAll();
+
+			return new ValidationJobResultPage(jobId, page, pageCount, resultList);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to read results of validation job " + jobId, e);
+		}
+	}
+
+	/**
+	 * This method stops the workers and deletes the results of every job.
+	 */
+	@PreDestroy
+	public void shutdown() {
+		jobExecutor.shutdownNow();
+
+		jobMap.values().forEach(this::deleteResults);
+		jobMap.clear();
+
+		if (isTemporaryJobDirectory) {
+			try {
+				Files.deleteIfExists(jobDirectory);
+			} catch (IOException e) {
+				LOGGER.warn("Failed to delete validation job directory {}", jobDirectory, e);
+			}
+		}
+	}
+
+	private void runJob(ValidationJob validationJob) {
+
+		RuleSet ruleSet = medicalClaimsValidatorService.getRuleSet();
+		RawMedicalClaimsData rawMedicalClaimsData = validationJob.start(ruleSet.getVersion());
+
+		try {
+			long[] pageOffsets = validateClaims(validationJob, rawMedicalClaimsData, ruleSet);
+			validationJob.complete(pageOffsets, clock.millis());
+		} catch (IOException | RuntimeException e) {
+			LOGGER.warn("Validation job {} failed", validationJob.getJobId(), e);
+
+			deleteResults(validationJob);
+			validationJob.fail(e.getMessage(), clock.millis());
+		}
+	}
+
+	/*
+	 * Validate the claims of a job and write their results, flushing the generator at the
+	 * start of every page so that the channel position is the page's offset. Returns the page
+	 * offsets followed by the length of the result file.
+	 */
+	private long[] validateClaims(ValidationJob validationJob, RawMedicalClaimsData rawMedicalClaimsData,
+									RuleSet ruleSet) throws IOException {
+
+		List<Claim> claimList = rawMedicalClaimsData.getClaimList();
+
+		LongObjectHashMap<Patient> patientMap = new LongObjectHashMap<>(rawMedicalClaimsData.getPatientList().size());
+		for (Patient patient : rawMedicalClaimsData.getPatientList()) {
+			if (patientMap.putIfAbsent(patient.getId(), patient) != null) {
+				throw new IllegalStateException("Duplicate key " + patient.getId());
+			}
+		}
+
+		LongHashSet claimIdSet = new LongHashSet(claimList.size());
+		for (Claim claim : claimList) {
+			if (!claimIdSet.add(claim.getId())) {
+				throw new IllegalStateException("Duplicate key " + claim.getId());
+			}
+		}
+
+		// The charges of every claim in input order; the groups left once every claim has been
+		// validated are the orphan charges, grouped by the claims they reference
+		Map<Long, List<Charge>> chargeListMap = new LinkedHashMap<>();
+		for (Charge charge : rawMedicalClaimsData.getChargeList()) {
+			chargeListMap.computeIfAbsent(charge.getClaimId(), claimId -> new ArrayList<>()).add(charge);
+		}
+
+		long totalClaimCount = claimList.size();
+		for (long claimId : chargeListMap.keySet()) {
+			if (!claimIdSet.contains(claimId)) {
+				totalClaimCount++;
+			}
+		}
+		validationJob.setTotalClaimCount(totalClaimCount);
+		medicalClaimsValidatorService.getValidationMetrics().recordBatch(claimList.size(),
+																	rawMedicalClaimsData.getChargeList().size());
+
+		long[] pageOffsets = new long[(int) ((totalClaimCount + resultPageSize - 1) / resultPageSize) + 1];
+		int resultCount = 0;
+
+		try (FileChannel resultChannel = FileChannel.open(validationJob.getResultPath(),
+											StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+											StandardOpenOption.WRITE);
+				JsonGenerator generator = objectMapper.createGenerator(Channels.newOutputStream(resultChannel))) {
+
+			// Results are separated by the newline written after each one
+			generator.setRootValueSeparator(null);
+
+			for (Claim claim : claimList) {
+				if (resultCount % resultPageSize == 0) {
+					generator.flush();
+					pageOffsets[resultCount / resultPageSize] = resultChannel.position();
+				}
+
+				List<Charge> chargeList = chargeListMap.remove(claim.getId());
+
+				Patient patient = patientMap.get(claim.getPatientId());
+				if (patient == null) {
+					patient = medicalClaimsValidatorService.findRegisteredPatient(claim.getPatientId());
+				}
+
+				List<ClaimIssue> claimIssueList = medicalClaimsValidatorService.validateClaim(claim.getId(),
+							claim, patient, (chargeList == null) ? List.of() : chargeList, ruleSet);
+
+				writeResult(generator, validationJob, claim.getId(), claimIssueList);
+				resultCount++;
+			}
+
+			for (Map.Entry<Long, List<Charge>> orphanChargeEntry : chargeListMap.entrySet()) {
+				if (resultCount % resultPageSize == 0) {
+					generator.flush();
+					pageOffsets[resultCount / resultPageSize] = resultChannel.position();
+				}
+
+				long claimId = orphanChargeEntry.getKey();
+				List<ClaimIssue> claimIssueList = medicalClaimsValidatorService.validateClaim(claimId,
+							null, null, orphanChargeEntry.getValue(), ruleSet);
+
+				writeResult(generator, validationJob, claimId, claimIssueList);
+				resultCount++;
+			}
+
+			generator.flush();
+			pageOffsets[pageOffsets.length - 1] = resultChannel.position();
+		}
+
+		return pageOffsets;
+	}
+
+	private void writeResult(JsonGenerator generator, ValidationJob validationJob, long claimId,
+								List<ClaimIssue> claimIssueList) throws IOException {
+
+		generator.writeObject(new ClaimValidationResult(claimId, claimIssueList, validationJob.getIssueFormat()));
+		generator.writeRaw('\n');
+
+		validationJob.recordResult(claimIssueList.isEmpty());
+		medicalClaimsValidatorService.getValidationMetrics().recordRuleHits(claimIssueList);
+	}
+
+	/*
+	 * Remove the finished jobs older than the retention, together with their result files.
+	 */
+	private void removeExpiredJobs() {
+
+		long expiryMillis = clock.millis() - retentionMillis;
+
+		jobMap.values().removeIf(validationJob -> {
+			boolean isExpired = validationJob.isFinished() && (validationJob.getFinishedMillis() < expiryMillis);
+			if (isExpired) {
+				deleteResults(validationJob);
+			}
+
+			return isExpired;
+		});
+	}
+
+	private void deleteResults(ValidationJob validationJob) {
+		try {
+			Files.deleteIfExists(validationJob.getResultPath());
+		} catch (IOException e) {
+			LOGGER.warn("Failed to delete results of validation job {}", validationJob.getJobId(), e);
+		}
+	}
+}
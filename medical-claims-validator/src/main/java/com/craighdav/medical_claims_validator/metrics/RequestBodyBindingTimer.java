@@ -0,0 +1,61 @@
+package com.craighdav.medical_claims_validator.metrics;
+
+import java.lang.reflect.Type;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.mvc.method.annotation.RequestBodyAdviceAdapter;
+
+import com.craighdav.medical_claims_validator.metrics.ValidationMetrics.Stage;
+
+/**
+ * This class is purposed to time the BIND stage of every @RequestBody.
+ *
+ * Class RequestBodyBindingTimer notes the time before the message converter (Jackson, or
+ * the binary claims batch converter) reads the body and records the stage once the body has
+ * been bound. The stage includes receiving the body, since converters read it from the
+ * connection as they bind it. A body that fails to bind is not recorded.
+ */
+@ControllerAdvice
+public class RequestBodyBindingTimer extends RequestBodyAdviceAdapter {
+
+	private static final String BIND_START_NANOS_ATTRIBUTE = RequestBodyBindingTimer.class.getName() + ".startNanos";
+
+	private final ValidationMetrics validationMetrics;
+
+	public RequestBodyBindingTimer(ValidationMetrics validationMetrics) {
+		this.validationMetrics = validationMetrics;
+	}
+
+	@Override
+	public boolean supports(MethodParameter methodParameter, Type targetType,
+							Class<? extends HttpMessageConverter<?>> converterType) {
+		return true;
+	}
+
+	@Override
+	public HttpInputMessage beforeBodyRead(HttpInputMessage inputMessage, MethodParameter parameter, Type targetType,
+											Class<? extends HttpMessageConverter<?>> converterType) {
+
+		RequestContextHolder.currentRequestAttributes().setAttribute(BIND_START_NANOS_ATTRIBUTE, System.nanoTime(),
+																		RequestAttributes.SCOPE_REQUEST);
+		return inputMessage;
+	}
+
+	@Override
+	public Object afterBodyRead(Object body, HttpInputMessage inputMessage, MethodParameter parameter,
+								Type targetType, Class<? extends HttpMessageConverter<?>> converterType) {
+
+		Object bindStartNanos = RequestContextHolder.currentRequestAttributes()
+										.getAttribute(BIND_START_NANOS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+		if (bindStartNanos instanceof Long) {
+			validationMetrics.recordStage(Stage.BIND, (Long) bindStartNanos);
+		}
+
+		return body;
+	}
+}
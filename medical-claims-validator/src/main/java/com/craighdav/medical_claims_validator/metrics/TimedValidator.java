@@ -0,0 +1,44 @@
+package com.craighdav.medical_claims_validator.metrics;
+
+import org.springframework.validation.Errors;
+import org.springframework.validation.SmartValidator;
+
+import com.craighdav.medical_claims_validator.metrics.ValidationMetrics.Stage;
+
+/**
+ * This class is purposed to time the BEAN_VALIDATION stage of @Valid request bodies.
+ *
+ * Class TimedValidator delegates to the validator checking the constraints of request bodies
+ * and records the time of every validation, whether or not it finds violations.
+ */
+public class TimedValidator implements SmartValidator {
+
+	private final SmartValidator delegateValidator;
+	private final ValidationMetrics validationMetrics;
+
+	public TimedValidator(SmartValidator delegateValidator, ValidationMetrics validationMetrics) {
+		this.delegateValidator = delegateValidator;
+		this.validationMetrics = validationMetrics;
+	}
+
+	@Override
+	public boolean supports(Class<?> targetClass) {
+		return delegateValidator.supports(targetClass);
+	}
+
+	@Override
+	public void validate(Object target, Errors errors) {
+		long validationStartNanos = System.nanoTime();
+
+		delegateValidator.validate(target, errors);
+		validationMetrics.recordStage(Stage.BEAN_VALIDATION, validationStartNanos);
+	}
+
+	@Override
+	public void validate(Object target, Errors errors, Object... validationHints) {
+		long validationStartNanos = System.nanoTime();
+
+		delegateValidator.validate(target, errors, validationHints);
+		validationMetrics.recordStage(Stage.BEAN_VALIDATION, validationStartNanos);
+	}
+}
@@ -0,0 +1,177 @@
+package com.craighdav.medical_claims_validator.metrics;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+
+import com.craighdav.medical_claims_validator.model.ClaimIssue;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.MultiGauge.Row;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+
+/**
+ * This class is purposed to record where the time of a validation request is spent and
+ * what the validated batches look like.
+ *
+ * Class ValidationMetrics registers with Micrometer:
+ *
+ *   claims.validation.stage       a timer per Stage (tag "stage")
+ *   claims.validation.rule.hits   a counter per violated rule (tag "rule"), including the
+ *                                 structural orphan-charge and duplicate-procedure rules
+ *   claims.validation.batch.claims, claims.validation.batch.charges
+ *                                 distribution summaries of the claims and charges per batch
+ *   claims.validation.rule.set.info
+ *                                 a gauge of 1 tagged with the active rule set's "version",
+ *                                 so that the results of a period can be traced to its rules
+ *
+ * Stages are timed once per batch rather than per claim or charge, so instrumentation adds
+ * a few clock reads to each request and nothing to the per-charge loops. Rule hits are
+ * counted from the outcome of a batch, aggregated per rule before the counters are
+ * incremented.
+ */
+@Component
+public class ValidationMetrics {
+
+	/**
+	 * Stage is one step of handling a validation request.
+	 *
+	 * BIND reads and binds the request body, and BEAN_VALIDATION applies its constraints.
+	 * CONVERSION converts a batch into columns for the COLUMNAR engine, and INDEX builds the
+	 * lookups and groupings an engine needs. RULES (per-charge rules) and DUPLICATES
+	 * (duplicate procedure detection) are separate passes of the STREAMS engine only; the
+	 * claim-grouped engines evaluate both in a single pass per claim, timed as EVALUATION.
+	 * ASSEMBLY builds the valid claim IDs and the issues of the response.
+	 */
+	public enum Stage {
+		BIND("bind"),
+		BEAN_VALIDATION("bean-validation"),
+		CONVERSION("conversion"),
+		INDEX("index"),
+		RULES("rules"),
+		DUPLICATES("duplicates"),
+		EVALUATION("evaluation"),
+		ASSEMBLY("assembly");
+
+		private final String tagValue;
+
+		Stage(String tagValue) {
+			this.tagValue = tagValue;
+		}
+	}
+
+	private final MeterRegistry meterRegistry;
+	private final Map<Stage, Timer> stageTimerMap = new EnumMap<>(Stage.class);
+	private final Map<String, Counter> ruleHitCounterMap = new ConcurrentHashMap<>();
+	private final DistributionSummary batchClaimSummary;
+	private final DistributionSummary batchChargeSummary;
+	private final MultiGauge ruleSetInfoGauge;
+
+	public ValidationMetrics(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+
+		for (Stage stage : Stage.values()) {
+			stageTimerMap.put(stage, Timer.builder("claims.validation.stage")
+											.description("Time spent in one stage of a validation request")
+											.tag("stage", stage.tagValue)
+											.register(meterRegistry));
+		}
+
+		this.batchClaimSummary = DistributionSummary.builder("claims.validation.batch.claims")
+											.description("Claims per validated batch")
+											.baseUnit("claims")
+											.register(meterRegistry);
+		this.batchChargeSummary = DistributionSummary.builder("claims.validation.batch.charges")
+											.description("Charges per validated batch")
+											.baseUnit("charges")
+											.register(meterRegistry);
+		this.ruleSetInfoGauge = MultiGauge.builder("claims.validation.rule.set.info")
+											.description("The active rule set, by its version")
+											.register(meterRegistry);
+	}
+
+	/**
+	 * This method returns metrics that are recorded nowhere, for services created without
+	 * a MeterRegistry (e.g. in unit tests and command line tools).
+	 *
+	 * @return ValidationMetrics backed by an empty composite registry
+	 */
+	public static ValidationMetrics disabled() {
+		return new ValidationMetrics(new CompositeMeterRegistry());
+	}
+
+	/**
+	 * This method records the time of a stage that started at stageStartNanos.
+	 *
+	 * @param stage The stage that has just ended
+	 * @param stageStartNanos The System.nanoTime() at which the stage started
+	 * @return The System.nanoTime() at which the stage ended, i.e. the start of the next stage
+	 */
+	public long recordStage(Stage stage, long stageStartNanos) {
+		long stageEndNanos = System.nanoTime();
+		stageTimerMap.get(stage).record(stageEndNanos - stageStartNanos, TimeUnit.NANOSECONDS);
+
+		return stageEndNanos;
+	}
+
+	/**
+	 * This method publishes the version of the rule set that has just become active, replacing
+	 * the previous version's gauge.
+	 *
+	 * @param ruleSetVersion The version of the active rule set
+	 */
+	public synchronized void recordRuleSetVersion(String ruleSetVersion) {
+		ruleSetInfoGauge.register(List.of(Row.of(Tags.of("version", ruleSetVersion), 1)), true);
+	}
+
+	public void recordBatch(int claimCount, int chargeCount) {
+		batchClaimSummary.record(claimCount);
+		batchChargeSummary.record(chargeCount);
+	}
+
+	/**
+	 * This method counts the rules violated by the invalid claims of a batch.
+	 *
+	 * @param invalidClaimIssueMap The issues of every invalid claim of the batch
+	 */
+	public void recordRuleHits(Map<Long, List<ClaimIssue>> invalidClaimIssueMap) {
+
+		Map<String, long[]> ruleHitCountMap = new HashMap<>();
+		for (List<ClaimIssue> claimIssueList : invalidClaimIssueMap.values()) {
+			for (ClaimIssue claimIssue : claimIssueList) {
+				claimIssue.forEachRuleId(ruleId -> ruleHitCountMap.computeIfAbsent(ruleId, id -> new long[1])[0]++);
+			}
+		}
+
+		ruleHitCountMap.forEach((ruleId, ruleHitCount) -> getRuleHitCounter(ruleId).increment(ruleHitCount[0]));
+	}
+
+	/**
+	 * This method counts the rules violated by a single claim, for callers validating claim
+	 * by claim.
+	 *
+	 * @param claimIssueList The issues of the claim
+	 */
+	public void recordRuleHits(List<ClaimIssue> claimIssueList) {
+		for (ClaimIssue claimIssue : claimIssueList) {
+			claimIssue.forEachRuleId(ruleId -> getRuleHitCounter(ruleId).increment());
+		}
+	}
+
+	private Counter getRuleHitCounter(String ruleId) {
+		return ruleHitCounterMap.computeIfAbsent(ruleId, id -> Counter.builder("claims.validation.rule.hits")
+											.description("Violations of a validation rule")
+											.tag("rule", id)
+											.register(meterRegistry));
+	}
+}
@@ -0,0 +1,61 @@
+package com.craighdav.medical_claims_validator.model;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import jakarta.validation.Valid;
+
+public class ClaimDeltaBatch {
+	private final List<@Valid Patient> patientList;
+	private final List<@Valid Claim> claimList;
+	private final List<@Valid Charge> addedChargeList;
+	private final Map<Long, List<Long>> removedChargeIdMap;
+
+	/**
+	 * ClaimDeltaBatch represents the changes passed to the incremental validation endpoint.
+	 *
+	 * Class ClaimDeltaBatch carries only what changed since the claims were last validated:
+	 * the headers of new or corrected claims, the charges added to claims, and the IDs of
+	 * the charges removed from claims (keyed by claim ID). Patients are needed only for new
+	 * claims whose patient is not registered with the service. Removals are applied before
+	 * additions, so a charge may be replaced by removing and re-adding its ID. Every list may
+	 * be omitted, in which case it is treated as empty. Every patient, claim and added charge is
+	 * validated against its constraints, as the records of a full batch are.
+	 *
+	 * @param patientList List of patients defined as "patients" in JSON, or null
+	 * @param claimList List of new or corrected claims defined as "claims" in JSON, or null
+	 * @param addedChargeList List of added charges defined as "addedCharges" in JSON, or null
+	 * @param removedChargeIdMap Removed charge IDs by claim ID defined as "removedChargeIds"
+	 *                           in JSON, or null
+	 */
+	@JsonCreator
+	public ClaimDeltaBatch(@JsonProperty("patients") List<Patient> patientList,
+							@JsonProperty("claims") List<Claim> claimList,
+							@JsonProperty("addedCharges") List<Charge> addedChargeList,
+							@JsonProperty("removedChargeIds") Map<Long, List<Long>> removedChargeIdMap) {
+		this.patientList = (patientList == null) ? List.of() : patientList;
+		this.claimList = (claimList == null) ? List.of() : claimList;
+		this.addedChargeList = (addedChargeList == null) ? List.of() : addedChargeList;
+		this.removedChargeIdMap = (removedChargeIdMap == null) ? Map.of() : removedChargeIdMap;
+	}
+
+	public List<Patient> getPatientList() {
+		return Collections.unmodifiableList(patientList);
+	}
+
+	public List<Claim> getClaimList() {
+		return Collections.unmodifiableList(claimList);
+	}
+
+	public List<Charge> getAddedChargeList() {
+		return Collections.unmodifiableList(addedChargeList);
+	}
+
+	public Map<Long, List<Long>> getRemovedChargeIdMap() {
+		return Collections.unmodifiableMap(removedChargeIdMap);
+	}
+}
@@ -0,0 +1,80 @@
+package com.craighdav.medical_claims_validator.model;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * ClaimIssue represents one reason for a claim to be invalid, recorded without its text.
+ *
+ * Class ClaimIssue keeps references to the values its message needs (the rule, charge,
+ * claim and patient age) instead of the message itself. The message is only rendered
+ * when a response is serialized in the text format, and never when the client asks for
+ * issue codes.
+ */
+public abstract class ClaimIssue {
+
+	/**
+	 * This method appends the issue's message to issueBuilder.
+	 *
+	 * @param issueBuilder The builder receiving the message
+	 */
+	public abstract void renderMessage(StringBuilder issueBuilder);
+
+	/**
+	 * This method adds one IssueCode per violated rule to issueCodes.
+	 *
+	 * @param issueCodes The collection receiving the issue codes
+	 */
+	public abstract void addIssueCodes(Collection<IssueCode> issueCodes);
+
+	/**
+	 * This method passes the ID of every violated rule to ruleIdConsumer, without creating
+	 * issue codes.
+	 *
+	 * @param ruleIdConsumer The consumer receiving the rule IDs
+	 */
+	public abstract void forEachRuleId(Consumer<String> ruleIdConsumer);
+
+	public String renderMessage() {
+		StringBuilder issueBuilder = new StringBuilder(96);
+		renderMessage(issueBuilder);
+
+		return issueBuilder.toString();
+	}
+
+	/**
+	 * This method renders the messages of a claim's issues.
+	 *
+	 * @param claimIssueList The issues of one claim
+	 * @return The distinct messages of claimIssueList
+	 */
+	public static Set<String> renderMessages(List<ClaimIssue> claimIssueList) {
+
+		Set<String> issueSet = new HashSet<>();
+		for (ClaimIssue claimIssue : claimIssueList) {
+			issueSet.add(claimIssue.renderMessage());
+		}
+
+		return issueSet;
+	}
+
+	/**
+	 * This method collects the issue codes of a claim's issues.
+	 *
+	 * @param claimIssueList The issues of one claim
+	 * @return The distinct issue codes of claimIssueList in the order they were found
+	 */
+	public static Set<IssueCode> collectIssueCodes(List<ClaimIssue> claimIssueList) {
+
+		Set<IssueCode> issueCodeSet = new LinkedHashSet<>();
+		for (ClaimIssue claimIssue : claimIssueList) {
+			claimIssue.addIssueCodes(issueCodeSet);
+		}
+
+		return issueCodeSet;
+	}
+}
@@ -0,0 +1,49 @@
+package com.craighdav.medical_claims_validator.model;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+@JsonPropertyOrder({ "claimId", "valid", "issues" })
+public class ClaimValidationResult {
+
+	private final long claimId;
+	private final List<ClaimIssue> claimIssueList;
+	private final IssueFormat issueFormat;
+
+	/**
+	 * ClaimValidationResult represents the outcome of validating a single claim.
+	 *
+	 * Class ClaimValidationResult is written as one NDJSON line per claim by the streaming
+	 * validation endpoint. A claim is valid exactly when claimIssueList is empty. The issues
+	 * are rendered in issueFormat only when the result is serialized.
+	 *
+	 * @param claimId The ID of the validated claim
+	 * @param claimIssueList The issues found for the claim, empty when the claim is valid
+	 * @param issueFormat The format of the "issues" array
+	 */
+	public ClaimValidationResult(long claimId, List<ClaimIssue> claimIssueList, IssueFormat issueFormat) {
+		this.claimId = claimId;
+		this.claimIssueList = claimIssueList;
+		this.issueFormat = issueFormat;
+	}
+
+	@JsonProperty("claimId")
+	public long getClaimId() {
+		return claimId;
+	}
+
+	@JsonProperty("valid")
+	public boolean isValid() {
+		return claimIssueList.isEmpty();
+	}
+
+	@JsonProperty("issues")
+	public Collection<?> getIssues() {
+		return (issueFormat == IssueFormat.CODES)
+					? ClaimIssue.collectIssueCodes(claimIssueList)
+					: ClaimIssue.renderMessages(claimIssueList);
+	}
+}
@@ -0,0 +1,261 @@
+package com.craighdav.medical_claims_validator.model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class is purposed to hold a claims batch as columns of primitives (struct of arrays).
+ *
+ * Class ColumnarClaimsBatch stores every field the validation rules read in one array per
+ * field, with row i of each array belonging to the same record. Compared with lists of
+ * Patient, Claim and Charge objects this removes an object header and a reference per
+ * record, and lets the validation engine scan a column sequentially. Dates are stored as
+ * epoch days (NO_DATE for null) and places of service as indexes into a dictionary shared
+ * by all claims. Patient names are not needed by any rule and are not stored.
+ *
+ * The arrays are neither copied on construction nor by the getters: a batch is built once,
+ * by from(RawMedicalClaimsData) or directly from the columns of a decoded ClaimsBatchFormat
+ * frame, and must not be modified afterwards.
+ */
+public final class ColumnarClaimsBatch {
+
+	// Epoch day stored for a null date
+	public static final int NO_DATE = Integer.MIN_VALUE;
+
+	// Dictionary index stored for a null place of service
+	public static final int NO_PLACE_OF_SERVICE = -1;
+
+	private final PatientColumns patientColumns;
+	private final ClaimColumns claimColumns;
+	private final ChargeColumns chargeColumns;
+
+	public ColumnarClaimsBatch(PatientColumns patientColumns, ClaimColumns claimColumns,
+								ChargeColumns chargeColumns) {
+		this.patientColumns = patientColumns;
+		this.claimColumns = claimColumns;
+		this.chargeColumns = chargeColumns;
+	}
+
+	/**
+	 * This method converts a batch of model objects into columns.
+	 *
+	 * Method from returns the columns the batch was decoded into, if any. Otherwise it makes
+	 * one pass over each list and dictionary-encodes the places of service in order of first
+	 * occurrence.
+	 *
+	 * @param rawMedicalClaimsData The patients, claims and charges to convert
+	 * @return The same batch as columns
+	 */
+	public static ColumnarClaimsBatch from(RawMedicalClaimsData rawMedicalClaimsData) {
+
+		ColumnarClaimsBatch decodedColumnarClaimsBatch = rawMedicalClaimsData.getColumnarClaimsBatch();
+		if (decodedColumnarClaimsBatch != null) {
+			return decodedColumnarClaimsBatch;
+		}
+
+		List<Patient> patientList = rawMedicalClaimsData.getPatientList();
+		List<Claim> claimList = rawMedicalClaimsData.getClaimList();
+		List<Charge> chargeList = rawMedicalClaimsData.getChargeList();
+
+		int patientCount = patientList.size();
+		long[] patientIds = new long[patientCount];
+		int[] patientBirthEpochDays = new int[patientCount];
+
+		for (int patientRow = 0; patientRow < patientCount; patientRow++) {
+			Patient patient = patientList.get(patientRow);
+			patientIds[patientRow] = patient.getId();
+			patientBirthEpochDays[patientRow] = toEpochDay(patient.getBirthDate());
+		}
+
+		int claimCount = claimList.size();
+		long[] claimIds = new long[claimCount];
+		long[] claimPatientIds = new long[claimCount];
+		int[] claimServiceEpochDays = new int[claimCount];
+		int[] claimPlaceOfServiceIndexes = new int[claimCount];
+		Map<String, Integer> placeOfServiceIndexMap = new HashMap<>();
+		List<String> placeOfServiceList = new ArrayList<>();
+
+		for (int claimRow = 0; claimRow < claimCount; claimRow++) {
+			Claim claim = claimList.get(claimRow);
+			claimIds[claimRow] = claim.getId();
+			claimPatientIds[claimRow] = claim.getPatientId();
+			claimServiceEpochDays[claimRow] = toEpochDay(claim.getServiceDate());
+
+			String placeOfService = claim.getPlaceOfService();
+			if (placeOfService == null) {
+				claimPlaceOfServiceIndexes[claimRow] = NO_PLACE_OF_SERVICE;
+				continue;
+			}
+
+			Integer placeOfServiceIndex = placeOfServiceIndexMap.get(placeOfService);
+			if (placeOfServiceIndex == null) {
+				placeOfServiceIndex = placeOfServiceList.size();
+				placeOfServiceIndexMap.put(placeOfService, placeOfServiceIndex);
+				placeOfServiceList.add(placeOfService);
+			}
+			claimPlaceOfServiceIndexes[claimRow] = placeOfServiceIndex;
+		}
+
+		int chargeCount = chargeList.size();
+		long[] chargeIds = new long[chargeCount];
+		long[] chargeClaimIds = new long[chargeCount];
+		long[] chargeProcedureCodes = new long[chargeCount];
+		int[] chargeAmounts = new int[chargeCount];
+
+		for (int chargeRow = 0; chargeRow < chargeCount; chargeRow++) {
+			Charge charge = chargeList.get(chargeRow);
+			chargeIds[chargeRow] = charge.getId();
+			chargeClaimIds[chargeRow] = charge.getClaimId();
+			chargeProcedureCodes[chargeRow] = charge.getProcedureCode();
+			chargeAmounts[chargeRow] = charge.getAmount();
+		}
+
+		return new ColumnarClaimsBatch(
+					new PatientColumns(patientCount, patientIds, patientBirthEpochDays),
+					new ClaimColumns(claimCount, claimIds, claimPatientIds, claimServiceEpochDays,
+										claimPlaceOfServiceIndexes, placeOfServiceList.toArray(new String[0])),
+					new ChargeColumns(chargeCount, chargeIds, chargeClaimIds, chargeProcedureCodes, chargeAmounts));
+	}
+
+	public PatientColumns getPatientColumns() {
+		return patientColumns;
+	}
+
+	public ClaimColumns getClaimColumns() {
+		return claimColumns;
+	}
+
+	public ChargeColumns getChargeColumns() {
+		return chargeColumns;
+	}
+
+	private static int toEpochDay(LocalDate date) {
+		return (date == null) ? NO_DATE : Math.toIntExact(date.toEpochDay());
+	}
+
+	/**
+	 * PatientColumns holds the patient ID and birth date (as an epoch day) of every patient.
+	 */
+	public static final class PatientColumns {
+
+		private final int count;
+		private final long[] ids;
+		private final int[] birthEpochDays;
+
+		public PatientColumns(int count, long[] ids, int[] birthEpochDays) {
+			this.count = count;
+			this.ids = ids;
+			this.birthEpochDays = birthEpochDays;
+		}
+
+		public int getCount() {
+			return count;
+		}
+
+		public long[] getIds() {
+			return ids;
+		}
+
+		public int[] getBirthEpochDays() {
+			return birthEpochDays;
+		}
+	}
+
+	/**
+	 * ClaimColumns holds the ID, patient ID, service date (as an epoch day) and place of
+	 * service (as an index into placeOfServiceDictionary) of every claim.
+	 */
+	public static final class ClaimColumns {
+
+		private final int count;
+		private final long[] ids;
+		private final long[] patientIds;
+		private final int[] serviceEpochDays;
+		private final int[] placeOfServiceIndexes;
+		private final String[] placeOfServiceDictionary;
+
+		public ClaimColumns(int count, long[] ids, long[] patientIds, int[] serviceEpochDays,
+								int[] placeOfServiceIndexes, String[] placeOfServiceDictionary) {
+			this.count = count;
+			this.ids = ids;
+			this.patientIds = patientIds;
+			this.serviceEpochDays = serviceEpochDays;
+			this.placeOfServiceIndexes = placeOfServiceIndexes;
+			this.placeOfServiceDictionary = placeOfServiceDictionary;
+		}
+
+		public int getCount() {
+			return count;
+		}
+
+		public long[] getIds() {
+			return ids;
+		}
+
+		public long[] getPatientIds() {
+			return patientIds;
+		}
+
+		public int[] getServiceEpochDays() {
+			return serviceEpochDays;
+		}
+
+		public int[] getPlaceOfServiceIndexes() {
+			return placeOfServiceIndexes;
+		}
+
+		public String[] getPlaceOfServiceDictionary() {
+			return placeOfServiceDictionary;
+		}
+
+		public String getPlaceOfService(int claimRow) {
+			int placeOfServiceIndex = placeOfServiceIndexes[claimRow];
+
+			return (placeOfServiceIndex == NO_PLACE_OF_SERVICE)
+						? null : placeOfServiceDictionary[placeOfServiceIndex];
+		}
+	}
+
+	/**
+	 * ChargeColumns holds the ID, claim ID, procedure code and amount of every charge.
+	 */
+	public static final class ChargeColumns {
+
+		private final int count;
+		private final long[] ids;
+		private final long[] claimIds;
+		private final long[] procedureCodes;
+		private final int[] amounts;
+
+		public ChargeColumns(int count, long[] ids, long[] claimIds, long[] procedureCodes, int[] amounts) {
+			this.count = count;
+			this.ids = ids;
+			this.claimIds = claimIds;
+			this.procedureCodes = procedureCodes;
+			this.amounts = amounts;
+		}
+
+		public int getCount() {
+			return count;
+		}
+
+		public long[] getIds() {
+			return ids;
+		}
+
+		public long[] getClaimIds() {
+			return claimIds;
+		}
+
+		public long[] getProcedureCodes() {
+			return procedureCodes;
+		}
+
+		public int[] getAmounts() {
+			return amounts;
+		}
+	}
+}
@@ -0,0 +1,58 @@
+package com.craighdav.medical_claims_validator.model;
+
+import java.util.Collections;
+import java.util.Set;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+
+public class IncrementalValidationResult {
+	private final ProcessedMedicalClaimsData processedMedicalClaimsData;
+	private final Set<Long> unknownClaimIdSet;
+
+	/**
+	 * IncrementalValidationResult represents the response of the incremental validation
+	 * endpoint.
+	 *
+	 * Class IncrementalValidationResult serializes the re-validated claims exactly like a
+	 * validation response ("validClaimIds" and "invalidClaimIds") and adds "unknownClaimIds":
+	 * claims whose charges changed but whose state the service does not hold, either because
+	 * they were never sent with their claim header or because their state was evicted. Such
+	 * claims must be sent again in full.
+	 *
+	 * @param processedMedicalClaimsData The outcome of every re-validated claim
+	 * @param unknownClaimIdSet The IDs of the claims that could not be re-validated
+	 */
+	public IncrementalValidationResult(ProcessedMedicalClaimsData processedMedicalClaimsData,
+										Set<Long> unknownClaimIdSet) {
+		this.processedMedicalClaimsData = processedMedicalClaimsData;
+		this.unknownClaimIdSet = unknownClaimIdSet;
+	}
+
+	/**
+	 * This method returns the same results to be serialized with a different issue format.
+	 *
+	 * @param issueFormat The format of the "invalidClaimIds" issues
+	 * @return An IncrementalValidationResult sharing this instance's results
+	 */
+	public IncrementalValidationResult withIssueFormat(IssueFormat issueFormat) {
+		return new IncrementalValidationResult(processedMedicalClaimsData.withIssueFormat(issueFormat),
+												unknownClaimIdSet);
+	}
+
+	@JsonUnwrapped
+	public ProcessedMedicalClaimsData getProcessedMedicalClaimsData() {
+		return processedMedicalClaimsData;
+	}
+
+	@JsonProperty("unknownClaimIds")
+	public Set<Long> getUnknownClaimIdSet() {
+		return Collections.unmodifiableSet(unknownClaimIdSet);
+	}
+
+	@JsonIgnore
+	public String getRuleSetVersion() {
+		return processedMedicalClaimsData.getRuleSetVersion();
+	}
+}
@@ -4,9 +4,9 @@ package com.craighdav.medical_claims_validator.model;
 public class InvalidClaim {
 
 	private final long claimId;
-	private final String issue;
+	private final ClaimIssue issue;
 	
-	public InvalidClaim(long claimId, String issue) {
+	public InvalidClaim(long claimId, ClaimIssue issue) {
 		this.claimId = claimId;
 		this.issue = issue;
 	}
@@ -15,7 +15,7 @@ public class InvalidClaim {
 		return claimId;
 	}
 
-	public String getIssue() {
+	public ClaimIssue getIssue() {
 		return issue;
 	}
 	
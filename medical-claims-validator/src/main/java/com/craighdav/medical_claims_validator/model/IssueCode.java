@@ -0,0 +1,74 @@
+package com.craighdav.medical_claims_validator.model;
+
+import java.util.Objects;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@JsonPropertyOrder({ "ruleId", "chargeId", "patientAge" })
+public class IssueCode {
+
+	private final String ruleId;
+	private final Long chargeId;
+	private final Integer patientAge;
+
+	/**
+	 * IssueCode represents one violated rule in the compact "codes" issue format.
+	 *
+	 * Class IssueCode names the violated rule and the values that distinguish one violation
+	 * of it from another. Values that do not apply to the rule are null and omitted from JSON.
+	 *
+	 * @param ruleId The id of the violated rule
+	 * @param chargeId The ID of the violating charge, or null for claim-level rules
+	 * @param patientAge The patient's age, or null for rules that do not depend on it
+	 */
+	public IssueCode(String ruleId, Long chargeId, Integer patientAge) {
+		this.ruleId = ruleId;
+		this.chargeId = chargeId;
+		this.patientAge = patientAge;
+	}
+
+	@JsonProperty("ruleId")
+	public String getRuleId() {
+		return ruleId;
+	}
+
+	@JsonProperty("chargeId")
+	public Long getChargeId() {
+		return chargeId;
+	}
+
+	@JsonProperty("patientAge")
+	public Integer getPatientAge() {
+		return patientAge;
+	}
+
+	@Override
+	public boolean equals(Object otherObject) {
+		if (this == otherObject) {
+			return true;
+		}
+
+		if (! (otherObject instanceof IssueCode)) {
+			return false;
+		}
+
+		IssueCode otherIssueCode = (IssueCode) otherObject;
+
+		return ruleId.equals(otherIssueCode.ruleId)
+				&& Objects.equals(chargeId, otherIssueCode.chargeId)
+				&& Objects.equals(patientAge, otherIssueCode.patientAge);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(ruleId, chargeId, patientAge);
+	}
+
+	@Override
+	public String toString() {
+		return "IssueCode [ruleId=" + ruleId + ", chargeId=" + chargeId + ", patientAge=" + patientAge + "]";
+	}
+}
@@ -0,0 +1,12 @@
+package com.craighdav.medical_claims_validator.model;
+
+/**
+ * IssueFormat selects how the issues of invalid claims are written to a response.
+ *
+ * TEXT renders every issue into its message, exactly as the validator has always reported
+ * them. CODES writes each violated rule as an IssueCode and skips message rendering.
+ */
+public enum IssueFormat {
+	TEXT,
+	CODES
+}
@@ -0,0 +1,38 @@
+package com.craighdav.medical_claims_validator.model;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+
+public class PatientRegistration {
+	@NotNull(message = "Patients must not be null")
+	private final List<@Valid Patient> patientList;
+
+	/**
+	 * PatientRegistration represents the patients passed to the patient registry endpoint.
+	 *
+	 * Class PatientRegistration stores the patients unmarshaled by Jackson via @RequestBody.
+	 * Unlike a validation request, every patient is validated against its constraints, since
+	 * registered patients are kept for later requests.
+	 *
+	 * @param patientList List of patients defined as "patients" in JSON
+	 */
+	@JsonCreator
+	public PatientRegistration(@JsonProperty("patients") List<Patient> patientList) {
+		this.patientList = patientList;
+	}
+
+	/**
+	 * Method getPatientList returns an unmodifiable view of patientList.
+	 *
+	 * @return The list of patients as List<Patient>, or null if "patients" was omitted
+	 */
+	public List<Patient> getPatientList() {
+		return (patientList == null) ? null : Collections.unmodifiableList(patientList);
+	}
+}
@@ -1,29 +1,90 @@
 package com.craighdav.medical_claims_validator.model;
 
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 
+// Written as {"validClaimIds": [...], "invalidClaimIds": {...}} by the serializer
+@JsonSerialize(using = ProcessedMedicalClaimsDataSerializer.class)
 public class ProcessedMedicalClaimsData {
 	private final Set<Long> validClaimIdSet;
-	private final Map<Long, Set<String>> invalidClaimWithIssuesMap;
+	private final Map<Long, List<ClaimIssue>> invalidClaimIssueMap;
+	private final String ruleSetVersion;
+	private final IssueFormat issueFormat;
 	
 	public ProcessedMedicalClaimsData(Set<Long> validClaimIdSet, 
-										Map<Long, Set<String>> invalidClaimWithIssuesMap ) {
+										Map<Long, List<ClaimIssue>> invalidClaimIssueMap, 
+										String ruleSetVersion) {
+		this(validClaimIdSet, invalidClaimIssueMap, ruleSetVersion, IssueFormat.TEXT);
+	}
+	
+	private ProcessedMedicalClaimsData(Set<Long> validClaimIdSet, 
+										Map<Long, List<ClaimIssue>> invalidClaimIssueMap, 
+										String ruleSetVersion, 
+										IssueFormat issueFormat) {
 		this.validClaimIdSet = validClaimIdSet;
-		this.invalidClaimWithIssuesMap = invalidClaimWithIssuesMap;
+		this.invalidClaimIssueMap = invalidClaimIssueMap;
+		this.ruleSetVersion = ruleSetVersion;
+		this.issueFormat = issueFormat;
+	}
+	
+	/**
+	 * This method returns the same results to be serialized with a different issue format.
+	 * 
+	 * @param issueFormat The format of the "invalidClaimIds" issues
+	 * @return A ProcessedMedicalClaimsData sharing this instance's results
+	 */
+	public ProcessedMedicalClaimsData withIssueFormat(IssueFormat issueFormat) {
+		return new ProcessedMedicalClaimsData(validClaimIdSet, invalidClaimIssueMap, ruleSetVersion, issueFormat);
 	}
 	
-	@JsonProperty("validClaimIds")
 	public Set<Long> getValidClaimIdSet() {
 		return Collections.unmodifiableSet(validClaimIdSet);
 	}
 	
-	@JsonProperty("invalidClaimIds")
+	// Issue messages are rendered here, on demand, rather than when the claims are validated;
+	// the claims keep the order of the results, in which the serializer writes them
 	public Map<Long, Set<String>> getInvalidClaimWithIssuesMap() {
+		Map<Long, Set<String>> invalidClaimWithIssuesMap = new LinkedHashMap<>(invalidClaimIssueMap.size() * 2);
+		invalidClaimIssueMap.forEach((claimId, claimIssueList) -> 
+						invalidClaimWithIssuesMap.put(claimId, ClaimIssue.renderMessages(claimIssueList)));
+		
 		return Collections.unmodifiableMap(invalidClaimWithIssuesMap);
 	}
+	
+	// The results themselves, for the serializer to iterate without the entries an
+	// unmodifiable view wraps each one in
+	Map<Long, List<ClaimIssue>> getInvalidClaimIssueMapUnwrapped() {
+		return invalidClaimIssueMap;
+	}
+	
+	public Map<Long, Set<IssueCode>> getInvalidClaimIssueCodeMap() {
+		Map<Long, Set<IssueCode>> invalidClaimIssueCodeMap = new LinkedHashMap<>(invalidClaimIssueMap.size() * 2);
+		invalidClaimIssueMap.forEach((claimId, claimIssueList) -> 
+						invalidClaimIssueCodeMap.put(claimId, ClaimIssue.collectIssueCodes(claimIssueList)));
+		
+		return Collections.unmodifiableMap(invalidClaimIssueCodeMap);
+	}
+	
+	public Map<Long, List<ClaimIssue>> getInvalidClaimIssueMap() {
+		return Collections.unmodifiableMap(invalidClaimIssueMap);
+	}
+	
+	public Map<Long, ? extends Collection<?>> getInvalidClaimIds() {
+		return (issueFormat == IssueFormat.CODES) ? getInvalidClaimIssueCodeMap() : getInvalidClaimWithIssuesMap();
+	}
+	
+	public IssueFormat getIssueFormat() {
+		return issueFormat;
+	}
+	
+	// Reported in a response header rather than the body, which keeps its original format
+	public String getRuleSetVersion() {
+		return ruleSetVersion;
+	}
 }
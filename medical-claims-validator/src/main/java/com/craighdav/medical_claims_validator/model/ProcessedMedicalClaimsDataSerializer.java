@@ -0,0 +1,108 @@
+package com.craighdav.medical_claims_validator.model;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.fasterxml.jackson.databind.util.NameTransformer;
+
+/**
+ * This class is purposed to write a ProcessedMedicalClaimsData as JSON incrementally.
+ *
+ * Class ProcessedMedicalClaimsDataSerializer writes "validClaimIds" straight from the set of
+ * valid claim IDs and "invalidClaimIds" one claim at a time, rendering each claim's issues
+ * just before they are written and dropping them right after. Unlike serializing the
+ * getters, no map of every claim's rendered issues is built first, so the tail of a large
+ * response needs little more memory than the validation result itself. The generator is
+ * flushed every ENTRIES_PER_FLUSH claims, so that a large response reaches the client in
+ * chunks while the rest is still being written.
+ *
+ * The JSON is byte for byte the one the getters produce: claims are listed in the order of
+ * the result's map, which the getters keep, and each claim's issues are serialized by
+ * Jackson exactly as before. The serializer also supports
+ * @JsonUnwrapped, which IncrementalValidationResult uses to add its own field.
+ */
+public class ProcessedMedicalClaimsDataSerializer extends StdSerializer<ProcessedMedicalClaimsData> {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final int ENTRIES_PER_FLUSH = 1_000;
+
+	// Renames the fields when unwrapped into an enclosing object, null when not unwrapped;
+	// transient, since NameTransformer is not serializable
+	private final transient NameTransformer nameTransformer;
+
+	public ProcessedMedicalClaimsDataSerializer() {
+		this(null);
+	}
+
+	private ProcessedMedicalClaimsDataSerializer(NameTransformer nameTransformer) {
+		super(ProcessedMedicalClaimsData.class);
+		this.nameTransformer = nameTransformer;
+	}
+
+	@Override
+	public void serialize(ProcessedMedicalClaimsData processedMedicalClaimsData, JsonGenerator generator,
+							SerializerProvider serializerProvider) throws IOException {
+
+		if (nameTransformer == null) {
+			generator.writeStartObject(processedMedicalClaimsData);
+		}
+
+		int unflushedEntryCount = 0;
+
+		generator.writeFieldName(transformName("validClaimIds"));
+		generator.writeStartArray();
+		for (Long validClaimId : processedMedicalClaimsData.getValidClaimIdSet()) {
+			generator.writeNumber(validClaimId.longValue());
+
+			if (++unflushedEntryCount >= ENTRIES_PER_FLUSH) {
+				generator.flush();
+				unflushedEntryCount = 0;
+			}
+		}
+		generator.writeEndArray();
+
+		boolean isCodesFormat = (processedMedicalClaimsData.getIssueFormat() == IssueFormat.CODES);
+
+		generator.writeFieldName(transformName("invalidClaimIds"));
+		generator.writeStartObject();
+		for (Map.Entry<Long, List<ClaimIssue>> invalidClaimEntry
+							: processedMedicalClaimsData.getInvalidClaimIssueMapUnwrapped().entrySet()) {
+
+			generator.writeFieldName(invalidClaimEntry.getKey().toString());
+			serializerProvider.defaultSerializeValue(isCodesFormat
+								? ClaimIssue.collectIssueCodes(invalidClaimEntry.getValue())
+								: ClaimIssue.renderMessages(invalidClaimEntry.getValue()), generator);
+
+			if (++unflushedEntryCount >= ENTRIES_PER_FLUSH) {
+				generator.flush();
+				unflushedEntryCount = 0;
+			}
+		}
+		generator.writeEndObject();
+
+		if (nameTransformer == null) {
+			generator.writeEndObject();
+		}
+	}
+
+	@Override
+	public boolean isUnwrappingSerializer() {
+		return (nameTransformer != null);
+	}
+
+	@Override
+	public JsonSerializer<ProcessedMedicalClaimsData> unwrappingSerializer(NameTransformer unwrapper) {
+		return new ProcessedMedicalClaimsDataSerializer(
+					(nameTransformer == null) ? unwrapper : NameTransformer.chainedTransformer(unwrapper, nameTransformer));
+	}
+
+	private String transformName(String fieldName) {
+		return (nameTransformer == null) ? fieldName : nameTransformer.transform(fieldName);
+	}
+}
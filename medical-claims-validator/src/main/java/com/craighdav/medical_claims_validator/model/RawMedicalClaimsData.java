@@ -1,5 +1,7 @@
 package com.craighdav.medical_claims_validator.model;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
@@ -8,7 +10,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.validation.constraints.NotNull;
 
 public class RawMedicalClaimsData {
-	@NotNull(message = "Patients must not be null")
+	// Optional, since patients may instead be registered with the service
 	private final List<Patient> patientList;
 	
 	@NotNull(message = "Claims must not be null")
@@ -16,20 +18,24 @@ public class RawMedicalClaimsData {
 	
 	@NotNull(message = "Charges must not be null")
 	private final List<Charge> chargeList;
+	
+	// The same batch as columns, when the decoder read it as such; null otherwise
+	private final ColumnarClaimsBatch columnarClaimsBatch;
 
 	/**
 	 * RawMedicalClaimsData represents the data passed to the RESTful controller via @RequestBody.
 	 * 
 	 * Class RawMedicalClaimsData stores the data unmarshaled by Jackson via the controller
-	 * method's @RequestBody binding. Since instances of this class are not created anywhere 
-	 * within the application code itself, the constructor assigns the list references to
-	 * its instance fields rather than making deep copies.
+	 * method's @RequestBody binding. The constructor copies each list once, so the batch is
+	 * a snapshot that later changes to the caller's lists do not affect, and the getters
+	 * return unmodifiable views of those copies without copying them again.
 	 * 
 	 * Although not strictly required, each claim in claimsList should reference a patient
-	 * in patientList (via patientId), while each charge in chargeList should reference
-	 * a claim in claimList (via claimId).
+	 * in patientList or in the patient registry (via patientId), while each charge in
+	 * chargeList should reference a claim in claimList (via claimId). An omitted patient
+	 * list is treated as empty.
 	 * 
-	 * @param patientList List of patients defined as "patients" in JSON
+	 * @param patientList List of patients defined as "patients" in JSON, or null
 	 * @param claimList List of claims defined as "claims" in JSON
 	 * @param chargeList List of charges defined as "charges" in JSON
 	 */
@@ -37,35 +43,71 @@ public class RawMedicalClaimsData {
 	public RawMedicalClaimsData(@JsonProperty("patients") List<Patient>patientList,
 								@JsonProperty("claims") List<Claim> claimList,
 								@JsonProperty("charges") List<Charge> chargeList) {
-		this.patientList = patientList;
-		this.claimList = claimList;
-		this.chargeList = chargeList;
+		this(patientList, claimList, chargeList, null);
+	}
+	
+	/**
+	 * This constructor also takes the batch as columns, for a decoder that reads the batch
+	 * column by column, so that the columnar engine does not convert the lists again.
+	 * 
+	 * @param patientList List of patients, or null
+	 * @param claimList List of claims
+	 * @param chargeList List of charges
+	 * @param columnarClaimsBatch The same patients, claims and charges as columns, or null
+	 */
+	public RawMedicalClaimsData(List<Patient> patientList, List<Claim> claimList, List<Charge> chargeList,
+								ColumnarClaimsBatch columnarClaimsBatch) {
+		this.patientList = (patientList == null) ? List.of() : snapshotOf(patientList);
+		this.claimList = (claimList == null) ? null : snapshotOf(claimList);
+		this.chargeList = (chargeList == null) ? null : snapshotOf(chargeList);
+		this.columnarClaimsBatch = columnarClaimsBatch;
 	}
 	
 	/**
-	 * Method getPatientList returns a fresh, immutable copy of patientList.
+	 * Method getPatientList returns an unmodifiable view of the patients copied on
+	 * construction.
+	 * 
+	 * The view is not copied again, so reading a large batch does not duplicate its patients.
 	 * 
 	 * @return The list of patients as List<Patient>
 	 */
 	public List<Patient> getPatientList() {
-		return List.copyOf(patientList);
+		return patientList;
 	}
 	
 	/**
-	 * Method getClaimList returns a fresh, immutable copy of claimList.
+	 * Method getClaimList returns an unmodifiable view of the claims copied on construction.
+	 * 
+	 * The view is not copied again, so reading a large batch does not duplicate its claims.
 	 * 
-	 * @return The list of claims as List<Claim>
+	 * @return The list of claims as List<Claim>, or null if "claims" was omitted
 	 */
 	public List<Claim> getClaimList() {
-		return List.copyOf(claimList);
+		return claimList;
 	}
 	
 	/**
-	 * Method getChargeList returns a fresh, immutable copy of chargeList.
+	 * Method getChargeList returns an unmodifiable view of the charges copied on construction.
 	 * 
-	 * @return The list of charges as List<Charge>
+	 * The view is not copied again, so reading a large batch does not duplicate its charges.
+	 * 
+	 * @return The list of charges as List<Charge>, or null if "charges" was omitted
 	 */
 	public List<Charge> getChargeList() {
-		return List.copyOf(chargeList);
+		return chargeList;
+	}
+	
+	/*
+	 * The batch as columns, if it was decoded as such (see ColumnarClaimsBatch.from).
+	 */
+	ColumnarClaimsBatch getColumnarClaimsBatch() {
+		return columnarClaimsBatch;
+	}
+	
+	/*
+	 * Unlike List.copyOf, the copy keeps null elements, which Bean Validation then reports.
+	 */
+	private static <T> List<T> snapshotOf(List<T> list) {
+		return Collections.unmodifiableList(new ArrayList<>(list));
 	}
 }
@@ -0,0 +1,57 @@
+package com.craighdav.medical_claims_validator.model;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.databind.JsonNode;
+
+@JsonPropertyOrder({ "jobId", "page", "pageCount", "results" })
+public class ValidationJobResultPage {
+
+	private final String jobId;
+	private final int page;
+	private final int pageCount;
+	private final List<JsonNode> resultList;
+
+	/**
+	 * ValidationJobResultPage represents one page of the results of a completed validation
+	 * job.
+	 *
+	 * Class ValidationJobResultPage carries the results as they were written to disk by the
+	 * job, one per claim in the same form as the lines of /validateClaims/stream (claimId,
+	 * valid, issues), so that a page is served without binding the results again.
+	 *
+	 * @param jobId The ID of the job
+	 * @param page The zero-based index of the page
+	 * @param pageCount The number of pages of the job
+	 * @param resultList The claim results of the page
+	 */
+	public ValidationJobResultPage(String jobId, int page, int pageCount, List<JsonNode> resultList) {
+		this.jobId = jobId;
+		this.page = page;
+		this.pageCount = pageCount;
+		this.resultList = resultList;
+	}
+
+	@JsonProperty("jobId")
+	public String getJobId() {
+		return jobId;
+	}
+
+	@JsonProperty("page")
+	public int getPage() {
+		return page;
+	}
+
+	@JsonProperty("pageCount")
+	public int getPageCount() {
+		return pageCount;
+	}
+
+	@JsonProperty("results")
+	public List<JsonNode> getResultList() {
+		return Collections.unmodifiableList(resultList);
+	}
+}
@@ -0,0 +1,106 @@
+package com.craighdav.medical_claims_validator.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+@JsonPropertyOrder({ "jobId", "state", "totalClaims", "processedClaims", "validClaims", "invalidClaims",
+						"pageCount", "ruleSetVersion", "error" })
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ValidationJobStatus {
+
+	/**
+	 * State is the stage of a validation job. A job is QUEUED until a worker takes it, then
+	 * RUNNING, and finally either COMPLETED, when its results may be retrieved, or FAILED.
+	 */
+	public enum State {
+		QUEUED,
+		RUNNING,
+		COMPLETED,
+		FAILED
+	}
+
+	private final String jobId;
+	private final State state;
+	private final long totalClaimCount;
+	private final long processedClaimCount;
+	private final long validClaimCount;
+	private final long invalidClaimCount;
+	private final int pageCount;
+	private final String ruleSetVersion;
+	private final String error;
+
+	/**
+	 * ValidationJobStatus represents the progress of a validation job, as reported by the
+	 * job status endpoint.
+	 *
+	 * @param jobId The ID of the job
+	 * @param state The stage of the job
+	 * @param totalClaimCount The number of claims of the job, including claims that only
+	 *                        orphan charges reference once the job is running
+	 * @param processedClaimCount The number of claims validated so far
+	 * @param validClaimCount The number of valid claims so far
+	 * @param invalidClaimCount The number of invalid claims so far
+	 * @param pageCount The number of result pages, 0 until the job is COMPLETED
+	 * @param ruleSetVersion The version of the rule set validating the job, or null while QUEUED
+	 * @param error The reason a FAILED job failed, otherwise null
+	 */
+	public ValidationJobStatus(String jobId, State state, long totalClaimCount, long processedClaimCount,
+								long validClaimCount, long invalidClaimCount, int pageCount,
+								String ruleSetVersion, String error) {
+		this.jobId = jobId;
+		this.state = state;
+		this.totalClaimCount = totalClaimCount;
+		this.processedClaimCount = processedClaimCount;
+		this.validClaimCount = validClaimCount;
+		this.invalidClaimCount = invalidClaimCount;
+		this.pageCount = pageCount;
+		this.ruleSetVersion = ruleSetVersion;
+		this.error = error;
+	}
+
+	@JsonProperty("jobId")
+	public String getJobId() {
+		return jobId;
+	}
+
+	@JsonProperty("state")
+	public State getState() {
+		return state;
+	}
+
+	@JsonProperty("totalClaims")
+	public long getTotalClaimCount() {
+		return totalClaimCount;
+	}
+
+	@JsonProperty("processedClaims")
+	public long getProcessedClaimCount() {
+		return processedClaimCount;
+	}
+
+	@JsonProperty("validClaims")
+	public long getValidClaimCount() {
+		return validClaimCount;
+	}
+
+	@JsonProperty("invalidClaims")
+	public long getInvalidClaimCount() {
+		return invalidClaimCount;
+	}
+
+	@JsonProperty("pageCount")
+	public int getPageCount() {
+		return pageCount;
+	}
+
+	@JsonProperty("ruleSetVersion")
+	public String getRuleSetVersion() {
+		return ruleSetVersion;
+	}
+
+	@JsonProperty("error")
+	public String getError() {
+		return error;
+	}
+}
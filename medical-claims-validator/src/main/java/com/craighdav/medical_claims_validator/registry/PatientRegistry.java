@@ -0,0 +1,205 @@
+package com.craighdav.medical_claims_validator.registry;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.craighdav.medical_claims_validator.config.MedicalClaimsValidatorProperties;
+import com.craighdav.medical_claims_validator.model.Patient;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * This class is purposed to keep the patients registered with the service, so that
+ * validation requests may omit patients that rarely change.
+ *
+ * Class PatientRegistry persists every upserted patient in a PatientRegistryLog, an
+ * append-only file indexed by patient ID, and serves lookups through a read-through cache
+ * of at most cacheSize patients that evicts the least recently used patient first. Only the
+ * index and the cache are held in memory, so the number of registered patients is bound by
+ * disk space rather than heap.
+ *
+ * The registry is disabled when no registry file is configured: findPatient then finds no
+ * patient, and upsert is rejected with an IllegalStateException.
+ *
+ * This class is thread-safe.
+ */
+@Component
+public class PatientRegistry {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(PatientRegistry.class);
+
+	private final PatientRegistryLog patientRegistryLog;
+	private final Map<Long, Patient> patientCache;
+
+	// Guards the log's index and appends as well as the cache; a ReentrantLock rather than a
+	// monitor, so that a virtual thread writing the log does not pin its carrier thread
+	private final ReentrantLock lock = new ReentrantLock();
+
+	// Incremented by every upsert, so that results depending on registered patients can tell
+	// whether they are still current
+	private volatile long generation;
+
+	@Autowired
+	public PatientRegistry(MedicalClaimsValidatorProperties medicalClaimsValidatorProperties) {
+		this(toPath(medicalClaimsValidatorProperties.getPatientRegistryFile()),
+				medicalClaimsValidatorProperties.getPatientRegistryCacheSize());
+	}
+
+	/**
+	 * @param registryPath The file persisting the registry, or null to disable the registry
+	 * @param cacheSize The maximum number of patients held in the cache
+	 */
+	public PatientRegistry(Path registryPath, int cacheSize) {
+
+		if (registryPath == null) {
+			this.patientRegistryLog = null;
+		} else {
+			try {
+				this.patientRegistryLog = new PatientRegistryLog(registryPath);
+			} catch (IOException e) {
+				throw new UncheckedIOException("Failed to open patient registry " + registryPath, e);
+			}
+
+			LOGGER.info("Opened patient registry {} with {} patients", registryPath, patientRegistryLog.size());
+		}
+
+		this.patientCache = new LinkedHashMap<>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, Patient> eldestEntry) {
+				return size() > cacheSize;
+			}
+		};
+	}
+
+	public boolean isEnabled() {
+		return patientRegistryLog != null;
+	}
+
+	/**
+	 * This method returns the number of upserts made to the registry since it was opened.
+	 *
+	 * The generation is incremented once an upsert has been written, so that a result cached
+	 * under one generation is not served after a later upsert.
+	 *
+	 * @return The generation of the registered patients
+	 */
+	public long getGeneration() {
+		return generation;
+	}
+
+	/**
+	 * This method registers patients, replacing any patient already registered under the
+	 * same ID.
+	 *
+	 * The patients are written to the registry file and flushed to disk before the method
+	 * returns.
+	 *
+	 * @param patients The patients to be registered
+	 * @throws IllegalStateException if the registry is disabled
+	 * @throws UncheckedIOException if the registry file cannot be written
+	 */
+	public void upsert(Collection<Patient> patients) {
+
+		if (!isEnabled()) {
+			throw new IllegalStateException("The patient registry is not enabled");
+		}
+
+		lock.lock();
+		try {
+			// The batch is written at once and flushed once, and is indexed only if it was written whole
+			patientRegistryLog.append(patients);
+			for (Patient patient : patients) {
+				patientCache.remove(patient.getId());
+			}
+
+			patientRegistryLog.force();
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to write patient registry", e);
+		} finally {
+			generation++;
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * This method looks up a registered patient.
+	 *
+	 * @param patientId The ID of the patient
+	 * @return The registered patient, or null if none is registered under patientId
+	 * @throws UncheckedIOException if the registry file cannot be read
+	 */
+	public Patient findPatient(long patientId) {
+
+		if (!isEnabled()) {
+			return null;
+		}
+
+		long recordOffset;
+		lock.lock();
+		try {
+			Patient patient = patientCache.get(patientId);
+			if (patient != null) {
+				return patient;
+			}
+
+			recordOffset = patientRegistryLog.findOffset(patientId);
+		} finally {
+			lock.unlock();
+		}
+
+		if (recordOffset < 0L) {
+			return null;
+		}
+
+		Patient patient;
+		try {
+			patient = patientRegistryLog.read(recordOffset);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Failed to read patient registry", e);
+		}
+
+		lock.lock();
+		try {
+			// Cache the record only if no upsert has superseded it meanwhile
+			if (patientRegistryLog.findOffset(patientId) == recordOffset) {
+				patientCache.put(patientId, patient);
+			}
+		} finally {
+			lock.unlock();
+		}
+
+		return patient;
+	}
+
+	/**
+	 * This method closes the registry file.
+	 */
+	@PreDestroy
+	public void close() {
+		if (!isEnabled()) {
+			return;
+		}
+
+		try {
+			patientRegistryLog.close();
+		} catch (IOException e) {
+			LOGGER.warn("Failed to close patient registry", e);
+		}
+	}
+
+	private static Path toPath(String patientRegistryFile) {
+		return ((patientRegistryFile == null) || patientRegistryFile.isBlank()) ? null : Path.of(patientRegistryFile);
+	}
+}
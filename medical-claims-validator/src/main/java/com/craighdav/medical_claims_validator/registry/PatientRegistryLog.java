@@ -0,0 +1,307 @@
+package com.craighdav.medical_claims_validator.registry;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.zip.CRC32;
+
+import com.craighdav.medical_claims_validator.model.Patient;
+import com.craighdav.util.LongLongHashMap;
+
+/**
+ * This class is purposed to persist patients in an append-only file.
+ *
+ * Class PatientRegistryLog writes every upserted patient as a new record at the end of the
+ * file and keeps an in-memory index from patient ID to the offset of the patient's latest
+ * record. The index is rebuilt by scanning the file when it is opened; a record cut short
+ * by a crash, or failing its checksum, ends the scan and is truncated, so the file always
+ * ends with a complete record. Superseded records are never rewritten or removed.
+ *
+ * The records of a batch are written together and indexed only once all of them have been
+ * written. A failed write truncates the file back to the start of the batch, so that no torn
+ * record is left for later batches to be appended after, and where they would be lost to the
+ * next scan. If the file cannot be truncated, or cannot be flushed, the log refuses further
+ * appends until it is reopened. A crash before the batch has been flushed may still keep
+ * some of its records, but always whole ones.
+ *
+ * Record layout (big-endian):
+ *
+ *   int   length of the rest of the record, checksum included
+ *   long  patient ID
+ *   long  birth date as an epoch day
+ *   short length, then the UTF-8 bytes of the first name
+ *   short length, then the UTF-8 bytes of the last name
+ *   int   CRC-32 of the bytes from patient ID to the end of the last name
+ *
+ * Appends are serialized by the caller; reads may run concurrently with them.
+ */
+final class PatientRegistryLog implements Closeable {
+
+	private static final int LENGTH_BYTES = Integer.BYTES;
+	private static final int CHECKSUM_BYTES = Integer.BYTES;
+	private static final int MIN_RECORD_BYTES = Long.BYTES + Long.BYTES + Short.BYTES + Short.BYTES + CHECKSUM_BYTES;
+	private static final int MAX_NAME_BYTES = Short.MAX_VALUE;
+
+	private final FileChannel fileChannel;
+	private final LongLongHashMap patientOffsetIndex = new LongLongHashMap();
+	private long endOffset;
+
+	// The failure that left the file in an unknown state, after which appends are refused
+	private IOException writeFailure;
+
+	/**
+	 * This method opens (or creates) the log at path and rebuilds its index.
+	 *
+	 * @param path The file holding the registry
+	 * @throws IOException if the file cannot be opened, read or truncated
+	 */
+	PatientRegistryLog(Path path) throws IOException {
+
+		Path parentPath = path.toAbsolutePath().getParent();
+		if (parentPath != null) {
+			Files.createDirectories(parentPath);
+		}
+
+		this.fileChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+												StandardOpenOption.WRITE);
+
+		try {
+			this.endOffset = scan();
+			if (endOffset < fileChannel.size()) {
+				fileChannel.truncate(endOffset);
+			}
+		} catch (IOException e) {
+			fileChannel.close();
+			throw e;
+		}
+	}
+
+	int size() {
+		return patientOffsetIndex.size();
+	}
+
+	/**
+	 * This method returns the offset of the latest record of a patient.
+	 *
+	 * @param patientId The patient ID to be looked up
+	 * @return The record offset, or -1 if the patient has never been written
+	 */
+	long findOffset(long patientId) {
+		return patientOffsetIndex.getOrDefault(patientId, -1L);
+	}
+
+	/**
+	 * This method appends a record for each patient and points the index at them.
+	 *
+	 * The records are written but not forced to disk; see force(). If they cannot all be
+	 * written, none of them is kept or indexed.
+	 *
+	 * @param patients The patients to be written
+	 * @throws IOException if the records cannot be written, or an earlier failure left the
+	 *         file in an unknown state
+	 */
+	void append(Collection<Patient> patients) throws IOException {
+
+		requireWritable();
+
+		long[] recordOffsets = new long[patients.size()];
+		ByteBuffer[] recordBuffers = new ByteBuffer[patients.size()];
+		long batchOffset = endOffset;
+		long recordOffset = batchOffset;
+		int recordIndex = 0;
+		for (Patient patient : patients) {
+			recordOffsets[recordIndex] = recordOffset;
+			recordBuffers[recordIndex] = encode(patient);
+			recordOffset += recordBuffers[recordIndex].remaining();
+			recordIndex++;
+		}
+
+		try {
+			long writeOffset = batchOffset;
+			for (ByteBuffer recordBuffer : recordBuffers) {
+				while (recordBuffer.hasRemaining()) {
+					writeOffset += fileChannel.write(recordBuffer, writeOffset);
+				}
+			}
+		} catch (IOException e) {
+			truncateAfterFailedWrite(batchOffset, e);
+			throw e;
+		}
+
+		endOffset = recordOffset;
+
+		recordIndex = 0;
+		for (Patient patient : patients) {
+			patientOffsetIndex.put(patient.getId(), recordOffsets[recordIndex++]);
+		}
+	}
+
+	/**
+	 * This method flushes the appended records to the storage device.
+	 *
+	 * A failed flush leaves the records' durability unknown, so the log then refuses further
+	 * appends.
+	 *
+	 * @throws IOException if the records cannot be flushed
+	 */
+	void force() throws IOException {
+
+		requireWritable();
+
+		try {
+			fileChannel.force(false);
+		} catch (IOException e) {
+			writeFailure = e;
+			throw e;
+		}
+	}
+
+	/**
+	 * This method reads the patient record at recordOffset.
+	 *
+	 * @param recordOffset An offset returned by findOffset
+	 * @return The patient stored in the record
+	 * @throws IOException if the record cannot be read
+	 */
+	Patient read(long recordOffset) throws IOException {
+
+		ByteBuffer lengthBuffer = ByteBuffer.allocate(LENGTH_BYTES);
+		readFully(lengthBuffer, recordOffset);
+
+		ByteBuffer recordBuffer = ByteBuffer.allocate(lengthBuffer.getInt(0));
+		readFully(recordBuffer, recordOffset + LENGTH_BYTES);
+
+		return decode(recordBuffer);
+	}
+
+	@Override
+	public void close() throws IOException {
+		fileChannel.close();
+	}
+
+	private void requireWritable() throws IOException {
+		if (writeFailure != null) {
+			throw new IOException("Patient registry refuses writes after a failed write; reopen it", writeFailure);
+		}
+	}
+
+	/*
+	 * Drop whatever part of a batch was written, or refuse further appends if even that fails.
+	 */
+	private void truncateAfterFailedWrite(long batchOffset, IOException writeException) {
+		try {
+			fileChannel.truncate(batchOffset);
+		} catch (IOException e) {
+			writeException.addSuppressed(e);
+			writeFailure = writeException;
+		}
+	}
+
+	/*
+	 * Index every complete, intact record and return the offset following the last one.
+	 */
+	private long scan() throws IOException {
+
+		long fileSize = fileChannel.size();
+		long recordOffset = 0L;
+		ByteBuffer lengthBuffer = ByteBuffer.allocate(LENGTH_BYTES);
+
+		while (recordOffset + LENGTH_BYTES <= fileSize) {
+			lengthBuffer.clear();
+			readFully(lengthBuffer, recordOffset);
+
+			int recordLength = lengthBuffer.getInt(0);
+			if ((recordLength < MIN_RECORD_BYTES) || (recordOffset + LENGTH_BYTES + recordLength > fileSize)) {
+				break;
+			}
+
+			ByteBuffer recordBuffer = ByteBuffer.allocate(recordLength);
+			readFully(recordBuffer, recordOffset + LENGTH_BYTES);
+			if (!hasValidChecksum(recordBuffer)) {
+				break;
+			}
+
+			patientOffsetIndex.put(recordBuffer.getLong(0), recordOffset);
+			recordOffset += LENGTH_BYTES + recordLength;
+		}
+
+		return recordOffset;
+	}
+
+	private void readFully(ByteBuffer buffer, long position) throws IOException {
+		while (buffer.hasRemaining()) {
+			int readCount = fileChannel.read(buffer, position + buffer.position());
+			if (readCount < 0) {
+				throw new IOException("Unexpected end of patient registry file at offset " + position);
+			}
+		}
+	}
+
+	private static ByteBuffer encode(Patient patient) {
+
+		byte[] firstNameBytes = toNameBytes(patient.getFirstName());
+		byte[] lastNameBytes = toNameBytes(patient.getLastName());
+		int recordLength = MIN_RECORD_BYTES + firstNameBytes.length + lastNameBytes.length;
+
+		ByteBuffer recordBuffer = ByteBuffer.allocate(LENGTH_BYTES + recordLength);
+		recordBuffer.putInt(recordLength)
+					.putLong(patient.getId())
+					.putLong(patient.getBirthDate().toEpochDay())
+					.putShort((short) firstNameBytes.length).put(firstNameBytes)
+					.putShort((short) lastNameBytes.length).put(lastNameBytes);
+
+		CRC32 crc32 = new CRC32();
+		crc32.update(recordBuffer.array(), LENGTH_BYTES, recordLength - CHECKSUM_BYTES);
+		recordBuffer.putInt((int) crc32.getValue());
+
+		return recordBuffer.flip();
+	}
+
+	private static Patient decode(ByteBuffer recordBuffer) throws IOException {
+
+		if (!hasValidChecksum(recordBuffer)) {
+			throw new IOException("Corrupt patient registry record");
+		}
+
+		recordBuffer.rewind();
+		long patientId = recordBuffer.getLong();
+		LocalDate birthDate = LocalDate.ofEpochDay(recordBuffer.getLong());
+		String firstName = readName(recordBuffer);
+		String lastName = readName(recordBuffer);
+
+		return new Patient(patientId, firstName, lastName, birthDate);
+	}
+
+	private static boolean hasValidChecksum(ByteBuffer recordBuffer) {
+		int checksumOffset = recordBuffer.capacity() - CHECKSUM_BYTES;
+
+		CRC32 crc32 = new CRC32();
+		crc32.update(recordBuffer.array(), 0, checksumOffset);
+
+		return (int) crc32.getValue() == recordBuffer.getInt(checksumOffset);
+	}
+
+	private static byte[] toNameBytes(String name) {
+		byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+
+		if (nameBytes.length > MAX_NAME_BYTES) {
+			throw new IllegalArgumentException("Patient name exceeds " + MAX_NAME_BYTES + " bytes");
+		}
+
+		return nameBytes;
+	}
+
+	private static String readName(ByteBuffer recordBuffer) {
+		byte[] nameBytes = new byte[recordBuffer.getShort()];
+		recordBuffer.get(nameBytes);
+
+		return new String(nameBytes, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,142 @@
+package com.craighdav.medical_claims_validator.rules;
+
+/**
+ * This class is purposed to evaluate the conditions of one RuleDefinition.
+ *
+ * Class CompiledRule holds the definition's conditions as plain fields; the procedure code
+ * itself is not checked here because a RuleSet only offers a rule to charges whose code it
+ * already matches.
+ */
+final class CompiledRule {
+
+	private final String id;
+	private final int order;
+	private final Long procedureCode;
+	private final long procedureCodePrefix;
+	private final String placeOfServiceEquals;
+	private final String placeOfServiceNotEquals;
+	private final boolean patientMissing;
+	private final boolean hasAgeRange;
+	private final int minAge;
+	private final int maxAge;
+	private final MessageTemplate messageTemplate;
+
+	/*
+	 * Compile a definition, rejecting those that could never be evaluated consistently.
+	 */
+	CompiledRule(RuleDefinition ruleDefinition, int order) {
+
+		String id = ruleDefinition.getId();
+		if ((id == null) || id.isBlank()) {
+			throw new IllegalArgumentException("Rule " + order + ": id must not be blank");
+		}
+
+		if ((ruleDefinition.getProcedureCode() == null) == (ruleDefinition.getProcedureCodePrefix() == null)) {
+			throw new IllegalArgumentException(
+						"Rule " + id + ": exactly one of procedureCode or procedureCodePrefix is required");
+		}
+
+		if ((ruleDefinition.getProcedureCode() != null) && (ruleDefinition.getProcedureCode() <= 0)) {
+			throw new IllegalArgumentException("Rule " + id + ": procedureCode must be positive");
+		}
+
+		String prefix = ruleDefinition.getProcedureCodePrefix();
+		if ((prefix != null) && !prefix.matches("[1-9][0-9]{0,17}")) {
+			throw new IllegalArgumentException(
+						"Rule " + id + ": procedureCodePrefix must be digits without a leading zero");
+		}
+
+		this.hasAgeRange = (ruleDefinition.getMinAge() != null) || (ruleDefinition.getMaxAge() != null);
+		this.minAge = (ruleDefinition.getMinAge() != null) ? ruleDefinition.getMinAge() : Integer.MIN_VALUE;
+		this.maxAge = (ruleDefinition.getMaxAge() != null) ? ruleDefinition.getMaxAge() : Integer.MAX_VALUE;
+
+		if (minAge > maxAge) {
+			throw new IllegalArgumentException("Rule " + id + ": minAge must not exceed maxAge");
+		}
+
+		if (hasAgeRange && ruleDefinition.isPatientMissing()) {
+			throw new IllegalArgumentException(
+						"Rule " + id + ": an age range cannot apply when the patient is missing");
+		}
+
+		if ((ruleDefinition.getMessage() == null) || ruleDefinition.getMessage().isBlank()) {
+			throw new IllegalArgumentException("Rule " + id + ": message must not be blank");
+		}
+
+		try {
+			this.messageTemplate = MessageTemplate.parse(ruleDefinition.getMessage());
+		} catch (IllegalArgumentException illegalArgumentException) {
+			throw new IllegalArgumentException("Rule " + id + ": " + illegalArgumentException.getMessage(),
+													illegalArgumentException);
+		}
+
+		if (messageTemplate.usesPatientAge() && !hasAgeRange) {
+			throw new IllegalArgumentException(
+						"Rule " + id + ": {patientAge} may only be used by rules with an age range");
+		}
+
+		this.id = id;
+		this.order = order;
+		this.procedureCode = ruleDefinition.getProcedureCode();
+		this.procedureCodePrefix = (prefix != null) ? Long.parseLong(prefix) : 0L;
+		this.placeOfServiceEquals = ruleDefinition.getPlaceOfServiceEquals();
+		this.placeOfServiceNotEquals = ruleDefinition.getPlaceOfServiceNotEquals();
+		this.patientMissing = ruleDefinition.isPatientMissing();
+	}
+
+	String getId() {
+		return id;
+	}
+
+	int getOrder() {
+		return order;
+	}
+
+	boolean hasAgeRange() {
+		return hasAgeRange;
+	}
+
+	boolean isExactProcedureCode() {
+		return procedureCode != null;
+	}
+
+	long getProcedureCode() {
+		return procedureCode;
+	}
+
+	long getProcedureCodePrefix() {
+		return procedureCodePrefix;
+	}
+
+	/*
+	 * Check whether a charge of a claim at placeOfService, whose patient has patientAge (or
+	 * RuleSet.NO_PATIENT_AGE), violates this rule.
+	 */
+	boolean isViolatedBy(String placeOfService, int patientAge) {
+
+		if ((placeOfServiceEquals != null) && !placeOfServiceEquals.equals(placeOfService)) {
+			return false;
+		}
+
+		if ((placeOfServiceNotEquals != null) && placeOfServiceNotEquals.equals(placeOfService)) {
+			return false;
+		}
+
+		boolean isPatientMissing = (patientAge == RuleSet.NO_PATIENT_AGE);
+
+		if (patientMissing) {
+			return isPatientMissing;
+		}
+
+		if (hasAgeRange) {
+			return !isPatientMissing && ((patientAge < minAge) || (patientAge > maxAge));
+		}
+
+		return true;
+	}
+
+	void renderIssue(StringBuilder issueBuilder, long chargeId, long claimId, long procedureCode, 
+						String placeOfService, int patientAge) {
+		messageTemplate.render(issueBuilder, chargeId, claimId, procedureCode, placeOfService, patientAge);
+	}
+}
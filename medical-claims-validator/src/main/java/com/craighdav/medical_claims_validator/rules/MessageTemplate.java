@@ -0,0 +1,106 @@
+package com.craighdav.medical_claims_validator.rules;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * This class is purposed to render a rule's issue message for a violating charge.
+ *
+ * Class MessageTemplate parses the template once into literal text and placeholders, so
+ * rendering only appends to a StringBuilder.
+ */
+final class MessageTemplate {
+
+	private static final String[] PLACEHOLDERS
+						= { "chargeId", "claimId", "procedureCode", "placeOfService", "patientAge" };
+
+	static final int CHARGE_ID = 0;
+	static final int CLAIM_ID = 1;
+	static final int PROCEDURE_CODE = 2;
+	static final int PLACE_OF_SERVICE = 3;
+	static final int PATIENT_AGE = 4;
+
+	// Literal text is stored as a String; placeholders as the Integer index into PLACEHOLDERS
+	private final Object[] segments;
+	private final boolean usesPatientAge;
+
+	private MessageTemplate(Object[] segments, boolean usesPatientAge) {
+		this.segments = segments;
+		this.usesPatientAge = usesPatientAge;
+	}
+
+	/**
+	 * This method parses a message template.
+	 *
+	 * @param template The template text with {placeholder} references
+	 * @return The parsed MessageTemplate
+	 * @throws IllegalArgumentException If a placeholder is unknown or not closed
+	 */
+	static MessageTemplate parse(String template) {
+
+		List<Object> segmentList = new ArrayList<>();
+		boolean usesPatientAge = false;
+		int position = 0;
+
+		while (position < template.length()) {
+			int placeholderStart = template.indexOf('{', position);
+			if (placeholderStart < 0) {
+				segmentList.add(template.substring(position));
+				break;
+			}
+
+			int placeholderEnd = template.indexOf('}', placeholderStart);
+			if (placeholderEnd < 0) {
+				throw new IllegalArgumentException("Unclosed placeholder in message: " + template);
+			}
+
+			if (placeholderStart > position) {
+				segmentList.add(template.substring(position, placeholderStart));
+			}
+
+			int placeholder = indexOfPlaceholder(template.substring(placeholderStart + 1, placeholderEnd));
+			if (placeholder < 0) {
+				throw new IllegalArgumentException("Unknown placeholder in message: " + template);
+			}
+
+			usesPatientAge |= (placeholder == PATIENT_AGE);
+			segmentList.add(placeholder);
+			position = placeholderEnd + 1;
+		}
+
+		return new MessageTemplate(segmentList.toArray(), usesPatientAge);
+	}
+
+	boolean usesPatientAge() {
+		return usesPatientAge;
+	}
+
+	void render(StringBuilder issueBuilder, long chargeId, long claimId, long procedureCode, 
+					String placeOfService, int patientAge) {
+
+		for (Object segment : segments) {
+			if (segment instanceof String literal) {
+				issueBuilder.append(literal);
+				continue;
+			}
+
+			switch ((Integer) segment) {
+				case CHARGE_ID -> issueBuilder.append(chargeId);
+				case CLAIM_ID -> issueBuilder.append(claimId);
+				case PROCEDURE_CODE -> issueBuilder.append(procedureCode);
+				case PLACE_OF_SERVICE -> issueBuilder.append(placeOfService);
+				default -> issueBuilder.append(patientAge);
+			}
+		}
+	}
+
+	private static int indexOfPlaceholder(String name) {
+		for (int placeholder = 0; placeholder < PLACEHOLDERS.length; placeholder++) {
+			if (PLACEHOLDERS[placeholder].equals(name)) {
+				return placeholder;
+			}
+		}
+
+		return -1;
+	}
+}
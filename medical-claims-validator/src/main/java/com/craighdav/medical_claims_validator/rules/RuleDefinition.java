@@ -0,0 +1,90 @@
+package com.craighdav.medical_claims_validator.rules;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * RuleDefinition represents one procedure code rule as written in a rule set file.
+ *
+ * Class RuleDefinition matches charges by either an exact procedureCode or a decimal
+ * procedureCodePrefix. A matching charge violates the rule when every optional condition
+ * also holds:
+ *
+ *   placeOfServiceEquals     the claim's place of service equals this value
+ *   placeOfServiceNotEquals  the claim's place of service differs from this value
+ *   patientMissing           no patient matches the claim
+ *   minAge / maxAge          the patient's age lies outside this (inclusive) allowed range;
+ *                            the rule is skipped when no patient matches the claim
+ *
+ * The message is a template whose {chargeId}, {claimId}, {procedureCode}, {placeOfService}
+ * and {patientAge} placeholders are replaced with the values of the violating charge.
+ */
+public class RuleDefinition {
+
+	private final String id;
+	private final Long procedureCode;
+	private final String procedureCodePrefix;
+	private final String placeOfServiceEquals;
+	private final String placeOfServiceNotEquals;
+	private final boolean patientMissing;
+	private final Integer minAge;
+	private final Integer maxAge;
+	private final String message;
+
+	@JsonCreator
+	public RuleDefinition(@JsonProperty("id") String id,
+							@JsonProperty("procedureCode") Long procedureCode,
+							@JsonProperty("procedureCodePrefix") String procedureCodePrefix,
+							@JsonProperty("placeOfServiceEquals") String placeOfServiceEquals,
+							@JsonProperty("placeOfServiceNotEquals") String placeOfServiceNotEquals,
+							@JsonProperty("patientMissing") boolean patientMissing,
+							@JsonProperty("minAge") Integer minAge,
+							@JsonProperty("maxAge") Integer maxAge,
+							@JsonProperty("message") String message) {
+		this.id = id;
+		this.procedureCode = procedureCode;
+		this.procedureCodePrefix = procedureCodePrefix;
+		this.placeOfServiceEquals = placeOfServiceEquals;
+		this.placeOfServiceNotEquals = placeOfServiceNotEquals;
+		this.patientMissing = patientMissing;
+		this.minAge = minAge;
+		this.maxAge = maxAge;
+		this.message = message;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public Long getProcedureCode() {
+		return procedureCode;
+	}
+
+	public String getProcedureCodePrefix() {
+		return procedureCodePrefix;
+	}
+
+	public String getPlaceOfServiceEquals() {
+		return placeOfServiceEquals;
+	}
+
+	public String getPlaceOfServiceNotEquals() {
+		return placeOfServiceNotEquals;
+	}
+
+	public boolean isPatientMissing() {
+		return patientMissing;
+	}
+
+	public Integer getMinAge() {
+		return minAge;
+	}
+
+	public Integer getMaxAge() {
+		return maxAge;
+	}
+
+	public String getMessage() {
+		return message;
+	}
+}
@@ -0,0 +1,353 @@
+package com.craighdav.medical_claims_validator.rules;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+
+import com.craighdav.medical_claims_validator.model.Charge;
+import com.craighdav.medical_claims_validator.model.Claim;
+import com.craighdav.medical_claims_validator.model.ClaimIssue;
+import com.craighdav.util.LongObjectHashMap;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+/**
+ * This class is purposed to evaluate a set of procedure code rules against charges.
+ *
+ * Class RuleSet compiles its RuleDefinitions into a dispatch table, so that each charge
+ * only evaluates the rules that can match its procedure code:
+ *
+ *   - every procedure code named by an exact rule has one entry,
+ *   - every multi-digit procedureCodePrefix has one entry,
+ *   - every single-digit prefix has one entry in a table indexed by leading digit.
+ *
+ * Each entry already holds, in declaration order, all rules that apply to the codes it
+ * covers, including those declared with a shorter prefix. A charge therefore needs its
+ * exact entry or else its longest matching prefix entry, which keeps the cost per charge
+ * independent of the number of rules.
+ *
+ * All rules a charge violates are reported as one issue, whose message joins theirs with a
+ * single space. A RuleSet is immutable and may be shared by concurrent validations; its version
+ * identifies the rule set file content it was compiled from.
+ */
+public final class RuleSet {
+
+	/**
+	 * The patientAge passed to evaluate when no patient matches the claim.
+	 */
+	public static final int NO_PATIENT_AGE = Integer.MIN_VALUE;
+
+	/**
+	 * The version of rule sets compiled directly from definitions rather than loaded.
+	 */
+	public static final String UNVERSIONED = "unversioned";
+
+	// Number of hex digits of the rule set file's SHA-256 digest used as its version
+	private static final int VERSION_LENGTH = 16;
+
+	private static final int MAX_PROCEDURE_CODE_DIGITS = 19;
+	private static final CompiledRule[] NO_RULES = new CompiledRule[0];
+
+	private static final ObjectMapper RULE_SET_MAPPER = JsonMapper.builder().build();
+
+	private final String version;
+	private final int ruleCount;
+	private final LongObjectHashMap<CompiledRule[]> exactProcedureCodeRules;
+	private final LongObjectHashMap<CompiledRule[]> procedureCodePrefixRules;
+	private final CompiledRule[][] leadingDigitRules;
+	private final long maxPrefixExclusive;
+
+	private RuleSet(String version, List<CompiledRule> compiledRuleList) {
+
+		this.version = version;
+		this.ruleCount = compiledRuleList.size();
+		this.exactProcedureCodeRules = new LongObjectHashMap<>();
+		this.procedureCodePrefixRules = new LongObjectHashMap<>();
+		this.leadingDigitRules = new CompiledRule[10][];
+
+		// Rules grouped by the exact code or the prefix they were declared with
+		LongObjectHashMap<List<CompiledRule>> declaredExactRules = new LongObjectHashMap<>();
+		LongObjectHashMap<List<CompiledRule>> declaredPrefixRules = new LongObjectHashMap<>();
+		long maxPrefix = 0;
+
+		for (CompiledRule compiledRule : compiledRuleList) {
+			if (compiledRule.isExactProcedureCode()) {
+				addDeclaredRule(declaredExactRules, compiledRule.getProcedureCode(), compiledRule);
+			} else {
+				addDeclaredRule(declaredPrefixRules, compiledRule.getProcedureCodePrefix(), compiledRule);
+				maxPrefix = Math.max(maxPrefix, compiledRule.getProcedureCodePrefix());
+			}
+		}
+
+		this.maxPrefixExclusive = powerOfTenAbove(maxPrefix);
+
+		// Each entry also receives the rules of every shorter prefix of its key
+		declaredExactRules.forEach((procedureCode, ruleList) -> exactProcedureCodeRules.put(
+						procedureCode, collectRules(procedureCode, ruleList, declaredPrefixRules)));
+
+		declaredPrefixRules.forEach((prefix, ruleList) -> {
+			CompiledRule[] prefixRules = collectRules(prefix / 10, ruleList, declaredPrefixRules);
+
+			if (prefix < 10) {
+				leadingDigitRules[(int) prefix] = prefixRules;
+			} else {
+				procedureCodePrefixRules.put(prefix, prefixRules);
+			}
+		});
+	}
+
+	/**
+	 * This method compiles rule definitions into a RuleSet.
+	 *
+	 * @param ruleDefinitionList The rule definitions in evaluation order
+	 * @return The compiled RuleSet
+	 * @throws IllegalArgumentException If a definition is invalid or two share an id
+	 */
+	public static RuleSet compile(List<RuleDefinition> ruleDefinitionList) {
+		return compile(UNVERSIONED, ruleDefinitionList);
+	}
+
+	private static RuleSet compile(String version, List<RuleDefinition> ruleDefinitionList) {
+
+		List<CompiledRule> compiledRuleList = new ArrayList<>(ruleDefinitionList.size());
+
+		for (RuleDefinition ruleDefinition : ruleDefinitionList) {
+			CompiledRule compiledRule = new CompiledRule(ruleDefinition, compiledRuleList.size());
+
+			for (CompiledRule otherCompiledRule : compiledRuleList) {
+				if (otherCompiledRule.getId().equals(compiledRule.getId())) {
+					throw new IllegalArgumentException("Duplicate rule id " + compiledRule.getId());
+				}
+			}
+
+			compiledRuleList.add(compiledRule);
+		}
+
+		return new RuleSet(version, compiledRuleList);
+	}
+
+	/**
+	 * This method reads and compiles a rule set file.
+	 *
+	 * Method load accepts any Spring resource location, e.g. "classpath:rules/default-rules.json"
+	 * or "file:/etc/medical-claims-validator/rules.json". The file holds a JSON object whose
+	 * "rules" array lists the RuleDefinitions in evaluation order. The version of the
+	 * returned RuleSet is derived from the SHA-256 digest of the file content, so any edit
+	 * of the file yields a new version.
+	 *
+	 * @param location The resource location of the rule set file
+	 * @return The compiled RuleSet
+	 * @throws UncheckedIOException If the file cannot be read or parsed
+	 * @throws IllegalArgumentException If a rule definition is invalid
+	 */
+	public static RuleSet load(String location) {
+
+		Resource resource = new DefaultResourceLoader().getResource(location);
+
+		byte[] ruleSetBytes;
+		RuleSetDefinition ruleSetDefinition;
+
+		try (InputStream inputStream = resource.getInputStream()) {
+			ruleSetBytes = inputStream.readAllBytes();
+			ruleSetDefinition = RULE_SET_MAPPER.readValue(ruleSetBytes, RuleSetDefinition.class);
+		} catch (IOException ioException) {
+			throw new UncheckedIOException("Cannot read rule set " + location, ioException);
+		}
+
+		if (ruleSetDefinition.rules == null) {
+			throw new IllegalArgumentException("Rule set " + location + " has no \"rules\" array");
+		}
+
+		return compile(toVersion(ruleSetBytes), ruleSetDefinition.rules);
+	}
+
+	public String getVersion() {
+		return version;
+	}
+
+	public int size() {
+		return ruleCount;
+	}
+
+	/**
+	 * This method evaluates every applicable rule for one charge.
+	 *
+	 * Method evaluate records which rules are violated without rendering their messages;
+	 * the returned issue renders the messages of all violated rules joined by a space.
+	 *
+	 * @param charge The charge to evaluate
+	 * @param claim The claim matching charge.getClaimId()
+	 * @param patientAge The age of the claim's patient, or NO_PATIENT_AGE when none matches
+	 * @return The issue recording the violated rules, or null when none is violated
+	 */
+	public ClaimIssue evaluate(Charge charge, Claim claim, int patientAge) {
+		return evaluate(charge.getId(), charge.getClaimId(), charge.getProcedureCode(), 
+							claim.getPlaceOfService(), patientAge);
+	}
+
+	/**
+	 * This method evaluates every applicable rule for one charge given by its values.
+	 *
+	 * Method evaluate is the form used by engines that keep charges and claims in columns
+	 * rather than as objects; it returns exactly the issue of the object form.
+	 *
+	 * @param chargeId The ID of the charge to evaluate
+	 * @param claimId The claim ID of the charge
+	 * @param procedureCode The procedure code of the charge
+	 * @param placeOfService The place of service of the claim matching claimId
+	 * @param patientAge The age of the claim's patient, or NO_PATIENT_AGE when none matches
+	 * @return The issue recording the violated rules, or null when none is violated
+	 */
+	public ClaimIssue evaluate(long chargeId, long claimId, long procedureCode, String placeOfService, 
+								int patientAge) {
+
+		CompiledRule[] applicableRules = findApplicableRules(procedureCode);
+
+		if (applicableRules.length > Long.SIZE) {
+			return evaluateWithoutMask(applicableRules, chargeId, claimId, procedureCode, placeOfService, 
+										patientAge);
+		}
+
+		long violatedRuleMask = 0L;
+		for (int ruleIndex = 0; ruleIndex < applicableRules.length; ruleIndex++) {
+			if (applicableRules[ruleIndex].isViolatedBy(placeOfService, patientAge)) {
+				violatedRuleMask |= 1L << ruleIndex;
+			}
+		}
+
+		if (violatedRuleMask == 0L) {
+			return null;
+		}
+
+		return new RuleViolation(applicableRules, violatedRuleMask, chargeId, claimId, procedureCode, 
+									placeOfService, patientAge);
+	}
+
+	/*
+	 * Too many rules apply to the charge's code for a bit mask; copy the violated ones instead.
+	 */
+	private ClaimIssue evaluateWithoutMask(CompiledRule[] applicableRules, long chargeId, long claimId, 
+											long procedureCode, String placeOfService, int patientAge) {
+
+		List<CompiledRule> violatedRuleList = new ArrayList<>();
+		for (CompiledRule compiledRule : applicableRules) {
+			if (compiledRule.isViolatedBy(placeOfService, patientAge)) {
+				violatedRuleList.add(compiledRule);
+			}
+		}
+
+		if (violatedRuleList.isEmpty()) {
+			return null;
+		}
+
+		return new RuleViolation(violatedRuleList.toArray(NO_RULES), RuleViolation.ALL_RULES,
+									chargeId, claimId, procedureCode, placeOfService, patientAge);
+	}
+
+	/*
+	 * Look up the exact entry, then the longest prefix entry, then the leading digit entry.
+	 */
+	private CompiledRule[] findApplicableRules(long procedureCode) {
+
+		CompiledRule[] exactRules = exactProcedureCodeRules.get(procedureCode);
+		if (exactRules != null) {
+			return exactRules;
+		}
+
+		long prefix = procedureCode;
+		if (prefix <= 0) {
+			return NO_RULES;
+		}
+
+		while (prefix >= 10) {
+			if (prefix < maxPrefixExclusive) {
+				CompiledRule[] prefixRules = procedureCodePrefixRules.get(prefix);
+				if (prefixRules != null) {
+					return prefixRules;
+				}
+			}
+
+			prefix /= 10;
+		}
+
+		CompiledRule[] digitRules = leadingDigitRules[(int) prefix];
+		return (digitRules != null) ? digitRules : NO_RULES;
+	}
+
+	private static void addDeclaredRule(LongObjectHashMap<List<CompiledRule>> declaredRules, long key,
+											CompiledRule compiledRule) {
+		List<CompiledRule> ruleList = declaredRules.get(key);
+		if (ruleList == null) {
+			ruleList = new ArrayList<>();
+			declaredRules.put(key, ruleList);
+		}
+
+		ruleList.add(compiledRule);
+	}
+
+	/*
+	 * Combine ruleList with the rules declared for every prefix of shorterPrefix (including
+	 * shorterPrefix itself), in declaration order.
+	 */
+	private static CompiledRule[] collectRules(long shorterPrefix, List<CompiledRule> ruleList,
+												LongObjectHashMap<List<CompiledRule>> declaredPrefixRules) {
+
+		List<CompiledRule> collectedRuleList = new ArrayList<>(ruleList);
+
+		for (long prefix = shorterPrefix; prefix > 0; prefix /= 10) {
+			List<CompiledRule> prefixRuleList = declaredPrefixRules.get(prefix);
+			if (prefixRuleList != null) {
+				collectedRuleList.addAll(prefixRuleList);
+			}
+		}
+
+		collectedRuleList.sort(Comparator.comparingInt(CompiledRule::getOrder));
+		return collectedRuleList.toArray(NO_RULES);
+	}
+
+	private static String toVersion(byte[] ruleSetBytes) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(ruleSetBytes);
+			return HexFormat.of().formatHex(digest).substring(0, VERSION_LENGTH);
+		} catch (NoSuchAlgorithmException noSuchAlgorithmException) {
+			// Every Java platform is required to support SHA-256
+			throw new IllegalStateException(noSuchAlgorithmException);
+		}
+	}
+
+	/*
+	 * The smallest power of ten greater than value, saturating for 19-digit values.
+	 */
+	private static long powerOfTenAbove(long value) {
+		long powerOfTen = 1;
+		for (int digits = 1; (digits < MAX_PROCEDURE_CODE_DIGITS) && (powerOfTen <= value); digits++) {
+			powerOfTen *= 10;
+		}
+
+		return (powerOfTen > value) ? powerOfTen : Long.MAX_VALUE;
+	}
+
+	/*
+	 * The top-level object of a rule set file.
+	 */
+	private static final class RuleSetDefinition {
+
+		private final List<RuleDefinition> rules;
+
+		@JsonCreator
+		private RuleSetDefinition(@JsonProperty("rules") List<RuleDefinition> rules) {
+			this.rules = rules;
+		}
+	}
+}
@@ -0,0 +1,219 @@
+package com.craighdav.medical_claims_validator.rules;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ResourceUtils;
+
+import com.craighdav.medical_claims_validator.config.MedicalClaimsValidatorProperties;
+import com.craighdav.medical_claims_validator.metrics.ValidationMetrics;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * This class is purposed to hold the current RuleSet and replace it when its file changes.
+ *
+ * Class RuleSetRepository loads the rule set file named by rulesLocation once at creation.
+ * When the location is a "file:" location and rulesReloadEnabled is set, a background
+ * thread watches the file's directory and, whenever anything in it changes, loads and
+ * compiles the rule set off the request path and publishes it with a single atomic reference
+ * swap if its version (a hash of its content) differs from the current one. Reacting to any
+ * change rather than to events naming the file also catches a Kubernetes ConfigMap update,
+ * which swaps the directory's "..data" symlink without an event for the file itself.
+ * Callers take one RuleSet snapshot per batch from getRuleSet, so a batch already in
+ * progress keeps evaluating the rules it started with.
+ *
+ * Every published rule set's version is recorded with ValidationMetrics, as the
+ * claims.validation.rule.set.info gauge.
+ *
+ * A file that fails to load or compile is logged and ignored; the previous rule set stays
+ * current until a valid file is written. Writing the new file under a temporary name and
+ * moving it into place avoids loading partially written content.
+ */
+@Component
+public class RuleSetRepository {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(RuleSetRepository.class);
+
+	private final String rulesLocation;
+	private final boolean rulesReloadEnabled;
+	private final AtomicReference<RuleSet> currentRuleSet;
+	private final ValidationMetrics validationMetrics;
+
+	private WatchService watchService;
+	private Thread watchThread;
+
+	/**
+	 * This constructor loads the initial rule set without watching its file for changes.
+	 *
+	 * @param rulesLocation The resource location of the rule set file
+	 */
+	public RuleSetRepository(String rulesLocation) {
+		this(rulesLocation, false, ValidationMetrics.disabled());
+	}
+
+	public RuleSetRepository(MedicalClaimsValidatorProperties medicalClaimsValidatorProperties) {
+		this(medicalClaimsValidatorProperties, ValidationMetrics.disabled());
+	}
+
+	@Autowired
+	public RuleSetRepository(MedicalClaimsValidatorProperties medicalClaimsValidatorProperties,
+								ValidationMetrics validationMetrics) {
+		this(medicalClaimsValidatorProperties.getRulesLocation(),
+				medicalClaimsValidatorProperties.isRulesReloadEnabled(), validationMetrics);
+	}
+
+	private RuleSetRepository(String rulesLocation, boolean rulesReloadEnabled, ValidationMetrics validationMetrics) {
+		this.rulesLocation = rulesLocation;
+		this.rulesReloadEnabled = rulesReloadEnabled;
+		this.currentRuleSet = new AtomicReference<>(RuleSet.load(rulesLocation));
+		this.validationMetrics = validationMetrics;
+
+		validationMetrics.recordRuleSetVersion(currentRuleSet.get().getVersion());
+
+		LOGGER.info("Loaded rule set {} with {} rules from {}",
+						currentRuleSet.get().getVersion(), currentRuleSet.get().size(), rulesLocation);
+	}
+
+	/**
+	 * This method returns the current rule set.
+	 *
+	 * @return The most recently published RuleSet
+	 */
+	public RuleSet getRuleSet() {
+		return currentRuleSet.get();
+	}
+
+	/**
+	 * This method starts watching the rule set file, if reloading applies to its location.
+	 *
+	 * @throws UncheckedIOException If the file's directory cannot be watched
+	 */
+	@PostConstruct
+	public synchronized void start() {
+
+		Path ruleSetPath = resolveFilePath();
+		if (!rulesReloadEnabled || (ruleSetPath == null) || (watchThread != null)) {
+			return;
+		}
+
+		Path directory = ruleSetPath.toAbsolutePath().getParent();
+
+		try {
+			watchService = FileSystems.getDefault().newWatchService();
+			directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+								StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+		} catch (IOException ioException) {
+			throw new UncheckedIOException("Cannot watch rule set directory " + directory, ioException);
+		}
+
+		watchThread = new Thread(this::watchRuleSetDirectory, "rule-set-watcher");
+		watchThread.setDaemon(true);
+		watchThread.start();
+
+		LOGGER.info("Watching {} for rule set changes", ruleSetPath);
+	}
+
+	/**
+	 * This method stops watching the rule set file.
+	 */
+	@PreDestroy
+	public synchronized void stop() {
+
+		if (watchThread == null) {
+			return;
+		}
+
+		try {
+			watchService.close();
+		} catch (IOException ioException) {
+			LOGGER.warn("Cannot close rule set watch service", ioException);
+		}
+
+		watchThread.interrupt();
+		watchThread = null;
+	}
+
+	/**
+	 * This method loads the rule set file and publishes it if its content changed.
+	 *
+	 * @return true when a new rule set was published
+	 */
+	public synchronized boolean reload() {
+
+		RuleSet reloadedRuleSet;
+		try {
+			reloadedRuleSet = RuleSet.load(rulesLocation);
+		} catch (RuntimeException runtimeException) {
+			LOGGER.warn("Keeping rule set {}: cannot load {}", currentRuleSet.get().getVersion(),
+							rulesLocation, runtimeException);
+			return false;
+		}
+
+		RuleSet previousRuleSet = currentRuleSet.get();
+		if (previousRuleSet.getVersion().equals(reloadedRuleSet.getVersion())) {
+			return false;
+		}
+
+		currentRuleSet.set(reloadedRuleSet);
+		validationMetrics.recordRuleSetVersion(reloadedRuleSet.getVersion());
+
+		LOGGER.info("Replaced rule set {} with {} ({} rules)", previousRuleSet.getVersion(),
+						reloadedRuleSet.getVersion(), reloadedRuleSet.size());
+		return true;
+	}
+
+	/*
+	 * Reload after every batch of events in the watched directory, until the watch service is
+	 * closed. An event that leaves the rule set unchanged is skipped by reload's version check.
+	 */
+	private void watchRuleSetDirectory() {
+
+		try {
+			while (true) {
+				WatchKey watchKey = watchService.take();
+				watchKey.pollEvents();
+				watchKey.reset();
+
+				reload();
+			}
+		} catch (InterruptedException | ClosedWatchServiceException stopException) {
+			// stop() was called
+		}
+	}
+
+	/*
+	 * Only rule sets stored as files can be watched; classpath resources cannot change.
+	 */
+	private Path resolveFilePath() {
+
+		if (!rulesLocation.startsWith(ResourceUtils.FILE_URL_PREFIX)) {
+			return null;
+		}
+
+		Resource resource = new DefaultResourceLoader().getResource(rulesLocation);
+		if (!resource.isFile()) {
+			return null;
+		}
+
+		try {
+			return resource.getFile().toPath();
+		} catch (IOException ioException) {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package com.craighdav.medical_claims_validator.rules;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+
+import com.craighdav.medical_claims_validator.model.ClaimIssue;
+import com.craighdav.medical_claims_validator.model.IssueCode;
+
+/**
+ * This class is purposed to record the rules of a RuleSet violated by one charge.
+ *
+ * Class RuleViolation refers to the applicable rules found by the RuleSet's dispatch table
+ * and marks the violated ones in a bit mask, so recording a violation allocates nothing
+ * but this object. It keeps the values its messages need rather than the Charge and Claim,
+ * which therefore need not exist at all for columnar batches. The messages of the violated
+ * rules are joined by a single space.
+ */
+final class RuleViolation extends ClaimIssue {
+
+	// Marks every rule of violatedRules as violated
+	static final long ALL_RULES = -1L;
+
+	private final CompiledRule[] violatedRules;
+	private final long violatedRuleMask;
+	private final long chargeId;
+	private final long claimId;
+	private final long procedureCode;
+	private final String placeOfService;
+	private final int patientAge;
+
+	RuleViolation(CompiledRule[] violatedRules, long violatedRuleMask, long chargeId, long claimId, 
+					long procedureCode, String placeOfService, int patientAge) {
+		this.violatedRules = violatedRules;
+		this.violatedRuleMask = violatedRuleMask;
+		this.chargeId = chargeId;
+		this.claimId = claimId;
+		this.procedureCode = procedureCode;
+		this.placeOfService = placeOfService;
+		this.patientAge = patientAge;
+	}
+
+	@Override
+	public void renderMessage(StringBuilder issueBuilder) {
+
+		boolean isFirstRule = true;
+
+		for (int ruleIndex = 0; ruleIndex < violatedRules.length; ruleIndex++) {
+			if (!isViolated(ruleIndex)) {
+				continue;
+			}
+
+			if (!isFirstRule) {
+				issueBuilder.append(' ');
+			}
+
+			violatedRules[ruleIndex].renderIssue(issueBuilder, chargeId, claimId, procedureCode, 
+													placeOfService, patientAge);
+			isFirstRule = false;
+		}
+	}
+
+	@Override
+	public void addIssueCodes(Collection<IssueCode> issueCodes) {
+
+		for (int ruleIndex = 0; ruleIndex < violatedRules.length; ruleIndex++) {
+			if (!isViolated(ruleIndex)) {
+				continue;
+			}
+
+			CompiledRule compiledRule = violatedRules[ruleIndex];
+			Integer issuePatientAge = compiledRule.hasAgeRange() ? patientAge : null;
+
+			issueCodes.add(new IssueCode(compiledRule.getId(), chargeId, issuePatientAge));
+		}
+	}
+
+	@Override
+	public void forEachRuleId(Consumer<String> ruleIdConsumer) {
+
+		for (int ruleIndex = 0; ruleIndex < violatedRules.length; ruleIndex++) {
+			if (isViolated(ruleIndex)) {
+				ruleIdConsumer.accept(violatedRules[ruleIndex].getId());
+			}
+		}
+	}
+
+	private boolean isViolated(int ruleIndex) {
+		return (violatedRuleMask == ALL_RULES) || ((violatedRuleMask & (1L << ruleIndex)) != 0);
+	}
+}
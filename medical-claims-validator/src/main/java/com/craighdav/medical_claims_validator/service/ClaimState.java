@@ -0,0 +1,233 @@
+package com.craighdav.medical_claims_validator.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+import com.craighdav.medical_claims_validator.model.ClaimIssue;
+import com.craighdav.medical_claims_validator.rules.RuleSet;
+import com.craighdav.medical_claims_validator.service.PatientAgeCache.EvaluationDay;
+import com.craighdav.util.LongIntHashMap;
+
+/**
+ * This class is purposed to hold what incremental validation remembers about one claim.
+ *
+ * Class ClaimState keeps the claim's header values, the patient's birth date with a
+ * snapshot of the age and rule set version the claim was evaluated with, the procedure code
+ * of every charge, the issue raised by each violating charge, and how many charges share
+ * each procedure code. Adding or removing a charge therefore updates the verdict in
+ * constant time: the charge is evaluated on its own, its procedure code count is adjusted,
+ * and the duplicate procedure issue follows from the number of codes held by more than one
+ * charge. Only a changed header, patient, evaluation day or rule set requires every charge
+ * to be evaluated again (reevaluate).
+ *
+ * Charges are kept in rows in the order they were added, so that the issues keep the order
+ * of the charges, with a LongIntHashMap from charge ID to row. A removed charge leaves an
+ * empty row, and the rows are compacted instead of grown once at least half are empty.
+ *
+ * This class is not thread-safe.
+ */
+final class ClaimState {
+
+	private final long claimId;
+	private long patientId;
+	private LocalDate patientBirthDate;
+	private String placeOfService;
+	private int patientAge;
+	private LocalDate evaluationDate;
+	private String ruleSetVersion;
+
+	private static final int INITIAL_ROW_CAPACITY = 8;
+
+	// Charge ID to row, and per row the charge's ID, procedure code and issue (null unless
+	// the charge violates a rule); rows of removed charges are marked in isRowRemoved
+	private final LongIntHashMap chargeRowMap = new LongIntHashMap();
+	private long[] rowChargeIds = new long[INITIAL_ROW_CAPACITY];
+	private long[] rowProcedureCodes = new long[INITIAL_ROW_CAPACITY];
+	private ClaimIssue[] rowIssues = new ClaimIssue[INITIAL_ROW_CAPACITY];
+	private boolean[] isRowRemoved = new boolean[INITIAL_ROW_CAPACITY];
+	private int rowCount;
+
+	private final LongIntHashMap procedureCodeCountMap = new LongIntHashMap();
+	private int duplicatedProcedureCodeCount;
+
+	ClaimState(long claimId) {
+		this.claimId = claimId;
+	}
+
+	long getClaimId() {
+		return claimId;
+	}
+
+	long getPatientId() {
+		return patientId;
+	}
+
+	LocalDate getPatientBirthDate() {
+		return patientBirthDate;
+	}
+
+	String getPlaceOfService() {
+		return placeOfService;
+	}
+
+	int getChargeCount() {
+		return chargeRowMap.size();
+	}
+
+	/**
+	 * This method determines whether the claim was evaluated with exactly these inputs.
+	 *
+	 * @return true if none of the inputs differs from those of the last evaluation
+	 */
+	boolean isEvaluatedWith(long patientId, LocalDate patientBirthDate, String placeOfService,
+							LocalDate evaluationDate, String ruleSetVersion) {
+		return (this.patientId == patientId)
+				&& Objects.equals(this.patientBirthDate, patientBirthDate)
+				&& Objects.equals(this.placeOfService, placeOfService)
+				&& evaluationDate.equals(this.evaluationDate)
+				&& ruleSetVersion.equals(this.ruleSetVersion);
+	}
+
+	/**
+	 * This method replaces the claim's inputs, takes a new snapshot of the patient's age and
+	 * evaluates every charge again.
+	 *
+	 * @param patientBirthDate The birth date of the claim's patient, or null if there is no
+	 *                         such patient
+	 */
+	void reevaluate(long patientId, LocalDate patientBirthDate, String placeOfService,
+					EvaluationDay evaluationDay, RuleSet ruleSet) {
+
+		this.patientId = patientId;
+		this.patientBirthDate = patientBirthDate;
+		this.placeOfService = placeOfService;
+		this.patientAge = (patientBirthDate == null)
+								? RuleSet.NO_PATIENT_AGE : evaluationDay.getAge(patientBirthDate);
+		this.evaluationDate = evaluationDay.getEvaluationDate();
+		this.ruleSetVersion = ruleSet.getVersion();
+
+		for (int row = 0; row < rowCount; row++) {
+			if (!isRowRemoved[row]) {
+				rowIssues[row] = evaluateCharge(rowChargeIds[row], rowProcedureCodes[row], ruleSet);
+			}
+		}
+	}
+
+	/**
+	 * This method adds a charge, replacing any charge with the same ID.
+	 */
+	void addCharge(long chargeId, long procedureCode, RuleSet ruleSet) {
+
+		removeCharge(chargeId);
+
+		if (rowCount == rowChargeIds.length) {
+			makeRoom();
+		}
+
+		int row = rowCount++;
+		rowChargeIds[row] = chargeId;
+		rowProcedureCodes[row] = procedureCode;
+		rowIssues[row] = evaluateCharge(chargeId, procedureCode, ruleSet);
+		isRowRemoved[row] = false;
+		chargeRowMap.put(chargeId, row);
+
+		int procedureCodeCount = procedureCodeCountMap.getOrDefault(procedureCode, 0) + 1;
+		procedureCodeCountMap.put(procedureCode, procedureCodeCount);
+		if (procedureCodeCount == 2) {
+			duplicatedProcedureCodeCount++;
+		}
+	}
+
+	/**
+	 * This method removes a charge.
+	 *
+	 * @return true if the claim held the charge
+	 */
+	boolean removeCharge(long chargeId) {
+
+		int row = chargeRowMap.getOrDefault(chargeId, -1);
+		if (row < 0) {
+			return false;
+		}
+
+		chargeRowMap.remove(chargeId);
+		isRowRemoved[row] = true;
+		rowIssues[row] = null;
+
+		long procedureCode = rowProcedureCodes[row];
+
+		// A code no charge holds any more is dropped, so that a long-lived claim state keeps
+		// only the codes of its current charges
+		int procedureCodeCount = procedureCodeCountMap.getOrDefault(procedureCode, 0) - 1;
+		if (procedureCodeCount == 0) {
+			procedureCodeCountMap.remove(procedureCode);
+		} else {
+			procedureCodeCountMap.put(procedureCode, procedureCodeCount);
+		}
+		if (procedureCodeCount == 1) {
+			duplicatedProcedureCodeCount--;
+		}
+
+		return true;
+	}
+
+	/**
+	 * This method returns the claim's current issues, in the order validateMedicalClaims
+	 * reports them for charges in the same order.
+	 *
+	 * @return The issues of the claim; an empty list means the claim is valid
+	 */
+	List<ClaimIssue> getIssues() {
+
+		List<ClaimIssue> claimIssueList = new ArrayList<>();
+		for (int row = 0; row < rowCount; row++) {
+			if (rowIssues[row] != null) {
+				claimIssueList.add(rowIssues[row]);
+			}
+		}
+
+		if (duplicatedProcedureCodeCount > 0) {
+			claimIssueList.add(StructuralClaimIssue.DUPLICATE_PROCEDURE);
+		}
+
+		return claimIssueList;
+	}
+
+	private ClaimIssue evaluateCharge(long chargeId, long procedureCode, RuleSet ruleSet) {
+		return ruleSet.evaluate(chargeId, claimId, procedureCode, placeOfService, patientAge);
+	}
+
+	/*
+	 * Free a row at the end, by moving the remaining charges over the removed ones when at
+	 * least half of the rows are removed, or by doubling the rows otherwise.
+	 */
+	private void makeRoom() {
+
+		if (chargeRowMap.size() > rowCount / 2) {
+			int rowCapacity = rowChargeIds.length * 2;
+			rowChargeIds = Arrays.copyOf(rowChargeIds, rowCapacity);
+			rowProcedureCodes = Arrays.copyOf(rowProcedureCodes, rowCapacity);
+			rowIssues = Arrays.copyOf(rowIssues, rowCapacity);
+			isRowRemoved = Arrays.copyOf(isRowRemoved, rowCapacity);
+			return;
+		}
+
+		int liveRow = 0;
+		for (int row = 0; row < rowCount; row++) {
+			if (!isRowRemoved[row]) {
+				rowChargeIds[liveRow] = rowChargeIds[row];
+				rowProcedureCodes[liveRow] = rowProcedureCodes[row];
+				rowIssues[liveRow] = rowIssues[row];
+				isRowRemoved[liveRow] = false;
+				chargeRowMap.put(rowChargeIds[liveRow], liveRow);
+				liveRow++;
+			}
+		}
+
+		Arrays.fill(rowIssues, liveRow, rowCount, null);
+		rowCount = liveRow;
+	}
+}
@@ -0,0 +1,186 @@
+package com.craighdav.medical_claims_validator.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * This class is purposed to bound the per-claim state kept by incremental validation.
+ *
+ * Class ClaimStateCache holds ClaimStates in least-recently-used order and evicts them
+ * when any of three limits is exceeded: the number of claims, the total number of charges
+ * across all claims (which bounds the footprint, since a claim's state grows with its
+ * charges), and the time since a claim was last used. A claim whose state has been evicted
+ * is reported as unknown and must be sent again in full.
+ *
+ * Each entry remembers the charge count last recorded for its state, so that the total
+ * stays exact while other threads change states that are being evicted.
+ *
+ * This class is thread-safe. The ClaimStates it holds are not; their callers lock each
+ * claim while they change its state.
+ */
+final class ClaimStateCache {
+
+	private final int maxClaimCount;
+	private final long maxChargeCount;
+	private final long timeToLiveMillis;
+	private final Clock clock;
+
+	// Guards the fields below; held only while the map is read or changed
+	private final ReentrantLock lock = new ReentrantLock();
+	private final LinkedHashMap<Long, Entry> entryMap = new LinkedHashMap<>(16, 0.75f, true);
+	private long chargeCount;
+
+	ClaimStateCache(int maxClaimCount, long maxChargeCount, Duration timeToLive, Clock clock) {
+		this.maxClaimCount = maxClaimCount;
+		this.maxChargeCount = maxChargeCount;
+		this.timeToLiveMillis = timeToLive.toMillis();
+		this.clock = clock;
+	}
+
+	int size() {
+		lock.lock();
+		try {
+			return entryMap.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	long getChargeCount() {
+		lock.lock();
+		try {
+			return chargeCount;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * This method returns the state of a claim and marks it as most recently used.
+	 *
+	 * @param claimId The ID of the claim
+	 * @return The state of the claim, or null if there is none or it has expired
+	 */
+	ClaimState get(long claimId) {
+
+		lock.lock();
+		try {
+			Entry entry = entryMap.get(claimId);
+			if (entry == null) {
+				return null;
+			}
+
+			long nowMillis = clock.millis();
+			if (nowMillis - entry.lastUsedMillis > timeToLiveMillis) {
+				remove(claimId);
+				return null;
+			}
+
+			entry.lastUsedMillis = nowMillis;
+
+			return entry.claimState;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * This method adds the state of a claim, replacing any state of the same claim.
+	 *
+	 * @param claimState The state to be cached; it must be passed to update whenever its
+	 *                   charges change
+	 */
+	void put(ClaimState claimState) {
+		int stateChargeCount = claimState.getChargeCount();
+
+		lock.lock();
+		try {
+			remove(claimState.getClaimId());
+
+			entryMap.put(claimState.getClaimId(), new Entry(claimState, stateChargeCount, clock.millis()));
+			chargeCount += stateChargeCount;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * This method records the current number of charges of a cached claim.
+	 *
+	 * @param claimState The state whose charges changed; ignored if it is no longer cached
+	 */
+	void update(ClaimState claimState) {
+		int stateChargeCount = claimState.getChargeCount();
+
+		lock.lock();
+		try {
+			Entry entry = entryMap.get(claimState.getClaimId());
+			if ((entry != null) && (entry.claimState == claimState)) {
+				chargeCount += stateChargeCount - entry.chargeCount;
+				entry.chargeCount = stateChargeCount;
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * This method evicts expired states, then least recently used states until the claim
+	 * and charge limits are met.
+	 */
+	void evict() {
+
+		lock.lock();
+		try {
+			long nowMillis = clock.millis();
+			Iterator<Entry> entryIterator = entryMap.values().iterator();
+
+			while (entryIterator.hasNext()) {
+				Entry entry = entryIterator.next();
+
+				boolean isExpired = (nowMillis - entry.lastUsedMillis > timeToLiveMillis);
+				boolean isOverLimit = (entryMap.size() > maxClaimCount) || (chargeCount > maxChargeCount);
+				if (!isExpired && !isOverLimit) {
+					return;
+				}
+
+				chargeCount -= entry.chargeCount;
+				entryIterator.remove();
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/*
+	 * Called with lock held.
+	 */
+	private void remove(long claimId) {
+		Entry entry = entryMap.remove(claimId);
+
+		if (entry != null) {
+			chargeCount -= entry.chargeCount;
+		}
+	}
+
+	/*
+	 * A cached state, the charge count last recorded for it and the time it was last used;
+	 * least recently used entries come first in entryMap, so they also have the oldest
+	 * lastUsedMillis.
+	 */
+	private static final class Entry {
+
+		private final ClaimState claimState;
+		private int chargeCount;
+		private long lastUsedMillis;
+
+		private Entry(ClaimState claimState, int chargeCount, long lastUsedMillis) {
+			this.claimState = claimState;
+			this.chargeCount = chargeCount;
+			this.lastUsedMillis = lastUsedMillis;
+		}
+	}
+}
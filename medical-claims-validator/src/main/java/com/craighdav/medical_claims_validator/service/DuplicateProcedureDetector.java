@@ -0,0 +1,308 @@
+package com.craighdav.medical_claims_validator.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import com.craighdav.util.LongHashSet;
+import com.craighdav.util.LongObjectHashMap;
+import com.craighdav.util.LongRadixSort;
+
+/**
+ * This class is purposed to find the claims of a batch that have more than one charge for
+ * the same procedure code.
+ *
+ * Class DuplicateProcedureDetector packs each charge's (claimId, procedureCode) pair into one
+ * long and appends it to a primitive array. The array is sorted (LongRadixSort) once all
+ * charges have been added, so that a repeated pair lies next to its twin and one linear scan
+ * finds every duplicate. No hash table over the charges is built: the detector needs the 8
+ * bytes of the packed pair plus 8 bytes of sort scratch per charge.
+ *
+ * At most maxInMemoryCharges pairs are held in memory. When the array is full, it is sorted
+ * and written to a temporary run file, and the runs are merged while they are scanned, so
+ * the detector's memory stays bounded however many charges are added. Pairs too large to
+ * pack are checked with a per-claim set of procedure codes instead.
+ *
+ * This class is not thread-safe. Its run files are deleted on close.
+ */
+final class DuplicateProcedureDetector implements AutoCloseable {
+
+	// Procedure codes below 2^24 and claim IDs below 2^39 share one long without overlapping
+	private static final int PACKED_PROCEDURE_CODE_BITS = 24;
+	private static final long MAX_PACKED_PROCEDURE_CODE = (1L << PACKED_PROCEDURE_CODE_BITS) - 1;
+	private static final long MAX_PACKED_CLAIM_ID = Long.MAX_VALUE >>> PACKED_PROCEDURE_CODE_BITS;
+
+	private static final int MIN_INITIAL_CAPACITY = 16;
+	private static final int RUN_BUFFER_BYTES = 64 * 1024;
+
+	private final int maxInMemoryCharges;
+	private final Path runDirectory;
+	private final List<SortedRun> sortedRunList = new ArrayList<>();
+	private final LongHashSet duplicateClaimIdSet = new LongHashSet();
+
+	private long[] packedKeys;
+	private long[] scratch;
+	private int packedKeyCount;
+
+	private LongObjectHashMap<LongHashSet> unpackedProcedureCodeMap;
+
+	private long previousPackedKey;
+	private boolean hasPreviousPackedKey;
+
+	/**
+	 * @param expectedChargeCount The number of charges expected to be added
+	 * @param maxInMemoryCharges The number of pairs held in memory before they are written to a run file
+	 * @param runDirectory The directory of the run files, or null for the default temporary directory
+	 */
+	DuplicateProcedureDetector(int expectedChargeCount, int maxInMemoryCharges, Path runDirectory) {
+		this.maxInMemoryCharges = Math.max(maxInMemoryCharges, 1);
+		this.runDirectory = runDirectory;
+		this.packedKeys = new long[Math.min(Math.max(expectedChargeCount, MIN_INITIAL_CAPACITY),
+																				this.maxInMemoryCharges)];
+	}
+
+	/**
+	 * This method adds the procedure code of one charge of a claim.
+	 *
+	 * @param claimId The ID of the charge's claim
+	 * @param procedureCode The charge's procedure code
+	 * @throws UncheckedIOException If a full array of pairs cannot be written to a run file
+	 */
+	void add(long claimId, long procedureCode) {
+
+		if (!canPackClaimProcedureKey(claimId, procedureCode)) {
+			addUnpacked(claimId, procedureCode);
+			return;
+		}
+
+		if (packedKeyCount == packedKeys.length) {
+			if (packedKeyCount < maxInMemoryCharges) {
+				packedKeys = Arrays.copyOf(packedKeys, (int) Math.min(2L * packedKeyCount, maxInMemoryCharges));
+			} else {
+				writeSortedRun();
+			}
+		}
+
+		packedKeys[packedKeyCount++] = (claimId << PACKED_PROCEDURE_CODE_BITS) | procedureCode;
+	}
+
+	/**
+	 * This method finds the claims that were added with any procedure code more than once.
+	 *
+	 * Method findDuplicateClaimIds must be called once, after every charge has been added.
+	 *
+	 * @return The IDs of the claims with a duplicate procedure code
+	 * @throws UncheckedIOException If the run files cannot be written or read
+	 */
+	LongHashSet findDuplicateClaimIds() {
+
+		if (sortedRunList.isEmpty()) {
+			sortPackedKeys();
+
+			for (int index = 0; index < packedKeyCount; index++) {
+				scanPackedKey(packedKeys[index]);
+			}
+		} else {
+			if (packedKeyCount > 0) {
+				writeSortedRun();
+			}
+
+			// Only the runs' read buffers are needed while they are merged
+			packedKeys = null;
+			scratch = null;
+
+			mergeSortedRuns();
+		}
+
+		return duplicateClaimIdSet;
+	}
+
+	/**
+	 * This method deletes the run files, if any were written.
+	 */
+	@Override
+	public void close() {
+		for (SortedRun sortedRun : sortedRunList) {
+			try {
+				Files.deleteIfExists(sortedRun.path);
+			} catch (IOException ioException) {
+				// A run file left behind in the temporary directory does not affect any result
+			}
+		}
+
+		sortedRunList.clear();
+	}
+
+	/*
+	 * Check a pair that cannot be packed against the procedure codes seen for its claim.
+	 */
+	private void addUnpacked(long claimId, long procedureCode) {
+
+		if (unpackedProcedureCodeMap == null) {
+			unpackedProcedureCodeMap = new LongObjectHashMap<>();
+		}
+
+		LongHashSet procedureCodeSet = unpackedProcedureCodeMap.get(claimId);
+		if (procedureCodeSet == null) {
+			procedureCodeSet = new LongHashSet();
+			unpackedProcedureCodeMap.put(claimId, procedureCodeSet);
+		}
+
+		if (!procedureCodeSet.add(procedureCode)) {
+			duplicateClaimIdSet.add(claimId);
+		}
+	}
+
+	/*
+	 * Record the claim of a packed pair equal to the pair scanned just before it. Pairs must
+	 * be scanned in ascending order.
+	 */
+	private void scanPackedKey(long packedKey) {
+
+		if (hasPreviousPackedKey && (packedKey == previousPackedKey)) {
+			duplicateClaimIdSet.add(packedKey >>> PACKED_PROCEDURE_CODE_BITS);
+		}
+
+		previousPackedKey = packedKey;
+		hasPreviousPackedKey = true;
+	}
+
+	private void sortPackedKeys() {
+
+		if ((scratch == null) && (packedKeyCount >= LongRadixSort.RADIX_SORT_THRESHOLD)) {
+			scratch = new long[packedKeys.length];
+		}
+
+		LongRadixSort.sort(packedKeys, scratch, packedKeyCount);
+	}
+
+	/*
+	 * Sort the pairs held in memory and write them to a new run file, emptying the array.
+	 */
+	private void writeSortedRun() {
+
+		sortPackedKeys();
+
+		try {
+			Path runPath = (runDirectory == null)
+							? Files.createTempFile("duplicate-procedures", ".run")
+							: Files.createTempFile(runDirectory, "duplicate-procedures", ".run");
+			sortedRunList.add(new SortedRun(runPath, packedKeyCount));
+
+			try (DataOutputStream runOutputStream = new DataOutputStream(
+						new BufferedOutputStream(Files.newOutputStream(runPath), RUN_BUFFER_BYTES))) {
+				for (int index = 0; index < packedKeyCount; index++) {
+					runOutputStream.writeLong(packedKeys[index]);
+				}
+			}
+		} catch (IOException ioException) {
+			throw new UncheckedIOException("Failed to write a run of duplicate procedure keys", ioException);
+		}
+
+		packedKeyCount = 0;
+	}
+
+	/*
+	 * Merge the run files in ascending order of their pairs, scanning each pair once.
+	 */
+	private void mergeSortedRuns() {
+
+		List<RunReader> runReaderList = new ArrayList<>(sortedRunList.size());
+		PriorityQueue<RunReader> runReaderQueue = new PriorityQueue<>(sortedRunList.size(),
+														Comparator.comparingLong(RunReader::getPackedKey));
+		try {
+			for (SortedRun sortedRun : sortedRunList) {
+				RunReader runReader = new RunReader(sortedRun);
+				runReaderList.add(runReader);
+
+				if (runReader.advance()) {
+					runReaderQueue.add(runReader);
+				}
+			}
+
+			while (!runReaderQueue.isEmpty()) {
+				RunReader runReader = runReaderQueue.poll();
+				scanPackedKey(runReader.getPackedKey());
+
+				if (runReader.advance()) {
+					runReaderQueue.add(runReader);
+				}
+			}
+		} catch (IOException ioException) {
+			throw new UncheckedIOException("Failed to merge runs of duplicate procedure keys", ioException);
+		} finally {
+			for (RunReader runReader : runReaderList) {
+				try {
+					runReader.close();
+				} catch (IOException ioException) {
+					// The run file is deleted on close regardless
+				}
+			}
+		}
+	}
+
+	private static boolean canPackClaimProcedureKey(long claimId, long procedureCode) {
+		return (claimId >= 0L) && (claimId <= MAX_PACKED_CLAIM_ID)
+				&& (procedureCode >= 0L) && (procedureCode <= MAX_PACKED_PROCEDURE_CODE);
+	}
+
+
+	/*
+	 * A run file and the number of pairs written to it.
+	 */
+	private static final class SortedRun {
+
+		private final Path path;
+		private final int packedKeyCount;
+
+		private SortedRun(Path path, int packedKeyCount) {
+			this.path = path;
+			this.packedKeyCount = packedKeyCount;
+		}
+	}
+
+	/*
+	 * Reads the pairs of one run file in order; getPackedKey returns the current pair.
+	 */
+	private static final class RunReader {
+
+		private final DataInputStream runInputStream;
+		private int remainingPackedKeyCount;
+		private long packedKey;
+
+		private RunReader(SortedRun sortedRun) throws IOException {
+			this.runInputStream = new DataInputStream(
+						new BufferedInputStream(Files.newInputStream(sortedRun.path), RUN_BUFFER_BYTES));
+			this.remainingPackedKeyCount = sortedRun.packedKeyCount;
+		}
+
+		private boolean advance() throws IOException {
+			if (remainingPackedKeyCount == 0) {
+				return false;
+			}
+
+			packedKey = runInputStream.readLong();
+			remainingPackedKeyCount--;
+
+			return true;
+		}
+
+		private long getPackedKey() {
+			return packedKey;
+		}
+
+		private void close() throws IOException {
+			runInputStream.close();
+		}
+	}
+}
@@ -0,0 +1,207 @@
+package com.craighdav.medical_claims_validator.service;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.stereotype.Service;
+
+import com.craighdav.medical_claims_validator.config.MedicalClaimsValidatorProperties;
+import com.craighdav.medical_claims_validator.model.Charge;
+import com.craighdav.medical_claims_validator.model.Claim;
+import com.craighdav.medical_claims_validator.model.ClaimDeltaBatch;
+import com.craighdav.medical_claims_validator.model.ClaimIssue;
+import com.craighdav.medical_claims_validator.model.IncrementalValidationResult;
+import com.craighdav.medical_claims_validator.model.Patient;
+import com.craighdav.medical_claims_validator.model.ProcessedMedicalClaimsData;
+import com.craighdav.medical_claims_validator.rules.RuleSet;
+import com.craighdav.medical_claims_validator.service.PatientAgeCache.EvaluationDay;
+import com.craighdav.util.LongObjectHashMap;
+
+/**
+ * This class is purposed to re-validate claims from the changes made to them.
+ *
+ * Class IncrementalClaimValidatorService keeps a ClaimState for every claim it has seen, in
+ * a ClaimStateCache bounded by claim count, charge count and idle time. A ClaimDeltaBatch
+ * names only the claims that changed: a claim header starts or corrects a claim, and added
+ * or removed charges are applied to the claim's state. Each affected claim is re-evaluated
+ * at a cost proportional to its change rather than to its size; the whole claim is evaluated
+ * again only when its header, patient, evaluation day or rule set changed since its last
+ * evaluation. The issues reported for a claim are the same as validateMedicalClaims reports
+ * for the claim's current charges.
+ *
+ * Charges added to a claim whose state is not cached, and that the batch carries no header
+ * for, cannot be evaluated; such claims are reported as unknown. Each claim is locked while
+ * its deltas are applied, so concurrent changes to the same claim never interleave, while
+ * requests changing different claims run in parallel.
+ */
+@Service
+public class IncrementalClaimValidatorService {
+
+	private final MedicalClaimsValidatorService medicalClaimsValidatorService;
+	private final PatientAgeCache patientAgeCache;
+	private final ClaimStateCache claimStateCache;
+
+	// Number of locks claims are striped across; a power of two
+	private static final int CLAIM_LOCK_COUNT = 256;
+
+	// Serialize the deltas of each claim, striped by claim ID; ReentrantLocks rather than
+	// monitors, since resolving a claim may read the patient registry and a virtual thread
+	// must not pin its carrier while it does
+	private final ReentrantLock[] claimLocks = new ReentrantLock[CLAIM_LOCK_COUNT];
+
+	public IncrementalClaimValidatorService(Clock clock,
+											MedicalClaimsValidatorProperties medicalClaimsValidatorProperties,
+											MedicalClaimsValidatorService medicalClaimsValidatorService) {
+		this.medicalClaimsValidatorService = medicalClaimsValidatorService;
+		this.patientAgeCache = new PatientAgeCache(clock);
+		this.claimStateCache = new ClaimStateCache(medicalClaimsValidatorProperties.getIncrementalMaxClaims(),
+													medicalClaimsValidatorProperties.getIncrementalMaxCharges(),
+													medicalClaimsValidatorProperties.getIncrementalStateTtl(),
+													clock);
+
+		for (int lockIndex = 0; lockIndex < CLAIM_LOCK_COUNT; lockIndex++) {
+			claimLocks[lockIndex] = new ReentrantLock();
+		}
+	}
+
+	/**
+	 * This method applies the changes of a ClaimDeltaBatch and re-validates every claim
+	 * they affect.
+	 *
+	 * @param claimDeltaBatch The new or corrected claims and the added and removed charges
+	 * @return The outcome of every affected claim, and the claims that could not be evaluated
+	 */
+	public IncrementalValidationResult validateClaimDeltas(ClaimDeltaBatch claimDeltaBatch) {
+
+		EvaluationDay evaluationDay = patientAgeCache.getEvaluationDay();
+		RuleSet ruleSet = medicalClaimsValidatorService.getRuleSet();
+
+		LongObjectHashMap<Patient> patientMap = new LongObjectHashMap<>(claimDeltaBatch.getPatientList().size());
+		for (Patient patient : claimDeltaBatch.getPatientList()) {
+			if (patientMap.putIfAbsent(patient.getId(), patient) != null) {
+				throw new IllegalStateException("Duplicate key " + patient.getId());
+			}
+		}
+
+		LongObjectHashMap<Claim> claimMap = new LongObjectHashMap<>(claimDeltaBatch.getClaimList().size());
+		Set<Long> affectedClaimIdSet = new LinkedHashSet<>();
+		for (Claim claim : claimDeltaBatch.getClaimList()) {
+			if (claimMap.putIfAbsent(claim.getId(), claim) != null) {
+				throw new IllegalStateException("Duplicate key " + claim.getId());
+			}
+
+			affectedClaimIdSet.add(claim.getId());
+		}
+
+		Map<Long, List<Charge>> addedChargeMap = new LinkedHashMap<>();
+		for (Charge charge : claimDeltaBatch.getAddedChargeList()) {
+			addedChargeMap.computeIfAbsent(charge.getClaimId(), claimId -> new ArrayList<>()).add(charge);
+		}
+
+		Map<Long, List<Long>> removedChargeIdMap = claimDeltaBatch.getRemovedChargeIdMap();
+		affectedClaimIdSet.addAll(removedChargeIdMap.keySet());
+		affectedClaimIdSet.addAll(addedChargeMap.keySet());
+
+		Set<Long> validClaimIdSet = new HashSet<>();
+		Map<Long, List<ClaimIssue>> invalidClaimWithIssuesMap = new HashMap<>();
+		Set<Long> unknownClaimIdSet = new HashSet<>();
+
+		for (long claimId : affectedClaimIdSet) {
+			List<ClaimIssue> claimIssueList;
+
+			// Only one claim is locked at a time, so requests cannot deadlock on each other
+			ReentrantLock claimLock = claimLocks[Long.hashCode(claimId) & (CLAIM_LOCK_COUNT - 1)];
+			claimLock.lock();
+			try {
+				ClaimState claimState = resolveClaimState(claimId, claimMap.get(claimId), patientMap,
+															evaluationDay, ruleSet);
+				if (claimState == null) {
+					unknownClaimIdSet.add(claimId);
+					continue;
+				}
+
+				for (long chargeId : removedChargeIdMap.getOrDefault(claimId, List.of())) {
+					claimState.removeCharge(chargeId);
+				}
+
+				for (Charge charge : addedChargeMap.getOrDefault(claimId, List.of())) {
+					claimState.addCharge(charge.getId(), charge.getProcedureCode(), ruleSet);
+				}
+
+				claimStateCache.update(claimState);
+				claimIssueList = claimState.getIssues();
+			} finally {
+				claimLock.unlock();
+			}
+
+			if (claimIssueList.isEmpty()) {
+				validClaimIdSet.add(claimId);
+			} else {
+				invalidClaimWithIssuesMap.put(claimId, claimIssueList);
+			}
+		}
+
+		claimStateCache.evict();
+
+		ProcessedMedicalClaimsData processedMedicalClaimsData = new ProcessedMedicalClaimsData(
+				Collections.unmodifiableSet(validClaimIdSet),
+				Collections.unmodifiableMap(invalidClaimWithIssuesMap),
+				ruleSet.getVersion());
+
+		return new IncrementalValidationResult(processedMedicalClaimsData,
+												Collections.unmodifiableSet(unknownClaimIdSet));
+	}
+
+	/*
+	 * Find or create the state of an affected claim and bring its inputs up to date. A claim
+	 * header in the batch replaces the cached header; otherwise the cached header is kept and
+	 * only the patient (if the batch carries it), the evaluation day and the rule set may
+	 * change. Returns null for a claim with neither a header nor a cached state. Called with
+	 * the claim's lock held.
+	 */
+	private ClaimState resolveClaimState(long claimId, Claim claim, LongObjectHashMap<Patient> patientMap,
+											EvaluationDay evaluationDay, RuleSet ruleSet) {
+
+		ClaimState claimState = claimStateCache.get(claimId);
+
+		if ((claim == null) && (claimState == null)) {
+			return null;
+		}
+
+		if (claimState == null) {
+			claimState = new ClaimState(claimId);
+			claimStateCache.put(claimState);
+		}
+
+		long patientId = (claim != null) ? claim.getPatientId() : claimState.getPatientId();
+		String placeOfService = (claim != null) ? claim.getPlaceOfService() : claimState.getPlaceOfService();
+
+		Patient patient = patientMap.get(patientId);
+		if ((patient == null) && (claim != null)) {
+			patient = medicalClaimsValidatorService.findRegisteredPatient(patientId);
+		}
+
+		// A claim keeps its patient snapshot while its patient stays the same, unless the batch
+		// or the registry provides the patient again
+		LocalDate patientBirthDate = (patient != null) ? patient.getBirthDate()
+										: (patientId == claimState.getPatientId()) ? claimState.getPatientBirthDate()
+										: null;
+
+		if (!claimState.isEvaluatedWith(patientId, patientBirthDate, placeOfService,
+											evaluationDay.getEvaluationDate(), ruleSet.getVersion())) {
+			claimState.reevaluate(patientId, patientBirthDate, placeOfService, evaluationDay, ruleSet);
+		}
+
+		return claimState;
+	}
+}
@@ -0,0 +1,280 @@
+package com.craighdav.medical_claims_validator.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.craighdav.medical_claims_validator.config.MedicalClaimsValidatorProperties;
+import com.craighdav.medical_claims_validator.constraints.ModelConstraintChecker;
+import com.craighdav.medical_claims_validator.model.Charge;
+import com.craighdav.medical_claims_validator.model.Claim;
+import com.craighdav.medical_claims_validator.model.ClaimIssue;
+import com.craighdav.medical_claims_validator.model.ClaimValidationResult;
+import com.craighdav.medical_claims_validator.model.IssueFormat;
+import com.craighdav.medical_claims_validator.model.Patient;
+import com.craighdav.medical_claims_validator.rules.RuleSet;
+import com.craighdav.util.LongHashSet;
+import com.craighdav.util.LongObjectHashMap;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+
+/**
+ * This class is purposed to validate newline-delimited (NDJSON) claims batches as a stream.
+ *
+ * Each input line holds exactly one record wrapped by its type, for example:
+ *
+ *   {"patient": {"id": 1101, "firstName": "Bill", "lastName": "Smith", "birthDate": "1960-02-10"}}
+ *   {"claim": {"id": 5000, "patientId": 1101, "serviceDate": "2025-05-16", "placeOfService": "office"}}
+ *   {"charge": {"id": 22000, "claimId": 5000, "procedureCode": 90050, "amount": 470}}
+ *
+ * Patients must precede the claims that reference them, and each claim must be followed by
+ * its charges. A claim whose patient is not in the stream is resolved against the patient
+ * registry, if one is configured. A claim is considered complete, validated and written to the output as soon
+ * as the next claim record (or the end of the input) is read. Charges that arrive before
+ * their claim are held until it arrives; any still held at the end of the input are reported
+ * as orphans, exactly as validateMedicalClaims would.
+ *
+ * A claim is closed once its result has been written, so a charge arriving after its claim
+ * has closed, or a claim ID repeated in the stream, cannot be validated as validateMedicalClaims
+ * would and fails the stream with a JsonParseException. So does a repeated patient ID, which
+ * validateMedicalClaims rejects as a duplicate key, and an input that holds more than
+ * maxPendingCharges charges ahead of their claims.
+ *
+ * Peak memory is therefore bounded by the patients, the open claim, at most maxPendingCharges
+ * pending charges and the set of closed claim IDs, not by the size of the input. That set is
+ * kept at most half full and doubles as it grows, so it takes 16 to 32 bytes per closed claim
+ * ID, and up to 48 while it doubles. The whole stream is validated with the rule set that was
+ * current when it started.
+ */
+@Service
+public class MedicalClaimsStreamingValidatorService {
+
+	private static final int RESULTS_PER_FLUSH = 1_000;
+
+	private final MedicalClaimsValidatorService medicalClaimsValidatorService;
+	private final ObjectMapper objectMapper;
+	private final Validator validator;
+	private final ModelConstraintChecker modelConstraintChecker;
+	private final int maxPendingCharges;
+
+	public MedicalClaimsStreamingValidatorService(
+							MedicalClaimsValidatorService medicalClaimsValidatorService,
+							ObjectMapper objectMapper,
+							Validator validator) {
+		this(medicalClaimsValidatorService, objectMapper, validator, 
+				new ModelConstraintChecker(new MedicalClaimsValidatorProperties()),
+				new MedicalClaimsValidatorProperties().getStreamMaxPendingCharges());
+	}
+
+	@Autowired
+	public MedicalClaimsStreamingValidatorService(
+							MedicalClaimsValidatorService medicalClaimsValidatorService,
+							ObjectMapper objectMapper,
+							Validator validator,
+							ModelConstraintChecker modelConstraintChecker,
+							MedicalClaimsValidatorProperties medicalClaimsValidatorProperties) {
+		this(medicalClaimsValidatorService, objectMapper, validator, modelConstraintChecker,
+				medicalClaimsValidatorProperties.getStreamMaxPendingCharges());
+	}
+
+	public MedicalClaimsStreamingValidatorService(
+							MedicalClaimsValidatorService medicalClaimsValidatorService,
+							ObjectMapper objectMapper,
+							Validator validator,
+							ModelConstraintChecker modelConstraintChecker,
+							int maxPendingCharges) {
+		this.medicalClaimsValidatorService = medicalClaimsValidatorService;
+		this.objectMapper = objectMapper;
+		this.validator = validator;
+		this.modelConstraintChecker = modelConstraintChecker;
+		this.maxPendingCharges = maxPendingCharges;
+	}
+
+	/**
+	 * This method validates an NDJSON claims batch and writes one NDJSON result per claim,
+	 * with issues in the TEXT format.
+	 *
+	 * @param inputStream The NDJSON records to validate
+	 * @param outputStream The destination for the NDJSON claim results
+	 * @throws IOException If the input cannot be read or parsed, or the output cannot be written
+	 */
+	public void validateMedicalClaims(InputStream inputStream, OutputStream outputStream)
+																			throws IOException {
+		validateMedicalClaims(inputStream, outputStream, IssueFormat.TEXT);
+	}
+
+	/**
+	 * This method validates an NDJSON claims batch and writes one NDJSON result per claim.
+	 *
+	 * Method validateMedicalClaims reads records from inputStream with the Jackson streaming
+	 * parser and writes a ClaimValidationResult line to outputStream for every claim as soon
+	 * as the claim's charges are complete. Output is flushed periodically so that clients
+	 * receive results while the rest of the batch is still being read.
+	 *
+	 * @param inputStream The NDJSON records to validate
+	 * @param outputStream The destination for the NDJSON claim results
+	 * @param issueFormat The format of each result's issues
+	 * @throws IOException If the input cannot be read or parsed, or the output cannot be written
+	 * @throws JsonParseException If a claim ID repeats, a charge follows its closed claim, or
+	 *             more than maxPendingCharges charges precede their claims
+	 */
+	public void validateMedicalClaims(InputStream inputStream, OutputStream outputStream, 
+										IssueFormat issueFormat) throws IOException {
+
+		LongObjectHashMap<Patient> patientMap = new LongObjectHashMap<>();
+		Map<Long, List<Charge>> pendingChargeMap = new LinkedHashMap<>();
+		LongHashSet closedClaimIdSet = new LongHashSet();
+		int pendingChargeCount = 0;
+		RuleSet ruleSet = medicalClaimsValidatorService.getRuleSet();
+
+		Claim openClaim = null;
+		List<Charge> openChargeList = null;
+		int unflushedResultCount = 0;
+
+		try (JsonParser parser = objectMapper.createParser(inputStream);
+				JsonGenerator generator = objectMapper.createGenerator(outputStream)) {
+
+			// Results are separated by the newline written after each one rather than by the
+			// default single space between root-level values
+			generator.setRootValueSeparator(null);
+
+			JsonToken token;
+			while ((token = parser.nextToken()) != null) {
+				if (token != JsonToken.START_OBJECT || parser.nextToken() != JsonToken.FIELD_NAME) {
+					throw new JsonParseException(parser, "Expected a record of the form {\"<type>\": {...}}");
+				}
+
+				String recordType = parser.currentName();
+				parser.nextToken();
+
+				switch (recordType) {
+					case "patient" -> {
+						Patient patient = readRecord(parser, Patient.class);
+						if (patientMap.putIfAbsent(patient.getId(), patient) != null) {
+							throw new JsonParseException(parser, "Duplicate key " + patient.getId());
+						}
+					}
+					case "claim" -> {
+						Claim claim = readRecord(parser, Claim.class);
+
+						if (openClaim != null) {
+							writeResult(generator, validateOpenClaim(openClaim, openChargeList, patientMap, ruleSet, issueFormat));
+							unflushedResultCount++;
+							closedClaimIdSet.add(openClaim.getId());
+						}
+
+						if (closedClaimIdSet.contains(claim.getId())) {
+							throw new JsonParseException(parser, "Duplicate claim " + claim.getId());
+						}
+
+						openClaim = claim;
+						openChargeList = pendingChargeMap.remove(claim.getId());
+						if (openChargeList == null) {
+							openChargeList = new ArrayList<>();
+						} else {
+							pendingChargeCount -= openChargeList.size();
+						}
+					}
+					case "charge" -> {
+						Charge charge = readRecord(parser, Charge.class);
+
+						if ((openClaim != null) && (openClaim.getId() == charge.getClaimId())) {
+							openChargeList.add(charge);
+						} else if (closedClaimIdSet.contains(charge.getClaimId())) {
+							throw new JsonParseException(parser, "Charge " + charge.getId() 
+														+ " follows its closed claim " + charge.getClaimId());
+						} else if (pendingChargeCount == maxPendingCharges) {
+							throw new JsonParseException(parser, "More than " + maxPendingCharges 
+														+ " charges precede their claims");
+						} else {
+							pendingChargeMap.computeIfAbsent(charge.getClaimId(), claimId -> new ArrayList<>())
+									.add(charge);
+							pendingChargeCount++;
+						}
+					}
+					default -> throw new JsonParseException(parser, "Unknown record type: " + recordType);
+				}
+
+				if (parser.nextToken() != JsonToken.END_OBJECT) {
+					throw new JsonParseException(parser, "Expected exactly one record per line");
+				}
+
+				if (unflushedResultCount >= RESULTS_PER_FLUSH) {
+					generator.flush();
+					unflushedResultCount = 0;
+				}
+			}
+
+			if (openClaim != null) {
+				writeResult(generator, validateOpenClaim(openClaim, openChargeList, patientMap, ruleSet, issueFormat));
+			}
+
+			// Any charges still pending never had a matching claim record
+			for (Map.Entry<Long, List<Charge>> pendingChargeEntry : pendingChargeMap.entrySet()) {
+				long claimId = pendingChargeEntry.getKey();
+				List<ClaimIssue> claimIssueList = medicalClaimsValidatorService.validateClaim(
+											claimId, null, null, pendingChargeEntry.getValue(), ruleSet);
+				medicalClaimsValidatorService.getValidationMetrics().recordRuleHits(claimIssueList);
+
+				writeResult(generator, new ClaimValidationResult(claimId, claimIssueList, issueFormat));
+			}
+		}
+	}
+
+	/*
+	 * Bind the record under the parser's current token and apply the model's Bean Validation
+	 * constraints, which @Valid would otherwise have applied to the JSON endpoint. Records
+	 * passing the ModelConstraintChecker skip Bean Validation, which then only reports the
+	 * violations of the records that do not.
+	 */
+	private <T> T readRecord(JsonParser parser, Class<T> recordClass) throws IOException {
+
+		T record = objectMapper.readValue(parser, recordClass);
+		if (modelConstraintChecker.satisfiesConstraints(record)) {
+			return record;
+		}
+
+		Set<ConstraintViolation<T>> constraintViolationSet = validator.validate(record);
+		if (!constraintViolationSet.isEmpty()) {
+			throw new ConstraintViolationException(constraintViolationSet);
+		}
+
+		return record;
+	}
+
+	private ClaimValidationResult validateOpenClaim(Claim claim, List<Charge> chargeList,
+													LongObjectHashMap<Patient> patientMap, RuleSet ruleSet, 
+													IssueFormat issueFormat) {
+
+		Patient patient = patientMap.get(claim.getPatientId());
+		if (patient == null) {
+			patient = medicalClaimsValidatorService.findRegisteredPatient(claim.getPatientId());
+		}
+		List<ClaimIssue> claimIssueList = medicalClaimsValidatorService.validateClaim(
+											claim.getId(), claim, patient, chargeList, ruleSet);
+		medicalClaimsValidatorService.getValidationMetrics().recordRuleHits(claimIssueList);
+
+		return new ClaimValidationResult(claim.getId(), claimIssueList, issueFormat);
+	}
+
+	private void writeResult(JsonGenerator generator, ClaimValidationResult claimValidationResult)
+																			throws IOException {
+		generator.writeObject(claimValidationResult);
+		generator.writeRaw('\n');
+	}
+}
@@ -1,39 +1,435 @@
 package com.craighdav.medical_claims_validator.service;
 
+import java.nio.file.Path;
 import java.time.Clock;
 import java.time.LocalDate;
-import java.util.Collection;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.function.Function;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 import java.util.stream.Collectors;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.craighdav.medical_claims_validator.config.MedicalClaimsValidatorProperties;
+import com.craighdav.medical_claims_validator.config.MedicalClaimsValidatorProperties.ValidationEngine;
+import com.craighdav.medical_claims_validator.metrics.ValidationMetrics;
+import com.craighdav.medical_claims_validator.metrics.ValidationMetrics.Stage;
 import com.craighdav.medical_claims_validator.model.Charge;
 import com.craighdav.medical_claims_validator.model.Claim;
+import com.craighdav.medical_claims_validator.model.ClaimIssue;
+import com.craighdav.medical_claims_validator.model.ColumnarClaimsBatch;
+import com.craighdav.medical_claims_validator.model.ColumnarClaimsBatch.ChargeColumns;
+import com.craighdav.medical_claims_validator.model.ColumnarClaimsBatch.ClaimColumns;
+import com.craighdav.medical_claims_validator.model.ColumnarClaimsBatch.PatientColumns;
 import com.craighdav.medical_claims_validator.model.InvalidClaim;
 import com.craighdav.medical_claims_validator.model.Patient;
 import com.craighdav.medical_claims_validator.model.ProcessedMedicalClaimsData;
 import com.craighdav.medical_claims_validator.model.RawMedicalClaimsData;
-import com.craighdav.util.MathUtils;
+import com.craighdav.medical_claims_validator.registry.PatientRegistry;
+import com.craighdav.medical_claims_validator.rules.RuleSet;
+import com.craighdav.medical_claims_validator.rules.RuleSetRepository;
+import com.craighdav.medical_claims_validator.service.PatientAgeCache.EvaluationDay;
+import com.craighdav.util.DirectBufferPool;
+import com.craighdav.util.DirectMemoryLimitException;
+import com.craighdav.util.LongHashSet;
+import com.craighdav.util.LongIntHashMap;
+import com.craighdav.util.LongObjectHashMap;
+
+import jakarta.annotation.PreDestroy;
 
 @Service
 public class MedicalClaimsValidatorService {
 
-	private final Clock clock;
+	private static final Logger LOGGER = LoggerFactory.getLogger(MedicalClaimsValidatorService.class);
+
+	private final PatientAgeCache patientAgeCache;
+	private final RuleSetRepository ruleSetRepository;
+	private final PatientRegistry patientRegistry;
+	private final ValidationEngine validationEngine;
+	private final int parallelThreshold;
+	private final int parallelShardChargeCount;
+	private final ForkJoinPool forkJoinPool;
+	private final DirectBufferPool directBufferPool;
+	private final boolean sortedInputJoinEnabled;
+	private final int duplicateSortMaxInMemoryCharges;
+	private final Path duplicateSortDirectory;
+	private final ValidationMetrics validationMetrics;
 
 	public MedicalClaimsValidatorService(Clock clock) {
-		this.clock = clock;
+		this(clock, new MedicalClaimsValidatorProperties());
+	}
+
+	public MedicalClaimsValidatorService(Clock clock, 
+											MedicalClaimsValidatorProperties medicalClaimsValidatorProperties) {
+		this(clock, medicalClaimsValidatorProperties, 
+				new RuleSetRepository(medicalClaimsValidatorProperties.getRulesLocation()));
+	}
+
+	public MedicalClaimsValidatorService(Clock clock, 
+											MedicalClaimsValidatorProperties medicalClaimsValidatorProperties, 
+											RuleSetRepository ruleSetRepository) {
+		this(clock, medicalClaimsValidatorProperties, ruleSetRepository, new PatientRegistry(null, 0));
+	}
+
+	public MedicalClaimsValidatorService(Clock clock, 
+											MedicalClaimsValidatorProperties medicalClaimsValidatorProperties, 
+											RuleSetRepository ruleSetRepository, 
+											PatientRegistry patientRegistry) {
+		this(clock, medicalClaimsValidatorProperties, ruleSetRepository, patientRegistry, 
+				ValidationMetrics.disabled());
+	}
+
+	@Autowired
+	public MedicalClaimsValidatorService(Clock clock, 
+											MedicalClaimsValidatorProperties medicalClaimsValidatorProperties, 
+											RuleSetRepository ruleSetRepository, 
+											PatientRegistry patientRegistry,
+											ValidationMetrics validationMetrics) {
+		this.patientAgeCache = new PatientAgeCache(clock);
+		this.ruleSetRepository = ruleSetRepository;
+		this.patientRegistry = patientRegistry;
+		this.validationEngine = medicalClaimsValidatorProperties.getValidationEngine();
+		this.parallelThreshold = medicalClaimsValidatorProperties.getParallelThreshold();
+		this.parallelShardChargeCount = medicalClaimsValidatorProperties.getParallelShardChargeCount();
+		
+		// A parallelism of 0 shares the common pool instead of owning a dedicated one
+		int parallelism = medicalClaimsValidatorProperties.getParallelism();
+		this.forkJoinPool = (parallelism > 0) ? new ForkJoinPool(parallelism) : ForkJoinPool.commonPool();
+		
+		// Without off-heap lookups no pool is created and the lookups stay on-heap
+		this.directBufferPool = medicalClaimsValidatorProperties.isOffHeapLookupsEnabled()
+									? new DirectBufferPool(medicalClaimsValidatorProperties.getOffHeapMaxBytes(), 
+															medicalClaimsValidatorProperties.getOffHeapChunkBytes())
+									: null;
+		
+		this.sortedInputJoinEnabled = medicalClaimsValidatorProperties.isSortedInputJoinEnabled();
+		
+		// Without a configured directory the runs of large batches go to the temporary directory
+		this.duplicateSortMaxInMemoryCharges = medicalClaimsValidatorProperties.getDuplicateSortMaxInMemoryCharges();
+		String configuredDuplicateSortDirectory = medicalClaimsValidatorProperties.getDuplicateSortDirectory();
+		this.duplicateSortDirectory = ((configuredDuplicateSortDirectory == null) 
+											|| configuredDuplicateSortDirectory.isBlank())
+										? null : Path.of(configuredDuplicateSortDirectory.trim());
+		
+		this.validationMetrics = validationMetrics;
+	}
+
+	/**
+	 * This method releases the dedicated fork/join pool, if the service owns one.
+	 */
+	@PreDestroy
+	public void shutdown() {
+		if (forkJoinPool != ForkJoinPool.commonPool()) {
+			forkJoinPool.shutdown();
+		}
+	}
+
+	/**
+	 * This method returns the rule set that new validations currently start with.
+	 * 
+	 * Callers validating claim by claim (e.g. the streaming validator) take this snapshot
+	 * once and pass it to every validateClaim call, so that a rule set reload during the
+	 * batch does not mix rule versions within one response.
+	 * 
+	 * @return The current RuleSet
+	 */
+	public RuleSet getRuleSet() {
+		return ruleSetRepository.getRuleSet();
+	}
+
+	/**
+	 * This method returns the metrics the service records to, so that callers validating
+	 * claim by claim with validateClaim may record their rule hits alongside.
+	 * 
+	 * @return The service's ValidationMetrics
+	 */
+	public ValidationMetrics getValidationMetrics() {
+		return validationMetrics;
 	}
 
 	public ProcessedMedicalClaimsData validateMedicalClaims(
 													RawMedicalClaimsData rawMedicalClaimsData) {
+		
+		validationMetrics.recordBatch(rawMedicalClaimsData.getClaimList().size(), 
+										rawMedicalClaimsData.getChargeList().size());
+		
+		if (patientRegistry.isEnabled()) {
+			rawMedicalClaimsData = addRegisteredPatients(rawMedicalClaimsData);
+		}
+		
+		ProcessedMedicalClaimsData processedMedicalClaimsData = validateWithEngine(rawMedicalClaimsData);
+		validationMetrics.recordRuleHits(processedMedicalClaimsData.getInvalidClaimIssueMap());
+		
+		return processedMedicalClaimsData;
+	}
+
+	private ProcessedMedicalClaimsData validateWithEngine(RawMedicalClaimsData rawMedicalClaimsData) {
+		
+		// Batches already in claim order need no index, whichever sequential engine is configured
+		if (sortedInputJoinEnabled 
+				&& ((validationEngine == ValidationEngine.STREAMS) || (validationEngine == ValidationEngine.SINGLE_PASS))
+				&& isSortedByClaimId(rawMedicalClaimsData.getClaimList(), rawMedicalClaimsData.getChargeList())) {
+			return validateSortedMedicalClaims(rawMedicalClaimsData);
+		}
+		
+		if (validationEngine == ValidationEngine.SINGLE_PASS) {
+			return validateMedicalClaimsSinglePass(rawMedicalClaimsData);
+		}
+		
+		if (validationEngine == ValidationEngine.PARALLEL) {
+			return validateMedicalClaimsInParallel(rawMedicalClaimsData);
+		}
+		
+		if (validationEngine == ValidationEngine.COLUMNAR) {
+			long conversionStartNanos = System.nanoTime();
+			ColumnarClaimsBatch columnarClaimsBatch = ColumnarClaimsBatch.from(rawMedicalClaimsData);
+			validationMetrics.recordStage(Stage.CONVERSION, conversionStartNanos);
+			
+			return validateMedicalClaims(columnarClaimsBatch);
+		}
+		
+		return validateMedicalClaimsByStreams(rawMedicalClaimsData);
+	}
+
+	/**
+	 * This method looks up a patient that a request references without including it.
+	 * 
+	 * @param patientId The ID of the patient
+	 * @return The patient registered under patientId, or null if there is none
+	 */
+	public Patient findRegisteredPatient(long patientId) {
+		return patientRegistry.findPatient(patientId);
+	}
+
+	/**
+	 * This method adds the registered patients of claims whose patient the request omits.
+	 * 
+	 * Method addRegisteredPatients lets callers that split a batch before validating it (e.g.
+	 * the sharded validation coordinator) resolve registered patients as validateMedicalClaims
+	 * would. Patients included in the request take precedence over registered ones, and a
+	 * batch without any missing patient, or any batch while the registry is disabled, is
+	 * returned unchanged.
+	 * 
+	 * @param rawMedicalClaimsData The batch whose claims' patients are resolved
+	 * @return The batch, with the missing patients that are registered appended to its patients
+	 */
+	public RawMedicalClaimsData addRegisteredPatients(RawMedicalClaimsData rawMedicalClaimsData) {
+		
+		if (!patientRegistry.isEnabled()) {
+			return rawMedicalClaimsData;
+		}
+		
+		List<Patient> patientList = rawMedicalClaimsData.getPatientList();
+		List<Claim> claimList = rawMedicalClaimsData.getClaimList();
+		
+		LongHashSet knownPatientIdSet = new LongHashSet(patientList.size());
+		for (Patient patient : patientList) {
+			knownPatientIdSet.add(patient.getId());
+		}
+		
+		List<Patient> registeredPatientList = new ArrayList<>();
+		for (Claim claim : claimList) {
+			long patientId = claim.getPatientId();
+			
+			// Each missing patient is looked up once, whether or not it is registered
+			if (knownPatientIdSet.add(patientId)) {
+				Patient registeredPatient = patientRegistry.findPatient(patientId);
+				
+				if (registeredPatient != null) {
+					registeredPatientList.add(registeredPatient);
+				}
+			}
+		}
+		
+		if (registeredPatientList.isEmpty()) {
+			return rawMedicalClaimsData;
+		}
+		
+		List<Patient> combinedPatientList = new ArrayList<>(patientList.size() + registeredPatientList.size());
+		combinedPatientList.addAll(patientList);
+		combinedPatientList.addAll(registeredPatientList);
+		
+		return new RawMedicalClaimsData(combinedPatientList, claimList, rawMedicalClaimsData.getChargeList());
+	}
+
+	/**
+	 * This method validates a batch that is already held as columns of primitives.
+	 * 
+	 * Method validateMedicalClaims resolves each patient's age once per patient row, then
+	 * counting-sorts the charge rows by claim and gathers their IDs and procedure codes into
+	 * grouped order, so the per-claim loop reads every column sequentially and evaluates the
+	 * rules on primitives. The issues and their order are the same as those of the other
+	 * engines; the configured ValidationEngine is not consulted.
+	 * 
+	 * @param columnarClaimsBatch The patients, claims and charges to validate
+	 * @return The valid claim IDs and the issues of every invalid claim
+	 */
+	public ProcessedMedicalClaimsData validateMedicalClaims(ColumnarClaimsBatch columnarClaimsBatch) {
+		
+		long stageNanos = System.nanoTime();
+		
+		PatientColumns patientColumns = columnarClaimsBatch.getPatientColumns();
+		ClaimColumns claimColumns = columnarClaimsBatch.getClaimColumns();
+		ChargeColumns chargeColumns = columnarClaimsBatch.getChargeColumns();
+		
+		int patientCount = patientColumns.getCount();
+		int claimCount = claimColumns.getCount();
+		int chargeCount = chargeColumns.getCount();
+		
+		EvaluationDay evaluationDay = patientAgeCache.getEvaluationDay();
+		RuleSet ruleSet = ruleSetRepository.getRuleSet();
+		
+		// Populate a map to retrieve a patient's row and compute every patient's age once
+		long[] patientIds = patientColumns.getIds();
+		int[] birthEpochDays = patientColumns.getBirthEpochDays();
+		LongIntHashMap patientRowMap = new LongIntHashMap(patientCount);
+		int[] patientAges = new int[patientCount];
+		
+		for (int patientRow = 0; patientRow < patientCount; patientRow++) {
+			if (!patientRowMap.put(patientIds[patientRow], patientRow)) {
+				throw new IllegalStateException("Duplicate key " + patientIds[patientRow]);
+			}
+			
+			patientAges[patientRow] = evaluationDay.getAge(LocalDate.ofEpochDay(birthEpochDays[patientRow]));
+		}
+		
+		// Populate a map to retrieve a claim's row (slot), adding slots for orphan claim IDs
+		long[] claimIds = claimColumns.getIds();
+		LongIntHashMap claimSlotMap = new LongIntHashMap(claimCount);
+		for (int claimSlot = 0; claimSlot < claimCount; claimSlot++) {
+			if (!claimSlotMap.put(claimIds[claimSlot], claimSlot)) {
+				throw new IllegalStateException("Duplicate key " + claimIds[claimSlot]);
+			}
+		}
+		
+		long[] chargeClaimIds = chargeColumns.getClaimIds();
+		long[] orphanClaimIds = new long[16];
+		int[] chargeSlots = new int[chargeCount];
+		int slotCount = claimCount;
+		
+		for (int chargeRow = 0; chargeRow < chargeCount; chargeRow++) {
+			long claimId = chargeClaimIds[chargeRow];
+			int claimSlot = claimSlotMap.getOrDefault(claimId, -1);
+			
+			if (claimSlot < 0) {
+				int orphanIndex = slotCount - claimCount;
+				if (orphanIndex == orphanClaimIds.length) {
+					orphanClaimIds = Arrays.copyOf(orphanClaimIds, orphanIndex * 2);
+				}
+				
+				orphanClaimIds[orphanIndex] = claimId;
+				claimSlot = slotCount++;
+				claimSlotMap.put(claimId, claimSlot);
+			}
+			
+			chargeSlots[chargeRow] = claimSlot;
+		}
+		
+		// Counting sort of the charge rows by slot, gathering the columns the rules read into
+		// grouped order: slotOffsets[slot] .. slotOffsets[slot + 1] holds that slot's charges
+		int[] slotOffsets = new int[slotCount + 1];
+		for (int chargeSlot : chargeSlots) {
+			slotOffsets[chargeSlot + 1]++;
+		}
+		
+		for (int slot = 0; slot < slotCount; slot++) {
+			slotOffsets[slot + 1] += slotOffsets[slot];
+		}
+		
+		long[] chargeIds = chargeColumns.getIds();
+		long[] procedureCodes = chargeColumns.getProcedureCodes();
+		long[] groupedChargeIds = new long[chargeCount];
+		long[] groupedProcedureCodes = new long[chargeCount];
+		int[] slotFillPositions = Arrays.copyOf(slotOffsets, slotCount);
+		
+		for (int chargeRow = 0; chargeRow < chargeCount; chargeRow++) {
+			int groupedPosition = slotFillPositions[chargeSlots[chargeRow]]++;
+			groupedChargeIds[groupedPosition] = chargeIds[chargeRow];
+			groupedProcedureCodes[groupedPosition] = procedureCodes[chargeRow];
+		}
+		
+		stageNanos = validationMetrics.recordStage(Stage.INDEX, stageNanos);
+		
+		Set<Long> validClaimIdSet = new HashSet<>();
+		Map<Long, List<ClaimIssue>> invalidClaimWithIssuesMap = new HashMap<>();
+		long[] claimPatientIds = claimColumns.getPatientIds();
+		
+		for (int slot = 0; slot < slotCount; slot++) {
+			boolean isOrphanSlot = (slot >= claimCount);
+			long claimId = isOrphanSlot ? orphanClaimIds[slot - claimCount] : claimIds[slot];
+			String placeOfService = null;
+			int patientAge = RuleSet.NO_PATIENT_AGE;
+			
+			if (!isOrphanSlot) {
+				placeOfService = claimColumns.getPlaceOfService(slot);
+				
+				int patientRow = patientRowMap.getOrDefault(claimPatientIds[slot], -1);
+				if (patientRow >= 0) {
+					patientAge = patientAges[patientRow];
+				}
+			}
+			
+			int fromPosition = slotOffsets[slot];
+			int toPosition = slotOffsets[slot + 1];
+			List<ClaimIssue> claimIssueList = null;
+			
+			for (int position = fromPosition; position < toPosition; position++) {
+				ClaimIssue claimIssue = isOrphanSlot
+						? StructuralClaimIssue.orphanCharge(groupedChargeIds[position], claimId)
+						: ruleSet.evaluate(groupedChargeIds[position], claimId, 
+												groupedProcedureCodes[position], placeOfService, patientAge);
+				
+				if (claimIssue != null) {
+					if (claimIssueList == null) {
+						claimIssueList = new ArrayList<>(2);
+					}
+					
+					claimIssueList.add(claimIssue);
+				}
+			}
+			
+			// The slot's procedure codes are no longer needed once evaluated, so they are sorted in place
+			if (hasDuplicateProcedures(groupedProcedureCodes, fromPosition, toPosition)) {
+				if (claimIssueList == null) {
+					claimIssueList = new ArrayList<>(1);
+				}
+				
+				claimIssueList.add(StructuralClaimIssue.DUPLICATE_PROCEDURE);
+			}
+			
+			if (claimIssueList == null) {
+				validClaimIdSet.add(claimId);
+			} else {
+				invalidClaimWithIssuesMap.put(claimId, claimIssueList);
+			}
+		}
+		
+		stageNanos = validationMetrics.recordStage(Stage.EVALUATION, stageNanos);
+		
+		ProcessedMedicalClaimsData processedMedicalClaimsData = new ProcessedMedicalClaimsData(
+				Collections.unmodifiableSet(validClaimIdSet), 
+				Collections.unmodifiableMap(invalidClaimWithIssuesMap), 
+				ruleSet.getVersion());
+		
+		validationMetrics.recordStage(Stage.ASSEMBLY, stageNanos);
+		
+		return processedMedicalClaimsData;
+	}
+
+	private ProcessedMedicalClaimsData validateMedicalClaimsByStreams(
+													RawMedicalClaimsData rawMedicalClaimsData) {
 
 		/*
 		 * Do NOT include claim if: 1. procedureCode begins with "9" AND placeOfService
@@ -48,33 +444,53 @@ public class MedicalClaimsValidatorService {
 		List<Claim> claimList = rawMedicalClaimsData.getClaimList();
 		List<Charge> chargeList = rawMedicalClaimsData.getChargeList();
 
-		// Populate a map to retrieve a patient's age
-		Map<Long, Patient> patientMap = patientList.stream()
-				.collect(Collectors.toMap(Patient::getId, Function.identity()));
-
-		// Populate a map to retrieve a claim's place of service and patient ID
-		Map<Long, Claim> claimMap = claimList.stream()
-						.collect(Collectors.toMap(Claim::getId, Function.identity()));
+		EvaluationDay evaluationDay = patientAgeCache.getEvaluationDay();
+		RuleSet ruleSet = ruleSetRepository.getRuleSet();
 
-		/*
-		 * Set<Long> invalidClaimIdSet = chargeList.stream() .filter(charge ->
-		 * excludeClaimByCharge(charge, claimMap, patientMap)) .map(charge ->
-		 * charge.getClaimId()) .collect(Collectors.toSet());
-		 */
+		Set<InvalidClaim> invalidClaimSet = (directBufferPool != null)
+				? invalidateClaimsByChargeOffHeap(patientList, claimList, chargeList, evaluationDay, ruleSet)
+				: null;
+		
+		long stageNanos = System.nanoTime();
 		
-		Set<InvalidClaim> invalidClaimSet = chargeList.stream()
-				.map(charge -> invalidateClaimByCharge(charge, claimMap, patientMap))
-				.filter(Objects::nonNull)
-				.collect(Collectors.toSet());
+		if (invalidClaimSet == null) {
+			// Populate a map to retrieve a patient's age
+			LongObjectHashMap<Patient> patientMap = indexPatients(patientList);
+	
+			// Populate a map to retrieve a claim's place of service and patient ID
+			LongObjectHashMap<Claim> claimMap = new LongObjectHashMap<>(claimList.size());
+			for (Claim claim : claimList) {
+				if (claimMap.putIfAbsent(claim.getId(), claim) != null) {
+					throw new IllegalStateException("Duplicate key " + claim.getId());
+				}
+			}
+			
+			stageNanos = validationMetrics.recordStage(Stage.INDEX, stageNanos);
+	
+			/*
+			 * Set<Long> invalidClaimIdSet = chargeList.stream() .filter(charge ->
+			 * excludeClaimByCharge(charge, claimMap, patientMap)) .map(charge ->
+			 * charge.getClaimId()) .collect(Collectors.toSet());
+			 */
+			
+			invalidClaimSet = chargeList.stream()
+					.map(charge -> invalidateClaimByCharge(charge, claimMap, patientMap, evaluationDay, ruleSet))
+					.filter(Objects::nonNull)
+					.collect(Collectors.toSet());
+			
+			stageNanos = validationMetrics.recordStage(Stage.RULES, stageNanos);
+		}
 
 		Set<InvalidClaim> invalidClaimSetByDuplicates = excludeClaimsByDuplicates(chargeList);
 		
 		invalidClaimSet.addAll(invalidClaimSetByDuplicates);
 		
-		Map<Long, Set<String>> invalidClaimWithIssuesMap 
+		stageNanos = validationMetrics.recordStage(Stage.DUPLICATES, stageNanos);
+		
+		Map<Long, List<ClaimIssue>> invalidClaimWithIssuesMap 
 				= invalidClaimSet.stream()
 					.collect(Collectors.groupingBy(InvalidClaim::getClaimId, 
-								Collectors.mapping(InvalidClaim::getIssue, Collectors.toSet())));
+								Collectors.mapping(InvalidClaim::getIssue, Collectors.toList())));
 
 		
 		Set<Long> invalidClaimIdSet = invalidClaimWithIssuesMap.keySet();
@@ -83,119 +499,689 @@ public class MedicalClaimsValidatorService {
 
 		ProcessedMedicalClaimsData processedMedicalClaimsData = new ProcessedMedicalClaimsData(
 				Collections.unmodifiableSet(validClaimIdSet), 
-				Collections.unmodifiableMap(invalidClaimWithIssuesMap));
+				Collections.unmodifiableMap(invalidClaimWithIssuesMap), 
+				ruleSet.getVersion());
+		
+		validationMetrics.recordStage(Stage.ASSEMBLY, stageNanos);
 
 		return processedMedicalClaimsData;
 	}
 
 	/*
-	 * Invalidate claim associated with charge based on the following business rules:
-	 * 
-	 * 1. procedureCode begins with "9" AND placeOfService != "office" 
-	 * 2. procedureCode begins with "6" AND placeOfService == "office" 
-	 * 3. procedureCode == "99129" AND patientAge > 18 
-	 * 4. procedureCode == "99396" AND (patientAge < 18 OR patientAge > 39)
-	 * 
+	 * Apply the per-charge rules of the STREAMS engine with the patient and claim lookups
+	 * held in direct memory rather than in on-heap maps. The store's chunks are returned to
+	 * directBufferPool as soon as the charges have been evaluated. Returns null, so that the
+	 * caller falls back to on-heap lookups, when the lookups would exceed the pool's limit.
 	 */
-	private InvalidClaim invalidateClaimByCharge(Charge charge, Map<Long, Claim> claimMap, Map<Long, Patient> patientMap) {
+	private Set<InvalidClaim> invalidateClaimsByChargeOffHeap(List<Patient> patientList, List<Claim> claimList,
+																List<Charge> chargeList, 
+																EvaluationDay evaluationDay, RuleSet ruleSet) {
+		
+		long stageNanos = System.nanoTime();
+		
+		try (OffHeapReferenceStore offHeapReferenceStore = OffHeapReferenceStore.create(
+												directBufferPool, patientList, claimList, evaluationDay)) {
+			
+			stageNanos = validationMetrics.recordStage(Stage.INDEX, stageNanos);
+			Set<InvalidClaim> invalidClaimSet = new HashSet<>();
+			
+			for (Charge charge : chargeList) {
+				ClaimIssue claimIssue = offHeapReferenceStore.evaluate(charge, ruleSet);
+				
+				if (claimIssue != null) {
+					invalidClaimSet.add(new InvalidClaim(charge.getClaimId(), claimIssue));
+				}
+			}
+			
+			validationMetrics.recordStage(Stage.RULES, stageNanos);
+			
+			return invalidClaimSet;
+			
+		} catch (DirectMemoryLimitException e) {
+			LOGGER.warn("Using on-heap lookups for a batch of {} patients and {} claims: {}", 
+							patientList.size(), claimList.size(), e.getMessage());
+			
+			return null;
+		}
+	}
 
-		long chargeId = charge.getId();
-		long procedureCode = charge.getProcedureCode();
-		long claimId = charge.getClaimId();
+	/*
+	 * Validate a batch whose claims are in ascending order of ID and whose charges are in
+	 * order of their claim ID, as checked by isSortedByClaimId.
+	 * 
+	 * Charges are merge-joined to claims: the two lists are walked side by side, so each
+	 * claim's charges are the run of charges at the charge cursor, and a run whose claim ID
+	 * falls between two claims is an orphan claim. No claim index is built and no charge is
+	 * regrouped. Patients in ascending order of ID are found by a binary search of the patient
+	 * list, so no index is built for them either; otherwise they are indexed as usual. Each
+	 * claim's charges are evaluated together, with the same issues as the single-pass engine.
+	 */
+	private ProcessedMedicalClaimsData validateSortedMedicalClaims(RawMedicalClaimsData rawMedicalClaimsData) {
 		
-		Claim claim = claimMap.get(claimId);
-		if (claim == null) {
-			return new InvalidClaim(claimId, "No matching claim found with claimId: " + claimId
-									+ " for charge: " + chargeId);
+		long stageNanos = System.nanoTime();
+		
+		List<Patient> patientList = rawMedicalClaimsData.getPatientList();
+		List<Claim> claimList = rawMedicalClaimsData.getClaimList();
+		List<Charge> chargeList = rawMedicalClaimsData.getChargeList();
+		
+		EvaluationDay evaluationDay = patientAgeCache.getEvaluationDay();
+		RuleSet ruleSet = ruleSetRepository.getRuleSet();
+		
+		long[] sortedPatientIds = getSortedPatientIds(patientList);
+		LongObjectHashMap<Patient> patientMap = (sortedPatientIds == null) ? indexPatients(patientList) : null;
+		
+		stageNanos = validationMetrics.recordStage(Stage.INDEX, stageNanos);
+		
+		Set<Long> validClaimIdSet = new HashSet<>();
+		Map<Long, List<ClaimIssue>> invalidClaimWithIssuesMap = new HashMap<>();
+		
+		int claimCount = claimList.size();
+		int chargeCount = chargeList.size();
+		int claimIndex = 0;
+		int chargeIndex = 0;
+		long[] procedureCodes = new long[16];
+		
+		while ((claimIndex < claimCount) || (chargeIndex < chargeCount)) {
+			
+			// The next claim, unless the next charges belong to a lower, orphan claim ID
+			Claim claim = null;
+			long claimId;
+			
+			if ((claimIndex < claimCount) && ((chargeIndex == chargeCount) 
+							|| (claimList.get(claimIndex).getId() <= chargeList.get(chargeIndex).getClaimId()))) {
+				claim = claimList.get(claimIndex++);
+				claimId = claim.getId();
+			} else {
+				claimId = chargeList.get(chargeIndex).getClaimId();
+			}
+			
+			Patient patient = null;
+			if (claim != null) {
+				patient = (patientMap != null) 
+								? patientMap.get(claim.getPatientId()) 
+								: findSortedPatient(patientList, sortedPatientIds, claim.getPatientId());
+			}
+			int patientAge = getPatientAge(patient, evaluationDay);
+			
+			int claimChargeCount = 0;
+			List<ClaimIssue> claimIssueList = null;
+			
+			while ((chargeIndex < chargeCount) && (chargeList.get(chargeIndex).getClaimId() == claimId)) {
+				Charge charge = chargeList.get(chargeIndex++);
+				
+				if (claimChargeCount == procedureCodes.length) {
+					procedureCodes = Arrays.copyOf(procedureCodes, claimChargeCount * 2);
+				}
+				procedureCodes[claimChargeCount++] = charge.getProcedureCode();
+				
+				ClaimIssue claimIssue = invalidateClaimByCharge(charge, claim, patientAge, ruleSet);
+				if (claimIssue != null) {
+					if (claimIssueList == null) {
+						claimIssueList = new ArrayList<>(2);
+					}
+					
+					claimIssueList.add(claimIssue);
+				}
+			}
+			
+			if (hasDuplicateProcedures(procedureCodes, claimChargeCount)) {
+				if (claimIssueList == null) {
+					claimIssueList = new ArrayList<>(1);
+				}
+				
+				claimIssueList.add(StructuralClaimIssue.DUPLICATE_PROCEDURE);
+			}
+			
+			if (claimIssueList == null) {
+				validClaimIdSet.add(claimId);
+			} else {
+				invalidClaimWithIssuesMap.put(claimId, claimIssueList);
+			}
 		}
+		
+		stageNanos = validationMetrics.recordStage(Stage.EVALUATION, stageNanos);
+		
+		ProcessedMedicalClaimsData processedMedicalClaimsData = new ProcessedMedicalClaimsData(
+				Collections.unmodifiableSet(validClaimIdSet), 
+				Collections.unmodifiableMap(invalidClaimWithIssuesMap), 
+				ruleSet.getVersion());
+		
+		validationMetrics.recordStage(Stage.ASSEMBLY, stageNanos);
+		
+		return processedMedicalClaimsData;
+	}
 
-		String placeOfService = claim.getPlaceOfService();
-		int procedureLeftmostDigit = MathUtils.getLeftmostDigit(procedureCode);
+	/*
+	 * Determine whether claims are in strictly ascending order of ID and charges in ascending
+	 * order of claim ID. A repeated claim ID is not sorted, so that it is rejected as usual.
+	 */
+	private static boolean isSortedByClaimId(List<Claim> claimList, List<Charge> chargeList) {
+		
+		for (int claimIndex = 1; claimIndex < claimList.size(); claimIndex++) {
+			if (claimList.get(claimIndex - 1).getId() >= claimList.get(claimIndex).getId()) {
+				return false;
+			}
+		}
+		
+		for (int chargeIndex = 1; chargeIndex < chargeList.size(); chargeIndex++) {
+			if (chargeList.get(chargeIndex - 1).getClaimId() > chargeList.get(chargeIndex).getClaimId()) {
+				return false;
+			}
+		}
+		
+		return true;
+	}
 
-		if (procedureLeftmostDigit == 9) {
-			String claimIssue = "";
-			boolean isValid = true;
+	/*
+	 * Copy the IDs of patients in strictly ascending order of ID into an array, or return
+	 * null as soon as a patient is out of order.
+	 */
+	private static long[] getSortedPatientIds(List<Patient> patientList) {
+		
+		long[] patientIds = new long[patientList.size()];
+		
+		for (int patientIndex = 0; patientIndex < patientIds.length; patientIndex++) {
+			patientIds[patientIndex] = patientList.get(patientIndex).getId();
 			
-			if (!placeOfService.equals("office")) {
-				claimIssue = "Charge: " + chargeId 
-								+ " has procedure code starting with 9 for NOT 'office'. ";
-				isValid = false;
+			if ((patientIndex > 0) && (patientIds[patientIndex - 1] >= patientIds[patientIndex])) {
+				return null;
 			}
+		}
+		
+		return patientIds;
+	}
+
+	/*
+	 * Find a patient by binary search of the sorted IDs of patientList, or return null.
+	 * The search reads the compact ID array rather than the Patient objects, so that it
+	 * does not miss the cache at every step.
+	 */
+	private static Patient findSortedPatient(List<Patient> patientList, long[] sortedPatientIds, long patientId) {
+		
+		int patientIndex = Arrays.binarySearch(sortedPatientIds, patientId);
+		
+		return (patientIndex < 0) ? null : patientList.get(patientIndex);
+	}
+
+	/*
+	 * Validate all claims in one pass over the charges grouped by claim.
+	 * 
+	 * Charges are bucketed by claim with a counting sort over each claim's position in
+	 * claimList; charges without a matching claim are given positions after the last claim.
+	 * Each claim's charges are then evaluated together, so the per-charge rules and the
+	 * duplicate procedure check share a single loop, and each claim's outcome is written
+	 * directly into the valid set or the invalid map without intermediate InvalidClaim
+	 * collections or regrouping.
+	 */
+	private ProcessedMedicalClaimsData validateMedicalClaimsSinglePass(
+													RawMedicalClaimsData rawMedicalClaimsData) {
+		
+		long stageNanos = System.nanoTime();
+		
+		ClaimGroupedCharges claimGroupedCharges = groupChargesByClaim(rawMedicalClaimsData);
+		EvaluationDay evaluationDay = patientAgeCache.getEvaluationDay();
+		RuleSet ruleSet = ruleSetRepository.getRuleSet();
+		
+		stageNanos = validationMetrics.recordStage(Stage.INDEX, stageNanos);
+		
+		Set<Long> validClaimIdSet = new HashSet<>();
+		Map<Long, List<ClaimIssue>> invalidClaimWithIssuesMap = new HashMap<>();
+		
+		validateClaimSlots(claimGroupedCharges, 0, claimGroupedCharges.slotCount, evaluationDay, ruleSet, 
+								validClaimIdSet, invalidClaimWithIssuesMap);
+		
+		stageNanos = validationMetrics.recordStage(Stage.EVALUATION, stageNanos);
+		
+		ProcessedMedicalClaimsData processedMedicalClaimsData = new ProcessedMedicalClaimsData(
+				Collections.unmodifiableSet(validClaimIdSet), 
+				Collections.unmodifiableMap(invalidClaimWithIssuesMap), 
+				ruleSet.getVersion());
+		
+		validationMetrics.recordStage(Stage.ASSEMBLY, stageNanos);
+		
+		return processedMedicalClaimsData;
+	}
+
+	/*
+	 * Validate all claims in parallel shards of the charges grouped by claim.
+	 * 
+	 * The charges are grouped exactly as in the single-pass engine. Since every claim's
+	 * charges occupy one contiguous range of slots, ranges of slots are independent shards:
+	 * they are split recursively on the fork/join pool until a shard holds no more than
+	 * parallelShardChargeCount charges, each shard is validated into its own result
+	 * collections, and the shard results are merged on the way back up. Batches smaller than
+	 * parallelThreshold charges are validated sequentially.
+	 */
+	private ProcessedMedicalClaimsData validateMedicalClaimsInParallel(
+													RawMedicalClaimsData rawMedicalClaimsData) {
+		
+		if (rawMedicalClaimsData.getChargeList().size() < parallelThreshold) {
+			return validateMedicalClaimsSinglePass(rawMedicalClaimsData);
+		}
+		
+		long stageNanos = System.nanoTime();
+		
+		ClaimGroupedCharges claimGroupedCharges = groupChargesByClaim(rawMedicalClaimsData);
+		EvaluationDay evaluationDay = patientAgeCache.getEvaluationDay();
+		RuleSet ruleSet = ruleSetRepository.getRuleSet();
+		
+		stageNanos = validationMetrics.recordStage(Stage.INDEX, stageNanos);
+		
+		ClaimSlotValidationResult claimSlotValidationResult = forkJoinPool.invoke(new ClaimSlotValidationTask(
+							claimGroupedCharges, 0, claimGroupedCharges.slotCount, evaluationDay, ruleSet));
+		
+		stageNanos = validationMetrics.recordStage(Stage.EVALUATION, stageNanos);
+		
+		ProcessedMedicalClaimsData processedMedicalClaimsData = new ProcessedMedicalClaimsData(
+				Collections.unmodifiableSet(claimSlotValidationResult.validClaimIdSet), 
+				Collections.unmodifiableMap(claimSlotValidationResult.invalidClaimWithIssuesMap), 
+				ruleSet.getVersion());
+		
+		validationMetrics.recordStage(Stage.ASSEMBLY, stageNanos);
+		
+		return processedMedicalClaimsData;
+	}
+
+	/*
+	 * Assign every claim a slot (its position in claimList, followed by one slot per orphan
+	 * claim ID) and counting-sort the charge indexes by slot.
+	 */
+	private ClaimGroupedCharges groupChargesByClaim(RawMedicalClaimsData rawMedicalClaimsData) {
+		
+		List<Patient> patientList = rawMedicalClaimsData.getPatientList();
+		List<Claim> claimList = rawMedicalClaimsData.getClaimList();
+		List<Charge> chargeList = rawMedicalClaimsData.getChargeList();
+		
+		int claimCount = claimList.size();
+		int chargeCount = chargeList.size();
+		
+		// Populate a map to retrieve a patient's age
+		LongObjectHashMap<Patient> patientMap = indexPatients(patientList);
+		
+		// Populate a map to retrieve a claim's position (slot) in claimList
+		LongIntHashMap claimSlotMap = new LongIntHashMap(claimCount);
+		for (int claimSlot = 0; claimSlot < claimCount; claimSlot++) {
+			long claimId = claimList.get(claimSlot).getId();
 			
-			Patient patient = patientMap.get(claim.getPatientId());
+			if (!claimSlotMap.put(claimId, claimSlot)) {
+				throw new IllegalStateException("Duplicate key " + claimId);
+			}
+		}
+		
+		// Assign each charge to its claim's slot, adding slots for unknown (orphan) claim IDs
+		List<Long> orphanClaimIdList = new ArrayList<>();
+		int[] chargeSlots = new int[chargeCount];
+		int slotCount = claimCount;
+		
+		for (int chargeIndex = 0; chargeIndex < chargeCount; chargeIndex++) {
+			long claimId = chargeList.get(chargeIndex).getClaimId();
+			int claimSlot = claimSlotMap.getOrDefault(claimId, -1);
 			
-			// If no patient is found matching the claim, return InvalidClaim immediately
-			// since no more processing can be done in this logic branch.
-			// NOTE: This validation check is only performed on when the claim matches
-			// a charge with procedureCode beginning with 9 since the patient age
-			// is needed only to validate specific procedureCodes beginning with 9.
-			if (patient == null) {
-				claimIssue += "No matching patient found for claim: " + claimId + ". ";
-				return new InvalidClaim(claimId, claimIssue.trim());
+			if (claimSlot < 0) {
+				claimSlot = slotCount++;
+				claimSlotMap.put(claimId, claimSlot);
+				orphanClaimIdList.add(claimId);
 			}
 			
-			LocalDate patientBirthDate = patient.getBirthDate();
-			LocalDate today = LocalDate.now(clock);
-			int patientAge = patientBirthDate.until(today).getYears();
+			chargeSlots[chargeIndex] = claimSlot;
+		}
+		
+		// Counting sort of the charge indexes by slot: slotOffsets[slot] .. slotOffsets[slot + 1]
+		// is the range of groupedChargeIndexes holding that slot's charges
+		int[] slotOffsets = new int[slotCount + 1];
+		for (int chargeSlot : chargeSlots) {
+			slotOffsets[chargeSlot + 1]++;
+		}
+		
+		for (int slot = 0; slot < slotCount; slot++) {
+			slotOffsets[slot + 1] += slotOffsets[slot];
+		}
+		
+		int[] slotFillPositions = Arrays.copyOf(slotOffsets, slotCount);
+		int[] groupedChargeIndexes = new int[chargeCount];
+		for (int chargeIndex = 0; chargeIndex < chargeCount; chargeIndex++) {
+			groupedChargeIndexes[slotFillPositions[chargeSlots[chargeIndex]]++] = chargeIndex;
+		}
+		
+		return new ClaimGroupedCharges(claimList, chargeList, patientMap, orphanClaimIdList, 
+											slotCount, slotOffsets, groupedChargeIndexes);
+	}
 
-			if (procedureCode == 99129L) {
-				if (patientAge >= 18) {
-					claimIssue += "Charge: " + chargeId 
-								+ " has procedure code 99129 with patientAge: " + patientAge + ". ";
-					isValid = false;
+	/*
+	 * Evaluate every rule for the claims in slots fromSlot (inclusive) to toSlot (exclusive),
+	 * adding each claim's outcome to validClaimIdSet or invalidClaimWithIssuesMap.
+	 */
+	private void validateClaimSlots(ClaimGroupedCharges claimGroupedCharges, int fromSlot, int toSlot,
+										EvaluationDay evaluationDay, RuleSet ruleSet, 
+										Set<Long> validClaimIdSet, 
+										Map<Long, List<ClaimIssue>> invalidClaimWithIssuesMap) {
+		
+		List<Claim> claimList = claimGroupedCharges.claimList;
+		List<Charge> chargeList = claimGroupedCharges.chargeList;
+		int claimCount = claimList.size();
+		int[] slotOffsets = claimGroupedCharges.slotOffsets;
+		int[] groupedChargeIndexes = claimGroupedCharges.groupedChargeIndexes;
+		
+		long[] procedureCodes = new long[16];
+		
+		for (int slot = fromSlot; slot < toSlot; slot++) {
+			Claim claim = (slot < claimCount) ? claimList.get(slot) : null;
+			long claimId = (claim != null) 
+								? claim.getId() 
+								: claimGroupedCharges.orphanClaimIdList.get(slot - claimCount);
+			Patient patient = (claim != null) 
+								? claimGroupedCharges.patientMap.get(claim.getPatientId()) 
+								: null;
+			int patientAge = getPatientAge(patient, evaluationDay);
+			
+			int chargeOffset = slotOffsets[slot];
+			int claimChargeCount = slotOffsets[slot + 1] - chargeOffset;
+			if (procedureCodes.length < claimChargeCount) {
+				procedureCodes = new long[claimChargeCount];
+			}
+			
+			List<ClaimIssue> claimIssueList = null;
+			
+			for (int position = 0; position < claimChargeCount; position++) {
+				Charge charge = chargeList.get(groupedChargeIndexes[chargeOffset + position]);
+				procedureCodes[position] = charge.getProcedureCode();
+				
+				ClaimIssue claimIssue = invalidateClaimByCharge(charge, claim, patientAge, ruleSet);
+				if (claimIssue != null) {
+					if (claimIssueList == null) {
+						claimIssueList = new ArrayList<>(2);
+					}
+					
+					claimIssueList.add(claimIssue);
 				}
 			}
-
-			if (procedureCode == 99396L) {
-				if ((patientAge < 18) || (patientAge > 39)) {
-					claimIssue += "Charge: " + chargeId 
-							+ " has procedure code 99396 with patientAge: " + patientAge + ". ";
-					isValid = false;
+			
+			if (hasDuplicateProcedures(procedureCodes, claimChargeCount)) {
+				if (claimIssueList == null) {
+					claimIssueList = new ArrayList<>(1);
 				}
+				
+				claimIssueList.add(StructuralClaimIssue.DUPLICATE_PROCEDURE);
 			}
 			
-			if (!isValid) {
-				return new InvalidClaim(claimId, claimIssue.trim());
+			if (claimIssueList == null) {
+				validClaimIdSet.add(claimId);
+			} else {
+				invalidClaimWithIssuesMap.put(claimId, claimIssueList);
 			}
 		}
+	}
 
-		if (procedureLeftmostDigit == 6) {
-			if (placeOfService.equals("office")) {
-				return new InvalidClaim(claimId, "Charge: " + chargeId 
-						+ " has procedure code starting with 6 for 'office'.");
+	/**
+	 * This method validates a single claim together with all of its charges.
+	 * 
+	 * Method validateClaim applies the same per-charge business rules and duplicate
+	 * procedure detection as validateMedicalClaims, but to one claim whose charges have
+	 * already been collected by the caller. It allows callers that do not hold the whole
+	 * batch in memory (e.g. the streaming validator) to produce identical issues.
+	 * 
+	 * @param claimId The claim ID shared by every charge in chargeList
+	 * @param claim The claim matching claimId, or null when no such claim exists
+	 * @param patient The patient matching claim.getPatientId(), or null when not found
+	 * @param chargeList All charges referencing claimId
+	 * @param ruleSet The rule set snapshot of the batch, as returned by getRuleSet
+	 * @return The issues of the claim, not yet rendered; an empty list means the claim is valid
+	 */
+	public List<ClaimIssue> validateClaim(long claimId, Claim claim, Patient patient, List<Charge> chargeList, 
+											RuleSet ruleSet) {
+		
+		List<ClaimIssue> claimIssueList = new ArrayList<>();
+		int patientAge = getPatientAge(patient, patientAgeCache.getEvaluationDay());
+		
+		for (Charge charge : chargeList) {
+			ClaimIssue claimIssue = invalidateClaimByCharge(charge, claim, patientAge, ruleSet);
+			
+			if (claimIssue != null) {
+				claimIssueList.add(claimIssue);
 			}
 		}
+		
+		if (hasDuplicateProcedures(chargeList)) {
+			claimIssueList.add(StructuralClaimIssue.DUPLICATE_PROCEDURE);
+		}
+		
+		return claimIssueList;
+	}
+
+	/*
+	 * Invalidate claim associated with charge based on the rules of the configured RuleSet;
+	 * the default rules (rules/default-rules.json) are:
+	 * 
+	 * 1. procedureCode begins with "9" AND placeOfService != "office" 
+	 * 2. procedureCode begins with "6" AND placeOfService == "office" 
+	 * 3. procedureCode == "99129" AND patientAge > 18 
+	 * 4. procedureCode == "99396" AND (patientAge < 18 OR patientAge > 39)
+	 * 
+	 */
+	private InvalidClaim invalidateClaimByCharge(Charge charge, LongObjectHashMap<Claim> claimMap, 
+													LongObjectHashMap<Patient> patientMap, 
+													EvaluationDay evaluationDay, RuleSet ruleSet) {
+
+		Claim claim = claimMap.get(charge.getClaimId());
+		Patient patient = (claim == null) ? null : patientMap.get(claim.getPatientId());
+		
+		int patientAge = getPatientAge(patient, evaluationDay);
+		ClaimIssue claimIssue = invalidateClaimByCharge(charge, claim, patientAge, ruleSet);
+		
+		return (claimIssue == null) ? null : new InvalidClaim(charge.getClaimId(), claimIssue);
+	}
+
+	/*
+	 * Invalidate claim associated with charge when the claim and its patient's age have
+	 * already been resolved by the caller. A null claim marks the charge as an orphan, while
+	 * RuleSet.NO_PATIENT_AGE means no patient matched claim.getPatientId(). All other rules
+	 * are evaluated by ruleSet, the batch's rule set snapshot. The returned issue records the
+	 * violation only; its message is rendered when the response is serialized.
+	 */
+	private ClaimIssue invalidateClaimByCharge(Charge charge, Claim claim, int patientAge, 
+												RuleSet ruleSet) {
+
+		if (claim == null) {
+			return StructuralClaimIssue.orphanCharge(charge);
+		}
 
-		return null;
+		return ruleSet.evaluate(charge, claim, patientAge);
 	}
 
 	/*
-	 * Exclude a claim when it contains duplicate charges for any procedure code
+	 * Resolve the age of a claim's patient, or RuleSet.NO_PATIENT_AGE when there is none.
+	 */
+	private static int getPatientAge(Patient patient, EvaluationDay evaluationDay) {
+		return (patient == null) ? RuleSet.NO_PATIENT_AGE : evaluationDay.getAge(patient.getBirthDate());
+	}
+
+	/*
+	 * Exclude a claim when it contains duplicate charges for any procedure code.
+	 * 
+	 * The (claimId, procedureCode) pairs of all charges are sorted so that repeated pairs
+	 * become adjacent (see DuplicateProcedureDetector). Batches of more than
+	 * duplicateSortMaxInMemoryCharges charges are sorted in runs on disk and merged.
 	 */
 	private Set<InvalidClaim> excludeClaimsByDuplicates(List<Charge> chargeList) {
 		
-		Map<Long, Map<Long, Long>> chargeByClaimByProcedureMap = chargeList.stream()
-				.collect(Collectors.groupingBy(Charge::getClaimId,
-					Collectors.groupingBy(Charge::getProcedureCode, Collectors.counting())));
+		try (DuplicateProcedureDetector duplicateProcedureDetector = new DuplicateProcedureDetector(
+								chargeList.size(), duplicateSortMaxInMemoryCharges, duplicateSortDirectory)) {
+			
+			for (Charge charge : chargeList) {
+				duplicateProcedureDetector.add(charge.getClaimId(), charge.getProcedureCode());
+			}
+			
+			Set<InvalidClaim> invalidClaimSet = new HashSet<>();
+			duplicateProcedureDetector.findDuplicateClaimIds().forEach(claimId -> 
+						invalidClaimSet.add(new InvalidClaim(claimId, StructuralClaimIssue.DUPLICATE_PROCEDURE)));
+			
+			return invalidClaimSet;
+		}
+	}
+
+	/*
+	 * Index patients by ID, rejecting duplicate IDs as Collectors.toMap would
+	 */
+	private static LongObjectHashMap<Patient> indexPatients(List<Patient> patientList) {
 		
-		Set<Map.Entry<Long, Map<Long, Long>>> chargeByClaimByProcedureEntrySet 
-												= chargeByClaimByProcedureMap.entrySet();
+		LongObjectHashMap<Patient> patientMap = new LongObjectHashMap<>(patientList.size());
+		
+		for (Patient patient : patientList) {
+			if (patientMap.putIfAbsent(patient.getId(), patient) != null) {
+				throw new IllegalStateException("Duplicate key " + patient.getId());
+			}
+		}
+		
+		return patientMap;
+	}
 
-		Set<InvalidClaim> invalidClaimSet =  chargeByClaimByProcedureEntrySet.stream()
-			.filter(chargeByClaimByProcedureEntry -> {
-				Map<Long, Long> chargeByProcedureMap = chargeByClaimByProcedureEntry.getValue();
-				
-				Collection<Long> chargeByProcedureValues = chargeByProcedureMap.values();
-				
-				return chargeByProcedureValues.stream()
-						.anyMatch(chargeByProcedureValue -> chargeByProcedureValue > 1);
-			})
-			.map(chargeByClaimByProcedureEntry -> 
-					new InvalidClaim(chargeByClaimByProcedureEntry.getKey(), 
-										"Claim has duplicate charges for at least one procedure."))
-			.collect(Collectors.toSet());
+	/*
+	 * Determine whether the first count procedure codes of a single claim contain any code
+	 * more than once. The array is sorted in place so duplicates become adjacent.
+	 */
+	private boolean hasDuplicateProcedures(long[] procedureCodes, int count) {
+		return hasDuplicateProcedures(procedureCodes, 0, count);
+	}
+
+	/*
+	 * Determine whether the procedure codes of a single claim, held in fromIndex (inclusive)
+	 * to toIndex (exclusive), contain any code more than once. The range is sorted in place.
+	 */
+	private boolean hasDuplicateProcedures(long[] procedureCodes, int fromIndex, int toIndex) {
+		
+		Arrays.sort(procedureCodes, fromIndex, toIndex);
+		
+		for (int position = fromIndex + 1; position < toIndex; position++) {
+			if (procedureCodes[position] == procedureCodes[position - 1]) {
+				return true;
+			}
+		}
+		
+		return false;
+	}
+
+	/*
+	 * Determine whether the charges of a single claim contain any procedure code more than once
+	 */
+	private boolean hasDuplicateProcedures(List<Charge> chargeList) {
+		
+		int chargeCount = chargeList.size();
+		long[] procedureCodes = new long[chargeCount];
+		
+		for (int chargeIndex = 0; chargeIndex < chargeCount; chargeIndex++) {
+			procedureCodes[chargeIndex] = chargeList.get(chargeIndex).getProcedureCode();
+		}
 		
-		return invalidClaimSet;
+		return hasDuplicateProcedures(procedureCodes, chargeCount);
 	}
 
+
+	/*
+	 * The charges of one batch grouped by claim slot, shared read-only by all shards.
+	 */
+	private static final class ClaimGroupedCharges {
+		
+		private final List<Claim> claimList;
+		private final List<Charge> chargeList;
+		private final LongObjectHashMap<Patient> patientMap;
+		private final List<Long> orphanClaimIdList;
+		private final int slotCount;
+		private final int[] slotOffsets;
+		private final int[] groupedChargeIndexes;
+		
+		private ClaimGroupedCharges(List<Claim> claimList, List<Charge> chargeList, 
+										LongObjectHashMap<Patient> patientMap, List<Long> orphanClaimIdList, 
+										int slotCount, int[] slotOffsets, int[] groupedChargeIndexes) {
+			this.claimList = claimList;
+			this.chargeList = chargeList;
+			this.patientMap = patientMap;
+			this.orphanClaimIdList = orphanClaimIdList;
+			this.slotCount = slotCount;
+			this.slotOffsets = slotOffsets;
+			this.groupedChargeIndexes = groupedChargeIndexes;
+		}
+	}
+
+	/*
+	 * The valid claim IDs and invalid claim issues of one shard of claim slots.
+	 */
+	private static final class ClaimSlotValidationResult {
+		
+		private final Set<Long> validClaimIdSet = new HashSet<>();
+		private final Map<Long, List<ClaimIssue>> invalidClaimWithIssuesMap = new HashMap<>();
+		
+		/*
+		 * Merge the smaller result into the larger one. Shards never share a claim ID, so
+		 * no entries are overwritten.
+		 */
+		private static ClaimSlotValidationResult merge(ClaimSlotValidationResult leftResult, 
+															ClaimSlotValidationResult rightResult) {
+			
+			ClaimSlotValidationResult largerResult = leftResult;
+			ClaimSlotValidationResult smallerResult = rightResult;
+			if (leftResult.size() < rightResult.size()) {
+				largerResult = rightResult;
+				smallerResult = leftResult;
+			}
+			
+			largerResult.validClaimIdSet.addAll(smallerResult.validClaimIdSet);
+			largerResult.invalidClaimWithIssuesMap.putAll(smallerResult.invalidClaimWithIssuesMap);
+			
+			return largerResult;
+		}
+		
+		private int size() {
+			return validClaimIdSet.size() + invalidClaimWithIssuesMap.size();
+		}
+	}
+
+	/*
+	 * Validate a range of claim slots, splitting it in half (by slot) while it holds more
+	 * than parallelShardChargeCount charges.
+	 */
+	private final class ClaimSlotValidationTask extends RecursiveTask<ClaimSlotValidationResult> {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final transient ClaimGroupedCharges claimGroupedCharges;
+		private final int fromSlot;
+		private final int toSlot;
+		private final transient EvaluationDay evaluationDay;
+		private final transient RuleSet ruleSet;
+		
+		private ClaimSlotValidationTask(ClaimGroupedCharges claimGroupedCharges, int fromSlot, int toSlot, 
+											EvaluationDay evaluationDay, RuleSet ruleSet) {
+			this.claimGroupedCharges = claimGroupedCharges;
+			this.fromSlot = fromSlot;
+			this.toSlot = toSlot;
+			this.evaluationDay = evaluationDay;
+			this.ruleSet = ruleSet;
+		}
+		
+		@Override
+		protected ClaimSlotValidationResult compute() {
+			int[] slotOffsets = claimGroupedCharges.slotOffsets;
+			int shardChargeCount = slotOffsets[toSlot] - slotOffsets[fromSlot];
+			
+			if ((shardChargeCount <= parallelShardChargeCount) || (toSlot - fromSlot < 2)) {
+				ClaimSlotValidationResult claimSlotValidationResult = new ClaimSlotValidationResult();
+				validateClaimSlots(claimGroupedCharges, fromSlot, toSlot, evaluationDay, ruleSet, 
+										claimSlotValidationResult.validClaimIdSet, 
+										claimSlotValidationResult.invalidClaimWithIssuesMap);
+				
+				return claimSlotValidationResult;
+			}
+			
+			int middleSlot = (fromSlot + toSlot) >>> 1;
+			ClaimSlotValidationTask leftTask = new ClaimSlotValidationTask(
+													claimGroupedCharges, fromSlot, middleSlot, evaluationDay, ruleSet);
+			ClaimSlotValidationTask rightTask = new ClaimSlotValidationTask(
+													claimGroupedCharges, middleSlot, toSlot, evaluationDay, ruleSet);
+			
+			leftTask.fork();
+			ClaimSlotValidationResult rightResult = rightTask.compute();
+			
+			return ClaimSlotValidationResult.merge(leftTask.join(), rightResult);
+		}
+	}
 }
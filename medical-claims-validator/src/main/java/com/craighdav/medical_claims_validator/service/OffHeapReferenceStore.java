@@ -0,0 +1,155 @@
+package com.craighdav.medical_claims_validator.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.craighdav.medical_claims_validator.model.Charge;
+import com.craighdav.medical_claims_validator.model.Claim;
+import com.craighdav.medical_claims_validator.model.ClaimIssue;
+import com.craighdav.medical_claims_validator.model.Patient;
+import com.craighdav.medical_claims_validator.rules.RuleSet;
+import com.craighdav.medical_claims_validator.service.PatientAgeCache.EvaluationDay;
+import com.craighdav.util.DirectBufferPool;
+import com.craighdav.util.DirectMemoryLimitException;
+import com.craighdav.util.OffHeapLongTable;
+
+/**
+ * This class is purposed to hold the patient and claim lookups of one batch outside the
+ * Java heap.
+ *
+ * Class OffHeapReferenceStore replaces the patient and claim maps of the STREAMS engine
+ * with two OffHeapLongTables: patient ID to patient age, and claim ID to the claim's patient
+ * ID and place of service. The age is computed once per patient when the store is built,
+ * since the evaluation day is fixed for the batch, and places of service are kept as indexes
+ * into a small on-heap dictionary. The store must be closed when the batch is done, which
+ * returns its direct memory to the pool for the next batch.
+ */
+final class OffHeapReferenceStore implements AutoCloseable {
+
+	// Patient entry: the patient's age
+	private static final int PATIENT_AGE_OFFSET = 0;
+	private static final int PATIENT_VALUE_BYTES = Integer.BYTES;
+
+	// Claim entry: the claim's patient ID followed by its place of service index
+	private static final int CLAIM_PATIENT_ID_OFFSET = 0;
+	private static final int CLAIM_PLACE_OF_SERVICE_OFFSET = Long.BYTES;
+	private static final int CLAIM_VALUE_BYTES = Long.BYTES + Integer.BYTES;
+
+	private static final int NO_PLACE_OF_SERVICE = -1;
+
+	private final OffHeapLongTable patientTable;
+	private final OffHeapLongTable claimTable;
+	private final List<String> placeOfServiceList;
+
+	private OffHeapReferenceStore(OffHeapLongTable patientTable, OffHeapLongTable claimTable,
+									List<String> placeOfServiceList) {
+		this.patientTable = patientTable;
+		this.claimTable = claimTable;
+		this.placeOfServiceList = placeOfServiceList;
+	}
+
+	/**
+	 * This method builds the lookups of one batch in chunks of directBufferPool.
+	 *
+	 * Duplicate patient or claim IDs are rejected with the same IllegalStateException as the
+	 * on-heap maps; the chunks acquired so far are released before any exception is thrown.
+	 *
+	 * @param directBufferPool The pool providing the direct memory
+	 * @param patientList The patients of the batch
+	 * @param claimList The claims of the batch
+	 * @param evaluationDay The evaluation day the patient ages are computed for
+	 * @return The store, to be closed by the caller
+	 * @throws DirectMemoryLimitException if the lookups do not fit within the pool's limit
+	 */
+	static OffHeapReferenceStore create(DirectBufferPool directBufferPool, List<Patient> patientList,
+											List<Claim> claimList, EvaluationDay evaluationDay)
+																	throws DirectMemoryLimitException {
+
+		OffHeapLongTable patientTable = new OffHeapLongTable(directBufferPool, patientList.size(),
+																PATIENT_VALUE_BYTES);
+		OffHeapLongTable claimTable = null;
+
+		try {
+			for (Patient patient : patientList) {
+				int patientEntry = patientTable.insert(patient.getId());
+				if (patientEntry < 0) {
+					throw new IllegalStateException("Duplicate key " + patient.getId());
+				}
+
+				patientTable.putInt(patientEntry, PATIENT_AGE_OFFSET, evaluationDay.getAge(patient.getBirthDate()));
+			}
+
+			claimTable = new OffHeapLongTable(directBufferPool, claimList.size(), CLAIM_VALUE_BYTES);
+
+			Map<String, Integer> placeOfServiceIndexMap = new HashMap<>();
+			List<String> placeOfServiceList = new ArrayList<>();
+
+			for (Claim claim : claimList) {
+				int claimEntry = claimTable.insert(claim.getId());
+				if (claimEntry < 0) {
+					throw new IllegalStateException("Duplicate key " + claim.getId());
+				}
+
+				int placeOfServiceIndex = NO_PLACE_OF_SERVICE;
+				String placeOfService = claim.getPlaceOfService();
+				if (placeOfService != null) {
+					placeOfServiceIndex = placeOfServiceIndexMap.computeIfAbsent(placeOfService,
+																	key -> placeOfServiceList.size());
+					if (placeOfServiceIndex == placeOfServiceList.size()) {
+						placeOfServiceList.add(placeOfService);
+					}
+				}
+
+				claimTable.putLong(claimEntry, CLAIM_PATIENT_ID_OFFSET, claim.getPatientId());
+				claimTable.putInt(claimEntry, CLAIM_PLACE_OF_SERVICE_OFFSET, placeOfServiceIndex);
+			}
+
+			return new OffHeapReferenceStore(patientTable, claimTable, placeOfServiceList);
+
+		} catch (DirectMemoryLimitException | RuntimeException e) {
+			patientTable.close();
+			if (claimTable != null) {
+				claimTable.close();
+			}
+
+			throw e;
+		}
+	}
+
+	/**
+	 * This method evaluates the rules for one charge, resolving its claim and patient from
+	 * the store.
+	 *
+	 * @param charge The charge to be evaluated
+	 * @param ruleSet The rule set snapshot of the batch
+	 * @return The issue raised by the charge, or null when the charge is valid
+	 */
+	ClaimIssue evaluate(Charge charge, RuleSet ruleSet) {
+
+		int claimEntry = claimTable.find(charge.getClaimId());
+		if (claimEntry < 0) {
+			return StructuralClaimIssue.orphanCharge(charge);
+		}
+
+		long patientId = claimTable.getLong(claimEntry, CLAIM_PATIENT_ID_OFFSET);
+		int placeOfServiceIndex = claimTable.getInt(claimEntry, CLAIM_PLACE_OF_SERVICE_OFFSET);
+		String placeOfService = (placeOfServiceIndex == NO_PLACE_OF_SERVICE)
+									? null : placeOfServiceList.get(placeOfServiceIndex);
+
+		int patientEntry = patientTable.find(patientId);
+		int patientAge = (patientEntry < 0)
+							? RuleSet.NO_PATIENT_AGE
+							: patientTable.getInt(patientEntry, PATIENT_AGE_OFFSET);
+
+		return ruleSet.evaluate(charge.getId(), charge.getClaimId(), charge.getProcedureCode(),
+									placeOfService, patientAge);
+	}
+
+	@Override
+	public void close() {
+		patientTable.close();
+		claimTable.close();
+	}
+}
@@ -0,0 +1,97 @@
+package com.craighdav.medical_claims_validator.service;
+
+import java.time.Clock;
+import java.time.LocalDate;
+
+/**
+ * This class is purposed to provide patient ages for the current evaluation day.
+ *
+ * Class PatientAgeCache reads the injected Clock once per call to getEvaluationDay and
+ * keeps the resulting EvaluationDay until the clock's date rolls over, so every request
+ * evaluated on the same calendar day shares one instance. An EvaluationDay holds the
+ * evaluation date already split into the fields needed for age computation, which turns
+ * each age lookup into integer arithmetic on the birth date instead of a Period allocation.
+ */
+final class PatientAgeCache {
+
+	private final Clock clock;
+	private volatile EvaluationDay evaluationDay;
+
+	PatientAgeCache(Clock clock) {
+		this.clock = clock;
+	}
+
+	/**
+	 * This method returns the evaluation day for the clock's current date.
+	 *
+	 * Method getEvaluationDay returns the cached EvaluationDay while the clock's date is
+	 * unchanged and replaces it on the first call after the date rolls over.
+	 *
+	 * @return The EvaluationDay for LocalDate.now(clock)
+	 */
+	EvaluationDay getEvaluationDay() {
+
+		LocalDate today = LocalDate.now(clock);
+		EvaluationDay currentEvaluationDay = evaluationDay;
+
+		if ((currentEvaluationDay == null) || !currentEvaluationDay.evaluationDate.equals(today)) {
+			currentEvaluationDay = new EvaluationDay(today);
+			evaluationDay = currentEvaluationDay;
+		}
+
+		return currentEvaluationDay;
+	}
+
+	/**
+	 * EvaluationDay computes ages in whole years as of one fixed evaluation date.
+	 *
+	 * Class EvaluationDay is immutable and may be shared by concurrent validations.
+	 */
+	static final class EvaluationDay {
+
+		private final LocalDate evaluationDate;
+		private final int evaluationYear;
+		private final int evaluationMonthDay;
+
+		private EvaluationDay(LocalDate evaluationDate) {
+			this.evaluationDate = evaluationDate;
+			this.evaluationYear = evaluationDate.getYear();
+			this.evaluationMonthDay = toMonthDay(evaluationDate);
+		}
+
+		LocalDate getEvaluationDate() {
+			return evaluationDate;
+		}
+
+		/**
+		 * This method returns the age of a person born on birthDate.
+		 *
+		 * Method getAge returns the same value as birthDate.until(evaluationDate).getYears():
+		 * the year difference, less one when the birthday has not yet been reached in the
+		 * evaluation year. Birth dates after the evaluation date are delegated to Period.
+		 *
+		 * @param birthDate The birth date of the person
+		 * @return The age in whole years as of the evaluation date
+		 */
+		int getAge(LocalDate birthDate) {
+
+			if (birthDate.isAfter(evaluationDate)) {
+				return birthDate.until(evaluationDate).getYears();
+			}
+
+			int age = evaluationYear - birthDate.getYear();
+			if (evaluationMonthDay < toMonthDay(birthDate)) {
+				age--;
+			}
+
+			return age;
+		}
+
+		/*
+		 * Order dates within a year by month, then day of month.
+		 */
+		private static int toMonthDay(LocalDate date) {
+			return (date.getMonthValue() << 5) | date.getDayOfMonth();
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package com.craighdav.medical_claims_validator.service;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+
+import com.craighdav.medical_claims_validator.model.Charge;
+import com.craighdav.medical_claims_validator.model.ClaimIssue;
+import com.craighdav.medical_claims_validator.model.IssueCode;
+
+/**
+ * This class is purposed to record the issues that do not come from the configured RuleSet.
+ *
+ * Class StructuralClaimIssue covers charges without a matching claim and claims with more
+ * than one charge for the same procedure. The duplicate procedure issue carries no values
+ * and is therefore a single shared instance.
+ */
+final class StructuralClaimIssue extends ClaimIssue {
+
+	static final String ORPHAN_CHARGE_RULE_ID = "orphan-charge";
+	static final String DUPLICATE_PROCEDURE_RULE_ID = "duplicate-procedure";
+
+	static final StructuralClaimIssue DUPLICATE_PROCEDURE = new StructuralClaimIssue(false, 0L, 0L);
+
+	private static final String DUPLICATE_PROCEDURE_MESSAGE
+									= "Claim has duplicate charges for at least one procedure.";
+
+	// The orphan charge's values, unused by the duplicate procedure issue
+	private final boolean isOrphanCharge;
+	private final long orphanChargeId;
+	private final long orphanClaimId;
+
+	private StructuralClaimIssue(boolean isOrphanCharge, long orphanChargeId, long orphanClaimId) {
+		this.isOrphanCharge = isOrphanCharge;
+		this.orphanChargeId = orphanChargeId;
+		this.orphanClaimId = orphanClaimId;
+	}
+
+	static StructuralClaimIssue orphanCharge(Charge charge) {
+		return orphanCharge(charge.getId(), charge.getClaimId());
+	}
+
+	static StructuralClaimIssue orphanCharge(long chargeId, long claimId) {
+		return new StructuralClaimIssue(true, chargeId, claimId);
+	}
+
+	@Override
+	public void renderMessage(StringBuilder issueBuilder) {
+
+		if (!isOrphanCharge) {
+			issueBuilder.append(DUPLICATE_PROCEDURE_MESSAGE);
+			return;
+		}
+
+		issueBuilder.append("No matching claim found with claimId: ").append(orphanClaimId)
+					.append(" for charge: ").append(orphanChargeId);
+	}
+
+	@Override
+	public void addIssueCodes(Collection<IssueCode> issueCodes) {
+
+		if (!isOrphanCharge) {
+			issueCodes.add(new IssueCode(DUPLICATE_PROCEDURE_RULE_ID, null, null));
+			return;
+		}
+
+		issueCodes.add(new IssueCode(ORPHAN_CHARGE_RULE_ID, orphanChargeId, null));
+	}
+
+	@Override
+	public void forEachRuleId(Consumer<String> ruleIdConsumer) {
+		ruleIdConsumer.accept(isOrphanCharge ? ORPHAN_CHARGE_RULE_ID : DUPLICATE_PROCEDURE_RULE_ID);
+	}
+}
@@ -0,0 +1,418 @@
+package com.craighdav.medical_claims_validator.service;
+
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.craighdav.medical_claims_validator.config.MedicalClaimsValidatorProperties;
+import com.craighdav.medical_claims_validator.model.ClaimIssue;
+import com.craighdav.medical_claims_validator.model.ProcessedMedicalClaimsData;
+import com.craighdav.medical_claims_validator.model.RawMedicalClaimsData;
+import com.craighdav.medical_claims_validator.registry.PatientRegistry;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * This class is purposed to answer repeated submissions of the same claims batch, such as
+ * the retries of an upstream client, without validating the batch again.
+ *
+ * Class ValidationResultCache keys each validation result by everything it depends on:
+ *
+ *   - the SHA-256 digest of the batch's request body and content type (see ClaimsBatchDigester)
+ *   - the evaluation date from the injected Clock, since patient ages change with it
+ *   - the version of the rule set
+ *   - the generation of the patient registry, since claims may resolve registered patients
+ *
+ * A result is only cached if the date, rule set version and registry generation are still
+ * the same once the batch has been validated. The cache is bounded by the estimated bytes
+ * its results retain and evicts the least recently used result first. When the evaluation
+ * date advances, the results of earlier dates are evicted at once. Submissions of a batch
+ * that is still being validated wait for that validation rather than repeating it.
+ *
+ * The key is created from the request body before the body is bound, so that a cached
+ * result is found by getCachedResult without binding the batch; only a batch without a
+ * cached result is bound and passed to validateMedicalClaims with its key.
+ *
+ * Hits, misses and evictions are counted in "claims.validation.result.cache.gets" (tag
+ * "result") and "claims.validation.result.cache.evictions". The cached results and their
+ * estimated bytes are gauged in "claims.validation.result.cache.entries" and
+ * "claims.validation.result.cache.bytes". A maximum of 0 bytes disables the cache.
+ *
+ * This class is thread-safe.
+ */
+@Service
+public final class ValidationResultCache {
+
+	// Estimated retained sizes, with compressed references: a cached result with its key,
+	// a valid claim's set entry, an invalid claim's map entry and issue list, and an issue
+	private static final long ENTRY_BYTES = 256L;
+	private static final long VALID_CLAIM_BYTES = 64L;
+	private static final long INVALID_CLAIM_BYTES = 112L;
+	private static final long CLAIM_ISSUE_BYTES = 64L;
+
+	private final Clock clock;
+	private final long maxBytes;
+	private final MedicalClaimsValidatorService medicalClaimsValidatorService;
+	private final PatientRegistry patientRegistry;
+
+	private final Counter hitCounter;
+	private final Counter missCounter;
+	private final Counter evictionCounter;
+
+	// Guards every field below; a ReentrantLock rather than a monitor, so that waiting
+	// virtual threads do not pin their carrier threads
+	private final ReentrantLock lock = new ReentrantLock();
+	private final LinkedHashMap<ResultKey, Entry> entryMap = new LinkedHashMap<>(16, 0.75f, true);
+	private final Map<ResultKey, CompletableFuture<ProcessedMedicalClaimsData>> inFlightResultMap = new HashMap<>();
+	private long totalBytes;
+	private LocalDate latestEvaluationDate;
+
+	@Autowired
+	public ValidationResultCache(Clock clock,
+									MedicalClaimsValidatorProperties medicalClaimsValidatorProperties,
+									MedicalClaimsValidatorService medicalClaimsValidatorService,
+									PatientRegistry patientRegistry,
+									MeterRegistry meterRegistry) {
+		this(clock, medicalClaimsValidatorProperties.getResultCacheMaxBytes(), medicalClaimsValidatorService,
+				patientRegistry, meterRegistry);
+	}
+
+	public ValidationResultCache(Clock clock, long maxBytes,
+									MedicalClaimsValidatorService medicalClaimsValidatorService,
+									PatientRegistry patientRegistry,
+									MeterRegistry meterRegistry) {
+		this.clock = clock;
+		this.maxBytes = maxBytes;
+		this.medicalClaimsValidatorService = medicalClaimsValidatorService;
+		this.patientRegistry = patientRegistry;
+
+		this.hitCounter = Counter.builder("claims.validation.result.cache.gets")
+					.description("Validation requests answered from the result cache")
+					.tag("result", "hit")
+					.register(meterRegistry);
+		this.missCounter = Counter.builder("claims.validation.result.cache.gets")
+					.description("Validation requests answered from the result cache")
+					.tag("result", "miss")
+					.register(meterRegistry);
+		this.evictionCounter = Counter.builder("claims.validation.result.cache.evictions")
+					.description("Results evicted from the result cache")
+					.register(meterRegistry);
+		Gauge.builder("claims.validation.result.cache.entries", this, ValidationResultCache::getEntryCount)
+					.description("Results held by the result cache")
+					.register(meterRegistry);
+		Gauge.builder("claims.validation.result.cache.bytes", this, ValidationResultCache::getTotalBytes)
+					.description("Estimated bytes retained by the results in the result cache")
+					.baseUnit("bytes")
+					.register(meterRegistry);
+	}
+
+	public boolean isEnabled() {
+		return maxBytes > 0;
+	}
+
+	/**
+	 * This method creates the key of the result of a claims batch request body, for the
+	 * current evaluation date, rule set version and patient registry generation.
+	 *
+	 * @param contentType The Content-Type of the request, or null if it has none
+	 * @param requestBody The bytes of the request body, before they are bound
+	 * @return The key of the batch's result
+	 */
+	public ResultKey createKey(String contentType, byte[] requestBody) {
+		return new ResultKey(ClaimsBatchDigester.digest(contentType, requestBody), LocalDate.now(clock),
+								medicalClaimsValidatorService.getRuleSet().getVersion(), patientRegistry.getGeneration());
+	}
+
+	/**
+	 * This method returns the cached result of a batch, waiting for it if an identical batch
+	 * is being validated.
+	 *
+	 * @param resultKey The key of the batch's result
+	 * @return The result of the batch, or null if it is neither cached nor being validated
+	 */
+	public ProcessedMedicalClaimsData getCachedResult(ResultKey resultKey) {
+
+		CompletableFuture<ProcessedMedicalClaimsData> inFlightResult;
+
+		lock.lock();
+		try {
+			evictEarlierDates(resultKey.evaluationDate);
+
+			Entry entry = entryMap.get(resultKey);
+			if (entry != null) {
+				hitCounter.increment();
+				return entry.processedMedicalClaimsData;
+			}
+
+			inFlightResult = inFlightResultMap.get(resultKey);
+		} finally {
+			lock.unlock();
+		}
+
+		if (inFlightResult == null) {
+			return null;
+		}
+
+		hitCounter.increment();
+		return awaitResult(inFlightResult);
+	}
+
+	/**
+	 * This method validates a claims batch without a cached result and caches its result.
+	 * The cache is checked again first, in case an identical batch was validated while this
+	 * one was bound.
+	 *
+	 * @param rawMedicalClaimsData The batch to validate
+	 * @param resultKey The key created from the batch's request body, or null not to cache
+	 *                  the result
+	 * @return The result of validating rawMedicalClaimsData
+	 * @see MedicalClaimsValidatorService#validateMedicalClaims(RawMedicalClaimsData)
+	 */
+	public ProcessedMedicalClaimsData validateMedicalClaims(RawMedicalClaimsData rawMedicalClaimsData,
+																ResultKey resultKey) {
+
+		if (!isEnabled() || (resultKey == null)) {
+			return medicalClaimsValidatorService.validateMedicalClaims(rawMedicalClaimsData);
+		}
+
+		CompletableFuture<ProcessedMedicalClaimsData> inFlightResult;
+		CompletableFuture<ProcessedMedicalClaimsData> ownResult = null;
+
+		lock.lock();
+		try {
+			evictEarlierDates(resultKey.evaluationDate);
+
+			Entry entry = entryMap.get(resultKey);
+			if (entry != null) {
+				hitCounter.increment();
+				return entry.processedMedicalClaimsData;
+			}
+
+			inFlightResult = inFlightResultMap.get(resultKey);
+			if (inFlightResult == null) {
+				ownResult = new CompletableFuture<>();
+				inFlightResultMap.put(resultKey, ownResult);
+			}
+		} finally {
+			lock.unlock();
+		}
+
+		if (ownResult == null) {
+			hitCounter.increment();
+			return awaitResult(inFlightResult);
+		}
+
+		missCounter.increment();
+		try {
+			ProcessedMedicalClaimsData processedMedicalClaimsData
+						= medicalClaimsValidatorService.validateMedicalClaims(rawMedicalClaimsData);
+			ownResult.complete(processedMedicalClaimsData);
+
+			if (isCurrent(resultKey, processedMedicalClaimsData)) {
+				put(resultKey, processedMedicalClaimsData);
+			}
+
+			return processedMedicalClaimsData;
+		} catch (RuntimeException runtimeException) {
+			ownResult.completeExceptionally(runtimeException);
+			throw runtimeException;
+		} finally {
+			// Releases any waiting submissions should validation have failed with an Error
+			if (!ownResult.isDone()) {
+				ownResult.completeExceptionally(new IllegalStateException("Validation of the batch failed"));
+			}
+
+			lock.lock();
+			try {
+				inFlightResultMap.remove(resultKey);
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+
+	public int getEntryCount() {
+		lock.lock();
+		try {
+			return entryMap.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public long getTotalBytes() {
+		lock.lock();
+		try {
+			return totalBytes;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/*
+	 * A result is current if nothing it depends on, other than the batch, has changed while
+	 * it was being computed
+	 */
+	private boolean isCurrent(ResultKey resultKey, ProcessedMedicalClaimsData processedMedicalClaimsData) {
+		return resultKey.ruleSetVersion.equals(processedMedicalClaimsData.getRuleSetVersion())
+				&& resultKey.evaluationDate.equals(LocalDate.now(clock))
+				&& (resultKey.registryGeneration == patientRegistry.getGeneration());
+	}
+
+	private void put(ResultKey resultKey, ProcessedMedicalClaimsData processedMedicalClaimsData) {
+
+		long entryBytes = estimateBytes(processedMedicalClaimsData);
+		if (entryBytes > maxBytes) {
+			return;
+		}
+
+		lock.lock();
+		try {
+			Entry replacedEntry = entryMap.put(resultKey, new Entry(processedMedicalClaimsData, entryBytes));
+			if (replacedEntry != null) {
+				totalBytes -= replacedEntry.bytes;
+			}
+			totalBytes += entryBytes;
+
+			Iterator<Entry> entryIterator = entryMap.values().iterator();
+			while ((totalBytes > maxBytes) && entryIterator.hasNext()) {
+				totalBytes -= entryIterator.next().bytes;
+				entryIterator.remove();
+				evictionCounter.increment();
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/*
+	 * Evict the results of dates before evaluationDate once the first request of a new day
+	 * arrives, since no request will look them up again. Must be called holding the lock.
+	 */
+	private void evictEarlierDates(LocalDate evaluationDate) {
+
+		if ((latestEvaluationDate != null) && !evaluationDate.isAfter(latestEvaluationDate)) {
+			return;
+		}
+		latestEvaluationDate = evaluationDate;
+
+		Iterator<Map.Entry<ResultKey, Entry>> entryIterator = entryMap.entrySet().iterator();
+		while (entryIterator.hasNext()) {
+			Map.Entry<ResultKey, Entry> mapEntry = entryIterator.next();
+
+			if (mapEntry.getKey().evaluationDate.isBefore(evaluationDate)) {
+				totalBytes -= mapEntry.getValue().bytes;
+				entryIterator.remove();
+				evictionCounter.increment();
+			}
+		}
+	}
+
+	private static long estimateBytes(ProcessedMedicalClaimsData processedMedicalClaimsData) {
+
+		Map<Long, List<ClaimIssue>> invalidClaimIssueMap = processedMedicalClaimsData.getInvalidClaimIssueMap();
+
+		long claimIssueCount = 0;
+		for (List<ClaimIssue> claimIssueList : invalidClaimIssueMap.values()) {
+			claimIssueCount += claimIssueList.size();
+		}
+
+		return ENTRY_BYTES
+				+ (VALID_CLAIM_BYTES * processedMedicalClaimsData.getValidClaimIdSet().size())
+				+ (INVALID_CLAIM_BYTES * invalidClaimIssueMap.size())
+				+ (CLAIM_ISSUE_BYTES * claimIssueCount);
+	}
+
+	private static ProcessedMedicalClaimsData awaitResult(CompletableFuture<ProcessedMedicalClaimsData> result) {
+		try {
+			return result.join();
+		} catch (CompletionException completionException) {
+			if (completionException.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) completionException.getCause();
+			}
+			throw completionException;
+		}
+	}
+
+	/**
+	 * ResultKey is the identity of a result: the digest of the batch's request body, held
+	 * as four longs, and the date, rule set version and registry generation it is validated
+	 * with. It is created by createKey only.
+	 */
+	public static final class ResultKey {
+
+		private final long digest0;
+		private final long digest1;
+		private final long digest2;
+		private final long digest3;
+		private final LocalDate evaluationDate;
+		private final String ruleSetVersion;
+		private final long registryGeneration;
+
+		private ResultKey(byte[] digest, LocalDate evaluationDate, String ruleSetVersion, long registryGeneration) {
+			ByteBuffer digestBuffer = ByteBuffer.wrap(digest);
+			this.digest0 = digestBuffer.getLong();
+			this.digest1 = digestBuffer.getLong();
+			this.digest2 = digestBuffer.getLong();
+			this.digest3 = digestBuffer.getLong();
+			this.evaluationDate = evaluationDate;
+			this.ruleSetVersion = ruleSetVersion;
+			this.registryGeneration = registryGeneration;
+		}
+
+		@Override
+		public boolean equals(Object otherObject) {
+			if (this == otherObject) {
+				return true;
+			}
+
+			if (! (otherObject instanceof ResultKey)) {
+				return false;
+			}
+
+			ResultKey otherResultKey = (ResultKey) otherObject;
+
+			return (digest0 == otherResultKey.digest0)
+					&& (digest1 == otherResultKey.digest1)
+					&& (digest2 == otherResultKey.digest2)
+					&& (digest3 == otherResultKey.digest3)
+					&& evaluationDate.equals(otherResultKey.evaluationDate)
+					&& ruleSetVersion.equals(otherResultKey.ruleSetVersion)
+					&& (registryGeneration == otherResultKey.registryGeneration);
+		}
+
+		@Override
+		public int hashCode() {
+			// The digest is already uniformly distributed, so its longs are folded as they are
+			int hashCode = Long.hashCode(digest0 ^ digest1 ^ digest2 ^ digest3);
+			hashCode = (31 * hashCode) + evaluationDate.hashCode();
+			hashCode = (31 * hashCode) + ruleSetVersion.hashCode();
+
+			return (31 * hashCode) + Long.hashCode(registryGeneration);
+		}
+	}
+
+	private static final class Entry {
+
+		private final ProcessedMedicalClaimsData processedMedicalClaimsData;
+		private final long bytes;
+
+		private Entry(ProcessedMedicalClaimsData processedMedicalClaimsData, long bytes) {
+			this.processedMedicalClaimsData = processedMedicalClaimsData;
+			this.bytes = bytes;
+		}
+	}
+}
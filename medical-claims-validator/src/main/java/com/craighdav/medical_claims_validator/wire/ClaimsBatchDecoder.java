@@ -0,0 +1,417 @@
+package com.craighdav.medical_claims_validator.wire;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.craighdav.medical_claims_validator.model.Charge;
+import com.craighdav.medical_claims_validator.model.Claim;
+import com.craighdav.medical_claims_validator.model.ColumnarClaimsBatch;
+import com.craighdav.medical_claims_validator.model.ColumnarClaimsBatch.ChargeColumns;
+import com.craighdav.medical_claims_validator.model.ColumnarClaimsBatch.ClaimColumns;
+import com.craighdav.medical_claims_validator.model.ColumnarClaimsBatch.PatientColumns;
+import com.craighdav.medical_claims_validator.model.IssueCode;
+import com.craighdav.medical_claims_validator.model.IssueFormat;
+import com.craighdav.medical_claims_validator.model.Patient;
+import com.craighdav.medical_claims_validator.model.RawMedicalClaimsData;
+
+/**
+ * This class is purposed to read claims batches and validation results in ClaimsBatchFormat.
+ * 
+ * Class ClaimsBatchDecoder reads each section column by column and then assembles the model
+ * objects row by row. Dates are rebuilt from epoch days and every claim shares the String
+ * instance of its dictionary-encoded place of service, so no text is parsed at all. The
+ * columns read are kept as the batch's ColumnarClaimsBatch, so that the columnar engine
+ * validates them as read instead of converting the model objects back into columns.
+ * 
+ * Columns grow with the data actually read rather than being sized from a row count, so a
+ * corrupt count ends in a MalformedClaimsBatchException instead of a huge allocation. The
+ * decoder is stateless and may be shared between threads.
+ */
+public class ClaimsBatchDecoder {
+
+	private static final int INPUT_BUFFER_SIZE = 1 << 16;
+	private static final int INITIAL_COLUMN_CAPACITY = 1 << 12;
+
+	/**
+	 * This method reads a CLAIMS frame from inputStream.
+	 * 
+	 * Method decodeClaims consumes inputStream to its end; it does not apply Bean Validation,
+	 * so the result is checked exactly like a RawMedicalClaimsData bound from JSON.
+	 * 
+	 * @param inputStream The source of the frame
+	 * @return The decoded patients, claims and charges
+	 * @throws MalformedClaimsBatchException If the input is not a valid CLAIMS frame
+	 * @throws IOException If the input cannot be read
+	 */
+	public RawMedicalClaimsData decodeClaims(InputStream inputStream) throws IOException {
+		
+		DataInputStream dataInput = createDataInput(inputStream);
+		
+		try {
+			readHeader(dataInput, ClaimsBatchFormat.CLAIMS_FRAME);
+			
+			String[] placeOfServiceDictionary = readStringColumn(dataInput, readCount(dataInput, false));
+			
+			List<Patient> patientList = new ArrayList<>();
+			List<Claim> claimList = new ArrayList<>();
+			List<Charge> chargeList = new ArrayList<>();
+			
+			PatientColumns patientColumns = readPatientSection(dataInput, patientList);
+			ClaimColumns claimColumns = readClaimSection(dataInput, placeOfServiceDictionary, claimList);
+			ChargeColumns chargeColumns = readChargeSection(dataInput, chargeList);
+			
+			readTrailer(dataInput);
+			
+			// A batch without claims or charges fails validation, so it needs no columns
+			ColumnarClaimsBatch columnarClaimsBatch = null;
+			if ((claimColumns != null) && (chargeColumns != null)) {
+				columnarClaimsBatch = new ColumnarClaimsBatch(
+								(patientColumns == null) ? new PatientColumns(0, new long[0], new int[0]) : patientColumns,
+								claimColumns, chargeColumns);
+			}
+			
+			return new RawMedicalClaimsData((patientColumns == null) ? null : patientList,
+												(claimColumns == null) ? null : claimList,
+												(chargeColumns == null) ? null : chargeList,
+												columnarClaimsBatch);
+		} catch (EOFException eofException) {
+			throw new MalformedClaimsBatchException("Claims batch is truncated", eofException);
+		}
+	}
+
+	/**
+	 * This method reads a RESULT frame from inputStream.
+	 * 
+	 * Method decodeResult consumes inputStream to its end.
+	 * 
+	 * @param inputStream The source of the frame
+	 * @return The decoded validation result
+	 * @throws MalformedClaimsBatchException If the input is not a valid RESULT frame
+	 * @throws IOException If the input cannot be read
+	 */
+	public ClaimsBatchResult decodeResult(InputStream inputStream) throws IOException {
+		
+		DataInputStream dataInput = createDataInput(inputStream);
+		
+		try {
+			readHeader(dataInput, ClaimsBatchFormat.RESULT_FRAME);
+			
+			byte issueFormatCode = dataInput.readByte();
+			if ((issueFormatCode != ClaimsBatchFormat.TEXT_ISSUES) && (issueFormatCode != ClaimsBatchFormat.CODE_ISSUES)) {
+				throw new MalformedClaimsBatchException("Unknown issue format: " + issueFormatCode);
+			}
+			
+			String ruleSetVersion = readString(dataInput);
+			
+			long[] validClaimIds = readLongColumn(dataInput, readCount(dataInput, false));
+			Set<Long> validClaimIdSet = new LinkedHashSet<>();
+			for (long claimId : validClaimIds) {
+				validClaimIdSet.add(claimId);
+			}
+			
+			int invalidClaimCount = readCount(dataInput, false);
+			long[] invalidClaimIds = readLongColumn(dataInput, invalidClaimCount);
+			int[] issueCounts = readIntColumn(dataInput, invalidClaimCount);
+			
+			long totalIssueCount = 0;
+			for (int issueCount : issueCounts) {
+				if (issueCount < 0) {
+					throw new MalformedClaimsBatchException("Negative issue count: " + issueCount);
+				}
+				totalIssueCount += issueCount;
+			}
+			if (totalIssueCount > Integer.MAX_VALUE) {
+				throw new MalformedClaimsBatchException("Too many issues: " + totalIssueCount);
+			}
+			
+			ClaimsBatchResult claimsBatchResult;
+			if (issueFormatCode == ClaimsBatchFormat.CODE_ISSUES) {
+				claimsBatchResult = new ClaimsBatchResult(IssueFormat.CODES, ruleSetVersion, validClaimIdSet, 
+										Collections.emptyMap(), 
+										readIssueCodes(dataInput, invalidClaimIds, issueCounts, (int) totalIssueCount));
+			} else {
+				claimsBatchResult = new ClaimsBatchResult(IssueFormat.TEXT, ruleSetVersion, validClaimIdSet, 
+										readIssueMessages(dataInput, invalidClaimIds, issueCounts), 
+										Collections.emptyMap());
+			}
+			
+			readTrailer(dataInput);
+			
+			return claimsBatchResult;
+		} catch (EOFException eofException) {
+			throw new MalformedClaimsBatchException("Validation result is truncated", eofException);
+		}
+	}
+
+	private DataInputStream createDataInput(InputStream inputStream) {
+		return new DataInputStream(new BufferedInputStream(inputStream, INPUT_BUFFER_SIZE));
+	}
+
+	private void readHeader(DataInputStream dataInput, byte frameTypeExpected) throws IOException {
+		
+		if (dataInput.readInt() != ClaimsBatchFormat.MAGIC) {
+			throw new MalformedClaimsBatchException("Not a claims batch: unexpected magic number");
+		}
+		
+		byte formatVersion = dataInput.readByte();
+		if (formatVersion != ClaimsBatchFormat.FORMAT_VERSION) {
+			throw new MalformedClaimsBatchException("Unsupported claims batch version: " + formatVersion);
+		}
+		
+		byte frameType = dataInput.readByte();
+		if (frameType != frameTypeExpected) {
+			throw new MalformedClaimsBatchException(
+						"Expected frame type " + frameTypeExpected + " but was " + frameType);
+		}
+	}
+
+	private void readTrailer(DataInputStream dataInput) throws IOException {
+		if (dataInput.read() != -1) {
+			throw new MalformedClaimsBatchException("Unexpected data after the end of the frame");
+		}
+	}
+
+	/*
+	 * Read a row count; NULL_COUNT is only accepted (and returned) for the nullable model lists.
+	 */
+	private int readCount(DataInputStream dataInput, boolean isNullable) throws IOException {
+		
+		int count = dataInput.readInt();
+		
+		if ((count < 0) && !(isNullable && (count == ClaimsBatchFormat.NULL_COUNT))) {
+			throw new MalformedClaimsBatchException("Invalid row count: " + count);
+		}
+		
+		return count;
+	}
+
+	/*
+	 * Read the patient section into patientList and return its columns, or return null if the
+	 * section holds no list. The wire format marks a null date with the sentinel the columns
+	 * use, so the columns are kept as read; likewise for claims' places of service below.
+	 */
+	private PatientColumns readPatientSection(DataInputStream dataInput, List<Patient> patientList) 
+																				throws IOException {
+		
+		int patientCount = readCount(dataInput, true);
+		if (patientCount == ClaimsBatchFormat.NULL_COUNT) {
+			return null;
+		}
+		
+		long[] ids = readLongColumn(dataInput, patientCount);
+		int[] birthEpochDays = readIntColumn(dataInput, patientCount);
+		String[] firstNames = readStringColumn(dataInput, patientCount);
+		String[] lastNames = readStringColumn(dataInput, patientCount);
+		
+		for (int rowIndex = 0; rowIndex < patientCount; rowIndex++) {
+			patientList.add(new Patient(ids[rowIndex], firstNames[rowIndex], lastNames[rowIndex], 
+											toLocalDate(birthEpochDays[rowIndex])));
+		}
+		
+		return new PatientColumns(patientCount, ids, birthEpochDays);
+	}
+
+	private ClaimColumns readClaimSection(DataInputStream dataInput, String[] placeOfServiceDictionary, 
+											List<Claim> claimList) throws IOException {
+		
+		int claimCount = readCount(dataInput, true);
+		if (claimCount == ClaimsBatchFormat.NULL_COUNT) {
+			return null;
+		}
+		
+		long[] ids = readLongColumn(dataInput, claimCount);
+		long[] patientIds = readLongColumn(dataInput, claimCount);
+		int[] serviceEpochDays = readIntColumn(dataInput, claimCount);
+		int[] placeOfServiceIndexes = readIntColumn(dataInput, claimCount);
+		
+		for (int rowIndex = 0; rowIndex < claimCount; rowIndex++) {
+			claimList.add(new Claim(ids[rowIndex], patientIds[rowIndex], toLocalDate(serviceEpochDays[rowIndex]), 
+										lookUp(placeOfServiceDictionary, placeOfServiceIndexes[rowIndex])));
+		}
+		
+		return new ClaimColumns(claimCount, ids, patientIds, serviceEpochDays, placeOfServiceIndexes,
+									placeOfServiceDictionary);
+	}
+
+	private ChargeColumns readChargeSection(DataInputStream dataInput, List<Charge> chargeList) 
+																				throws IOException {
+		
+		int chargeCount = readCount(dataInput, true);
+		if (chargeCount == ClaimsBatchFormat.NULL_COUNT) {
+			return null;
+		}
+		
+		long[] ids = readLongColumn(dataInput, chargeCount);
+		long[] claimIds = readLongColumn(dataInput, chargeCount);
+		long[] procedureCodes = readLongColumn(dataInput, chargeCount);
+		long[] amounts = readLongColumn(dataInput, chargeCount);
+		
+		int[] intAmounts = new int[chargeCount];
+		for (int rowIndex = 0; rowIndex < chargeCount; rowIndex++) {
+			long amount = amounts[rowIndex];
+			if ((amount < Integer.MIN_VALUE) || (amount > Integer.MAX_VALUE)) {
+				throw new MalformedClaimsBatchException(
+							"Charge: " + ids[rowIndex] + " amount is out of range: " + amount);
+			}
+			
+			intAmounts[rowIndex] = (int) amount;
+			chargeList.add(new Charge(ids[rowIndex], claimIds[rowIndex], procedureCodes[rowIndex], (int) amount));
+		}
+		
+		return new ChargeColumns(chargeCount, ids, claimIds, procedureCodes, intAmounts);
+	}
+
+	private Map<Long, Set<String>> readIssueMessages(DataInputStream dataInput, long[] invalidClaimIds, 
+														int[] issueCounts) throws IOException {
+		
+		Map<Long, Set<String>> invalidClaimWithIssuesMap = new LinkedHashMap<>();
+		
+		for (int claimIndex = 0; claimIndex < invalidClaimIds.length; claimIndex++) {
+			Set<String> issueSet = new LinkedHashSet<>();
+			for (int issueIndex = 0; issueIndex < issueCounts[claimIndex]; issueIndex++) {
+				issueSet.add(readString(dataInput));
+			}
+			
+			invalidClaimWithIssuesMap.put(invalidClaimIds[claimIndex], issueSet);
+		}
+		
+		return invalidClaimWithIssuesMap;
+	}
+
+	private Map<Long, Set<IssueCode>> readIssueCodes(DataInputStream dataInput, long[] invalidClaimIds, 
+														int[] issueCounts, int totalIssueCount) throws IOException {
+		
+		String[] ruleIdDictionary = readStringColumn(dataInput, readCount(dataInput, false));
+		int[] ruleIdIndexes = readIntColumn(dataInput, totalIssueCount);
+		long[] chargeIds = readLongColumn(dataInput, totalIssueCount);
+		int[] patientAges = readIntColumn(dataInput, totalIssueCount);
+		
+		Map<Long, Set<IssueCode>> invalidClaimIssueCodeMap = new LinkedHashMap<>();
+		int issueIndex = 0;
+		
+		for (int claimIndex = 0; claimIndex < invalidClaimIds.length; claimIndex++) {
+			Set<IssueCode> issueCodeSet = new LinkedHashSet<>();
+			for (int claimIssueIndex = 0; claimIssueIndex < issueCounts[claimIndex]; claimIssueIndex++) {
+				String ruleId = lookUp(ruleIdDictionary, ruleIdIndexes[issueIndex]);
+				if (ruleId == null) {
+					throw new MalformedClaimsBatchException("Issue " + issueIndex + " has no rule id");
+				}
+				
+				Long chargeId = (chargeIds[issueIndex] == ClaimsBatchFormat.NO_CHARGE_ID) 
+										? null : chargeIds[issueIndex];
+				Integer patientAge = (patientAges[issueIndex] == ClaimsBatchFormat.NO_PATIENT_AGE) 
+										? null : patientAges[issueIndex];
+				
+				issueCodeSet.add(new IssueCode(ruleId, chargeId, patientAge));
+				issueIndex++;
+			}
+			
+			invalidClaimIssueCodeMap.put(invalidClaimIds[claimIndex], issueCodeSet);
+		}
+		
+		return invalidClaimIssueCodeMap;
+	}
+
+	private long[] readLongColumn(DataInputStream dataInput, int count) throws IOException {
+		
+		long[] column = new long[Math.min(count, INITIAL_COLUMN_CAPACITY)];
+		
+		for (int rowIndex = 0; rowIndex < count; rowIndex++) {
+			if (rowIndex == column.length) {
+				column = Arrays.copyOf(column, growCapacity(column.length, count));
+			}
+			column[rowIndex] = dataInput.readLong();
+		}
+		
+		return column;
+	}
+
+	private int[] readIntColumn(DataInputStream dataInput, int count) throws IOException {
+		
+		int[] column = new int[Math.min(count, INITIAL_COLUMN_CAPACITY)];
+		
+		for (int rowIndex = 0; rowIndex < count; rowIndex++) {
+			if (rowIndex == column.length) {
+				column = Arrays.copyOf(column, growCapacity(column.length, count));
+			}
+			column[rowIndex] = dataInput.readInt();
+		}
+		
+		return column;
+	}
+
+	private String[] readStringColumn(DataInputStream dataInput, int count) throws IOException {
+		
+		String[] column = new String[Math.min(count, INITIAL_COLUMN_CAPACITY)];
+		
+		for (int rowIndex = 0; rowIndex < count; rowIndex++) {
+			if (rowIndex == column.length) {
+				column = Arrays.copyOf(column, growCapacity(column.length, count));
+			}
+			column[rowIndex] = readString(dataInput);
+		}
+		
+		return column;
+	}
+
+	private int growCapacity(int capacity, int count) {
+		return (int) Math.min(count, 2L * capacity);
+	}
+
+	private String readString(DataInputStream dataInput) throws IOException {
+		
+		int byteLength = dataInput.readInt();
+		if (byteLength == ClaimsBatchFormat.NULL_COUNT) {
+			return null;
+		}
+		
+		if ((byteLength < 0) || (byteLength > ClaimsBatchFormat.MAX_STRING_BYTES)) {
+			throw new MalformedClaimsBatchException("Invalid string length: " + byteLength);
+		}
+		
+		byte[] valueBytes = new byte[byteLength];
+		dataInput.readFully(valueBytes);
+		
+		return new String(valueBytes, StandardCharsets.UTF_8);
+	}
+
+	private String lookUp(String[] dictionary, int index) throws MalformedClaimsBatchException {
+		
+		if (index == ClaimsBatchFormat.NULL_INDEX) {
+			return null;
+		}
+		
+		if ((index < 0) || (index >= dictionary.length)) {
+			throw new MalformedClaimsBatchException("Dictionary index out of range: " + index);
+		}
+		
+		return dictionary[index];
+	}
+
+	private LocalDate toLocalDate(int epochDay) throws MalformedClaimsBatchException {
+		
+		if (epochDay == ClaimsBatchFormat.NULL_EPOCH_DAY) {
+			return null;
+		}
+		
+		try {
+			return LocalDate.ofEpochDay(epochDay);
+		} catch (DateTimeException dateTimeException) {
+			throw new MalformedClaimsBatchException("Invalid epoch day: " + epochDay, dateTimeException);
+		}
+	}
+}
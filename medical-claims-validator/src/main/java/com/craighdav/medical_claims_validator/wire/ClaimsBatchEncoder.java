@@ -0,0 +1,251 @@
+package com.craighdav.medical_claims_validator.wire;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.craighdav.medical_claims_validator.model.Charge;
+import com.craighdav.medical_claims_validator.model.Claim;
+import com.craighdav.medical_claims_validator.model.IssueCode;
+import com.craighdav.medical_claims_validator.model.IssueFormat;
+import com.craighdav.medical_claims_validator.model.Patient;
+import com.craighdav.medical_claims_validator.model.ProcessedMedicalClaimsData;
+import com.craighdav.medical_claims_validator.model.RawMedicalClaimsData;
+
+/**
+ * This class is purposed to write claims batches and validation results in ClaimsBatchFormat.
+ * 
+ * Class ClaimsBatchEncoder is used by upstream producers to send RawMedicalClaimsData to
+ * POST /validateClaims as application/x-claims-batch, and by the service to answer in the
+ * same format. Each column is written in one pass over its list, so a frame costs a few
+ * sequential passes over the data and no intermediate objects beyond the string bytes.
+ * The encoder is stateless and may be shared between threads.
+ */
+public class ClaimsBatchEncoder {
+
+	private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * This method writes rawMedicalClaimsData to outputStream as a CLAIMS frame.
+	 * 
+	 * Method encodeClaims flushes but does not close outputStream.
+	 * 
+	 * @param rawMedicalClaimsData The patients, claims and charges to encode
+	 * @param outputStream The destination of the frame
+	 * @throws IOException If the output cannot be written
+	 * @throws IllegalArgumentException If a string exceeds ClaimsBatchFormat's limit
+	 */
+	public void encodeClaims(RawMedicalClaimsData rawMedicalClaimsData, OutputStream outputStream) 
+																				throws IOException {
+		
+		DataOutputStream dataOutput = createDataOutput(outputStream);
+		writeHeader(dataOutput, ClaimsBatchFormat.CLAIMS_FRAME);
+		
+		List<Patient> patientList = rawMedicalClaimsData.getPatientList();
+		List<Claim> claimList = rawMedicalClaimsData.getClaimList();
+		List<Charge> chargeList = rawMedicalClaimsData.getChargeList();
+		
+		Map<String, Integer> placeOfServiceIndexMap = new HashMap<>();
+		List<String> placeOfServiceList = new ArrayList<>();
+		for (Claim claim : claimList) {
+			String placeOfService = claim.getPlaceOfService();
+			if ((placeOfService != null) && !placeOfServiceIndexMap.containsKey(placeOfService)) {
+				placeOfServiceIndexMap.put(placeOfService, placeOfServiceList.size());
+				placeOfServiceList.add(placeOfService);
+			}
+		}
+		
+		dataOutput.writeInt(placeOfServiceList.size());
+		for (String placeOfService : placeOfServiceList) {
+			writeString(dataOutput, placeOfService);
+		}
+		
+		dataOutput.writeInt(patientList.size());
+		for (Patient patient : patientList) {
+			dataOutput.writeLong(patient.getId());
+		}
+		for (Patient patient : patientList) {
+			dataOutput.writeInt(toEpochDay(patient.getBirthDate()));
+		}
+		for (Patient patient : patientList) {
+			writeString(dataOutput, patient.getFirstName());
+		}
+		for (Patient patient : patientList) {
+			writeString(dataOutput, patient.getLastName());
+		}
+		
+		dataOutput.writeInt(claimList.size());
+		for (Claim claim : claimList) {
+			dataOutput.writeLong(claim.getId());
+		}
+		for (Claim claim : claimList) {
+			dataOutput.writeLong(claim.getPatientId());
+		}
+		for (Claim claim : claimList) {
+			dataOutput.writeInt(toEpochDay(claim.getServiceDate()));
+		}
+		for (Claim claim : claimList) {
+			String placeOfService = claim.getPlaceOfService();
+			dataOutput.writeInt((placeOfService == null) 
+									? ClaimsBatchFormat.NULL_INDEX : placeOfServiceIndexMap.get(placeOfService));
+		}
+		
+		dataOutput.writeInt(chargeList.size());
+		for (Charge charge : chargeList) {
+			dataOutput.writeLong(charge.getId());
+		}
+		for (Charge charge : chargeList) {
+			dataOutput.writeLong(charge.getClaimId());
+		}
+		for (Charge charge : chargeList) {
+			dataOutput.writeLong(charge.getProcedureCode());
+		}
+		for (Charge charge : chargeList) {
+			dataOutput.writeLong(charge.getAmount());
+		}
+		
+		dataOutput.flush();
+	}
+
+	/**
+	 * This method writes processedMedicalClaimsData to outputStream as a RESULT frame.
+	 * 
+	 * Method encodeResult writes the issues in the data's issue format, with the same
+	 * messages or codes as the JSON response. It flushes but does not close outputStream.
+	 * 
+	 * @param processedMedicalClaimsData The validation result to encode
+	 * @param outputStream The destination of the frame
+	 * @throws IOException If the output cannot be written
+	 * @throws IllegalArgumentException If a string exceeds ClaimsBatchFormat's limit
+	 */
+	public void encodeResult(ProcessedMedicalClaimsData processedMedicalClaimsData, OutputStream outputStream) 
+																				throws IOException {
+		
+		DataOutputStream dataOutput = createDataOutput(outputStream);
+		writeHeader(dataOutput, ClaimsBatchFormat.RESULT_FRAME);
+		
+		IssueFormat issueFormat = processedMedicalClaimsData.getIssueFormat();
+		dataOutput.writeByte((issueFormat == IssueFormat.CODES) 
+									? ClaimsBatchFormat.CODE_ISSUES : ClaimsBatchFormat.TEXT_ISSUES);
+		writeString(dataOutput, processedMedicalClaimsData.getRuleSetVersion());
+		
+		Set<Long> validClaimIdSet = processedMedicalClaimsData.getValidClaimIdSet();
+		dataOutput.writeInt(validClaimIdSet.size());
+		for (long claimId : validClaimIdSet) {
+			dataOutput.writeLong(claimId);
+		}
+		
+		if (issueFormat == IssueFormat.CODES) {
+			Map<Long, Set<IssueCode>> invalidClaimIssueCodeMap 
+						= processedMedicalClaimsData.getInvalidClaimIssueCodeMap();
+			
+			writeInvalidClaimColumns(dataOutput, invalidClaimIssueCodeMap);
+			writeIssueCodeColumns(dataOutput, invalidClaimIssueCodeMap);
+		} else {
+			Map<Long, Set<String>> invalidClaimWithIssuesMap 
+						= processedMedicalClaimsData.getInvalidClaimWithIssuesMap();
+			
+			writeInvalidClaimColumns(dataOutput, invalidClaimWithIssuesMap);
+			for (Set<String> issueSet : invalidClaimWithIssuesMap.values()) {
+				for (String issue : issueSet) {
+					writeString(dataOutput, issue);
+				}
+			}
+		}
+		
+		dataOutput.flush();
+	}
+
+	private DataOutputStream createDataOutput(OutputStream outputStream) {
+		return new DataOutputStream(new BufferedOutputStream(outputStream, OUTPUT_BUFFER_SIZE));
+	}
+
+	private void writeHeader(DataOutputStream dataOutput, byte frameType) throws IOException {
+		dataOutput.writeInt(ClaimsBatchFormat.MAGIC);
+		dataOutput.writeByte(ClaimsBatchFormat.FORMAT_VERSION);
+		dataOutput.writeByte(frameType);
+	}
+
+	private void writeInvalidClaimColumns(DataOutputStream dataOutput, 
+											Map<Long, ? extends Set<?>> invalidClaimIssuesMap) throws IOException {
+		
+		dataOutput.writeInt(invalidClaimIssuesMap.size());
+		for (long claimId : invalidClaimIssuesMap.keySet()) {
+			dataOutput.writeLong(claimId);
+		}
+		for (Set<?> issueSet : invalidClaimIssuesMap.values()) {
+			dataOutput.writeInt(issueSet.size());
+		}
+	}
+
+	/*
+	 * Write the rule id dictionary followed by the three issue code columns, in the order in
+	 * which writeInvalidClaimColumns counted the issues.
+	 */
+	private void writeIssueCodeColumns(DataOutputStream dataOutput, 
+										Map<Long, Set<IssueCode>> invalidClaimIssueCodeMap) throws IOException {
+		
+		Map<String, Integer> ruleIdIndexMap = new HashMap<>();
+		List<String> ruleIdList = new ArrayList<>();
+		for (Set<IssueCode> issueCodeSet : invalidClaimIssueCodeMap.values()) {
+			for (IssueCode issueCode : issueCodeSet) {
+				if (!ruleIdIndexMap.containsKey(issueCode.getRuleId())) {
+					ruleIdIndexMap.put(issueCode.getRuleId(), ruleIdList.size());
+					ruleIdList.add(issueCode.getRuleId());
+				}
+			}
+		}
+		
+		dataOutput.writeInt(ruleIdList.size());
+		for (String ruleId : ruleIdList) {
+			writeString(dataOutput, ruleId);
+		}
+		
+		for (Set<IssueCode> issueCodeSet : invalidClaimIssueCodeMap.values()) {
+			for (IssueCode issueCode : issueCodeSet) {
+				dataOutput.writeInt(ruleIdIndexMap.get(issueCode.getRuleId()));
+			}
+		}
+		for (Set<IssueCode> issueCodeSet : invalidClaimIssueCodeMap.values()) {
+			for (IssueCode issueCode : issueCodeSet) {
+				dataOutput.writeLong((issueCode.getChargeId() == null) 
+										? ClaimsBatchFormat.NO_CHARGE_ID : issueCode.getChargeId());
+			}
+		}
+		for (Set<IssueCode> issueCodeSet : invalidClaimIssueCodeMap.values()) {
+			for (IssueCode issueCode : issueCodeSet) {
+				dataOutput.writeInt((issueCode.getPatientAge() == null) 
+										? ClaimsBatchFormat.NO_PATIENT_AGE : issueCode.getPatientAge());
+			}
+		}
+	}
+
+	private void writeString(DataOutputStream dataOutput, String value) throws IOException {
+		
+		if (value == null) {
+			dataOutput.writeInt(ClaimsBatchFormat.NULL_COUNT);
+			return;
+		}
+		
+		byte[] valueBytes = value.getBytes(StandardCharsets.UTF_8);
+		if (valueBytes.length > ClaimsBatchFormat.MAX_STRING_BYTES) {
+			throw new IllegalArgumentException(
+						"String of " + valueBytes.length + " bytes exceeds the claims batch limit");
+		}
+		
+		dataOutput.writeInt(valueBytes.length);
+		dataOutput.write(valueBytes);
+	}
+
+	private int toEpochDay(LocalDate date) {
+		return (date == null) ? ClaimsBatchFormat.NULL_EPOCH_DAY : Math.toIntExact(date.toEpochDay());
+	}
+}
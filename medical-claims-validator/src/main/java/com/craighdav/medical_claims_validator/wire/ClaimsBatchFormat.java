@@ -0,0 +1,62 @@
+package com.craighdav.medical_claims_validator.wire;
+
+/**
+ * This class is purposed to define the compact binary "claims batch" wire format.
+ * 
+ * Class ClaimsBatchFormat holds the constants shared by ClaimsBatchEncoder and
+ * ClaimsBatchDecoder. A frame starts with MAGIC, FORMAT_VERSION and a frame type byte and
+ * is followed by length-prefixed sections, all numbers in big-endian byte order. Every
+ * section starts with its row count (-1 for a null list) followed by its columns, one
+ * fixed-width value per row:
+ * 
+ * <pre>
+ * CLAIMS frame
+ *   places of service   int count, string[count]                      (dictionary)
+ *   patients            int count, long id[], int birthEpochDay[],
+ *                       string firstName[], string lastName[]
+ *   claims              int count, long id[], long patientId[], int serviceEpochDay[],
+ *                       int placeOfServiceIndex[]
+ *   charges             int count, long id[], long claimId[], long procedureCode[],
+ *                       long amount[]
+ * 
+ * RESULT frame
+ *   issue format        byte (0 = TEXT, 1 = CODES)
+ *   rule set version    string
+ *   valid claims        int count, long claimId[]
+ *   invalid claims      int count, long claimId[], int issueCount[]
+ *   issues (TEXT)       string message[sum of issueCount]
+ *   issues (CODES)      int count, string ruleId[count]                (dictionary)
+ *                       int ruleIdIndex[sum], long chargeId[sum], int patientAge[sum]
+ * </pre>
+ * 
+ * A string is its int UTF-8 byte length (-1 for null) followed by the bytes. Null dates are
+ * NULL_EPOCH_DAY, a null place of service is NULL_INDEX, and the absent values of an issue
+ * code are NO_CHARGE_ID and NO_PATIENT_AGE.
+ */
+public final class ClaimsBatchFormat {
+
+	public static final String MEDIA_TYPE_VALUE = "application/x-claims-batch";
+
+	static final int MAGIC = 0x434C4D42;	// "CLMB"
+	static final byte FORMAT_VERSION = 1;
+
+	static final byte CLAIMS_FRAME = 1;
+	static final byte RESULT_FRAME = 2;
+
+	static final byte TEXT_ISSUES = 0;
+	static final byte CODE_ISSUES = 1;
+
+	static final int NULL_COUNT = -1;
+
+	// The sentinels of ColumnarClaimsBatch as well, so that decoded columns are used as read
+	static final int NULL_EPOCH_DAY = Integer.MIN_VALUE;
+	static final int NULL_INDEX = -1;
+	static final long NO_CHARGE_ID = 0L;
+	static final int NO_PATIENT_AGE = Integer.MIN_VALUE;
+
+	// Bounds a single string, so a corrupt length cannot exhaust the heap
+	static final int MAX_STRING_BYTES = 1 << 20;
+
+	private ClaimsBatchFormat() {
+	}
+}
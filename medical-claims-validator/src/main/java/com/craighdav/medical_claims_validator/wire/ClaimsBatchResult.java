@@ -0,0 +1,63 @@
+package com.craighdav.medical_claims_validator.wire;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+import com.craighdav.medical_claims_validator.model.IssueCode;
+import com.craighdav.medical_claims_validator.model.IssueFormat;
+
+public class ClaimsBatchResult {
+
+	private final IssueFormat issueFormat;
+	private final String ruleSetVersion;
+	private final Set<Long> validClaimIdSet;
+	private final Map<Long, Set<String>> invalidClaimWithIssuesMap;
+	private final Map<Long, Set<IssueCode>> invalidClaimIssueCodeMap;
+
+	/**
+	 * ClaimsBatchResult represents a decoded RESULT frame of the claims batch wire format.
+	 * 
+	 * Class ClaimsBatchResult is what a client of the binary format receives in place of the
+	 * JSON ProcessedMedicalClaimsData. Depending on issueFormat, the issues of the invalid
+	 * claims are in invalidClaimWithIssuesMap (TEXT) or invalidClaimIssueCodeMap (CODES);
+	 * the other map is empty. Claims are in the order in which they were encoded.
+	 * 
+	 * @param issueFormat The format in which the issues were encoded
+	 * @param ruleSetVersion The version of the rule set that produced the result
+	 * @param validClaimIdSet The IDs of the valid claims
+	 * @param invalidClaimWithIssuesMap The issue messages by invalid claim ID
+	 * @param invalidClaimIssueCodeMap The issue codes by invalid claim ID
+	 */
+	public ClaimsBatchResult(IssueFormat issueFormat, 
+								String ruleSetVersion, 
+								Set<Long> validClaimIdSet, 
+								Map<Long, Set<String>> invalidClaimWithIssuesMap, 
+								Map<Long, Set<IssueCode>> invalidClaimIssueCodeMap) {
+		this.issueFormat = issueFormat;
+		this.ruleSetVersion = ruleSetVersion;
+		this.validClaimIdSet = validClaimIdSet;
+		this.invalidClaimWithIssuesMap = invalidClaimWithIssuesMap;
+		this.invalidClaimIssueCodeMap = invalidClaimIssueCodeMap;
+	}
+
+	public IssueFormat getIssueFormat() {
+		return issueFormat;
+	}
+
+	public String getRuleSetVersion() {
+		return ruleSetVersion;
+	}
+
+	public Set<Long> getValidClaimIdSet() {
+		return Collections.unmodifiableSet(validClaimIdSet);
+	}
+
+	public Map<Long, Set<String>> getInvalidClaimWithIssuesMap() {
+		return Collections.unmodifiableMap(invalidClaimWithIssuesMap);
+	}
+
+	public Map<Long, Set<IssueCode>> getInvalidClaimIssueCodeMap() {
+		return Collections.unmodifiableMap(invalidClaimIssueCodeMap);
+	}
+}
@@ -0,0 +1,20 @@
+package com.craighdav.medical_claims_validator.wire;
+
+import java.io.IOException;
+
+/**
+ * MalformedClaimsBatchException signals input that does not follow ClaimsBatchFormat, such
+ * as a wrong magic number, an unsupported version or a truncated section.
+ */
+public class MalformedClaimsBatchException extends IOException {
+
+	private static final long serialVersionUID = 1L;
+
+	public MalformedClaimsBatchException(String message) {
+		super(message);
+	}
+
+	public MalformedClaimsBatchException(String message, Throwable cause) {
+		super(message, cause);
+	}
+}
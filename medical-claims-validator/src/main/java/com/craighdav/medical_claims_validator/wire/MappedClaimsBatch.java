@@ -0,0 +1,357 @@
+package com.craighdav.medical_claims_validator.wire;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.BitSet;
+
+/**
+ * This class is purposed to read a CLAIMS frame of ClaimsBatchFormat in place from a file.
+ *
+ * Class MappedClaimsBatch memory-maps the file with FileChannel.map and answers every column
+ * value with an absolute read from the mapped buffers, so the records are never copied onto
+ * the heap. Opening the file walks its sections once to find the column offsets and to check
+ * that the frame is complete; afterwards any row of any column can be read in any order.
+ *
+ * A single mapping is limited to 2 GiB, so the file is mapped as a series of regions. Each
+ * region overlaps the next by Long.BYTES - 1 bytes, which lets every fixed-width value be
+ * read from one region even when it straddles a region boundary. The only strings decoded
+ * are the few of the place of service dictionary; patient names are checked for null and
+ * otherwise skipped, because no rule uses them.
+ *
+ * Instances may be read by several threads at once. Closing releases the file channel; the
+ * mappings themselves are released once the instance is no longer reachable.
+ */
+public class MappedClaimsBatch implements AutoCloseable {
+
+	// 1 GiB regions keep every offset within a region well inside the int range
+	private static final int DEFAULT_REGION_SHIFT = 30;
+
+	private final FileChannel fileChannel;
+	private final long fileSize;
+	private final int regionShift;
+	private final long regionMask;
+	private final MappedByteBuffer[] regions;
+
+	private final String[] placeOfServiceDictionary;
+
+	private final int patientCount;
+	private final long patientIdOffset;
+	private final long patientBirthEpochDayOffset;
+	private final BitSet nullFirstNamePatientRows = new BitSet();
+	private final BitSet nullLastNamePatientRows = new BitSet();
+
+	private final int claimCount;
+	private final long claimIdOffset;
+	private final long claimPatientIdOffset;
+	private final long claimServiceEpochDayOffset;
+	private final long claimPlaceOfServiceIndexOffset;
+
+	private final int chargeCount;
+	private final long chargeIdOffset;
+	private final long chargeClaimIdOffset;
+	private final long chargeProcedureCodeOffset;
+	private final long chargeAmountOffset;
+
+	/**
+	 * @param path The file holding one CLAIMS frame
+	 * @throws MalformedClaimsBatchException If the file is not a complete CLAIMS frame
+	 * @throws IOException If the file cannot be opened or mapped
+	 */
+	public MappedClaimsBatch(Path path) throws IOException {
+		this(path, DEFAULT_REGION_SHIFT);
+	}
+
+	/*
+	 * Map path in regions of 2^regionShift bytes; small regions let tests cross boundaries.
+	 */
+	MappedClaimsBatch(Path path, int regionShift) throws IOException {
+
+		this.fileChannel = FileChannel.open(path, StandardOpenOption.READ);
+
+		try {
+			this.fileSize = fileChannel.size();
+			this.regionShift = regionShift;
+			this.regionMask = (1L << regionShift) - 1;
+			this.regions = mapRegions();
+
+			FrameScanner frameScanner = new FrameScanner();
+			frameScanner.readHeader();
+
+			int dictionarySize = frameScanner.readCount("Place of service dictionary");
+			this.placeOfServiceDictionary = new String[dictionarySize];
+			for (int entryIndex = 0; entryIndex < dictionarySize; entryIndex++) {
+				placeOfServiceDictionary[entryIndex] = frameScanner.readString();
+			}
+
+			this.patientCount = frameScanner.readCount("Patients");
+			this.patientIdOffset = frameScanner.skipColumn(patientCount, Long.BYTES);
+			this.patientBirthEpochDayOffset = frameScanner.skipColumn(patientCount, Integer.BYTES);
+			frameScanner.skipNameColumn(patientCount, nullFirstNamePatientRows);
+			frameScanner.skipNameColumn(patientCount, nullLastNamePatientRows);
+
+			this.claimCount = frameScanner.readCount("Claims");
+			this.claimIdOffset = frameScanner.skipColumn(claimCount, Long.BYTES);
+			this.claimPatientIdOffset = frameScanner.skipColumn(claimCount, Long.BYTES);
+			this.claimServiceEpochDayOffset = frameScanner.skipColumn(claimCount, Integer.BYTES);
+			this.claimPlaceOfServiceIndexOffset = frameScanner.skipColumn(claimCount, Integer.BYTES);
+
+			this.chargeCount = frameScanner.readCount("Charges");
+			this.chargeIdOffset = frameScanner.skipColumn(chargeCount, Long.BYTES);
+			this.chargeClaimIdOffset = frameScanner.skipColumn(chargeCount, Long.BYTES);
+			this.chargeProcedureCodeOffset = frameScanner.skipColumn(chargeCount, Long.BYTES);
+			this.chargeAmountOffset = frameScanner.skipColumn(chargeCount, Long.BYTES);
+
+			if (frameScanner.position != fileSize) {
+				throw new MalformedClaimsBatchException("Unexpected data after the end of the frame");
+			}
+		} catch (IOException | RuntimeException exception) {
+			fileChannel.close();
+			throw exception;
+		}
+	}
+
+	public int getPatientCount() {
+		return patientCount;
+	}
+
+	public long getPatientId(int patientRow) {
+		return getLong(patientIdOffset + (long) patientRow * Long.BYTES);
+	}
+
+	public LocalDate getPatientBirthDate(int patientRow) {
+		return toLocalDate(getInt(patientBirthEpochDayOffset + (long) patientRow * Integer.BYTES));
+	}
+
+	public boolean isPatientFirstNameNull(int patientRow) {
+		return nullFirstNamePatientRows.get(patientRow);
+	}
+
+	public boolean isPatientLastNameNull(int patientRow) {
+		return nullLastNamePatientRows.get(patientRow);
+	}
+
+	public int getClaimCount() {
+		return claimCount;
+	}
+
+	public long getClaimId(int claimRow) {
+		return getLong(claimIdOffset + (long) claimRow * Long.BYTES);
+	}
+
+	public long getClaimPatientId(int claimRow) {
+		return getLong(claimPatientIdOffset + (long) claimRow * Long.BYTES);
+	}
+
+	public LocalDate getClaimServiceDate(int claimRow) {
+		return toLocalDate(getInt(claimServiceEpochDayOffset + (long) claimRow * Integer.BYTES));
+	}
+
+	// Claims share the dictionary's String instances, so no string is created per claim
+	public String getClaimPlaceOfService(int claimRow) {
+
+		int dictionaryIndex = getInt(claimPlaceOfServiceIndexOffset + (long) claimRow * Integer.BYTES);
+
+		if (dictionaryIndex == ClaimsBatchFormat.NULL_INDEX) {
+			return null;
+		}
+
+		if ((dictionaryIndex < 0) || (dictionaryIndex >= placeOfServiceDictionary.length)) {
+			throw new IllegalStateException(
+						"Claim row " + claimRow + ": dictionary index out of range: " + dictionaryIndex);
+		}
+
+		return placeOfServiceDictionary[dictionaryIndex];
+	}
+
+	public int getChargeCount() {
+		return chargeCount;
+	}
+
+	public long getChargeId(int chargeRow) {
+		return getLong(chargeIdOffset + (long) chargeRow * Long.BYTES);
+	}
+
+	public long getChargeClaimId(int chargeRow) {
+		return getLong(chargeClaimIdOffset + (long) chargeRow * Long.BYTES);
+	}
+
+	public long getChargeProcedureCode(int chargeRow) {
+		return getLong(chargeProcedureCodeOffset + (long) chargeRow * Long.BYTES);
+	}
+
+	public long getChargeAmount(int chargeRow) {
+		return getLong(chargeAmountOffset + (long) chargeRow * Long.BYTES);
+	}
+
+	@Override
+	public void close() throws IOException {
+		fileChannel.close();
+	}
+
+	private MappedByteBuffer[] mapRegions() throws IOException {
+
+		long regionSize = 1L << regionShift;
+		int regionCount = (int) ((fileSize + regionSize - 1) >>> regionShift);
+		MappedByteBuffer[] mappedRegions = new MappedByteBuffer[regionCount];
+
+		for (int regionIndex = 0; regionIndex < regionCount; regionIndex++) {
+			long regionStart = (long) regionIndex << regionShift;
+			long regionLength = Math.min(fileSize - regionStart, regionSize + Long.BYTES - 1);
+
+			mappedRegions[regionIndex] = fileChannel.map(FileChannel.MapMode.READ_ONLY, regionStart, regionLength);
+		}
+
+		return mappedRegions;
+	}
+
+	private long getLong(long position) {
+		return regions[(int) (position >>> regionShift)].getLong((int) (position & regionMask));
+	}
+
+	private int getInt(long position) {
+		return regions[(int) (position >>> regionShift)].getInt((int) (position & regionMask));
+	}
+
+	private byte getByte(long position) {
+		return regions[(int) (position >>> regionShift)].get((int) (position & regionMask));
+	}
+
+	private LocalDate toLocalDate(int epochDay) {
+
+		if (epochDay == ClaimsBatchFormat.NULL_EPOCH_DAY) {
+			return null;
+		}
+
+		try {
+			return LocalDate.ofEpochDay(epochDay);
+		} catch (DateTimeException dateTimeException) {
+			throw new IllegalStateException("Invalid epoch day: " + epochDay, dateTimeException);
+		}
+	}
+
+	/*
+	 * FrameScanner walks the sections of the frame once, checking every length against the
+	 * file size before anything at that position is read.
+	 */
+	private final class FrameScanner {
+
+		private long position = 0;
+
+		private void require(long byteCount) throws MalformedClaimsBatchException {
+			if ((byteCount < 0) || (byteCount > fileSize - position)) {
+				throw new MalformedClaimsBatchException("Claims batch is truncated at byte " + position);
+			}
+		}
+
+		private void readHeader() throws MalformedClaimsBatchException {
+
+			require(Integer.BYTES + 2);
+
+			if (getInt(position) != ClaimsBatchFormat.MAGIC) {
+				throw new MalformedClaimsBatchException("Not a claims batch: unexpected magic number");
+			}
+
+			byte formatVersion = getByte(position + Integer.BYTES);
+			if (formatVersion != ClaimsBatchFormat.FORMAT_VERSION) {
+				throw new MalformedClaimsBatchException("Unsupported claims batch version: " + formatVersion);
+			}
+
+			byte frameType = getByte(position + Integer.BYTES + 1);
+			if (frameType != ClaimsBatchFormat.CLAIMS_FRAME) {
+				throw new MalformedClaimsBatchException(
+							"Expected frame type " + ClaimsBatchFormat.CLAIMS_FRAME + " but was " + frameType);
+			}
+
+			position += Integer.BYTES + 2;
+		}
+
+		private int readCount(String sectionName) throws MalformedClaimsBatchException {
+
+			require(Integer.BYTES);
+			int count = getInt(position);
+			position += Integer.BYTES;
+
+			if (count == ClaimsBatchFormat.NULL_COUNT) {
+				throw new MalformedClaimsBatchException(sectionName + " must not be null");
+			}
+
+			if (count < 0) {
+				throw new MalformedClaimsBatchException("Invalid row count: " + count);
+			}
+
+			return count;
+		}
+
+		private long skipColumn(int count, int valueBytes) throws MalformedClaimsBatchException {
+
+			long columnOffset = position;
+			long columnBytes = (long) count * valueBytes;
+
+			require(columnBytes);
+			position += columnBytes;
+
+			return columnOffset;
+		}
+
+		private void skipNameColumn(int count, BitSet nullNameRows) throws MalformedClaimsBatchException {
+			for (int row = 0; row < count; row++) {
+				if (skipString()) {
+					nullNameRows.set(row);
+				}
+			}
+		}
+
+		/*
+		 * Skip a string, returning whether it was null.
+		 */
+		private boolean skipString() throws MalformedClaimsBatchException {
+
+			int byteLength = readStringLength();
+			if (byteLength == ClaimsBatchFormat.NULL_COUNT) {
+				return true;
+			}
+
+			require(byteLength);
+			position += byteLength;
+
+			return false;
+		}
+
+		private String readString() throws MalformedClaimsBatchException {
+
+			int byteLength = readStringLength();
+			if (byteLength == ClaimsBatchFormat.NULL_COUNT) {
+				return null;
+			}
+
+			require(byteLength);
+
+			byte[] valueBytes = new byte[byteLength];
+			for (int byteIndex = 0; byteIndex < byteLength; byteIndex++) {
+				valueBytes[byteIndex] = getByte(position + byteIndex);
+			}
+			position += byteLength;
+
+			return new String(valueBytes, StandardCharsets.UTF_8);
+		}
+
+		private int readStringLength() throws MalformedClaimsBatchException {
+
+			require(Integer.BYTES);
+			int byteLength = getInt(position);
+			position += Integer.BYTES;
+
+			if ((byteLength < ClaimsBatchFormat.NULL_COUNT) || (byteLength > ClaimsBatchFormat.MAX_STRING_BYTES)) {
+				throw new MalformedClaimsBatchException("Invalid string length: " + byteLength);
+			}
+
+			return byteLength;
+		}
+	}
+}
@@ -0,0 +1,118 @@
+package com.craighdav.util;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+/**
+ * This class is purposed to hand out fixed-size direct ByteBuffers (chunks) under a cap on
+ * the total amount of direct memory allocated.
+ *
+ * Class DirectBufferPool allocates a chunk only when no released chunk is available, and
+ * keeps every released chunk for reuse instead of leaving it to the garbage collector. A
+ * direct ByteBuffer cannot be freed explicitly through the public API, so pooling is what
+ * makes the memory of one request immediately available to the next: each user releases
+ * its chunks when it is done, and the pool never holds more than maxBytes of direct memory
+ * in total, whether in use or idle. Chunks are returned zero-filled.
+ *
+ * This class is thread-safe.
+ */
+public class DirectBufferPool {
+
+	private final long maxBytes;
+	private final int chunkBytes;
+	private final ArrayDeque<ByteBuffer> releasedChunkDeque = new ArrayDeque<>();
+
+	private long allocatedBytes;
+	private long inUseBytes;
+
+	/**
+	 * @param maxBytes The maximum number of bytes of direct memory the pool may allocate
+	 * @param chunkBytes The size of every chunk, a positive multiple of 8
+	 */
+	public DirectBufferPool(long maxBytes, int chunkBytes) {
+		if ((chunkBytes <= 0) || ((chunkBytes & 7) != 0)) {
+			throw new IllegalArgumentException("Chunk size must be a positive multiple of 8: " + chunkBytes);
+		}
+
+		this.maxBytes = maxBytes;
+		this.chunkBytes = chunkBytes;
+	}
+
+	public int getChunkBytes() {
+		return chunkBytes;
+	}
+
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	/**
+	 * Method getAllocatedBytes returns the direct memory allocated so far, in use or idle.
+	 *
+	 * @return The number of bytes of all chunks allocated by the pool
+	 */
+	public synchronized long getAllocatedBytes() {
+		return allocatedBytes;
+	}
+
+	/**
+	 * Method getInUseBytes returns the direct memory held by chunks not yet released.
+	 *
+	 * @return The number of bytes of all acquired chunks
+	 */
+	public synchronized long getInUseBytes() {
+		return inUseBytes;
+	}
+
+	/**
+	 * This method hands out a zero-filled chunk of getChunkBytes() bytes.
+	 *
+	 * Method acquire reuses a released chunk when one is available and allocates a new one
+	 * otherwise, provided the allocation keeps the pool within maxBytes.
+	 *
+	 * @return A direct ByteBuffer of getChunkBytes() bytes, all zero
+	 * @throws DirectMemoryLimitException if a new chunk would exceed maxBytes
+	 */
+	public ByteBuffer acquire() throws DirectMemoryLimitException {
+
+		ByteBuffer chunk;
+
+		synchronized (this) {
+			chunk = releasedChunkDeque.pollFirst();
+
+			if (chunk == null) {
+				if (allocatedBytes + chunkBytes > maxBytes) {
+					throw new DirectMemoryLimitException("Direct memory limit of " + maxBytes
+											+ " bytes reached with " + inUseBytes + " bytes in use");
+				}
+
+				allocatedBytes += chunkBytes;
+			}
+
+			inUseBytes += chunkBytes;
+		}
+
+		if (chunk == null) {
+			// A new direct buffer is already zero-filled
+			return ByteBuffer.allocateDirect(chunkBytes);
+		}
+
+		for (int offset = 0; offset < chunkBytes; offset += Long.BYTES) {
+			chunk.putLong(offset, 0L);
+		}
+
+		return chunk;
+	}
+
+	/**
+	 * This method returns a chunk obtained from acquire to the pool.
+	 *
+	 * The caller must not use the chunk after releasing it.
+	 *
+	 * @param chunk The chunk to be reused by later acquire calls
+	 */
+	public synchronized void release(ByteBuffer chunk) {
+		inUseBytes -= chunkBytes;
+		releasedChunkDeque.addFirst(chunk);
+	}
+}
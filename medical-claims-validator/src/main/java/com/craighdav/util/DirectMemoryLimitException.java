@@ -0,0 +1,14 @@
+package com.craighdav.util;
+
+/**
+ * DirectMemoryLimitException signals that a DirectBufferPool cannot hand out another chunk
+ * without exceeding its configured limit on direct (off-heap) memory.
+ */
+public class DirectMemoryLimitException extends Exception {
+
+	private static final long serialVersionUID = 1L;
+
+	public DirectMemoryLimitException(String message) {
+		super(message);
+	}
+}
@@ -0,0 +1,165 @@
+package com.craighdav.util;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * This class is purposed to hold a set of primitive long values without boxing.
+ * 
+ * Class LongHashSet is an open-addressing hash table with linear probing over a single
+ * long array, so no Long or HashMap$Node object is allocated per element as with
+ * HashSet<Long>. The value 0 marks an empty slot and is therefore tracked separately.
+ * Removal uses backward-shift deletion, so lookups never have to skip over tombstones.
+ * 
+ * This class is not thread-safe.
+ */
+public class LongHashSet {
+
+	private long[] elements;
+	private int mask;
+	private int threshold;
+	private int size;
+	
+	private boolean containsZero;
+
+	public LongHashSet() {
+		this(0);
+	}
+
+	/**
+	 * @param expectedSize The number of elements the set should hold without resizing
+	 */
+	public LongHashSet(int expectedSize) {
+		allocate(LongHashing.capacityFor(expectedSize));
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public boolean contains(long element) {
+		if (element == 0L) {
+			return containsZero;
+		}
+		
+		return LongHashing.findSlot(elements, mask, element) >= 0;
+	}
+
+	/**
+	 * Method add inserts element into the set.
+	 * 
+	 * @param element The value to be added
+	 * @return true if element was added, false if it was already present
+	 */
+	public boolean add(long element) {
+		if (element == 0L) {
+			if (containsZero) {
+				return false;
+			}
+			
+			containsZero = true;
+			size++;
+			
+			return true;
+		}
+		
+		int slot = LongHashing.slot(element, mask);
+		while (elements[slot] != 0L) {
+			if (elements[slot] == element) {
+				return false;
+			}
+			
+			slot = (slot + 1) & mask;
+		}
+		
+		elements[slot] = element;
+		
+		if (++size > threshold) {
+			resize(elements.length << 1);
+		}
+		
+		return true;
+	}
+
+	/**
+	 * Method remove deletes element from the set.
+	 * 
+	 * @param element The value to be removed
+	 * @return true if element was present, false otherwise
+	 */
+	public boolean remove(long element) {
+		if (element == 0L) {
+			if (!containsZero) {
+				return false;
+			}
+			
+			containsZero = false;
+			size--;
+			
+			return true;
+		}
+		
+		int slot = LongHashing.findSlot(elements, mask, element);
+		if (slot < 0) {
+			return false;
+		}
+		
+		LongHashing.deleteSlot(elements, mask, slot, LongHashing.NO_VALUES);
+		size--;
+		
+		return true;
+	}
+
+	public void clear() {
+		Arrays.fill(elements, 0L);
+		containsZero = false;
+		size = 0;
+	}
+
+	/**
+	 * Method forEach passes every element to consumer, in no particular order.
+	 * 
+	 * @param consumer The action to be performed for each element
+	 */
+	public void forEach(LongConsumer consumer) {
+		if (containsZero) {
+			consumer.accept(0L);
+		}
+		
+		for (long element : elements) {
+			if (element != 0L) {
+				consumer.accept(element);
+			}
+		}
+	}
+
+	private void resize(int newCapacity) {
+		if (newCapacity > LongHashing.MAX_CAPACITY) {
+			throw new IllegalStateException("LongHashSet cannot grow beyond " + size + " elements");
+		}
+		
+		long[] oldElements = elements;
+		allocate(newCapacity);
+		
+		for (long element : oldElements) {
+			if (element != 0L) {
+				int slot = LongHashing.slot(element, mask);
+				while (elements[slot] != 0L) {
+					slot = (slot + 1) & mask;
+				}
+				
+				elements[slot] = element;
+			}
+		}
+	}
+
+	private void allocate(int capacity) {
+		elements = new long[capacity];
+		mask = capacity - 1;
+		threshold = LongHashing.thresholdFor(capacity);
+	}
+}
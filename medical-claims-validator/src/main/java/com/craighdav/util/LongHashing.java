@@ -0,0 +1,155 @@
+package com.craighdav.util;
+
+/**
+ * This class is purposed to provide the hashing, sizing, probing and deletion shared by the
+ * open-addressing long-keyed collections in this package.
+ * 
+ * Class LongHashing is stateless and package-private, providing only static methods. The
+ * tables it probes use linear probing over a power-of-two array of keys, in which 0 marks
+ * an empty slot.
+ */
+final class LongHashing {
+
+	static final float LOAD_FACTOR = 0.5f;
+	
+	static final int MIN_CAPACITY = 8;
+	
+	static final int MAX_CAPACITY = 1 << 30;
+
+	// The SlotMover of a table without values
+	static final SlotMover NO_VALUES = (fromSlot, toSlot) -> { };
+
+	private LongHashing() {
+	}
+	
+	/**
+	 * This method spreads the bits of a long key so that sequential IDs and IDs sharing
+	 * their low bits do not cluster in a power-of-two table.
+	 * 
+	 * Method mix applies the finalization step of MurmurHash3 (fmix64).
+	 * 
+	 * @param key The key to be hashed
+	 * @return The mixed hash of key
+	 */
+	static long mix(long key) {
+		key ^= key >>> 33;
+		key *= 0xff51afd7ed558ccdL;
+		key ^= key >>> 33;
+		key *= 0xc4ceb9fe1a85ec53L;
+		key ^= key >>> 33;
+		
+		return key;
+	}
+	
+	/**
+	 * This method returns the table slot of a key for a table of the given capacity.
+	 * 
+	 * @param key The key to be located
+	 * @param mask The table capacity minus one (capacity is always a power of two)
+	 * @return The preferred slot of key
+	 */
+	static int slot(long key, int mask) {
+		return (int) mix(key) & mask;
+	}
+	
+	/**
+	 * This method computes the table capacity needed to hold expectedSize keys.
+	 * 
+	 * @param expectedSize The number of keys the table should hold without resizing
+	 * @return A power of two no smaller than MIN_CAPACITY
+	 */
+	static int capacityFor(int expectedSize) {
+		if (expectedSize < 0) {
+			throw new IllegalArgumentException("Expected size must not be negative: " + expectedSize);
+		}
+		
+		long minimumCapacity = (long) Math.ceil(expectedSize / (double) LOAD_FACTOR);
+		if (minimumCapacity > MAX_CAPACITY) {
+			throw new IllegalArgumentException("Expected size is too large: " + expectedSize);
+		}
+		
+		int capacity = MIN_CAPACITY;
+		while (capacity < minimumCapacity) {
+			capacity <<= 1;
+		}
+		
+		return capacity;
+	}
+	
+	/**
+	 * This method returns the number of keys a table of the given capacity may hold before
+	 * it must be resized.
+	 * 
+	 * @param capacity The table capacity
+	 * @return The resize threshold for capacity
+	 */
+	static int thresholdFor(int capacity) {
+		return (int) (capacity * LOAD_FACTOR);
+	}
+	
+	/**
+	 * This method returns the slot holding a key.
+	 * 
+	 * @param keys The keys of the table
+	 * @param mask The table capacity minus one
+	 * @param key The key to be located, other than 0
+	 * @return The slot of key, or -1 if the table does not hold it
+	 */
+	static int findSlot(long[] keys, int mask, long key) {
+		int slot = slot(key, mask);
+		
+		while (keys[slot] != 0L) {
+			if (keys[slot] == key) {
+				return slot;
+			}
+			
+			slot = (slot + 1) & mask;
+		}
+		
+		return -1;
+	}
+	
+	/**
+	 * This method empties a slot by backward-shift deletion.
+	 * 
+	 * Method deleteSlot moves each later key of the slot's probe run into the gap before it
+	 * when the key may occupy it, until an empty slot is reached, so that no key becomes
+	 * unreachable from its preferred slot and no tombstones accumulate. The value of each
+	 * moved key is moved by slotMover.
+	 * 
+	 * @param keys The keys of the table
+	 * @param mask The table capacity minus one
+	 * @param gapSlot The slot to be emptied
+	 * @param slotMover The mover of the values held next to keys
+	 * @return The slot left empty once the keys have been moved, whose value the caller
+	 *         clears if it would otherwise keep an object reachable
+	 */
+	static int deleteSlot(long[] keys, int mask, int gapSlot, SlotMover slotMover) {
+		int slot = (gapSlot + 1) & mask;
+		
+		while (keys[slot] != 0L) {
+			int preferredSlot = slot(keys[slot], mask);
+			
+			if (((slot - preferredSlot) & mask) >= ((slot - gapSlot) & mask)) {
+				keys[gapSlot] = keys[slot];
+				slotMover.moveSlot(slot, gapSlot);
+				gapSlot = slot;
+			}
+			
+			slot = (slot + 1) & mask;
+		}
+		
+		keys[gapSlot] = 0L;
+		
+		return gapSlot;
+	}
+	
+	/**
+	 * SlotMover moves the value of a table's slot along with its key, as deleteSlot moves
+	 * the key.
+	 */
+	interface SlotMover {
+		
+		void moveSlot(int fromSlot, int toSlot);
+	}
+}
@@ -0,0 +1,184 @@
+package com.craighdav.util;
+
+import java.util.Arrays;
+
+/**
+ * This class is purposed to map primitive long keys to primitive int values without boxing.
+ * 
+ * Class LongIntHashMap is an open-addressing hash table with linear probing over parallel
+ * key and value arrays. It is typically used to map an ID to a position in a list or array.
+ * The key 0 marks an empty slot in the key array and is therefore stored separately.
+ * Removing an entry shifts the entries probed after it back into the gap, so no tombstones
+ * accumulate.
+ * 
+ * This class is not thread-safe.
+ */
+public class LongIntHashMap {
+
+	private long[] keys;
+	private int[] values;
+	private int mask;
+	private int threshold;
+	private int size;
+	
+	private boolean hasZeroKey;
+	private int zeroKeyValue;
+	
+	// Moves a value along with its key when a removal shifts the key back
+	private final LongHashing.SlotMover valueMover = (fromSlot, toSlot) -> values[toSlot] = values[fromSlot];
+
+	public LongIntHashMap() {
+		this(0);
+	}
+
+	/**
+	 * @param expectedSize The number of entries the map should hold without resizing
+	 */
+	public LongIntHashMap(int expectedSize) {
+		allocate(LongHashing.capacityFor(expectedSize));
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public boolean containsKey(long key) {
+		if (key == 0L) {
+			return hasZeroKey;
+		}
+		
+		return findSlot(key) >= 0;
+	}
+
+	/**
+	 * Method getOrDefault returns the value mapped to key.
+	 * 
+	 * @param key The key to be looked up
+	 * @param defaultValue The value to return when key is not present
+	 * @return The value mapped to key, or defaultValue when key is not present
+	 */
+	public int getOrDefault(long key, int defaultValue) {
+		if (key == 0L) {
+			return hasZeroKey ? zeroKeyValue : defaultValue;
+		}
+		
+		int slot = findSlot(key);
+		
+		return (slot >= 0) ? values[slot] : defaultValue;
+	}
+
+	/**
+	 * Method put maps key to value, replacing any existing mapping.
+	 * 
+	 * @param key The key to be mapped
+	 * @param value The value to map to key
+	 * @return true if key was added, false if an existing mapping was replaced
+	 */
+	public boolean put(long key, int value) {
+		if (key == 0L) {
+			boolean added = !hasZeroKey;
+			if (added) {
+				hasZeroKey = true;
+				size++;
+			}
+			
+			zeroKeyValue = value;
+			
+			return added;
+		}
+		
+		int slot = LongHashing.slot(key, mask);
+		while (keys[slot] != 0L) {
+			if (keys[slot] == key) {
+				values[slot] = value;
+				
+				return false;
+			}
+			
+			slot = (slot + 1) & mask;
+		}
+		
+		keys[slot] = key;
+		values[slot] = value;
+		
+		if (++size > threshold) {
+			resize(keys.length << 1);
+		}
+		
+		return true;
+	}
+
+	/**
+	 * Method remove deletes the mapping of key.
+	 * 
+	 * @param key The key to be removed
+	 * @return true if key was present, false otherwise
+	 */
+	public boolean remove(long key) {
+		if (key == 0L) {
+			if (!hasZeroKey) {
+				return false;
+			}
+			
+			hasZeroKey = false;
+			size--;
+			
+			return true;
+		}
+		
+		int slot = findSlot(key);
+		if (slot < 0) {
+			return false;
+		}
+		
+		LongHashing.deleteSlot(keys, mask, slot, valueMover);
+		size--;
+		
+		return true;
+	}
+
+	public void clear() {
+		Arrays.fill(keys, 0L);
+		hasZeroKey = false;
+		size = 0;
+	}
+
+	private int findSlot(long key) {
+		return LongHashing.findSlot(keys, mask, key);
+	}
+
+	private void resize(int newCapacity) {
+		if (newCapacity > LongHashing.MAX_CAPACITY) {
+			throw new IllegalStateException("LongIntHashMap cannot grow beyond " + size + " entries");
+		}
+		
+		long[] oldKeys = keys;
+		int[] oldValues = values;
+		allocate(newCapacity);
+		
+		for (int oldSlot = 0; oldSlot < oldKeys.length; oldSlot++) {
+			long key = oldKeys[oldSlot];
+			
+			if (key != 0L) {
+				int slot = LongHashing.slot(key, mask);
+				while (keys[slot] != 0L) {
+					slot = (slot + 1) & mask;
+				}
+				
+				keys[slot] = key;
+				values[slot] = oldValues[oldSlot];
+			}
+		}
+	}
+
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		values = new int[capacity];
+		mask = capacity - 1;
+		threshold = LongHashing.thresholdFor(capacity);
+	}
+}
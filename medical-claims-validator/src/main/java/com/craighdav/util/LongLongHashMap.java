@@ -0,0 +1,151 @@
+package com.craighdav.util;
+
+import java.util.Arrays;
+
+/**
+ * This class is purposed to map primitive long keys to primitive long values without boxing.
+ * 
+ * Class LongLongHashMap is an open-addressing hash table with linear probing over parallel
+ * key and value arrays. It is typically used to map an ID to an offset within a file.
+ * The key 0 marks an empty slot in the key array and is therefore stored separately.
+ * Entries cannot be removed individually; the map only grows until cleared.
+ * 
+ * This class is not thread-safe.
+ */
+public class LongLongHashMap {
+
+	private long[] keys;
+	private long[] values;
+	private int mask;
+	private int threshold;
+	private int size;
+	
+	private boolean hasZeroKey;
+	private long zeroKeyValue;
+
+	public LongLongHashMap() {
+		this(0);
+	}
+
+	/**
+	 * @param expectedSize The number of entries the map should hold without resizing
+	 */
+	public LongLongHashMap(int expectedSize) {
+		allocate(LongHashing.capacityFor(expectedSize));
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public boolean containsKey(long key) {
+		if (key == 0L) {
+			return hasZeroKey;
+		}
+		
+		return findSlot(key) >= 0;
+	}
+
+	/**
+	 * Method getOrDefault returns the value mapped to key.
+	 * 
+	 * @param key The key to be looked up
+	 * @param defaultValue The value to return when key is not present
+	 * @return The value mapped to key, or defaultValue when key is not present
+	 */
+	public long getOrDefault(long key, long defaultValue) {
+		if (key == 0L) {
+			return hasZeroKey ? zeroKeyValue : defaultValue;
+		}
+		
+		int slot = findSlot(key);
+		
+		return (slot >= 0) ? values[slot] : defaultValue;
+	}
+
+	/**
+	 * Method put maps key to value, replacing any existing mapping.
+	 * 
+	 * @param key The key to be mapped
+	 * @param value The value to map to key
+	 * @return true if key was added, false if an existing mapping was replaced
+	 */
+	public boolean put(long key, long value) {
+		if (key == 0L) {
+			boolean added = !hasZeroKey;
+			if (added) {
+				hasZeroKey = true;
+				size++;
+			}
+			
+			zeroKeyValue = value;
+			
+			return added;
+		}
+		
+		int slot = LongHashing.slot(key, mask);
+		while (keys[slot] != 0L) {
+			if (keys[slot] == key) {
+				values[slot] = value;
+				
+				return false;
+			}
+			
+			slot = (slot + 1) & mask;
+		}
+		
+		keys[slot] = key;
+		values[slot] = value;
+		
+		if (++size > threshold) {
+			resize(keys.length << 1);
+		}
+		
+		return true;
+	}
+
+	public void clear() {
+		Arrays.fill(keys, 0L);
+		hasZeroKey = false;
+		size = 0;
+	}
+
+	private int findSlot(long key) {
+		return LongHashing.findSlot(keys, mask, key);
+	}
+
+	private void resize(int newCapacity) {
+		if (newCapacity > LongHashing.MAX_CAPACITY) {
+			throw new IllegalStateException("LongLongHashMap cannot grow beyond " + size + " entries");
+		}
+		
+		long[] oldKeys = keys;
+		long[] oldValues = values;
+		allocate(newCapacity);
+		
+		for (int oldSlot = 0; oldSlot < oldKeys.length; oldSlot++) {
+			long key = oldKeys[oldSlot];
+			
+			if (key != 0L) {
+				int slot = LongHashing.slot(key, mask);
+				while (keys[slot] != 0L) {
+					slot = (slot + 1) & mask;
+				}
+				
+				keys[slot] = key;
+				values[slot] = oldValues[oldSlot];
+			}
+		}
+	}
+
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		values = new long[capacity];
+		mask = capacity - 1;
+		threshold = LongHashing.thresholdFor(capacity);
+	}
+}
@@ -0,0 +1,236 @@
+package com.craighdav.util;
+
+import java.util.Arrays;
+
+/**
+ * This class is purposed to map primitive long keys to object values without boxing.
+ * 
+ * Class LongObjectHashMap is an open-addressing hash table with linear probing. Keys and
+ * values are held in two parallel arrays, so no Long or Map.Entry object is allocated per
+ * entry as with HashMap<Long, V>. The key 0 marks an empty slot in the key array and is
+ * therefore stored separately. Removal uses backward-shift deletion, so lookups never have to
+ * skip over tombstones.
+ * 
+ * Like HashMap, this class permits null values (in which case get cannot distinguish a
+ * missing key from a key mapped to null) and is not thread-safe.
+ * 
+ * @param <V> The type of the mapped values
+ */
+public class LongObjectHashMap<V> {
+
+	/**
+	 * LongObjectConsumer accepts a primitive long key together with its mapped value.
+	 * 
+	 * @param <V> The type of the mapped values
+	 */
+	@FunctionalInterface
+	public interface LongObjectConsumer<V> {
+		void accept(long key, V value);
+	}
+
+	private long[] keys;
+	private V[] values;
+	private int mask;
+	private int threshold;
+	private int size;
+	
+	private boolean hasZeroKey;
+	private V zeroKeyValue;
+	
+	// Moves a value along with its key when a removal shifts the key back
+	private final LongHashing.SlotMover valueMover = (fromSlot, toSlot) -> values[toSlot] = values[fromSlot];
+
+	public LongObjectHashMap() {
+		this(0);
+	}
+
+	/**
+	 * @param expectedSize The number of entries the map should hold without resizing
+	 */
+	public LongObjectHashMap(int expectedSize) {
+		allocate(LongHashing.capacityFor(expectedSize));
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public boolean containsKey(long key) {
+		if (key == 0L) {
+			return hasZeroKey;
+		}
+		
+		return findSlot(key) >= 0;
+	}
+
+	/**
+	 * Method get returns the value mapped to key.
+	 * 
+	 * @param key The key to be looked up
+	 * @return The value mapped to key, or null when key is not present
+	 */
+	public V get(long key) {
+		if (key == 0L) {
+			return zeroKeyValue;
+		}
+		
+		int slot = findSlot(key);
+		
+		return (slot >= 0) ? values[slot] : null;
+	}
+
+	/**
+	 * Method put maps key to value, replacing any existing mapping.
+	 * 
+	 * @param key The key to be mapped
+	 * @param value The value to map to key
+	 * @return The value previously mapped to key, or null when key was not present
+	 */
+	public V put(long key, V value) {
+		return put(key, value, true);
+	}
+
+	/**
+	 * Method putIfAbsent maps key to value only when key is not yet present.
+	 * 
+	 * @param key The key to be mapped
+	 * @param value The value to map to key
+	 * @return The value already mapped to key, or null when value was added
+	 */
+	public V putIfAbsent(long key, V value) {
+		return put(key, value, false);
+	}
+
+	/**
+	 * Method remove deletes the mapping for key.
+	 * 
+	 * @param key The key to be removed
+	 * @return The value that was mapped to key, or null when key was not present
+	 */
+	public V remove(long key) {
+		if (key == 0L) {
+			V previousValue = zeroKeyValue;
+			if (hasZeroKey) {
+				hasZeroKey = false;
+				zeroKeyValue = null;
+				size--;
+			}
+			
+			return previousValue;
+		}
+		
+		int slot = findSlot(key);
+		if (slot < 0) {
+			return null;
+		}
+		
+		V previousValue = values[slot];
+		values[LongHashing.deleteSlot(keys, mask, slot, valueMover)] = null;
+		size--;
+		
+		return previousValue;
+	}
+
+	public void clear() {
+		Arrays.fill(keys, 0L);
+		Arrays.fill(values, null);
+		hasZeroKey = false;
+		zeroKeyValue = null;
+		size = 0;
+	}
+
+	/**
+	 * Method forEach passes every key and value to consumer, in no particular order.
+	 * 
+	 * @param consumer The action to be performed for each entry
+	 */
+	public void forEach(LongObjectConsumer<? super V> consumer) {
+		if (hasZeroKey) {
+			consumer.accept(0L, zeroKeyValue);
+		}
+		
+		for (int slot = 0; slot < keys.length; slot++) {
+			if (keys[slot] != 0L) {
+				consumer.accept(keys[slot], values[slot]);
+			}
+		}
+	}
+
+	private V put(long key, V value, boolean replaceExisting) {
+		if (key == 0L) {
+			V previousValue = zeroKeyValue;
+			if (!hasZeroKey) {
+				hasZeroKey = true;
+				zeroKeyValue = value;
+				size++;
+			} else if (replaceExisting) {
+				zeroKeyValue = value;
+			}
+			
+			return previousValue;
+		}
+		
+		int slot = LongHashing.slot(key, mask);
+		while (keys[slot] != 0L) {
+			if (keys[slot] == key) {
+				V previousValue = values[slot];
+				if (replaceExisting) {
+					values[slot] = value;
+				}
+				
+				return previousValue;
+			}
+			
+			slot = (slot + 1) & mask;
+		}
+		
+		keys[slot] = key;
+		values[slot] = value;
+		
+		if (++size > threshold) {
+			resize(keys.length << 1);
+		}
+		
+		return null;
+	}
+
+	private int findSlot(long key) {
+		return LongHashing.findSlot(keys, mask, key);
+	}
+
+	private void resize(int newCapacity) {
+		if (newCapacity > LongHashing.MAX_CAPACITY) {
+			throw new IllegalStateException("LongObjectHashMap cannot grow beyond " + size + " entries");
+		}
+		
+		long[] oldKeys = keys;
+		V[] oldValues = values;
+		allocate(newCapacity);
+		
+		for (int oldSlot = 0; oldSlot < oldKeys.length; oldSlot++) {
+			long key = oldKeys[oldSlot];
+			
+			if (key != 0L) {
+				int slot = LongHashing.slot(key, mask);
+				while (keys[slot] != 0L) {
+					slot = (slot + 1) & mask;
+				}
+				
+				keys[slot] = key;
+				values[slot] = oldValues[oldSlot];
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		values = (V[]) new Object[capacity];
+		mask = capacity - 1;
+		threshold = LongHashing.thresholdFor(capacity);
+	}
+}
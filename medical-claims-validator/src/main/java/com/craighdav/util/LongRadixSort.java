@@ -0,0 +1,103 @@
+package com.craighdav.util;
+
+import java.util.Arrays;
+
+/**
+ * This class is purposed to sort primitive long arrays with a least significant digit radix sort.
+ *
+ * Class LongRadixSort distributes the values byte by byte, from the lowest byte to the highest,
+ * between the array and a scratch array of the same length, so a sort costs eight sequential
+ * passes instead of the n log n comparisons of Arrays.sort. The histograms of all eight bytes
+ * are counted in one pass up front, and a byte that is the same in every value (e.g. the high
+ * bytes of small IDs) is skipped. Ranges shorter than RADIX_SORT_THRESHOLD are sorted with
+ * Arrays.sort, which is faster for them.
+ *
+ * Values are ordered as signed longs, as by Arrays.sort.
+ */
+public final class LongRadixSort {
+
+	// Below this many values the dual-pivot quicksort of Arrays.sort is faster, and no scratch
+	// array is needed
+	public static final int RADIX_SORT_THRESHOLD = 4_096;
+
+	private static final int DIGIT_BITS = 8;
+	private static final int DIGIT_COUNT = Long.SIZE / DIGIT_BITS;
+	private static final int RADIX = 1 << DIGIT_BITS;
+	private static final int DIGIT_MASK = RADIX - 1;
+
+	private LongRadixSort() {
+	}
+
+	/**
+	 * This method sorts the first count values of an array in ascending order.
+	 *
+	 * @param values The array to sort in place
+	 * @param count The number of values, from index 0, to sort
+	 */
+	public static void sort(long[] values, int count) {
+		sort(values, (count < RADIX_SORT_THRESHOLD) ? null : new long[count], count);
+	}
+
+	/**
+	 * This method sorts the first count values of an array in ascending order, distributing
+	 * them through a caller-supplied scratch array.
+	 *
+	 * Method sort lets a caller sorting repeatedly reuse one scratch array instead of
+	 * allocating a new one per sort. The scratch array's content is overwritten.
+	 *
+	 * @param values The array to sort in place
+	 * @param scratch An array of at least count values, or null if count is below RADIX_SORT_THRESHOLD
+	 * @param count The number of values, from index 0, to sort
+	 */
+	public static void sort(long[] values, long[] scratch, int count) {
+
+		if (count < RADIX_SORT_THRESHOLD) {
+			Arrays.sort(values, 0, count);
+			return;
+		}
+
+		// One histogram per byte, counted in a single pass over the values
+		int[][] histograms = new int[DIGIT_COUNT][RADIX];
+		for (int index = 0; index < count; index++) {
+			long key = values[index] ^ Long.MIN_VALUE;
+
+			for (int digit = 0; digit < DIGIT_COUNT; digit++) {
+				histograms[digit][(int) (key >>> (digit * DIGIT_BITS)) & DIGIT_MASK]++;
+			}
+		}
+
+		long[] source = values;
+		long[] target = scratch;
+
+		for (int digit = 0; digit < DIGIT_COUNT; digit++) {
+			int shift = digit * DIGIT_BITS;
+			int[] histogram = histograms[digit];
+
+			// Every value has the same byte here, so this pass would not move any value
+			if (histogram[(int) ((source[0] ^ Long.MIN_VALUE) >>> shift) & DIGIT_MASK] == count) {
+				continue;
+			}
+
+			// Turn the counts into the first position of each byte value
+			int position = 0;
+			for (int digitValue = 0; digitValue < RADIX; digitValue++) {
+				int digitValueCount = histogram[digitValue];
+				histogram[digitValue] = position;
+				position += digitValueCount;
+			}
+
+			for (int index = 0; index < count; index++) {
+				long value = source[index];
+				target[histogram[(int) ((value ^ Long.MIN_VALUE) >>> shift) & DIGIT_MASK]++] = value;
+			}
+
+			long[] swapped = source;
+			source = target;
+			target = swapped;
+		}
+
+		if (source != values) {
+			System.arraycopy(source, 0, values, 0, count);
+		}
+	}
+}
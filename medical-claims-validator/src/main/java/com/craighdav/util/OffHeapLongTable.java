@@ -0,0 +1,177 @@
+package com.craighdav.util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * This class is purposed to map primitive long keys to fixed-size records held outside the
+ * Java heap.
+ *
+ * Class OffHeapLongTable is an open-addressing hash table with linear probing, like
+ * LongIntHashMap, whose entries are stored in chunks of a DirectBufferPool. Each entry holds
+ * the key followed by valueBytes bytes that the caller reads and writes by entry index and
+ * byte offset, so a table of tens of millions of entries adds no objects for the garbage
+ * collector to trace. The key 0 marks an empty entry and is therefore stored in an extra
+ * entry after the last slot.
+ *
+ * The capacity is fixed when the table is created and entries cannot be removed. The table
+ * must be closed to return its chunks to the pool.
+ *
+ * This class is not thread-safe.
+ */
+public final class OffHeapLongTable implements AutoCloseable {
+
+	private final DirectBufferPool directBufferPool;
+	private final ByteBuffer[] chunks;
+	private final int entryBytes;
+	private final int entriesPerChunk;
+	private final int mask;
+	private final int threshold;
+	private final int zeroKeyEntry;
+
+	private int size;
+	private boolean hasZeroKey;
+	private boolean isClosed;
+
+	/**
+	 * @param directBufferPool The pool providing the table's chunks
+	 * @param expectedSize The maximum number of keys the table will hold
+	 * @param valueBytes The number of value bytes stored with each key
+	 * @throws DirectMemoryLimitException if the pool cannot provide enough chunks
+	 */
+	public OffHeapLongTable(DirectBufferPool directBufferPool, int expectedSize, int valueBytes)
+																	throws DirectMemoryLimitException {
+
+		int capacity = LongHashing.capacityFor(expectedSize);
+
+		this.directBufferPool = directBufferPool;
+		this.entryBytes = Long.BYTES + ((valueBytes + Long.BYTES - 1) & -Long.BYTES);
+		this.entriesPerChunk = directBufferPool.getChunkBytes() / entryBytes;
+		this.mask = capacity - 1;
+		this.threshold = LongHashing.thresholdFor(capacity);
+		this.zeroKeyEntry = capacity;
+
+		if (entriesPerChunk == 0) {
+			throw new IllegalArgumentException("Chunks of " + directBufferPool.getChunkBytes()
+													+ " bytes cannot hold entries of " + entryBytes + " bytes");
+		}
+
+		int chunkCount = (capacity + 1 + entriesPerChunk - 1) / entriesPerChunk;
+		this.chunks = new ByteBuffer[chunkCount];
+
+		try {
+			for (int chunkIndex = 0; chunkIndex < chunkCount; chunkIndex++) {
+				chunks[chunkIndex] = directBufferPool.acquire();
+			}
+		} catch (DirectMemoryLimitException e) {
+			close();
+			throw e;
+		}
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Method insert adds key to the table.
+	 *
+	 * @param key The key to be added
+	 * @return The entry index of the new key, or -1 if key is already present
+	 */
+	public int insert(long key) {
+		if (key == 0L) {
+			if (hasZeroKey) {
+				return -1;
+			}
+
+			hasZeroKey = true;
+			size++;
+
+			return zeroKeyEntry;
+		}
+
+		if (size >= threshold) {
+			throw new IllegalStateException("OffHeapLongTable cannot hold more than " + threshold + " entries");
+		}
+
+		int entry = LongHashing.slot(key, mask);
+		long entryKey;
+		while ((entryKey = getLong(entry, -Long.BYTES)) != 0L) {
+			if (entryKey == key) {
+				return -1;
+			}
+
+			entry = (entry + 1) & mask;
+		}
+
+		putLong(entry, -Long.BYTES, key);
+		size++;
+
+		return entry;
+	}
+
+	/**
+	 * Method find looks up the entry index of key.
+	 *
+	 * @param key The key to be looked up
+	 * @return The entry index of key, or -1 if key is not present
+	 */
+	public int find(long key) {
+		if (key == 0L) {
+			return hasZeroKey ? zeroKeyEntry : -1;
+		}
+
+		int entry = LongHashing.slot(key, mask);
+		long entryKey;
+		while ((entryKey = getLong(entry, -Long.BYTES)) != 0L) {
+			if (entryKey == key) {
+				return entry;
+			}
+
+			entry = (entry + 1) & mask;
+		}
+
+		return -1;
+	}
+
+	public long getLong(int entry, int valueOffset) {
+		return chunks[entry / entriesPerChunk].getLong(byteOffset(entry, valueOffset));
+	}
+
+	public void putLong(int entry, int valueOffset, long value) {
+		chunks[entry / entriesPerChunk].putLong(byteOffset(entry, valueOffset), value);
+	}
+
+	public int getInt(int entry, int valueOffset) {
+		return chunks[entry / entriesPerChunk].getInt(byteOffset(entry, valueOffset));
+	}
+
+	public void putInt(int entry, int valueOffset, int value) {
+		chunks[entry / entriesPerChunk].putInt(byteOffset(entry, valueOffset), value);
+	}
+
+	/**
+	 * This method returns the table's chunks to the pool. Closing a closed table has no effect.
+	 */
+	@Override
+	public void close() {
+		if (isClosed) {
+			return;
+		}
+
+		isClosed = true;
+		for (ByteBuffer chunk : chunks) {
+			if (chunk != null) {
+				directBufferPool.release(chunk);
+			}
+		}
+	}
+
+	/*
+	 * Locate a value byte within the entry's chunk; the key occupies the entry's first 8
+	 * bytes, so a valueOffset of -8 addresses the key itself.
+	 */
+	private int byteOffset(int entry, int valueOffset) {
+		return ((entry % entriesPerChunk) * entryBytes) + Long.BYTES + valueOffset;
+	}
+}
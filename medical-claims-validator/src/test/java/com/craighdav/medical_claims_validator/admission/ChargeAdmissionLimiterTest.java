@@ -0,0 +1,134 @@
+package com.craighdav.medical_claims_validator.admission;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+
+import com.craighdav.medical_claims_validator.admission.ChargeAdmissionLimiter.Permit;
+import com.craighdav.medical_claims_validator.wire.ClaimsBatchFormat;
+
+public class ChargeAdmissionLimiterTest {
+
+	@Test
+	@DisplayName("Small requests should be admitted from the reserved share while large batches fill the rest")
+	public void admit_LargeShareFull_SmallAdmittedLargeRejected() {
+
+		// Arrange
+		ChargeAdmissionLimiter chargeAdmissionLimiter = new ChargeAdmissionLimiter(1_000L, 10L, 100L,
+																					Duration.ofSeconds(2));
+
+		// Act
+		Permit largePermit = chargeAdmissionLimiter.admit(900L);
+		AdmissionRejectedException admissionRejectedException = assertThrows(AdmissionRejectedException.class,
+																	() -> chargeAdmissionLimiter.admit(11L));
+		Permit smallPermit = chargeAdmissionLimiter.admit(10L);
+
+		// Assert
+		assertEquals(Duration.ofSeconds(2), admissionRejectedException.getRetryAfter(),
+							"Expected the configured retry delay.");
+		assertEquals(910L, chargeAdmissionLimiter.getInFlightCharges(),
+							"Expected the large and the small request to be in flight.");
+
+		largePermit.close();
+		largePermit.close();
+		smallPermit.close();
+
+		assertEquals(0L, chargeAdmissionLimiter.getInFlightCharges(),
+							"Expected closed permits to release their charges once.");
+	}
+
+	// The permits are held while admission is checked and never referenced
+	@SuppressWarnings("try")
+	@Test
+	@DisplayName("A batch exceeding the large share should be admitted only while no other large batch is in flight")
+	public void admit_OversizedBatch_AdmittedAlone() {
+
+		// Arrange
+		ChargeAdmissionLimiter chargeAdmissionLimiter = new ChargeAdmissionLimiter(1_000L, 10L, 100L,
+																					Duration.ofSeconds(1));
+
+		// Act & Assert
+		try (Permit oversizedPermit = chargeAdmissionLimiter.admit(5_000L)) {
+			assertThrows(AdmissionRejectedException.class, () -> chargeAdmissionLimiter.admit(20L));
+			assertThrows(AdmissionRejectedException.class, () -> chargeAdmissionLimiter.admitUnknownSize());
+
+			try (Permit smallPermit = chargeAdmissionLimiter.admit(5L)) {
+				assertEquals(905L, chargeAdmissionLimiter.getInFlightCharges(),
+									"Expected the oversized batch to weigh the whole large share.");
+			}
+		}
+
+		try (Permit unknownSizePermit = chargeAdmissionLimiter.admitUnknownSize()) {
+			assertEquals(900L, chargeAdmissionLimiter.getInFlightCharges(),
+								"Expected a stream of unknown size to weigh the whole large share.");
+		}
+	}
+
+	@Test
+	@DisplayName("A stream's permit should be released once by whichever async callback or task closes it first")
+	public void permitReleasingInterceptor_TimeoutThenCompletion_ReleasedOnce() {
+
+		// Arrange
+		ChargeAdmissionLimiter chargeAdmissionLimiter = new ChargeAdmissionLimiter(1_000L, 10L, 100L,
+																					Duration.ofSeconds(1));
+		Permit streamPermit = chargeAdmissionLimiter.admitUnknownSize();
+		Permit otherPermit = chargeAdmissionLimiter.admit(5L);
+		PermitReleasingInterceptor permitReleasingInterceptor = new PermitReleasingInterceptor(streamPermit);
+
+		// Act
+		Object timeoutResult = permitReleasingInterceptor.handleTimeout(null, () -> null);
+		permitReleasingInterceptor.afterCompletion(null, () -> null);
+		streamPermit.close();
+
+		// Assert
+		assertEquals(CallableProcessingInterceptor.RESULT_NONE, timeoutResult,
+							"Expected the timeout to be left to the next interceptor.");
+		assertEquals(5L, chargeAdmissionLimiter.getInFlightCharges(),
+							"Expected only the stream's charges to be released, and only once.");
+
+		otherPermit.close();
+	}
+
+	@Test
+	@DisplayName("A request should be weighed by its Content-Length before its body is read, until it completes")
+	public void chargeAdmissionInterceptor_ContentLength_AdmittedBeforeBinding() {
+
+		// Arrange
+		ChargeAdmissionLimiter chargeAdmissionLimiter = new ChargeAdmissionLimiter(1_000L, 10L, 100L,
+																					Duration.ofSeconds(1));
+		ChargeAdmissionInterceptor chargeAdmissionInterceptor = new ChargeAdmissionInterceptor(chargeAdmissionLimiter);
+
+		MockHttpServletRequest jsonRequest = new MockHttpServletRequest("POST", "/validateClaims");
+		jsonRequest.setContentType("application/json");
+		jsonRequest.setContent(new byte[(int) (600L * ChargeAdmissionInterceptor.MIN_JSON_CHARGE_BYTES)]);
+
+		MockHttpServletRequest binaryRequest = new MockHttpServletRequest("POST", "/validateClaims");
+		binaryRequest.setContentType(ClaimsBatchFormat.MEDIA_TYPE_VALUE);
+		binaryRequest.setContent(new byte[(int) (600L * ChargeAdmissionInterceptor.MIN_BINARY_CHARGE_BYTES)]);
+
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		// Act
+		chargeAdmissionInterceptor.preHandle(jsonRequest, response, null);
+		long jsonInFlightCharges = chargeAdmissionLimiter.getInFlightCharges();
+
+		assertThrows(AdmissionRejectedException.class,
+					() -> chargeAdmissionInterceptor.preHandle(binaryRequest, response, null),
+					"Expected a second large batch to be rejected before its body is read.");
+
+		chargeAdmissionInterceptor.afterCompletion(jsonRequest, response, null, null);
+		chargeAdmissionInterceptor.afterCompletion(jsonRequest, response, null, null);
+
+		// Assert
+		assertEquals(600L, jsonInFlightCharges, "Expected the request to weigh the charges its body can hold.");
+		assertEquals(0L, chargeAdmissionLimiter.getInFlightCharges(),
+							"Expected the completed request's charges to be released once.");
+	}
+}
@@ -0,0 +1,137 @@
+package com.craighdav.medical_claims_validator.batch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.craighdav.medical_claims_validator.generator.ClaimsDatasetGenerator;
+import com.craighdav.medical_claims_validator.generator.ClaimsDatasetOptions;
+import com.craighdav.medical_claims_validator.model.Claim;
+import com.craighdav.medical_claims_validator.model.IssueFormat;
+import com.craighdav.medical_claims_validator.model.ProcessedMedicalClaimsData;
+import com.craighdav.medical_claims_validator.model.RawMedicalClaimsData;
+import com.craighdav.medical_claims_validator.service.MedicalClaimsValidatorService;
+import com.craighdav.medical_claims_validator.wire.ClaimsBatchEncoder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+public class ClaimsBatchFileValidatorTest {
+
+	private final Clock clock;
+	private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+	private final MedicalClaimsValidatorService medicalClaimsValidatorService;
+
+	@TempDir
+	private Path temporaryDirectory;
+
+	public ClaimsBatchFileValidatorTest() {
+		Instant fixedTestingInstant = Instant.parse("2025-07-05T12:00:00Z");
+		ZoneId zoneId = ZoneId.of("UTC");
+		clock = Clock.fixed(fixedTestingInstant, zoneId);
+		medicalClaimsValidatorService = new MedicalClaimsValidatorService(clock);
+	}
+
+
+	@Test
+	@DisplayName("A validated batch file should hold the same claims and issues as validateMedicalClaims")
+	public void validate_GeneratedBatch_MatchesValidateMedicalClaims() throws IOException {
+
+		// Arrange
+		ClaimsDatasetOptions options = new ClaimsDatasetOptions();
+		options.setSeed(3L);
+		options.setPatientCount(100);
+		options.setClaimCount(1_000);
+		options.setDuplicateRate(0.05);
+		options.setOrphanRate(0.05);
+
+		RawMedicalClaimsData rawMedicalClaimsData 
+					= new ClaimsDatasetGenerator(options).generateRawMedicalClaimsData();
+		ProcessedMedicalClaimsData processedMedicalClaimsDataExpected 
+					= medicalClaimsValidatorService.validateMedicalClaims(rawMedicalClaimsData);
+
+		Path inputPath = writeBatch(rawMedicalClaimsData);
+		Path outputPath = temporaryDirectory.resolve("results.ndjson");
+
+		// Act
+		BatchValidationSummary batchValidationSummary = createValidator().validate(inputPath, outputPath, IssueFormat.TEXT);
+
+		// Assert
+		Set<Long> validClaimIdSet = new HashSet<>();
+		Map<Long, Set<String>> invalidClaimWithIssuesMap = new HashMap<>();
+		List<Long> claimIdList = new ArrayList<>();
+
+		for (String resultLine : Files.readAllLines(outputPath)) {
+			JsonNode resultNode = objectMapper.readTree(resultLine);
+			long claimId = resultNode.get("claimId").asLong();
+			claimIdList.add(claimId);
+
+			if (resultNode.get("valid").asBoolean()) {
+				validClaimIdSet.add(claimId);
+			} else {
+				Set<String> issueSet = new HashSet<>();
+				resultNode.get("issues").forEach(issueNode -> issueSet.add(issueNode.asText()));
+				invalidClaimWithIssuesMap.put(claimId, issueSet);
+			}
+		}
+
+		assertEquals(rawMedicalClaimsData.getClaimList().stream().map(Claim::getId).toList(),
+							claimIdList.subList(0, rawMedicalClaimsData.getClaimList().size()),
+							"Expected results in the order of the claims in the file.");
+		assertEquals(processedMedicalClaimsDataExpected.getValidClaimIdSet(), validClaimIdSet);
+		assertEquals(processedMedicalClaimsDataExpected.getInvalidClaimWithIssuesMap(), invalidClaimWithIssuesMap,
+							"Expected claim issues do not match written issues.");
+		assertEquals(validClaimIdSet.size(), batchValidationSummary.getValidClaimCount());
+		assertEquals(invalidClaimWithIssuesMap.size(), batchValidationSummary.getInvalidClaimCount());
+	}
+
+	@Test
+	@DisplayName("A record violating a model constraint should reject the file with the constraint's message")
+	public void validate_ServiceDateInFuture_IllegalArgumentException() throws IOException {
+
+		// Arrange
+		RawMedicalClaimsData rawMedicalClaimsData = new RawMedicalClaimsData(List.of(), 
+							List.of(new Claim(5000L, 1101L, LocalDate.of(2025, 8, 1), "office")), List.of());
+
+		Path inputPath = writeBatch(rawMedicalClaimsData);
+		Path outputPath = temporaryDirectory.resolve("results.ndjson");
+
+		// Act
+		IllegalArgumentException illegalArgumentException = assertThrows(IllegalArgumentException.class, 
+							() -> createValidator().validate(inputPath, outputPath, IssueFormat.TEXT));
+
+		// Assert
+		assertEquals("Claim row 0: Claim: service date must be in the past", illegalArgumentException.getMessage());
+	}
+
+	private ClaimsBatchFileValidator createValidator() {
+		return new ClaimsBatchFileValidator(medicalClaimsValidatorService, objectMapper, clock);
+	}
+
+	private Path writeBatch(RawMedicalClaimsData rawMedicalClaimsData) throws IOException {
+		Path batchPath = temporaryDirectory.resolve("claims.bin");
+		try (OutputStream outputStream = Files.newOutputStream(batchPath)) {
+			new ClaimsBatchEncoder().encodeClaims(rawMedicalClaimsData, outputStream);
+		}
+
+		return batchPath;
+	}
+}
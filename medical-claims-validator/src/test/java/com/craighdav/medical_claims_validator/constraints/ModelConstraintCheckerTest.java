@@ -0,0 +1,161 @@
+package com.craighdav.medical_claims_validator.constraints;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.beanvalidation.SpringValidatorAdapter;
+
+import com.craighdav.medical_claims_validator.model.Charge;
+import com.craighdav.medical_claims_validator.model.Claim;
+import com.craighdav.medical_claims_validator.model.ClaimDeltaBatch;
+import com.craighdav.medical_claims_validator.model.Patient;
+import com.craighdav.medical_claims_validator.model.PatientRegistration;
+import com.craighdav.medical_claims_validator.model.RawMedicalClaimsData;
+
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+
+public class ModelConstraintCheckerTest {
+
+	// Bean Validation evaluates @Past against the system clock, so the checks must as well
+	private static final LocalDate TODAY = LocalDate.now();
+
+	private final Validator validator;
+	private final ModelConstraintChecker modelConstraintChecker;
+
+	public ModelConstraintCheckerTest() {
+		validator = Validation.buildDefaultValidatorFactory().getValidator();
+		modelConstraintChecker = new ModelConstraintChecker(Clock.systemUTC(), true);
+	}
+
+
+	static Stream<Arguments> modelValues() {
+		LocalDate birthDate = LocalDate.of(1960, 2, 10);
+		LocalDate serviceDate = LocalDate.of(2025, 5, 16);
+
+		return Stream.of(
+				Arguments.of(new Charge(22000L, 5000L, 90050L, 470), true),
+				Arguments.of(new Charge(22000L, 5000L, 90050L, Integer.MIN_VALUE), true),
+				Arguments.of(new Charge(0L, 5000L, 90050L, 470), false),
+				Arguments.of(new Charge(22000L, -1L, 90050L, 470), false),
+				Arguments.of(new Charge(22000L, 5000L, 0L, 470), false),
+				Arguments.of(new Claim(5000L, 1101L, serviceDate, "office"), true),
+				Arguments.of(new Claim(-5000L, 1101L, serviceDate, "office"), false),
+				Arguments.of(new Claim(5000L, 0L, serviceDate, "office"), false),
+				Arguments.of(new Claim(5000L, 1101L, null, "office"), false),
+				Arguments.of(new Claim(5000L, 1101L, TODAY.minusDays(3), "office"), true),
+				Arguments.of(new Claim(5000L, 1101L, TODAY, "office"), false),
+				Arguments.of(new Claim(5000L, 1101L, TODAY.plusDays(1), "office"), false),
+				Arguments.of(new Claim(5000L, 1101L, serviceDate, null), false),
+				Arguments.of(new Patient(1101L, "Bill", "Smith", birthDate), true),
+				Arguments.of(new Patient(0L, "Bill", "Smith", birthDate), false),
+				Arguments.of(new Patient(1101L, null, "Smith", birthDate), false),
+				Arguments.of(new Patient(1101L, "Bill", null, birthDate), false),
+				Arguments.of(new Patient(1101L, "Bill", "Smith", null), false),
+				Arguments.of(new Patient(1101L, "Bill", "Smith", TODAY.plusYears(1)), false),
+				Arguments.of(new RawMedicalClaimsData(null, List.of(), List.of()), true),
+				Arguments.of(new RawMedicalClaimsData(null, List.of(new Claim(0L, 0L, null, null)),
+														List.of(new Charge(0L, 0L, 0L, 0))), true),
+				Arguments.of(new RawMedicalClaimsData(null, null, List.of()), false),
+				Arguments.of(new RawMedicalClaimsData(null, List.of(), null), false),
+				Arguments.of(new PatientRegistration(List.of(new Patient(1101L, "Bill", "Smith", birthDate))), true),
+				Arguments.of(new PatientRegistration(List.of(new Patient(1101L, "Bill", "Smith", birthDate),
+														new Patient(1102L, "Jane", null, birthDate))), false),
+				Arguments.of(new PatientRegistration(Arrays.asList((Patient) null)), false),
+				Arguments.of(new PatientRegistration(null), false),
+				Arguments.of(new ClaimDeltaBatch(null, null, null, null), true),
+				Arguments.of(new ClaimDeltaBatch(List.of(new Patient(1101L, "Bill", "Smith", birthDate)),
+														List.of(new Claim(5000L, 1101L, serviceDate, "office")),
+														List.of(new Charge(22000L, 5000L, 90050L, 470)), null), true),
+				Arguments.of(new ClaimDeltaBatch(List.of(new Patient(1101L, "Bill", "Smith", null)),
+														null, null, null), false),
+				Arguments.of(new ClaimDeltaBatch(null, List.of(new Claim(5000L, 1101L, serviceDate, null)),
+														null, null), false),
+				Arguments.of(new ClaimDeltaBatch(null, null, List.of(new Charge(22000L, 0L, 90050L, 470)),
+														null), false),
+				Arguments.of("not a model value", false));
+	}
+
+	@ParameterizedTest
+	@MethodSource("modelValues")
+	@DisplayName("A value passing the check should have no Bean Validation violations")
+	public void satisfiesConstraints_ModelValue_NeverMoreLenientThanBeanValidation(Object modelValue,
+																	boolean satisfiesConstraintsExpected) {
+
+		// Act
+		boolean satisfiesConstraints = modelConstraintChecker.satisfiesConstraints(modelValue);
+
+		// Assert
+		assertEquals(satisfiesConstraintsExpected, satisfiesConstraints,
+							"Expected check result does not match returned result for " + modelValue);
+		if (satisfiesConstraints) {
+			assertTrue(validator.validate(modelValue).isEmpty(),
+							"Expected no Bean Validation violations for a value passing the check.");
+		}
+	}
+
+	@Test
+	@DisplayName("A body failing the check should get the same errors as from Bean Validation alone")
+	public void validate_InvalidBody_SameErrorsAsBeanValidation() {
+
+		// Arrange
+		SpringValidatorAdapter beanValidationValidator = new SpringValidatorAdapter(validator);
+		ConstraintCheckingValidator constraintCheckingValidator
+					= new ConstraintCheckingValidator(modelConstraintChecker, beanValidationValidator);
+		ConstraintCheckingValidator beanValidationOnlyValidator = new ConstraintCheckingValidator(
+					new ModelConstraintChecker(Clock.systemUTC(), false), beanValidationValidator);
+
+		PatientRegistration patientRegistration = new PatientRegistration(List.of(
+					new Patient(1101L, "Bill", "Smith", LocalDate.of(1960, 2, 10)),
+					new Patient(0L, null, "Smith", TODAY.plusDays(2))));
+
+		BeanPropertyBindingResult bindingResultExpected
+					= new BeanPropertyBindingResult(patientRegistration, "patientRegistration");
+		beanValidationValidator.validate(patientRegistration, bindingResultExpected);
+
+		// Act
+		BeanPropertyBindingResult bindingResult
+					= new BeanPropertyBindingResult(patientRegistration, "patientRegistration");
+		constraintCheckingValidator.validate(patientRegistration, bindingResult);
+
+		BeanPropertyBindingResult beanValidationOnlyBindingResult
+					= new BeanPropertyBindingResult(patientRegistration, "patientRegistration");
+		beanValidationOnlyValidator.validate(patientRegistration, beanValidationOnlyBindingResult);
+
+		// Assert
+		assertEquals(3, bindingResultExpected.getErrorCount(), "Expected three violations.");
+		assertEquals(describeErrors(bindingResultExpected), describeErrors(bindingResult),
+							"Expected errors do not match returned errors.");
+		assertEquals(describeErrors(bindingResultExpected), describeErrors(beanValidationOnlyBindingResult),
+							"Expected errors do not match returned errors with constraint checking disabled.");
+		assertFalse(new ModelConstraintChecker(Clock.systemUTC(), false)
+					.satisfiesConstraints(new Charge(22000L, 5000L, 90050L, 470)),
+							"Expected no value to pass with constraint checking disabled.");
+	}
+
+	private static List<String> describeErrors(BeanPropertyBindingResult bindingResult) {
+		List<String> errorDescriptionList = new ArrayList<>();
+		for (FieldError fieldError : bindingResult.getFieldErrors()) {
+			errorDescriptionList.add(fieldError.getField() + ": " + fieldError.getDefaultMessage()
+										+ " " + Arrays.toString(fieldError.getCodes()));
+		}
+		errorDescriptionList.sort(null);
+
+		return errorDescriptionList;
+	}
+}
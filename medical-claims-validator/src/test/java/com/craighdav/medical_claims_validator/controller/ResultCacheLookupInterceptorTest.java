@@ -0,0 +1,106 @@
+package com.craighdav.medical_claims_validator.controller;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.craighdav.medical_claims_validator.config.MedicalClaimsValidatorProperties;
+import com.craighdav.medical_claims_validator.model.Charge;
+import com.craighdav.medical_claims_validator.model.Claim;
+import com.craighdav.medical_claims_validator.model.Patient;
+import com.craighdav.medical_claims_validator.model.ProcessedMedicalClaimsData;
+import com.craighdav.medical_claims_validator.model.RawMedicalClaimsData;
+import com.craighdav.medical_claims_validator.registry.PatientRegistry;
+import com.craighdav.medical_claims_validator.rules.RuleSetRepository;
+import com.craighdav.medical_claims_validator.service.MedicalClaimsValidatorService;
+import com.craighdav.medical_claims_validator.service.ValidationResultCache;
+import com.craighdav.medical_claims_validator.service.ValidationResultCache.ResultKey;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+
+public class ResultCacheLookupInterceptorTest {
+
+	private static final String REQUEST_BODY = "{\"patients\":[{\"id\":1101,\"firstName\":\"Bill\",\"lastName\":\"Smith\","
+				+ "\"birthDate\":\"1960-02-10\"}],\"claims\":[{\"id\":5000,\"patientId\":1101,\"serviceDate\":\"2025-05-16\","
+				+ "\"placeOfService\":\"office\"}],\"charges\":[{\"id\":22000,\"claimId\":5000,\"procedureCode\":90050,"
+				+ "\"amount\":470}]}";
+
+
+	@Test
+	@DisplayName("A repeated body should be answered from the cache and not be passed on for binding")
+	public void preHandle_RepeatedBody_CachedResultSetAndBodyDiscarded() throws IOException, ServletException {
+
+		// Arrange
+		Clock clock = Clock.fixed(Instant.parse("2025-07-05T12:00:00Z"), ZoneId.of("UTC"));
+		PatientRegistry patientRegistry = new PatientRegistry(null, 0);
+		MedicalClaimsValidatorProperties medicalClaimsValidatorProperties = new MedicalClaimsValidatorProperties();
+		ValidationResultCache validationResultCache = new ValidationResultCache(clock, 1_000_000L,
+					new MedicalClaimsValidatorService(clock, medicalClaimsValidatorProperties,
+								new RuleSetRepository(medicalClaimsValidatorProperties.getRulesLocation()), patientRegistry),
+					patientRegistry, new SimpleMeterRegistry());
+		ResultCacheLookupInterceptor resultCacheLookupInterceptor = new ResultCacheLookupInterceptor(validationResultCache);
+
+		HttpServletRequest firstRequest = wrapRequest();
+		HttpServletRequest repeatedRequest = wrapRequest();
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		// Act
+		resultCacheLookupInterceptor.preHandle(firstRequest, response, null);
+		byte[] firstBoundBody = firstRequest.getInputStream().readAllBytes();
+		ProcessedMedicalClaimsData processedMedicalClaimsData = validationResultCache.validateMedicalClaims(
+					createBatch(), (ResultKey) firstRequest.getAttribute(ResultCacheLookupInterceptor.RESULT_KEY_ATTRIBUTE));
+
+		resultCacheLookupInterceptor.preHandle(repeatedRequest, response, null);
+		byte[] repeatedBoundBody = repeatedRequest.getInputStream().readAllBytes();
+
+		// Assert
+		assertArrayEquals(REQUEST_BODY.getBytes(StandardCharsets.UTF_8), firstBoundBody,
+							"Expected the body of a new batch to be bound as it was received.");
+		assertNull(firstRequest.getAttribute(ResultCacheLookupInterceptor.CACHED_RESULT_ATTRIBUTE),
+							"Expected no cached result for a new batch.");
+		assertSame(processedMedicalClaimsData,
+							repeatedRequest.getAttribute(ResultCacheLookupInterceptor.CACHED_RESULT_ATTRIBUTE),
+							"Expected the cached result for a repeated batch.");
+		assertEquals(0, repeatedBoundBody.length, "Expected no body to be bound for a repeated batch.");
+	}
+
+	/*
+	 * A POST /validateClaims request of REQUEST_BODY, as the BufferedRequestBodyFilter passes
+	 * it on
+	 */
+	private static HttpServletRequest wrapRequest() throws IOException, ServletException {
+
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/validateClaims");
+		request.setContentType("application/json");
+		request.setContent(REQUEST_BODY.getBytes(StandardCharsets.UTF_8));
+
+		MockFilterChain filterChain = new MockFilterChain();
+		new BufferedRequestBodyFilter().doFilter(request, new MockHttpServletResponse(), filterChain);
+
+		return (HttpServletRequest) filterChain.getRequest();
+	}
+
+	private static RawMedicalClaimsData createBatch() {
+		return new RawMedicalClaimsData(
+					List.of(new Patient(1101L, "Bill", "Smith", LocalDate.of(1960, 2, 10))),
+					List.of(new Claim(5000L, 1101L, LocalDate.of(2025, 5, 16), "office")),
+					List.of(new Charge(22000L, 5000L, 90050L, 470)));
+	}
+}
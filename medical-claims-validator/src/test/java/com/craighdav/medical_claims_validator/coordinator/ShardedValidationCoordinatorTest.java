@@ -0,0 +1,371 @@
+package com.craighdav.medical_claims_validator.coordinator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import com.craighdav.medical_claims_validator.config.MedicalClaimsValidatorProperties;
+import com.craighdav.medical_claims_validator.model.Charge;
+import com.craighdav.medical_claims_validator.model.Claim;
+import com.craighdav.medical_claims_validator.model.IssueFormat;
+import com.craighdav.medical_claims_validator.model.Patient;
+import com.craighdav.medical_claims_validator.model.ProcessedMedicalClaimsData;
+import com.craighdav.medical_claims_validator.model.RawMedicalClaimsData;
+import com.craighdav.medical_claims_validator.service.MedicalClaimsValidatorService;
+import com.craighdav.medical_claims_validator.wire.ClaimsBatchDecoder;
+import com.craighdav.medical_claims_validator.wire.ClaimsBatchEncoder;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/*
+ * The coordinator must return exactly the result of validating the whole batch on one node.
+ * These tests run shard nodes on localhost, each validating its shards with its own
+ * MedicalClaimsValidatorService on the fixed testing clock, next to a node that fails every
+ * request.
+ */
+public class ShardedValidationCoordinatorTest {
+
+	private static final long[] PROCEDURE_CODES
+						= { 99129L, 99396L, 90050L, 92345L, 60009L, 61234L, 50035L, 80640L, 73209L };
+	private static final String[] PLACES_OF_SERVICE = { "office", "home", "hospital" };
+
+	private final Clock clock;
+	private final List<HttpServer> shardNodeServerList = new ArrayList<>();
+
+	public ShardedValidationCoordinatorTest() {
+		Instant fixedTestingInstant = Instant.parse("2025-07-05T12:00:00Z");
+		ZoneId zoneId = ZoneId.of("UTC");
+		clock = Clock.fixed(fixedTestingInstant, zoneId);
+	}
+
+	@AfterEach
+	public void stopShardNodes() {
+		for (HttpServer shardNodeServer : shardNodeServerList) {
+			shardNodeServer.stop(0);
+		}
+	}
+
+
+	@ParameterizedTest
+	@EnumSource(IssueFormat.class)
+	@DisplayName("Validating a batch on several shard nodes should return the same result as one node")
+	public void validateMedicalClaims_SeveralShardNodes_MatchesSingleNode(IssueFormat issueFormat) throws IOException {
+
+		// Arrange
+		RawMedicalClaimsData rawMedicalClaimsData = createRandomBatch(42L, 200, 1_000, 3_000);
+
+		ProcessedMedicalClaimsData processedMedicalClaimsDataExpected
+					= createService().validateMedicalClaims(rawMedicalClaimsData).withIssueFormat(issueFormat);
+
+		List<String> nodeUrlList = List.of(startShardNode(), startFailingShardNode(), startShardNode(),
+												startShardNode());
+		MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+		ShardedValidationCoordinator shardedValidationCoordinator = new ShardedValidationCoordinator(
+					nodeUrlList, 4, 3, Duration.ofSeconds(30), createService(), meterRegistry);
+
+		// Act
+		ProcessedMedicalClaimsData processedMedicalClaimsData
+					= shardedValidationCoordinator.validateMedicalClaims(rawMedicalClaimsData, issueFormat);
+
+		// Assert
+		assertEquals(processedMedicalClaimsDataExpected.getRuleSetVersion(),
+							processedMedicalClaimsData.getRuleSetVersion(),
+							"Expected rule set version does not match returned version.");
+		assertEquals(processedMedicalClaimsDataExpected.getValidClaimIdSet(),
+							processedMedicalClaimsData.getValidClaimIdSet(),
+							"Expected set of valid Claim Ids does not match returned set.");
+		assertEquals(processedMedicalClaimsDataExpected.getInvalidClaimIds(),
+							processedMedicalClaimsData.getInvalidClaimIds(),
+							"Expected set of invalid Claim Ids does not match returned set.");
+
+		// The failing node takes one shard, which is validated by another node
+		assertEquals(1.0, meterRegistry.get("claims.validation.shard.requests").tag("result", "failure")
+							.counter().count(), "Expected one failed shard request.");
+	}
+
+	@Test
+	@DisplayName("A batch should fail once no shard node is left to validate its shards")
+	public void validateMedicalClaims_AllShardNodesFailing_ThrowsShardedValidationException() throws IOException {
+
+		// Arrange
+		RawMedicalClaimsData rawMedicalClaimsData = createRandomBatch(7L, 20, 100, 300);
+
+		ShardedValidationCoordinator shardedValidationCoordinator = new ShardedValidationCoordinator(
+					List.of(startFailingShardNode(), startFailingShardNode()), 2, 3, Duration.ofSeconds(30),
+					createService(), new SimpleMeterRegistry());
+
+		// Act and Assert
+		assertThrows(ShardedValidationException.class,
+					() -> shardedValidationCoordinator.validateMedicalClaims(rawMedicalClaimsData, IssueFormat.TEXT),
+					"Expected the batch to fail without a working shard node.");
+	}
+
+	@Test
+	@DisplayName("A busy shard node should be asked again after its Retry-After instead of failing the shard")
+	public void validateMedicalClaims_BusyShardNode_ShardRetriedOnSameNode() throws IOException {
+
+		// Arrange
+		RawMedicalClaimsData rawMedicalClaimsData = createRandomBatch(7L, 20, 100, 300);
+
+		ProcessedMedicalClaimsData processedMedicalClaimsDataExpected
+					= createService().validateMedicalClaims(rawMedicalClaimsData);
+
+		MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+		// The only node rejects its first request, as an admission limiter under load would
+		ShardedValidationCoordinator shardedValidationCoordinator = new ShardedValidationCoordinator(
+					List.of(startBusyShardNode(1)), 2, 1, Duration.ofSeconds(30), createService(), meterRegistry);
+
+		// Act
+		ProcessedMedicalClaimsData processedMedicalClaimsData
+					= shardedValidationCoordinator.validateMedicalClaims(rawMedicalClaimsData, IssueFormat.TEXT);
+
+		// Assert
+		assertEquals(processedMedicalClaimsDataExpected.getInvalidClaimWithIssuesMap(),
+							processedMedicalClaimsData.getInvalidClaimWithIssuesMap(),
+							"Expected set of invalid Claim Ids does not match returned set.");
+		assertEquals(1.0, meterRegistry.get("claims.validation.shard.requests").tag("result", "busy")
+							.counter().count(), "Expected one busy shard request.");
+		assertEquals(0.0, meterRegistry.get("claims.validation.shard.requests").tag("result", "failure")
+							.counter().count(), "Expected no failed shard request.");
+	}
+
+	@Test
+	@DisplayName("A batch should fail once its deadline has passed")
+	public void validateMedicalClaims_ShardNodeAlwaysBusy_ThrowsShardedValidationException() throws IOException {
+
+		// Arrange
+		RawMedicalClaimsData rawMedicalClaimsData = createRandomBatch(7L, 20, 100, 300);
+
+		ShardedValidationCoordinator shardedValidationCoordinator = new ShardedValidationCoordinator(
+					List.of(startBusyShardNode(Integer.MAX_VALUE)), 2, 2, Duration.ofMillis(200),
+					createService(), new SimpleMeterRegistry());
+
+		// Act and Assert
+		assertThrows(ShardedValidationException.class,
+					() -> shardedValidationCoordinator.validateMedicalClaims(rawMedicalClaimsData, IssueFormat.TEXT),
+					"Expected the batch to fail after its deadline.");
+	}
+
+	@Test
+	@DisplayName("A node taking several shards should have shardTimeout for each of them")
+	public void validateMedicalClaims_ShardsTogetherSlowerThanShardTimeout_MatchesSingleNode() throws IOException {
+
+		// Arrange
+		RawMedicalClaimsData rawMedicalClaimsData = createRandomBatch(7L, 20, 100, 300);
+
+		ProcessedMedicalClaimsData processedMedicalClaimsDataExpected
+					= createService().validateMedicalClaims(rawMedicalClaimsData);
+
+		// Each of the 4 shards takes half the shard timeout, so that together they take
+		// twice shardTimeout times maxShardAttempts
+		ShardedValidationCoordinator shardedValidationCoordinator = new ShardedValidationCoordinator(
+					List.of(startSlowShardNode(500L)), 4, 1, Duration.ofSeconds(1), createService(),
+					new SimpleMeterRegistry());
+
+		// Act
+		ProcessedMedicalClaimsData processedMedicalClaimsData
+					= shardedValidationCoordinator.validateMedicalClaims(rawMedicalClaimsData, IssueFormat.TEXT);
+
+		// Assert
+		assertEquals(processedMedicalClaimsDataExpected.getInvalidClaimWithIssuesMap(),
+							processedMedicalClaimsData.getInvalidClaimWithIssuesMap(),
+							"Expected set of invalid Claim Ids does not match returned set.");
+	}
+
+	@Test
+	@DisplayName("Node URLs that are not http(s) URLs or that name the coordinator itself should be rejected")
+	public void rejectLocalNodeUrls_CoordinatorInNodeList_ThrowsIllegalStateException() {
+
+		// Arrange
+		ShardedValidationCoordinator shardedValidationCoordinator = new ShardedValidationCoordinator(
+					List.of("http://localhost:8081", "http://127.0.0.1:8080/"), 4, 3, Duration.ofSeconds(30),
+					createService(), new SimpleMeterRegistry());
+
+		// Act and Assert
+		shardedValidationCoordinator.rejectLocalNodeUrls(8082);
+		assertThrows(IllegalStateException.class, () -> shardedValidationCoordinator.rejectLocalNodeUrls(8080),
+					"Expected a node URL on the coordinator's own port to be rejected.");
+		assertThrows(IllegalArgumentException.class, () -> new ShardedValidationCoordinator(
+					List.of("localhost:8081"), 4, 3, Duration.ofSeconds(30), createService(), new SimpleMeterRegistry()),
+					"Expected a node URL without a scheme to be rejected.");
+	}
+
+	private MedicalClaimsValidatorService createService() {
+		return new MedicalClaimsValidatorService(clock, new MedicalClaimsValidatorProperties());
+	}
+
+	/*
+	 * Start a shard node answering POST /validateClaims in the binary claims batch format,
+	 * and return its base URL.
+	 */
+	private String startShardNode() throws IOException {
+
+		MedicalClaimsValidatorService medicalClaimsValidatorService = createService();
+
+		return startServer(httpExchange -> {
+			RawMedicalClaimsData shardMedicalClaimsData
+						= new ClaimsBatchDecoder().decodeClaims(httpExchange.getRequestBody());
+			IssueFormat issueFormat = httpExchange.getRequestURI().getQuery().equals("issues=codes")
+						? IssueFormat.CODES : IssueFormat.TEXT;
+
+			ByteArrayOutputStream responseBodyStream = new ByteArrayOutputStream();
+			new ClaimsBatchEncoder().encodeResult(medicalClaimsValidatorService
+						.validateMedicalClaims(shardMedicalClaimsData).withIssueFormat(issueFormat), responseBodyStream);
+
+			httpExchange.sendResponseHeaders(200, responseBodyStream.size());
+			try (OutputStream exchangeOutputStream = httpExchange.getResponseBody()) {
+				responseBodyStream.writeTo(exchangeOutputStream);
+			}
+		});
+	}
+
+	/*
+	 * Start a shard node that answers its first busyRequestCount requests with 429 and a
+	 * Retry-After of 0 seconds, and validates the requests after them.
+	 */
+	private String startBusyShardNode(int busyRequestCount) throws IOException {
+
+		MedicalClaimsValidatorService medicalClaimsValidatorService = createService();
+		AtomicInteger requestCount = new AtomicInteger();
+
+		return startServer(httpExchange -> {
+			RawMedicalClaimsData shardMedicalClaimsData
+						= new ClaimsBatchDecoder().decodeClaims(httpExchange.getRequestBody());
+
+			if (requestCount.getAndIncrement() < busyRequestCount) {
+				httpExchange.getResponseHeaders().add("Retry-After", "0");
+				httpExchange.sendResponseHeaders(429, -1);
+				return;
+			}
+
+			ByteArrayOutputStream responseBodyStream = new ByteArrayOutputStream();
+			new ClaimsBatchEncoder().encodeResult(
+						medicalClaimsValidatorService.validateMedicalClaims(shardMedicalClaimsData), responseBodyStream);
+
+			httpExchange.sendResponseHeaders(200, responseBodyStream.size());
+			try (OutputStream exchangeOutputStream = httpExchange.getResponseBody()) {
+				responseBodyStream.writeTo(exchangeOutputStream);
+			}
+		});
+	}
+
+	/*
+	 * Start a shard node that waits delayMillis before validating each request.
+	 */
+	private String startSlowShardNode(long delayMillis) throws IOException {
+
+		MedicalClaimsValidatorService medicalClaimsValidatorService = createService();
+
+		return startServer(httpExchange -> {
+			RawMedicalClaimsData shardMedicalClaimsData
+						= new ClaimsBatchDecoder().decodeClaims(httpExchange.getRequestBody());
+
+			try {
+				Thread.sleep(delayMillis);
+			} catch (InterruptedException interruptedException) {
+				Thread.currentThread().interrupt();
+			}
+
+			ByteArrayOutputStream responseBodyStream = new ByteArrayOutputStream();
+			new ClaimsBatchEncoder().encodeResult(
+						medicalClaimsValidatorService.validateMedicalClaims(shardMedicalClaimsData), responseBodyStream);
+
+			httpExchange.sendResponseHeaders(200, responseBodyStream.size());
+			try (OutputStream exchangeOutputStream = httpExchange.getResponseBody()) {
+				responseBodyStream.writeTo(exchangeOutputStream);
+			}
+		});
+	}
+
+	private String startFailingShardNode() throws IOException {
+		return startServer(httpExchange -> {
+			httpExchange.getRequestBody().readAllBytes();
+			httpExchange.sendResponseHeaders(500, -1);
+			httpExchange.close();
+		});
+	}
+
+	private String startServer(ShardNodeHandler shardNodeHandler) throws IOException {
+
+		HttpServer shardNodeServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+		shardNodeServer.createContext("/validateClaims", httpExchange -> {
+			try {
+				shardNodeHandler.handle(httpExchange);
+			} finally {
+				httpExchange.close();
+			}
+		});
+		shardNodeServer.start();
+		shardNodeServerList.add(shardNodeServer);
+
+		return "http://localhost:" + shardNodeServer.getAddress().getPort() + "/";
+	}
+
+	/*
+	 * About 5% of claims reference a missing patient and about 5% of charges reference a
+	 * missing claim, as in MedicalClaimsValidatorEngineTest.
+	 */
+	private RawMedicalClaimsData createRandomBatch(long seed, int patientCount, int claimCount,
+													int chargeCount) {
+		Random random = new Random(seed);
+
+		List<Patient> patientList = new ArrayList<>();
+		for (long patientId = 1; patientId <= patientCount; patientId++) {
+			LocalDate birthDate = LocalDate.of(1950, 1, 1).plusDays(random.nextInt(65 * 365));
+			patientList.add(new Patient(patientId, "First" + patientId, "Last" + patientId, birthDate));
+		}
+
+		List<Claim> claimList = new ArrayList<>();
+		for (long claimId = 1; claimId <= claimCount; claimId++) {
+			long patientId = (random.nextInt(20) == 0)
+								? patientCount + 1 + random.nextInt(10)
+								: 1 + random.nextInt(patientCount);
+			String placeOfService = PLACES_OF_SERVICE[random.nextInt(PLACES_OF_SERVICE.length)];
+			claimList.add(new Claim(claimId, patientId, LocalDate.of(2025, 1, 15), placeOfService));
+		}
+
+		List<Charge> chargeList = new ArrayList<>();
+		for (long chargeId = 1; chargeId <= chargeCount; chargeId++) {
+			long claimId = (random.nextInt(20) == 0)
+								? claimCount + 1 + random.nextInt(50)
+								: 1 + random.nextInt(claimCount);
+			long procedureCode = PROCEDURE_CODES[random.nextInt(PROCEDURE_CODES.length)];
+			chargeList.add(new Charge(chargeId, claimId, procedureCode, 1 + random.nextInt(1_000)));
+		}
+
+		return new RawMedicalClaimsData(patientList, claimList, chargeList);
+	}
+
+	/*
+	 * The handling of one request by a shard node.
+	 */
+	private interface ShardNodeHandler {
+
+		void handle(HttpExchange httpExchange) throws IOException;
+	}
+}
@@ -0,0 +1,108 @@
+package com.craighdav.medical_claims_validator.generator;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.craighdav.medical_claims_validator.generator.ClaimsDatasetOptions.OutputFormat;
+import com.craighdav.medical_claims_validator.model.Patient;
+import com.craighdav.medical_claims_validator.model.RawMedicalClaimsData;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+public class ClaimsDatasetGeneratorTest {
+
+	@Test
+	@DisplayName("Same seed should produce identical output, a different seed different output")
+	public void generate_SameSeed_Deterministic() throws IOException {
+		
+		// Arrange
+		ClaimsDatasetOptions options = createOptions(7L, OutputFormat.NDJSON);
+		ClaimsDatasetOptions otherSeedOptions = createOptions(8L, OutputFormat.NDJSON);
+		
+		// Act
+		byte[] firstOutput = generate(options);
+		byte[] secondOutput = generate(options);
+		byte[] otherSeedOutput = generate(otherSeedOptions);
+		
+		// Assert
+		assertArrayEquals(firstOutput, secondOutput, "Expected identical output for the same seed.");
+		assertFalse(Arrays.equals(firstOutput, otherSeedOutput), "Expected different output for another seed.");
+	}
+	
+	@Test
+	@DisplayName("JSON output should bind to the same RawMedicalClaimsData as the in-memory dataset")
+	public void generate_Json_BindsToRawMedicalClaimsData() throws IOException {
+		
+		// Arrange
+		ClaimsDatasetOptions options = createOptions(42L, OutputFormat.JSON);
+		ClaimsDatasetGenerator claimsDatasetGenerator = new ClaimsDatasetGenerator(options);
+		ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+		
+		RawMedicalClaimsData rawMedicalClaimsDataExpected = claimsDatasetGenerator.generateRawMedicalClaimsData();
+		
+		// Act
+		RawMedicalClaimsData rawMedicalClaimsData 
+					= objectMapper.readValue(generate(options), RawMedicalClaimsData.class);
+		
+		// Assert
+		assertEquals(rawMedicalClaimsDataExpected.getPatientList().toString(), 
+						rawMedicalClaimsData.getPatientList().toString());
+		assertEquals(rawMedicalClaimsDataExpected.getClaimList().toString(), 
+						rawMedicalClaimsData.getClaimList().toString());
+		assertEquals(rawMedicalClaimsDataExpected.getChargeList().toString(), 
+						rawMedicalClaimsData.getChargeList().toString());
+		assertEquals(options.getClaimCount(), rawMedicalClaimsData.getClaimList().size());
+	}
+	
+	@Test
+	@DisplayName("Threshold age share of 1.0 should age every patient 17, 18, 39 or 40")
+	public void generateRawMedicalClaimsData_ThresholdAgesOnly_AgesAtThresholds() {
+		
+		// Arrange
+		ClaimsDatasetOptions options = createOptions(1L, OutputFormat.JSON);
+		options.setThresholdAgeShare(1.0);
+		LocalDate referenceDate = options.getReferenceDate();
+		
+		// Act
+		RawMedicalClaimsData rawMedicalClaimsData 
+					= new ClaimsDatasetGenerator(options).generateRawMedicalClaimsData();
+		
+		// Assert
+		for (Patient patient : rawMedicalClaimsData.getPatientList()) {
+			int patientAge = patient.getBirthDate().until(referenceDate).getYears();
+			
+			assertTrue(Set.of(17, 18, 39, 40).contains(patientAge), "Unexpected patient age: " + patientAge);
+			assertTrue(patient.getBirthDate().isBefore(referenceDate));
+		}
+	}
+	
+	private ClaimsDatasetOptions createOptions(long seed, OutputFormat format) {
+		ClaimsDatasetOptions options = new ClaimsDatasetOptions();
+		options.setSeed(seed);
+		options.setFormat(format);
+		options.setPatientCount(50);
+		options.setClaimCount(200);
+		options.setChargesPerClaimSkew(1.0);
+		options.setOrphanRate(0.05);
+		
+		return options;
+	}
+	
+	private byte[] generate(ClaimsDatasetOptions options) throws IOException {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		new ClaimsDatasetGenerator(options).generate(outputStream);
+		
+		return outputStream.toByteArray();
+	}
+}
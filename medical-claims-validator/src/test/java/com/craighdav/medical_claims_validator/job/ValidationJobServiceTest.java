@@ -0,0 +1,165 @@
+package com.craighdav.medical_claims_validator.job;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.craighdav.medical_claims_validator.config.MedicalClaimsValidatorProperties;
+import com.craighdav.medical_claims_validator.model.Charge;
+import com.craighdav.medical_claims_validator.model.Claim;
+import com.craighdav.medical_claims_validator.model.IssueFormat;
+import com.craighdav.medical_claims_validator.model.Patient;
+import com.craighdav.medical_claims_validator.model.ProcessedMedicalClaimsData;
+import com.craighdav.medical_claims_validator.model.RawMedicalClaimsData;
+import com.craighdav.medical_claims_validator.model.ValidationJobResultPage;
+import com.craighdav.medical_claims_validator.model.ValidationJobStatus;
+import com.craighdav.medical_claims_validator.model.ValidationJobStatus.State;
+import com.craighdav.medical_claims_validator.service.MedicalClaimsValidatorService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class ValidationJobServiceTest {
+
+	private static final Instant FIXED_TESTING_INSTANT = Instant.parse("2025-07-05T12:00:00Z");
+
+	private final RawMedicalClaimsData rawMedicalClaimsData = new RawMedicalClaimsData(
+			List.of(new Patient(1101L, "Bill", "Smith", LocalDate.of(1960, 2, 10)),
+					new Patient(1102L, "Jane", "Doe", LocalDate.of(2010, 3, 1))),
+			List.of(new Claim(5000L, 1101L, LocalDate.of(2025, 5, 16), "office"),
+					new Claim(5001L, 1102L, LocalDate.of(2025, 5, 16), "home"),
+					new Claim(5002L, 1101L, LocalDate.of(2025, 5, 16), "office"),
+					new Claim(5003L, 1102L, LocalDate.of(2025, 5, 16), "office"),
+					new Claim(5004L, 1101L, LocalDate.of(2025, 5, 16), "office")),
+			List.of(new Charge(22000L, 5000L, 90050L, 470),
+					new Charge(22001L, 5001L, 99129L, 120),
+					new Charge(22002L, 5002L, 60009L, 80),
+					new Charge(22003L, 5003L, 99396L, 300),
+					new Charge(22004L, 5004L, 80640L, 90),
+					new Charge(22005L, 5004L, 80640L, 90),
+					new Charge(22006L, 5009L, 10001L, 10)));
+
+	@Test
+	@DisplayName("Paged results of a completed job should match the validation of the same batch")
+	public void submit_BatchCompleted_PagesMatchValidation() throws InterruptedException {
+
+		// Arrange
+		Clock clock = Clock.fixed(FIXED_TESTING_INSTANT, ZoneId.of("UTC"));
+		MedicalClaimsValidatorProperties medicalClaimsValidatorProperties = new MedicalClaimsValidatorProperties();
+		medicalClaimsValidatorProperties.setJobResultPageSize(2);
+
+		MedicalClaimsValidatorService medicalClaimsValidatorService = new MedicalClaimsValidatorService(clock);
+		ValidationJobService validationJobService = new ValidationJobService(clock, medicalClaimsValidatorProperties,
+															medicalClaimsValidatorService, new ObjectMapper());
+
+		try {
+			// Act
+			String jobId = validationJobService.submit(rawMedicalClaimsData, IssueFormat.TEXT).getJobId();
+			ValidationJobStatus validationJobStatus = awaitFinished(validationJobService, jobId);
+
+			Set<Long> validClaimIdSet = new HashSet<>();
+			Map<Long, Set<String>> invalidClaimWithIssuesMap = new HashMap<>();
+			for (int page = 0; page < validationJobStatus.getPageCount(); page++) {
+				ValidationJobResultPage validationJobResultPage = validationJobService.getResultPage(jobId, page);
+
+				for (JsonNode resultNode : validationJobResultPage.getResultList()) {
+					long claimId = resultNode.get("claimId").asLong();
+					if (resultNode.get("valid").asBoolean()) {
+						validClaimIdSet.add(claimId);
+					} else {
+						Set<String> issueSet = new HashSet<>();
+						resultNode.get("issues").forEach(issueNode -> issueSet.add(issueNode.asText()));
+						invalidClaimWithIssuesMap.put(claimId, issueSet);
+					}
+				}
+			}
+
+			// Assert
+			ProcessedMedicalClaimsData processedMedicalClaimsDataExpected = medicalClaimsValidatorService
+																.validateMedicalClaims(rawMedicalClaimsData);
+
+			assertEquals(State.COMPLETED, validationJobStatus.getState(), "Expected the job to complete.");
+			assertEquals(6L, validationJobStatus.getProcessedClaimCount(),
+								"Expected every claim, including the orphan charge's claim, to be processed.");
+			assertEquals(3, validationJobStatus.getPageCount(), "Expected 6 results in pages of 2.");
+			assertEquals(processedMedicalClaimsDataExpected.getValidClaimIdSet(), validClaimIdSet,
+								"Expected set of valid Claim Ids does not match returned set.");
+			assertEquals(processedMedicalClaimsDataExpected.getInvalidClaimWithIssuesMap(), invalidClaimWithIssuesMap,
+								"Expected set of invalid Claim Ids does not match returned set.");
+		} finally {
+			validationJobService.shutdown();
+		}
+	}
+
+	@Test
+	@DisplayName("A finished job should be removed with its results once it is older than the retention")
+	public void getStatus_RetentionElapsed_JobRemoved() throws InterruptedException {
+
+		// Arrange
+		Clock fixedClock = Clock.fixed(FIXED_TESTING_INSTANT, ZoneId.of("UTC"));
+		Duration[] elapsedDuration = { Duration.ZERO };
+		Clock clock = new Clock() {
+			@Override
+			public ZoneId getZone() {
+				return fixedClock.getZone();
+			}
+
+			@Override
+			public Clock withZone(ZoneId zone) {
+				return fixedClock.withZone(zone);
+			}
+
+			@Override
+			public Instant instant() {
+				return fixedClock.instant().plus(elapsedDuration[0]);
+			}
+		};
+
+		MedicalClaimsValidatorProperties medicalClaimsValidatorProperties = new MedicalClaimsValidatorProperties();
+		medicalClaimsValidatorProperties.setJobRetention(Duration.ofMinutes(10));
+
+		ValidationJobService validationJobService = new ValidationJobService(clock, medicalClaimsValidatorProperties,
+													new MedicalClaimsValidatorService(fixedClock), new ObjectMapper());
+
+		try {
+			String jobId = validationJobService.submit(rawMedicalClaimsData, IssueFormat.CODES).getJobId();
+			awaitFinished(validationJobService, jobId);
+
+			// Act
+			elapsedDuration[0] = Duration.ofMinutes(11);
+
+			// Assert
+			assertNull(validationJobService.getStatus(jobId), "Expected the expired job to be removed.");
+			assertNull(validationJobService.getResultPage(jobId, 0), "Expected no results of the expired job.");
+		} finally {
+			validationJobService.shutdown();
+		}
+	}
+
+	private static ValidationJobStatus awaitFinished(ValidationJobService validationJobService, String jobId)
+																					throws InterruptedException {
+		for (int attempt = 0; attempt < 500; attempt++) {
+			ValidationJobStatus validationJobStatus = validationJobService.getStatus(jobId);
+
+			if ((validationJobStatus.getState() == State.COMPLETED) || (validationJobStatus.getState() == State.FAILED)) {
+				return validationJobStatus;
+			}
+
+			Thread.sleep(10L);
+		}
+
+		throw new AssertionError("Validation job " + jobId + " did not finish");
+	}
+}
@@ -0,0 +1,105 @@
+package com.craighdav.medical_claims_validator.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import com.craighdav.medical_claims_validator.config.MedicalClaimsValidatorProperties;
+import com.craighdav.medical_claims_validator.config.MedicalClaimsValidatorProperties.ValidationEngine;
+import com.craighdav.medical_claims_validator.model.Charge;
+import com.craighdav.medical_claims_validator.model.Claim;
+import com.craighdav.medical_claims_validator.model.Patient;
+import com.craighdav.medical_claims_validator.model.RawMedicalClaimsData;
+import com.craighdav.medical_claims_validator.registry.PatientRegistry;
+import com.craighdav.medical_claims_validator.rules.RuleSetRepository;
+import com.craighdav.medical_claims_validator.service.MedicalClaimsValidatorService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ValidationMetricsTest {
+
+	private final Clock clock;
+
+	public ValidationMetricsTest() {
+		Instant fixedTestingInstant = Instant.parse("2025-07-05T12:00:00Z");
+		ZoneId zoneId = ZoneId.of("UTC");
+		clock = Clock.fixed(fixedTestingInstant, zoneId);
+	}
+
+
+	@ParameterizedTest
+	@EnumSource(ValidationEngine.class)
+	@DisplayName("Validating a batch should time its stages, count its rule hits and record its size")
+	public void validateMedicalClaims_AnyEngine_StagesRuleHitsAndBatchRecorded(ValidationEngine validationEngine) {
+
+		// Arrange
+		MeterRegistry meterRegistry = new SimpleMeterRegistry();
+		MedicalClaimsValidatorProperties medicalClaimsValidatorProperties = new MedicalClaimsValidatorProperties();
+		medicalClaimsValidatorProperties.setValidationEngine(validationEngine);
+		medicalClaimsValidatorProperties.setParallelThreshold(0);
+		
+		// The batch is in claim order, which the default settings still leave to the configured engine
+
+		MedicalClaimsValidatorService medicalClaimsValidatorService = new MedicalClaimsValidatorService(clock,
+					medicalClaimsValidatorProperties,
+					new RuleSetRepository(medicalClaimsValidatorProperties.getRulesLocation()),
+					new PatientRegistry(null, 0), new ValidationMetrics(meterRegistry));
+
+		RawMedicalClaimsData rawMedicalClaimsData = new RawMedicalClaimsData(
+				List.of(new Patient(1101L, "Bill", "Smith", LocalDate.of(1960, 2, 10))),
+				List.of(new Claim(5000L, 1101L, LocalDate.of(2025, 5, 16), "office"),
+						new Claim(5001L, 1101L, LocalDate.of(2025, 5, 16), "home")),
+				List.of(new Charge(22000L, 5000L, 60009L, 80),
+						new Charge(22001L, 5000L, 60009L, 80),
+						new Charge(22002L, 5001L, 90050L, 470),
+						new Charge(22003L, 5009L, 10001L, 10)));
+
+		// Act
+		medicalClaimsValidatorService.validateMedicalClaims(rawMedicalClaimsData);
+
+		// Assert
+		assertEquals(2.0, ruleHitCount(meterRegistry, "procedure-6-not-office"),
+							"Expected both office charges with a 6 code to be counted.");
+		assertEquals(1.0, ruleHitCount(meterRegistry, "procedure-9-office-only"),
+							"Expected the home charge with a 9 code to be counted.");
+		assertEquals(1.0, ruleHitCount(meterRegistry, "duplicate-procedure"),
+							"Expected the duplicate procedure to be counted.");
+		assertEquals(1.0, ruleHitCount(meterRegistry, "orphan-charge"),
+							"Expected the orphan charge to be counted.");
+
+		assertEquals(1L, stageCount(meterRegistry, "index"), "Expected the index stage to be timed once.");
+		assertEquals(1L, stageCount(meterRegistry, "assembly"), "Expected the assembly stage to be timed once.");
+
+		boolean isStreamsEngine = (validationEngine == ValidationEngine.STREAMS);
+		assertEquals(isStreamsEngine ? 1L : 0L, stageCount(meterRegistry, "rules"),
+							"Expected separate rules timing only for the STREAMS engine.");
+		assertEquals(isStreamsEngine ? 0L : 1L, stageCount(meterRegistry, "evaluation"),
+							"Expected combined evaluation timing only for the claim-grouped engines.");
+
+		assertEquals(4.0, meterRegistry.get("claims.validation.batch.charges").summary().totalAmount(),
+							"Expected the batch's charges to be recorded.");
+		assertNull(meterRegistry.find("claims.validation.rule.hits").tag("rule", "procedure-99129-under-18")
+							.counter(), "Expected no counter for a rule that was not violated.");
+	}
+
+	private static double ruleHitCount(MeterRegistry meterRegistry, String ruleId) {
+		return meterRegistry.get("claims.validation.rule.hits").tag("rule", ruleId).counter().count();
+	}
+
+	private static long stageCount(MeterRegistry meterRegistry, String stage) {
+		Timer stageTimer = meterRegistry.get("claims.validation.stage").tag("stage", stage).timer();
+
+		return stageTimer.count();
+	}
+}
@@ -0,0 +1,100 @@
+package com.craighdav.medical_claims_validator.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import com.craighdav.medical_claims_validator.generator.ClaimsDatasetGenerator;
+import com.craighdav.medical_claims_validator.generator.ClaimsDatasetOptions;
+import com.craighdav.medical_claims_validator.service.MedicalClaimsValidatorService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+public class ProcessedMedicalClaimsDataSerializerTest {
+
+	private final Clock clock;
+	private final ObjectMapper objectMapper;
+
+	public ProcessedMedicalClaimsDataSerializerTest() {
+		Instant fixedTestingInstant = Instant.parse("2025-07-05T12:00:00Z");
+		ZoneId zoneId = ZoneId.of("UTC");
+		clock = Clock.fixed(fixedTestingInstant, zoneId);
+
+		objectMapper = JsonMapper.builder().findAndAddModules().build();
+	}
+
+
+	@ParameterizedTest
+	@EnumSource(IssueFormat.class)
+	@DisplayName("Validation results should be written byte for byte as their getters serialize")
+	public void serialize_GeneratedBatch_SameBytesAsGetters(IssueFormat issueFormat) throws JsonProcessingException {
+
+		// Arrange
+		ClaimsDatasetOptions claimsDatasetOptions = new ClaimsDatasetOptions();
+		claimsDatasetOptions.setSeed(20250705L);
+		claimsDatasetOptions.setReferenceDate(LocalDate.now(clock));
+		claimsDatasetOptions.setClaimCount(5_000);
+		claimsDatasetOptions.setPatientCount(1_250);
+		claimsDatasetOptions.setProcedureCode9Share(0.1);
+		claimsDatasetOptions.setProcedureCode6Share(0.1);
+		claimsDatasetOptions.setDuplicateRate(0.05);
+		claimsDatasetOptions.setOrphanRate(0.01);
+
+		RawMedicalClaimsData rawMedicalClaimsData
+					= new ClaimsDatasetGenerator(claimsDatasetOptions).generateRawMedicalClaimsData();
+		ProcessedMedicalClaimsData processedMedicalClaimsData = new MedicalClaimsValidatorService(clock)
+					.validateMedicalClaims(rawMedicalClaimsData).withIssueFormat(issueFormat);
+
+		// Claim IDs far apart, so that their order depends on the size of the hash table
+		Map<Long, List<ClaimIssue>> spreadInvalidClaimIssueMap = new LinkedHashMap<>();
+		Set<Long> spreadValidClaimIdSet = new HashSet<>();
+		for (long claimIndex = 1; claimIndex <= 700; claimIndex++) {
+			spreadValidClaimIdSet.add(claimIndex * 7_919L);
+			spreadInvalidClaimIssueMap.put(claimIndex * 1_000_003L,
+							processedMedicalClaimsData.getInvalidClaimIssueMap().values().iterator().next());
+		}
+		ProcessedMedicalClaimsData spreadProcessedMedicalClaimsData = new ProcessedMedicalClaimsData(
+					spreadValidClaimIdSet, spreadInvalidClaimIssueMap, "1").withIssueFormat(issueFormat);
+
+		// Act
+		String json = objectMapper.writeValueAsString(processedMedicalClaimsData);
+		String spreadJson = objectMapper.writeValueAsString(spreadProcessedMedicalClaimsData);
+		String incrementalJson = objectMapper.writeValueAsString(
+					new IncrementalValidationResult(processedMedicalClaimsData, Set.of(9001L)));
+
+		// Assert
+		Map<String, Object> incrementalJsonMapExpected = serializeGetters(processedMedicalClaimsData);
+		incrementalJsonMapExpected.put("unknownClaimIds", Set.of(9001L));
+
+		assertEquals(objectMapper.writeValueAsString(serializeGetters(processedMedicalClaimsData)), json,
+							"Expected JSON does not match returned JSON.");
+		assertEquals(objectMapper.writeValueAsString(serializeGetters(spreadProcessedMedicalClaimsData)), spreadJson,
+							"Expected JSON does not match returned JSON for spread claim IDs.");
+		assertEquals(objectMapper.writeValueAsString(incrementalJsonMapExpected), incrementalJson,
+							"Expected JSON does not match returned JSON of an incremental result.");
+	}
+
+	/*
+	 * The fields ProcessedMedicalClaimsData was serialized from before it had a serializer
+	 */
+	private static Map<String, Object> serializeGetters(ProcessedMedicalClaimsData processedMedicalClaimsData) {
+		Map<String, Object> jsonMap = new LinkedHashMap<>();
+		jsonMap.put("validClaimIds", processedMedicalClaimsData.getValidClaimIdSet());
+		jsonMap.put("invalidClaimIds", processedMedicalClaimsData.getInvalidClaimIds());
+
+		return jsonMap;
+	}
+}
@@ -0,0 +1,144 @@
+package com.craighdav.medical_claims_validator.registry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.craighdav.medical_claims_validator.config.MedicalClaimsValidatorProperties;
+import com.craighdav.medical_claims_validator.model.Charge;
+import com.craighdav.medical_claims_validator.model.Claim;
+import com.craighdav.medical_claims_validator.model.Patient;
+import com.craighdav.medical_claims_validator.model.ProcessedMedicalClaimsData;
+import com.craighdav.medical_claims_validator.model.RawMedicalClaimsData;
+import com.craighdav.medical_claims_validator.rules.RuleSetRepository;
+import com.craighdav.medical_claims_validator.service.MedicalClaimsValidatorService;
+
+public class PatientRegistryTest {
+
+	@TempDir
+	private Path temporaryDirectory;
+
+
+	@Test
+	@DisplayName("Upserted patients should survive a reopen, with the latest version winning and a torn record dropped")
+	public void findPatient_Reopened_LatestUpsertReturned() throws IOException {
+
+		// Arrange
+		Path registryPath = temporaryDirectory.resolve("patients.log");
+
+		PatientRegistry patientRegistry = new PatientRegistry(registryPath, 1);
+		patientRegistry.upsert(List.of(new Patient(1101L, "Bill", "Smith", LocalDate.of(1960, 2, 10)),
+										new Patient(1102L, "Deepak", "Gupta", LocalDate.of(1989, 9, 24))));
+		patientRegistry.upsert(List.of(new Patient(1101L, "William", "Smith", LocalDate.of(1960, 2, 11))));
+		patientRegistry.close();
+
+		// A record cut short, as by a crash during an append
+		Files.write(registryPath, new byte[] { 0, 0, 0, 40, 0, 0 }, StandardOpenOption.APPEND);
+
+		// Act
+		PatientRegistry reopenedPatientRegistry = new PatientRegistry(registryPath, 1);
+		Patient patient = reopenedPatientRegistry.findPatient(1101L);
+		Patient otherPatient = reopenedPatientRegistry.findPatient(1102L);
+		Patient cachedPatient = reopenedPatientRegistry.findPatient(1102L);
+		Patient missingPatient = reopenedPatientRegistry.findPatient(1103L);
+		reopenedPatientRegistry.upsert(List.of(new Patient(1103L, "Ana", "Lopez", LocalDate.of(2001, 1, 5))));
+		reopenedPatientRegistry.close();
+
+		// Assert
+		assertEquals(new Patient(1101L, "William", "Smith", LocalDate.of(1960, 2, 11)), patient,
+							"Expected the latest upsert of the patient.");
+		assertEquals(new Patient(1102L, "Deepak", "Gupta", LocalDate.of(1989, 9, 24)), otherPatient,
+							"Expected the registered patient.");
+		assertEquals(otherPatient, cachedPatient, "Expected the cached patient.");
+		assertNull(missingPatient, "Expected no patient for an unregistered ID.");
+
+		PatientRegistry appendedPatientRegistry = new PatientRegistry(registryPath, 1);
+		assertEquals("Ana", appendedPatientRegistry.findPatient(1103L).getFirstName(),
+							"Expected the patient appended after the torn record was truncated.");
+		appendedPatientRegistry.close();
+	}
+
+	@Test
+	@DisplayName("A batch that cannot be written whole should leave none of its patients registered")
+	public void upsert_UnwritablePatientInBatch_NoPatientOfBatchRegistered() throws IOException {
+
+		// Arrange
+		Path registryPath = temporaryDirectory.resolve("patients.log");
+		String oversizedName = "x".repeat(Short.MAX_VALUE + 1);
+
+		PatientRegistry patientRegistry = new PatientRegistry(registryPath, 1);
+		patientRegistry.upsert(List.of(new Patient(1101L, "Bill", "Smith", LocalDate.of(1960, 2, 10))));
+		long registrySizeExpected = Files.size(registryPath);
+
+		// Act
+		assertThrows(IllegalArgumentException.class, () -> patientRegistry.upsert(
+							List.of(new Patient(1102L, "Deepak", "Gupta", LocalDate.of(1989, 9, 24)),
+									new Patient(1103L, oversizedName, "Lopez", LocalDate.of(2001, 1, 5)))));
+		Patient unwrittenPatient = patientRegistry.findPatient(1102L);
+		long registrySize = Files.size(registryPath);
+		patientRegistry.upsert(List.of(new Patient(1104L, "Ana", "Lopez", LocalDate.of(2001, 1, 5))));
+		patientRegistry.close();
+
+		// Assert
+		assertNull(unwrittenPatient, "Expected no patient of the failed batch to be registered.");
+		assertEquals(registrySizeExpected, registrySize, "Expected no record of the failed batch in the file.");
+
+		PatientRegistry reopenedPatientRegistry = new PatientRegistry(registryPath, 1);
+		assertNull(reopenedPatientRegistry.findPatient(1102L), "Expected the failed batch to stay unregistered.");
+		assertEquals("Ana", reopenedPatientRegistry.findPatient(1104L).getFirstName(),
+							"Expected the batch written after the failed one.");
+		reopenedPatientRegistry.close();
+	}
+
+	@Test
+	@DisplayName("Claims whose patient a request omits should be validated against the registered patient")
+	public void validateMedicalClaims_PatientsOmitted_RegisteredPatientUsed() {
+
+		// Arrange
+		Clock clock = Clock.fixed(Instant.parse("2025-07-05T12:00:00Z"), ZoneId.of("UTC"));
+		MedicalClaimsValidatorProperties medicalClaimsValidatorProperties = new MedicalClaimsValidatorProperties();
+
+		PatientRegistry patientRegistry = new PatientRegistry(temporaryDirectory.resolve("patients.log"), 100);
+		patientRegistry.upsert(List.of(new Patient(1101L, "Bill", "Smith", LocalDate.of(1960, 2, 10))));
+
+		MedicalClaimsValidatorService medicalClaimsValidatorService = new MedicalClaimsValidatorService(
+					clock, medicalClaimsValidatorProperties,
+					new RuleSetRepository(medicalClaimsValidatorProperties.getRulesLocation()), patientRegistry);
+
+		List<Claim> claimList = List.of(new Claim(5000L, 1101L, LocalDate.of(2025, 5, 16), "office"),
+										new Claim(5001L, 1102L, LocalDate.of(2025, 5, 16), "office"));
+		List<Charge> chargeList = List.of(new Charge(22000L, 5000L, 99396L, 470),
+											new Charge(22001L, 5001L, 50035L, 470));
+
+		RawMedicalClaimsData rawMedicalClaimsData = new RawMedicalClaimsData(null, claimList, chargeList);
+
+		// Act
+		ProcessedMedicalClaimsData processedMedicalClaimsData
+					= medicalClaimsValidatorService.validateMedicalClaims(rawMedicalClaimsData);
+		patientRegistry.close();
+
+		// Assert
+		// Patient 1101, resolved from the registry, is 65: outside the 18 to 39 age range of procedure 99396
+		assertEquals(Set.of(5001L), processedMedicalClaimsData.getValidClaimIdSet(),
+							"Expected set of valid Claim Ids does not match returned set.");
+		assertEquals(Map.of(5000L, Set.of("Charge: 22000 has procedure code 99396 with patientAge: 65.")),
+							processedMedicalClaimsData.getInvalidClaimWithIssuesMap(),
+							"Expected set of invalid Claim Ids does not match returned set.");
+	}
+}
@@ -0,0 +1,202 @@
+package com.craighdav.medical_claims_validator.rules;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.craighdav.medical_claims_validator.config.MedicalClaimsValidatorProperties;
+import com.craighdav.medical_claims_validator.metrics.ValidationMetrics;
+import com.craighdav.medical_claims_validator.model.Charge;
+import com.craighdav.medical_claims_validator.model.Claim;
+import com.craighdav.medical_claims_validator.model.ClaimIssue;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class RuleSetRepositoryTest {
+
+	private static final Claim OFFICE_CLAIM = new Claim(5000L, 1101L, LocalDate.of(2025, 5, 16), "office");
+	private static final Charge CHARGE = new Charge(22000L, 5000L, 50035L, 362);
+
+	@TempDir
+	private Path temporaryDirectory;
+
+
+	@Test
+	@DisplayName("A changed rule set file should be published while earlier snapshots keep their rules")
+	public void getRuleSet_FileChanged_NewRuleSetPublished() throws Exception {
+
+		// Arrange
+		Path ruleSetPath = temporaryDirectory.resolve("rules.json");
+		writeRuleSet(ruleSetPath, "{\"rules\": []}");
+
+		RuleSetRepository ruleSetRepository = createWatchingRepository(ruleSetPath);
+		RuleSet ruleSetSnapshot = ruleSetRepository.getRuleSet();
+
+		// Act
+		ruleSetRepository.start();
+		try {
+			writeRuleSet(ruleSetPath, "{\"rules\": [{\"id\": \"procedure-5-office\", "
+								+ "\"procedureCodePrefix\": \"5\", \"placeOfServiceEquals\": \"office\", "
+								+ "\"message\": \"Charge: {chargeId} is not billable at {placeOfService}.\"}]}");
+
+			long deadline = System.nanoTime() + 10_000_000_000L;
+			while ((ruleSetRepository.getRuleSet() == ruleSetSnapshot) && (System.nanoTime() < deadline)) {
+				Thread.sleep(20);
+			}
+		} finally {
+			ruleSetRepository.stop();
+		}
+
+		// Assert
+		RuleSet reloadedRuleSet = ruleSetRepository.getRuleSet();
+
+		assertNotEquals(ruleSetSnapshot.getVersion(), reloadedRuleSet.getVersion(),
+							"Expected a new rule set version after the file changed.");
+		assertEquals("Charge: 22000 is not billable at office.",
+							evaluate(reloadedRuleSet, CHARGE, OFFICE_CLAIM, 40),
+							"Expected issue of the reloaded rule set does not match returned issue.");
+		assertNull(evaluate(ruleSetSnapshot, CHARGE, OFFICE_CLAIM, 40),
+							"Expected the earlier snapshot to keep its rules.");
+	}
+
+	@Test
+	@DisplayName("A rule set file behind a swapped symlink, as in a ConfigMap mount, should be reloaded")
+	public void getRuleSet_SymlinkedDirectorySwapped_NewRuleSetPublished() throws Exception {
+
+		// Arrange: rules.json -> ..data/rules.json, ..data -> ..2025_07_05_1, as mounted by Kubernetes
+		Path firstDataDirectory = Files.createDirectory(temporaryDirectory.resolve("..2025_07_05_1"));
+		Files.writeString(firstDataDirectory.resolve("rules.json"), "{\"rules\": []}", StandardCharsets.UTF_8);
+		Files.createSymbolicLink(temporaryDirectory.resolve("..data"), firstDataDirectory.getFileName());
+
+		Path ruleSetPath = temporaryDirectory.resolve("rules.json");
+		Files.createSymbolicLink(ruleSetPath, Path.of("..data", "rules.json"));
+
+		RuleSetRepository ruleSetRepository = createWatchingRepository(ruleSetPath);
+		RuleSet ruleSetSnapshot = ruleSetRepository.getRuleSet();
+
+		// Act
+		ruleSetRepository.start();
+		try {
+			Path secondDataDirectory = Files.createDirectory(temporaryDirectory.resolve("..2025_07_05_2"));
+			Files.writeString(secondDataDirectory.resolve("rules.json"), "{\"rules\": [{\"id\": \"procedure-5-office\", "
+								+ "\"procedureCodePrefix\": \"5\", \"placeOfServiceEquals\": \"office\", "
+								+ "\"message\": \"Charge: {chargeId} is not billable at {placeOfService}.\"}]}",
+								StandardCharsets.UTF_8);
+
+			// The new symlink is created under a temporary name and renamed over ..data
+			Path temporaryLinkPath = temporaryDirectory.resolve("..data_tmp");
+			Files.createSymbolicLink(temporaryLinkPath, secondDataDirectory.getFileName());
+			Files.move(temporaryLinkPath, temporaryDirectory.resolve("..data"), StandardCopyOption.REPLACE_EXISTING,
+						StandardCopyOption.ATOMIC_MOVE);
+
+			long deadline = System.nanoTime() + 10_000_000_000L;
+			while ((ruleSetRepository.getRuleSet() == ruleSetSnapshot) && (System.nanoTime() < deadline)) {
+				Thread.sleep(20);
+			}
+		} finally {
+			ruleSetRepository.stop();
+		}
+
+		// Assert
+		assertEquals("Charge: 22000 is not billable at office.",
+							evaluate(ruleSetRepository.getRuleSet(), CHARGE, OFFICE_CLAIM, 40),
+							"Expected issue of the reloaded rule set does not match returned issue.");
+	}
+
+	@Test
+	@DisplayName("An invalid or unchanged rule set file should keep the current rule set")
+	public void reload_InvalidOrUnchangedFile_CurrentRuleSetKept() throws IOException {
+
+		// Arrange
+		Path ruleSetPath = temporaryDirectory.resolve("rules.json");
+		writeRuleSet(ruleSetPath, "{\"rules\": []}");
+
+		RuleSetRepository ruleSetRepository = new RuleSetRepository(ruleSetPath.toUri().toString());
+		RuleSet ruleSet = ruleSetRepository.getRuleSet();
+
+		// Act
+		boolean isReloadedUnchanged = ruleSetRepository.reload();
+
+		writeRuleSet(ruleSetPath, "{\"rules\": [{\"id\": \"no-code\", \"message\": \"Message.\"}]}");
+		boolean isReloadedInvalid = ruleSetRepository.reload();
+
+		writeRuleSet(ruleSetPath, "{\"rules\": [");
+		boolean isReloadedMalformed = ruleSetRepository.reload();
+
+		// Assert
+		assertFalse(isReloadedUnchanged, "Expected an unchanged file not to be published.");
+		assertFalse(isReloadedInvalid, "Expected an invalid rule set not to be published.");
+		assertFalse(isReloadedMalformed, "Expected a malformed file not to be published.");
+		assertSame(ruleSet, ruleSetRepository.getRuleSet(), "Expected the current rule set to be kept.");
+	}
+
+	@Test
+	@DisplayName("The rule set info gauge should name the version of the rule set published last")
+	public void reload_FileChanged_RuleSetInfoGaugeUpdated() throws IOException {
+
+		// Arrange
+		Path ruleSetPath = temporaryDirectory.resolve("rules.json");
+		writeRuleSet(ruleSetPath, "{\"rules\": []}");
+
+		MeterRegistry meterRegistry = new SimpleMeterRegistry();
+		MedicalClaimsValidatorProperties medicalClaimsValidatorProperties = new MedicalClaimsValidatorProperties();
+		medicalClaimsValidatorProperties.setRulesLocation(ruleSetPath.toUri().toString());
+
+		RuleSetRepository ruleSetRepository = new RuleSetRepository(medicalClaimsValidatorProperties,
+														new ValidationMetrics(meterRegistry));
+		String initialVersion = ruleSetRepository.getRuleSet().getVersion();
+
+		// Act
+		writeRuleSet(ruleSetPath, "{\"rules\": [{\"id\": \"procedure-5-office\", "
+							+ "\"procedureCodePrefix\": \"5\", \"placeOfServiceEquals\": \"office\", "
+							+ "\"message\": \"Charge: {chargeId} is not billable at {placeOfService}.\"}]}");
+		ruleSetRepository.reload();
+
+		// Assert
+		String reloadedVersion = ruleSetRepository.getRuleSet().getVersion();
+
+		assertEquals(1.0, meterRegistry.get("claims.validation.rule.set.info").tag("version", reloadedVersion)
+							.gauge().value(), "Expected the gauge of the reloaded rule set version.");
+		assertNull(meterRegistry.find("claims.validation.rule.set.info").tag("version", initialVersion).gauge(),
+							"Expected the gauge of the replaced rule set version to be removed.");
+	}
+
+	private String evaluate(RuleSet ruleSet, Charge charge, Claim claim, int patientAge) {
+		ClaimIssue claimIssue = ruleSet.evaluate(charge, claim, patientAge);
+
+		return (claimIssue == null) ? null : claimIssue.renderMessage();
+	}
+
+	private RuleSetRepository createWatchingRepository(Path ruleSetPath) {
+		MedicalClaimsValidatorProperties medicalClaimsValidatorProperties
+												= new MedicalClaimsValidatorProperties();
+		medicalClaimsValidatorProperties.setRulesLocation(ruleSetPath.toUri().toString());
+		medicalClaimsValidatorProperties.setRulesReloadEnabled(true);
+
+		return new RuleSetRepository(medicalClaimsValidatorProperties);
+	}
+
+	/*
+	 * Write the file under a temporary name and move it into place, as a deployment would.
+	 */
+	private void writeRuleSet(Path ruleSetPath, String ruleSetJson) throws IOException {
+		Path temporaryPath = temporaryDirectory.resolve("rules.json.tmp");
+		Files.writeString(temporaryPath, ruleSetJson, StandardCharsets.UTF_8);
+		Files.move(temporaryPath, ruleSetPath, StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+	}
+}
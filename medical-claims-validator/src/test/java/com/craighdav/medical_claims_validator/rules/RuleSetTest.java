@@ -0,0 +1,132 @@
+package com.craighdav.medical_claims_validator.rules;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.craighdav.medical_claims_validator.model.Charge;
+import com.craighdav.medical_claims_validator.model.Claim;
+import com.craighdav.medical_claims_validator.model.ClaimIssue;
+import com.craighdav.medical_claims_validator.model.IssueCode;
+
+public class RuleSetTest {
+
+	private static final Claim OFFICE_CLAIM = new Claim(5000L, 1101L, LocalDate.of(2025, 5, 16), "office");
+	private static final Claim HOME_CLAIM = new Claim(5001L, 1101L, LocalDate.of(2025, 5, 16), "home");
+
+
+	@Test
+	@DisplayName("Default rules should combine all violated messages of a charge in declaration order")
+	public void evaluate_DefaultRules_MessagesCombinedInOrder() {
+
+		// Arrange
+		RuleSet ruleSet = RuleSet.load("classpath:rules/default-rules.json");
+		Charge charge = new Charge(22000L, 5001L, 99129L, 470);
+
+		// Act
+		String issueWithPatient = evaluate(ruleSet, charge, HOME_CLAIM, 65);
+		String issueWithoutPatient = evaluate(ruleSet, charge, HOME_CLAIM, RuleSet.NO_PATIENT_AGE);
+		String issueValid = evaluate(ruleSet, charge, OFFICE_CLAIM, 10);
+
+		// Assert
+		assertEquals("Charge: 22000 has procedure code starting with 9 for NOT 'office'. "
+							+ "Charge: 22000 has procedure code 99129 with patientAge: 65.",
+							issueWithPatient, "Expected issue does not match returned issue.");
+		assertEquals("Charge: 22000 has procedure code starting with 9 for NOT 'office'. "
+							+ "No matching patient found for claim: 5001.",
+							issueWithoutPatient, "Expected issue does not match returned issue.");
+		assertNull(issueValid, "Expected no issue for a valid charge.");
+	}
+
+	@Test
+	@DisplayName("A charge should receive the rules of its exact code and of every matching prefix")
+	public void evaluate_ExactAndPrefixRules_AllApplicableRulesEvaluated() {
+
+		// Arrange
+		List<RuleDefinition> ruleDefinitionList = new ArrayList<>();
+		ruleDefinitionList.add(createRule("digit-7", null, "7", "Digit {procedureCode}."));
+		ruleDefinitionList.add(createRule("prefix-712", null, "712", "Prefix {chargeId}."));
+		ruleDefinitionList.add(createRule("exact-71234", 71234L, null, "Exact {claimId}."));
+		ruleDefinitionList.add(createRule("prefix-71", null, "71", "At {placeOfService}."));
+
+		// Many unrelated payer edits must not change the result
+		for (long procedureCode = 10_000L; procedureCode < 12_000L; procedureCode++) {
+			ruleDefinitionList.add(createRule("edit-" + procedureCode, procedureCode, null, "Edit."));
+		}
+
+		RuleSet ruleSet = RuleSet.compile(ruleDefinitionList);
+
+		// Act & Assert
+		assertEquals("Digit 71234. Prefix 1. Exact 5000. At office.",
+							evaluate(ruleSet, new Charge(1L, 5000L, 71234L, 10), OFFICE_CLAIM, 40),
+							"Expected issue for exact code does not match returned issue.");
+		assertEquals("Digit 71299. Prefix 2. At office.",
+							evaluate(ruleSet, new Charge(2L, 5000L, 71299L, 10), OFFICE_CLAIM, 40),
+							"Expected issue for prefix 712 does not match returned issue.");
+		assertEquals("Digit 7.", evaluate(ruleSet, new Charge(3L, 5000L, 7L, 10), OFFICE_CLAIM, 40),
+							"Expected issue for a single digit code does not match returned issue.");
+		assertEquals("Edit.", evaluate(ruleSet, new Charge(4L, 5000L, 11_999L, 10), OFFICE_CLAIM, 40),
+							"Expected issue for an exact payer edit does not match returned issue.");
+		assertNull(evaluate(ruleSet, new Charge(5L, 5000L, 81234L, 10), OFFICE_CLAIM, 40),
+							"Expected no issue for a code without rules.");
+	}
+
+	@Test
+	@DisplayName("Issue codes should name every violated rule with its charge and, for age rules, the age")
+	public void evaluate_DefaultRules_IssueCodesPerViolatedRule() {
+
+		// Arrange
+		RuleSet ruleSet = RuleSet.load("classpath:rules/default-rules.json");
+		Charge charge = new Charge(22000L, 5001L, 99129L, 470);
+
+		List<IssueCode> issueCodeListExpected = List.of(
+							new IssueCode("procedure-9-office-only", 22000L, null),
+							new IssueCode("procedure-99129-under-18", 22000L, 65));
+
+		// Act
+		List<IssueCode> issueCodeList = new ArrayList<>();
+		ruleSet.evaluate(charge, HOME_CLAIM, 65).addIssueCodes(issueCodeList);
+
+		// Assert
+		assertEquals(issueCodeListExpected, issueCodeList,
+							"Expected issue codes do not match returned issue codes.");
+	}
+
+	@Test
+	@DisplayName("Invalid rule definitions should be rejected when compiled")
+	public void compile_InvalidDefinitions_Rejected() {
+
+		// Arrange
+		List<List<RuleDefinition>> invalidRuleSetList = List.of(
+				List.of(createRule("no-code", null, null, "Message.")),
+				List.of(createRule("both-codes", 99129L, "9", "Message.")),
+				List.of(createRule("leading-zero", null, "09", "Message.")),
+				List.of(createRule("unknown-placeholder", 99129L, null, "Charge {amount}.")),
+				List.of(createRule("age-without-range", 99129L, null, "Age {patientAge}.")),
+				List.of(createRule("duplicate", 99129L, null, "A."), createRule("duplicate", 99396L, null, "B.")));
+
+		// Act & Assert
+		for (List<RuleDefinition> invalidRuleSet : invalidRuleSetList) {
+			assertThrows(IllegalArgumentException.class, () -> RuleSet.compile(invalidRuleSet),
+							"Expected rule set " + invalidRuleSet.get(0).getId() + " to be rejected.");
+		}
+	}
+
+	private String evaluate(RuleSet ruleSet, Charge charge, Claim claim, int patientAge) {
+		ClaimIssue claimIssue = ruleSet.evaluate(charge, claim, patientAge);
+
+		return (claimIssue == null) ? null : claimIssue.renderMessage();
+	}
+
+	private RuleDefinition createRule(String id, Long procedureCode, String procedureCodePrefix,
+										String message) {
+		return new RuleDefinition(id, procedureCode, procedureCodePrefix, null, null, false, null, null, message);
+	}
+}
@@ -0,0 +1,67 @@
+package com.craighdav.medical_claims_validator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.craighdav.util.LongHashSet;
+
+public class DuplicateProcedureDetectorTest {
+
+	@TempDir
+	private Path temporaryDirectory;
+
+
+	@ParameterizedTest
+	@ValueSource(ints = {1_000_000, 10_000, 7})
+	@DisplayName("Duplicates should be found alike in memory and when merged from run files, which are deleted")
+	public void findDuplicateClaimIds_InMemoryOrRuns_SameClaimsFound(int maxInMemoryCharges) throws IOException {
+		
+		// Arrange
+		// Few procedure codes per claim, so that many claims repeat one; some pairs are too large to pack
+		Random random = new Random(20250705L);
+		Map<Long, Set<Long>> procedureCodeSetMap = new HashMap<>();
+		Set<Long> duplicateClaimIdSetExpected = new HashSet<>();
+		
+		DuplicateProcedureDetector duplicateProcedureDetector 
+					= new DuplicateProcedureDetector(0, maxInMemoryCharges, temporaryDirectory);
+		
+		// Act
+		for (int chargeIndex = 0; chargeIndex < 50_000; chargeIndex++) {
+			long claimId = (chargeIndex % 1_000 == 0) ? (1L << 50) + random.nextInt(10) : 1 + random.nextInt(20_000);
+			long procedureCode = (chargeIndex % 997 == 0) ? (1L << 30) : 90_000 + random.nextInt(8);
+			
+			if (!procedureCodeSetMap.computeIfAbsent(claimId, key -> new HashSet<>()).add(procedureCode)) {
+				duplicateClaimIdSetExpected.add(claimId);
+			}
+			
+			duplicateProcedureDetector.add(claimId, procedureCode);
+		}
+		
+		LongHashSet duplicateClaimIdSet = duplicateProcedureDetector.findDuplicateClaimIds();
+		duplicateProcedureDetector.close();
+		
+		// Assert
+		Set<Long> duplicateClaimIdSetReturned = new HashSet<>();
+		duplicateClaimIdSet.forEach(duplicateClaimIdSetReturned::add);
+		
+		assertEquals(duplicateClaimIdSetExpected, duplicateClaimIdSetReturned,
+							"Expected duplicate claim IDs do not match returned duplicate claim IDs.");
+		try (Stream<Path> runPaths = Files.list(temporaryDirectory)) {
+			assertEquals(0L, runPaths.count(), "Expected no run files to be left after close.");
+		}
+	}
+}
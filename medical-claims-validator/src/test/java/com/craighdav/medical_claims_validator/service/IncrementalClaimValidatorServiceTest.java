@@ -0,0 +1,176 @@
+package com.craighdav.medical_claims_validator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.craighdav.medical_claims_validator.config.MedicalClaimsValidatorProperties;
+import com.craighdav.medical_claims_validator.model.Charge;
+import com.craighdav.medical_claims_validator.model.Claim;
+import com.craighdav.medical_claims_validator.model.ClaimDeltaBatch;
+import com.craighdav.medical_claims_validator.model.IncrementalValidationResult;
+import com.craighdav.medical_claims_validator.model.Patient;
+import com.craighdav.medical_claims_validator.model.ProcessedMedicalClaimsData;
+import com.craighdav.medical_claims_validator.model.RawMedicalClaimsData;
+
+public class IncrementalClaimValidatorServiceTest {
+
+	private static final long[] PROCEDURE_CODES = { 99129L, 99396L, 90050L, 60009L, 50035L, 80640L };
+	private static final String[] PLACES_OF_SERVICE = { "office", "home" };
+
+	private final Clock clock;
+
+	public IncrementalClaimValidatorServiceTest() {
+		Instant fixedTestingInstant = Instant.parse("2025-07-05T12:00:00Z");
+		ZoneId zoneId = ZoneId.of("UTC");
+		clock = Clock.fixed(fixedTestingInstant, zoneId);
+	}
+
+
+	@ParameterizedTest
+	@ValueSource(longs = { 1L, 7L, 42L })
+	@DisplayName("Claims re-validated from their deltas should match a full validation of their current charges")
+	public void validateClaimDeltas_RandomDeltas_MatchesFullValidation(long seed) {
+
+		// Arrange
+		Random random = new Random(seed);
+		MedicalClaimsValidatorService medicalClaimsValidatorService = new MedicalClaimsValidatorService(clock);
+		IncrementalClaimValidatorService incrementalClaimValidatorService = new IncrementalClaimValidatorService(
+					clock, new MedicalClaimsValidatorProperties(), medicalClaimsValidatorService);
+
+		List<Patient> patientList = new ArrayList<>();
+		for (long patientId = 1; patientId <= 20; patientId++) {
+			LocalDate birthDate = LocalDate.of(1950, 1, 1).plusDays(random.nextInt(65 * 365));
+			patientList.add(new Patient(patientId, "First" + patientId, "Last" + patientId, birthDate));
+		}
+
+		List<Claim> claimList = new ArrayList<>();
+		for (long claimId = 1; claimId <= 50; claimId++) {
+			claimList.add(new Claim(claimId, 1 + random.nextInt(20), LocalDate.of(2025, 1, 15),
+									PLACES_OF_SERVICE[random.nextInt(PLACES_OF_SERVICE.length)]));
+		}
+
+		incrementalClaimValidatorService.validateClaimDeltas(new ClaimDeltaBatch(patientList, claimList, null, null));
+
+		Map<Long, Charge> currentChargeMap = new HashMap<>();
+		long nextChargeId = 1;
+
+		for (int round = 0; round < 20; round++) {
+			List<Charge> addedChargeList = new ArrayList<>();
+			Map<Long, List<Long>> removedChargeIdMap = new HashMap<>();
+
+			// Removals are applied before additions, so only charges sent in earlier rounds are removed
+			List<Charge> removableChargeList = new ArrayList<>(currentChargeMap.values());
+
+			for (int change = 0; change < 30; change++) {
+				if (!removableChargeList.isEmpty() && (random.nextInt(3) == 0)) {
+					Charge removedCharge = removableChargeList.remove(random.nextInt(removableChargeList.size()));
+					currentChargeMap.remove(removedCharge.getId());
+					removedChargeIdMap.computeIfAbsent(removedCharge.getClaimId(), claimId -> new ArrayList<>())
+										.add(removedCharge.getId());
+				} else {
+					Charge addedCharge = new Charge(nextChargeId++, 1 + random.nextInt(50),
+										PROCEDURE_CODES[random.nextInt(PROCEDURE_CODES.length)], 100);
+					currentChargeMap.put(addedCharge.getId(), addedCharge);
+					addedChargeList.add(addedCharge);
+				}
+			}
+
+			// Act
+			IncrementalValidationResult incrementalValidationResult = incrementalClaimValidatorService
+					.validateClaimDeltas(new ClaimDeltaBatch(null, null, addedChargeList, removedChargeIdMap));
+
+			// Assert
+			List<Charge> currentChargeList = new ArrayList<>(currentChargeMap.values());
+			currentChargeList.sort((leftCharge, rightCharge) -> Long.compare(leftCharge.getId(), rightCharge.getId()));
+
+			ProcessedMedicalClaimsData processedMedicalClaimsDataExpected = medicalClaimsValidatorService
+					.validateMedicalClaims(new RawMedicalClaimsData(patientList, claimList, currentChargeList));
+			ProcessedMedicalClaimsData processedMedicalClaimsData
+					= incrementalValidationResult.getProcessedMedicalClaimsData();
+
+			processedMedicalClaimsData.getValidClaimIdSet().forEach(claimId ->
+					assertEquals(true, processedMedicalClaimsDataExpected.getValidClaimIdSet().contains(claimId),
+									"Expected claim " + claimId + " to be valid."));
+			processedMedicalClaimsData.getInvalidClaimWithIssuesMap().forEach((claimId, issueSet) ->
+					assertEquals(processedMedicalClaimsDataExpected.getInvalidClaimWithIssuesMap().get(claimId),
+									issueSet, "Expected issues of claim " + claimId + " do not match returned issues."));
+			assertEquals(Set.of(), incrementalValidationResult.getUnknownClaimIdSet(),
+							"Expected every claim to be known.");
+		}
+	}
+
+	@Test
+	@DisplayName("Charges for a claim that was never sent or has been evicted should report the claim as unknown")
+	public void validateClaimDeltas_ClaimEvicted_Unknown() {
+
+		// Arrange
+		MedicalClaimsValidatorProperties medicalClaimsValidatorProperties = new MedicalClaimsValidatorProperties();
+		medicalClaimsValidatorProperties.setIncrementalMaxClaims(1);
+
+		IncrementalClaimValidatorService incrementalClaimValidatorService = new IncrementalClaimValidatorService(
+					clock, medicalClaimsValidatorProperties, new MedicalClaimsValidatorService(clock));
+
+		List<Patient> patientList = List.of(new Patient(1101L, "Bill", "Smith", LocalDate.of(1960, 2, 10)));
+		incrementalClaimValidatorService.validateClaimDeltas(new ClaimDeltaBatch(patientList,
+					List.of(new Claim(5000L, 1101L, LocalDate.of(2025, 5, 16), "office")), null, null));
+		incrementalClaimValidatorService.validateClaimDeltas(new ClaimDeltaBatch(patientList,
+					List.of(new Claim(5001L, 1101L, LocalDate.of(2025, 5, 16), "office")), null, null));
+
+		List<Charge> addedChargeList = List.of(new Charge(22000L, 5000L, 90050L, 470),
+												new Charge(22001L, 5001L, 90050L, 470),
+												new Charge(22002L, 5001L, 90050L, 470),
+												new Charge(22003L, 5002L, 90050L, 470));
+
+		// Act
+		IncrementalValidationResult incrementalValidationResult = incrementalClaimValidatorService
+					.validateClaimDeltas(new ClaimDeltaBatch(null, null, addedChargeList, null));
+
+		// Assert
+		assertEquals(Set.of(5000L, 5002L), incrementalValidationResult.getUnknownClaimIdSet(),
+							"Expected the evicted and the never sent claim to be unknown.");
+		assertEquals(Map.of(5001L, Set.of("Claim has duplicate charges for at least one procedure.")),
+							incrementalValidationResult.getProcessedMedicalClaimsData().getInvalidClaimWithIssuesMap(),
+							"Expected set of invalid Claim Ids does not match returned set.");
+	}
+
+	@Test
+	@DisplayName("A corrected claim header sent without its unchanged patient should keep the patient of the claim")
+	public void validateClaimDeltas_HeaderCorrectedWithoutPatient_PatientKept() {
+
+		// Arrange
+		IncrementalClaimValidatorService incrementalClaimValidatorService = new IncrementalClaimValidatorService(
+					clock, new MedicalClaimsValidatorProperties(), new MedicalClaimsValidatorService(clock));
+
+		incrementalClaimValidatorService.validateClaimDeltas(new ClaimDeltaBatch(
+					List.of(new Patient(1101L, "Bill", "Smith", LocalDate.of(1960, 2, 10))),
+					List.of(new Claim(5000L, 1101L, LocalDate.of(2025, 5, 16), "office")),
+					List.of(new Charge(22000L, 5000L, 90050L, 470)), null));
+
+		// Act
+		// A 9xxxx charge requires a matching patient
+		IncrementalValidationResult incrementalValidationResult = incrementalClaimValidatorService
+					.validateClaimDeltas(new ClaimDeltaBatch(null,
+							List.of(new Claim(5000L, 1101L, LocalDate.of(2025, 5, 17), "office")), null, null));
+
+		// Assert
+		assertEquals(Set.of(5000L), incrementalValidationResult.getProcessedMedicalClaimsData().getValidClaimIdSet(),
+							"Expected the corrected claim to remain valid with its known patient.");
+		assertEquals(Map.of(), incrementalValidationResult.getProcessedMedicalClaimsData().getInvalidClaimWithIssuesMap(),
+							"Expected set of invalid Claim Ids does not match returned set.");
+	}
+}
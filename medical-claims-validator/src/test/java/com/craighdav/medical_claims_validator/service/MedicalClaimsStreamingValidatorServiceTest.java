@@ -0,0 +1,199 @@
+package com.craighdav.medical_claims_validator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.craighdav.medical_claims_validator.config.MedicalClaimsValidatorProperties;
+import com.craighdav.medical_claims_validator.constraints.ModelConstraintChecker;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+
+public class MedicalClaimsStreamingValidatorServiceTest {
+
+	private final ObjectMapper objectMapper;
+	private final MedicalClaimsValidatorService medicalClaimsValidatorService;
+	private final MedicalClaimsStreamingValidatorService medicalClaimsStreamingValidatorService;
+
+	public MedicalClaimsStreamingValidatorServiceTest() {
+		Instant fixedTestingInstant = Instant.parse("2025-07-05T12:00:00Z");
+		ZoneId zoneId = ZoneId.of("UTC");
+		Clock clock = Clock.fixed(fixedTestingInstant, zoneId);
+
+		objectMapper = JsonMapper.builder().findAndAddModules().build();
+		ValidatorFactory validatorFactory = Validation.buildDefaultValidatorFactory();
+
+		medicalClaimsValidatorService = new MedicalClaimsValidatorService(clock);
+		medicalClaimsStreamingValidatorService = new MedicalClaimsStreamingValidatorService(
+					medicalClaimsValidatorService, objectMapper, validatorFactory.getValidator());
+	}
+
+
+	@Test
+	@DisplayName("Each claim should be written as one result line in input order")
+	public void validateMedicalClaims_ClaimGroupedInput_OneLinePerClaim() throws IOException {
+
+		// Arrange
+		String ndjson = String.join("\n",
+				"{\"patient\": {\"id\": 1101, \"firstName\": \"Bill\", \"lastName\": \"Smith\", \"birthDate\": \"1960-02-10\"}}",
+				"{\"claim\": {\"id\": 5000, \"patientId\": 1101, \"serviceDate\": \"2025-05-16\", \"placeOfService\": \"office\"}}",
+				"{\"charge\": {\"id\": 22000, \"claimId\": 5000, \"procedureCode\": 90050, \"amount\": 470}}",
+				"{\"claim\": {\"id\": 5001, \"patientId\": 1101, \"serviceDate\": \"2025-06-12\", \"placeOfService\": \"office\"}}",
+				"{\"charge\": {\"id\": 22001, \"claimId\": 5001, \"procedureCode\": 60009, \"amount\": 587}}",
+				"{\"charge\": {\"id\": 22002, \"claimId\": 5001, \"procedureCode\": 60009, \"amount\": 587}}");
+
+		Map<Long, Set<String>> claimIssuesMapExpected = new LinkedHashMap<>();
+		claimIssuesMapExpected.put(5000L, Set.of());
+		claimIssuesMapExpected.put(5001L, Set.of(
+							"Charge: 22001 has procedure code starting with 6 for 'office'.",
+							"Charge: 22002 has procedure code starting with 6 for 'office'.",
+							"Claim has duplicate charges for at least one procedure."));
+
+		// Act
+		Map<Long, Set<String>> claimIssuesMap = validate(ndjson);
+
+		// Assert
+		assertEquals(List.copyOf(claimIssuesMapExpected.keySet()), List.copyOf(claimIssuesMap.keySet()),
+							"Expected order of claim results does not match returned order.");
+		assertEquals(claimIssuesMapExpected, claimIssuesMap,
+							"Expected claim issues do not match returned issues.");
+	}
+
+	@Test
+	@DisplayName("Charges without a matching claim should be reported as orphans at the end")
+	public void validateMedicalClaims_OrphanCharge_ReportedLast() throws IOException {
+
+		// Arrange
+		String ndjson = String.join("\n",
+				"{\"charge\": {\"id\": 22009, \"claimId\": 7777, \"procedureCode\": 50035, \"amount\": 362}}",
+				"{\"patient\": {\"id\": 1101, \"firstName\": \"Bill\", \"lastName\": \"Smith\", \"birthDate\": \"1960-02-10\"}}",
+				"{\"claim\": {\"id\": 5000, \"patientId\": 1101, \"serviceDate\": \"2025-05-16\", \"placeOfService\": \"office\"}}",
+				"{\"charge\": {\"id\": 22000, \"claimId\": 5000, \"procedureCode\": 99129, \"amount\": 470}}");
+
+		List<String> resultLinesExpected = List.of(
+				"{\"claimId\":5000,\"valid\":false,\"issues\":["
+						+ "\"Charge: 22000 has procedure code 99129 with patientAge: 65.\"]}",
+				"{\"claimId\":7777,\"valid\":false,\"issues\":["
+						+ "\"No matching claim found with claimId: 7777 for charge: 22009\"]}");
+
+		// Act
+		List<String> resultLines = validateToLines(ndjson);
+
+		// Assert
+		assertEquals(resultLinesExpected, resultLines,
+							"Expected result lines do not match returned lines.");
+	}
+
+	@Test
+	@DisplayName("Charges arriving before their claim should be adopted by that claim")
+	public void validateMedicalClaims_ChargeBeforeClaim_Adopted() throws IOException {
+
+		// Arrange
+		String ndjson = String.join("\n",
+				"{\"patient\": {\"id\": 1102, \"firstName\": \"Deepak\", \"lastName\": \"Gupta\", \"birthDate\": \"1989-09-24\"}}",
+				"{\"charge\": {\"id\": 22003, \"claimId\": 5002, \"procedureCode\": 92345, \"amount\": 287}}",
+				"{\"claim\": {\"id\": 5002, \"patientId\": 1102, \"serviceDate\": \"2025-05-23\", \"placeOfService\": \"home\"}}");
+
+		Map<Long, Set<String>> claimIssuesMapExpected = Map.of(5002L,
+							Set.of("Charge: 22003 has procedure code starting with 9 for NOT 'office'."));
+
+		// Act
+		Map<Long, Set<String>> claimIssuesMap = validate(ndjson);
+
+		// Assert
+		assertEquals(claimIssuesMapExpected, claimIssuesMap,
+							"Expected claim issues do not match returned issues.");
+	}
+
+	@Test
+	@DisplayName("A charge following its closed claim or a repeated claim or patient ID should fail the stream")
+	public void validateMedicalClaims_ChargeAfterClosedClaimOrDuplicateId_ThrowsJsonParseException() {
+
+		// Arrange
+		String lateChargeNdjson = String.join("\n",
+				"{\"claim\": {\"id\": 5000, \"patientId\": 1101, \"serviceDate\": \"2025-05-16\", \"placeOfService\": \"office\"}}",
+				"{\"claim\": {\"id\": 5001, \"patientId\": 1101, \"serviceDate\": \"2025-06-12\", \"placeOfService\": \"office\"}}",
+				"{\"charge\": {\"id\": 22000, \"claimId\": 5000, \"procedureCode\": 90050, \"amount\": 470}}");
+		String duplicateClaimNdjson = String.join("\n",
+				"{\"claim\": {\"id\": 5000, \"patientId\": 1101, \"serviceDate\": \"2025-05-16\", \"placeOfService\": \"office\"}}",
+				"{\"claim\": {\"id\": 5001, \"patientId\": 1101, \"serviceDate\": \"2025-06-12\", \"placeOfService\": \"office\"}}",
+				"{\"claim\": {\"id\": 5000, \"patientId\": 1101, \"serviceDate\": \"2025-05-16\", \"placeOfService\": \"office\"}}");
+		String duplicatePatientNdjson = String.join("\n",
+				"{\"patient\": {\"id\": 1101, \"firstName\": \"Bill\", \"lastName\": \"Smith\", \"birthDate\": \"1960-02-10\"}}",
+				"{\"patient\": {\"id\": 1101, \"firstName\": \"Bill\", \"lastName\": \"Smith\", \"birthDate\": \"2010-02-10\"}}",
+				"{\"claim\": {\"id\": 5000, \"patientId\": 1101, \"serviceDate\": \"2025-05-16\", \"placeOfService\": \"office\"}}");
+
+		// Act and Assert
+		assertThrows(JsonParseException.class, () -> validate(lateChargeNdjson),
+							"Expected a charge following its closed claim to be rejected.");
+		assertThrows(JsonParseException.class, () -> validate(duplicateClaimNdjson),
+							"Expected a repeated claim ID to be rejected.");
+		JsonParseException jsonParseException = assertThrows(JsonParseException.class,
+							() -> validate(duplicatePatientNdjson), "Expected a repeated patient ID to be rejected.");
+		assertEquals("Duplicate key 1101", jsonParseException.getOriginalMessage(),
+							"Expected the repeated patient ID to be reported as a duplicate key.");
+	}
+
+	@Test
+	@DisplayName("More charges ahead of their claims than the limit should fail the stream")
+	public void validateMedicalClaims_TooManyPendingCharges_ThrowsJsonParseException() {
+
+		// Arrange
+		MedicalClaimsStreamingValidatorService limitedStreamingValidatorService 
+					= new MedicalClaimsStreamingValidatorService(medicalClaimsValidatorService, objectMapper,
+									Validation.buildDefaultValidatorFactory().getValidator(),
+									new ModelConstraintChecker(new MedicalClaimsValidatorProperties()), 1);
+		String ndjson = String.join("\n",
+				"{\"charge\": {\"id\": 22000, \"claimId\": 5000, \"procedureCode\": 90050, \"amount\": 470}}",
+				"{\"charge\": {\"id\": 22001, \"claimId\": 5001, \"procedureCode\": 90050, \"amount\": 470}}");
+
+		// Act and Assert
+		assertThrows(JsonParseException.class, () -> limitedStreamingValidatorService.validateMedicalClaims(
+							new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), new ByteArrayOutputStream()),
+							"Expected the second pending charge to exceed the limit.");
+	}
+
+	private Map<Long, Set<String>> validate(String ndjson) throws IOException {
+		Map<Long, Set<String>> claimIssuesMap = new LinkedHashMap<>();
+
+		for (String resultLine : validateToLines(ndjson)) {
+			JsonNode resultNode = objectMapper.readTree(resultLine);
+
+			Set<String> issueSet = new HashSet<>();
+			resultNode.get("issues").forEach(issueNode -> issueSet.add(issueNode.asText()));
+
+			claimIssuesMap.put(resultNode.get("claimId").asLong(), issueSet);
+		}
+
+		return claimIssuesMap;
+	}
+
+	private List<String> validateToLines(String ndjson) throws IOException {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+		medicalClaimsStreamingValidatorService.validateMedicalClaims(
+				new ByteArrayInputStream(ndjson.getBytes(StandardCharsets.UTF_8)), outputStream);
+
+		return outputStream.toString(StandardCharsets.UTF_8).lines().toList();
+	}
+}
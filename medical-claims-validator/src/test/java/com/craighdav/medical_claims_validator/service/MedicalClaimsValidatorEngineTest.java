@@ -0,0 +1,272 @@
+package com.craighdav.medical_claims_validator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.craighdav.medical_claims_validator.config.MedicalClaimsValidatorProperties;
+import com.craighdav.medical_claims_validator.config.MedicalClaimsValidatorProperties.ValidationEngine;
+import com.craighdav.medical_claims_validator.model.Charge;
+import com.craighdav.medical_claims_validator.model.Claim;
+import com.craighdav.medical_claims_validator.model.Patient;
+import com.craighdav.medical_claims_validator.model.ProcessedMedicalClaimsData;
+import com.craighdav.medical_claims_validator.model.RawMedicalClaimsData;
+
+/*
+ * Every validation engine must produce exactly the output of the original STREAMS engine.
+ * These tests compare the engines on randomized batches that exercise all five rules as well
+ * as orphan charges and claims without a matching patient.
+ */
+public class MedicalClaimsValidatorEngineTest {
+
+	private static final long[] PROCEDURE_CODES
+						= { 99129L, 99396L, 90050L, 92345L, 60009L, 61234L, 50035L, 80640L, 73209L };
+	private static final String[] PLACES_OF_SERVICE = { "office", "home", "hospital" };
+
+	private final Clock clock;
+
+	public MedicalClaimsValidatorEngineTest() {
+		Instant fixedTestingInstant = Instant.parse("2025-07-05T12:00:00Z");
+		ZoneId zoneId = ZoneId.of("UTC");
+		clock = Clock.fixed(fixedTestingInstant, zoneId);
+	}
+
+
+	@ParameterizedTest
+	@ValueSource(longs = { 1L, 7L, 42L, 2025L })
+	@DisplayName("SINGLE_PASS engine should return the same result as the STREAMS engine")
+	public void validateMedicalClaims_SinglePass_MatchesStreams(long seed) {
+
+		// Arrange
+		RawMedicalClaimsData rawMedicalClaimsData = createRandomBatch(seed, 200, 1_000, 3_000);
+
+		ProcessedMedicalClaimsData processedMedicalClaimsDataExpected
+					= createService(ValidationEngine.STREAMS).validateMedicalClaims(rawMedicalClaimsData);
+
+		// Act
+		ProcessedMedicalClaimsData processedMedicalClaimsData
+					= createService(ValidationEngine.SINGLE_PASS).validateMedicalClaims(rawMedicalClaimsData);
+
+		// Assert
+		assertEquals(processedMedicalClaimsDataExpected.getValidClaimIdSet(),
+							processedMedicalClaimsData.getValidClaimIdSet(),
+							"Expected set of valid Claim Ids does not match returned set.");
+		assertEquals(processedMedicalClaimsDataExpected.getInvalidClaimWithIssuesMap(),
+							processedMedicalClaimsData.getInvalidClaimWithIssuesMap(),
+							"Expected set of invalid Claim Ids does not match returned set.");
+	}
+
+	@ParameterizedTest
+	@ValueSource(longs = { 1L, 7L, 42L, 2025L })
+	@DisplayName("PARALLEL engine should return the same result as the STREAMS engine")
+	public void validateMedicalClaims_Parallel_MatchesStreams(long seed) {
+
+		// Arrange
+		RawMedicalClaimsData rawMedicalClaimsData = createRandomBatch(seed, 200, 1_000, 3_000);
+
+		ProcessedMedicalClaimsData processedMedicalClaimsDataExpected
+					= createService(ValidationEngine.STREAMS).validateMedicalClaims(rawMedicalClaimsData);
+
+		// Small threshold and shards so that the batch is split across many tasks
+		MedicalClaimsValidatorProperties medicalClaimsValidatorProperties
+												= new MedicalClaimsValidatorProperties();
+		medicalClaimsValidatorProperties.setValidationEngine(ValidationEngine.PARALLEL);
+		medicalClaimsValidatorProperties.setParallelThreshold(1);
+		medicalClaimsValidatorProperties.setParallelShardChargeCount(64);
+		medicalClaimsValidatorProperties.setParallelism(4);
+
+		MedicalClaimsValidatorService medicalClaimsValidatorService
+					= new MedicalClaimsValidatorService(clock, medicalClaimsValidatorProperties);
+
+		// Act
+		ProcessedMedicalClaimsData processedMedicalClaimsData;
+		try {
+			processedMedicalClaimsData = medicalClaimsValidatorService.validateMedicalClaims(rawMedicalClaimsData);
+		} finally {
+			medicalClaimsValidatorService.shutdown();
+		}
+
+		// Assert
+		assertEquals(processedMedicalClaimsDataExpected.getValidClaimIdSet(),
+							processedMedicalClaimsData.getValidClaimIdSet(),
+							"Expected set of valid Claim Ids does not match returned set.");
+		assertEquals(processedMedicalClaimsDataExpected.getInvalidClaimWithIssuesMap(),
+							processedMedicalClaimsData.getInvalidClaimWithIssuesMap(),
+							"Expected set of invalid Claim Ids does not match returned set.");
+	}
+
+	@ParameterizedTest
+	@ValueSource(longs = { 1L, 7L, 42L, 2025L })
+	@DisplayName("COLUMNAR engine should return the same result and issue codes as the STREAMS engine")
+	public void validateMedicalClaims_Columnar_MatchesStreams(long seed) {
+
+		// Arrange
+		RawMedicalClaimsData rawMedicalClaimsData = createRandomBatch(seed, 200, 1_000, 3_000);
+
+		ProcessedMedicalClaimsData processedMedicalClaimsDataExpected
+					= createService(ValidationEngine.STREAMS).validateMedicalClaims(rawMedicalClaimsData);
+
+		// Act
+		ProcessedMedicalClaimsData processedMedicalClaimsData
+					= createService(ValidationEngine.COLUMNAR).validateMedicalClaims(rawMedicalClaimsData);
+
+		// Assert
+		assertEquals(processedMedicalClaimsDataExpected.getValidClaimIdSet(),
+							processedMedicalClaimsData.getValidClaimIdSet(),
+							"Expected set of valid Claim Ids does not match returned set.");
+		assertEquals(processedMedicalClaimsDataExpected.getInvalidClaimWithIssuesMap(),
+							processedMedicalClaimsData.getInvalidClaimWithIssuesMap(),
+							"Expected set of invalid Claim Ids does not match returned set.");
+		assertEquals(processedMedicalClaimsDataExpected.getInvalidClaimIssueCodeMap(),
+							processedMedicalClaimsData.getInvalidClaimIssueCodeMap(),
+							"Expected issue codes of invalid Claim Ids do not match returned codes.");
+	}
+
+	@ParameterizedTest
+	@ValueSource(longs = { 1L, 7L, 42L, 2025L })
+	@DisplayName("STREAMS engine with off-heap lookups should return the same result as with on-heap lookups")
+	public void validateMedicalClaims_OffHeapLookups_MatchesStreams(long seed) {
+
+		// Arrange
+		RawMedicalClaimsData rawMedicalClaimsData = createRandomBatch(seed, 200, 1_000, 3_000);
+
+		ProcessedMedicalClaimsData processedMedicalClaimsDataExpected
+					= createService(ValidationEngine.STREAMS).validateMedicalClaims(rawMedicalClaimsData);
+
+		// Small chunks so that both lookups span several chunks
+		MedicalClaimsValidatorProperties medicalClaimsValidatorProperties
+												= new MedicalClaimsValidatorProperties();
+		medicalClaimsValidatorProperties.setOffHeapLookupsEnabled(true);
+		medicalClaimsValidatorProperties.setOffHeapChunkBytes(1_024);
+
+		MedicalClaimsValidatorService medicalClaimsValidatorService
+					= new MedicalClaimsValidatorService(clock, medicalClaimsValidatorProperties);
+
+		// Act
+		ProcessedMedicalClaimsData processedMedicalClaimsData
+					= medicalClaimsValidatorService.validateMedicalClaims(rawMedicalClaimsData);
+
+		// Assert
+		assertEquals(processedMedicalClaimsDataExpected.getValidClaimIdSet(),
+							processedMedicalClaimsData.getValidClaimIdSet(),
+							"Expected set of valid Claim Ids does not match returned set.");
+		assertEquals(processedMedicalClaimsDataExpected.getInvalidClaimWithIssuesMap(),
+							processedMedicalClaimsData.getInvalidClaimWithIssuesMap(),
+							"Expected set of invalid Claim Ids does not match returned set.");
+	}
+
+	@ParameterizedTest
+	@ValueSource(longs = { 1L, 7L, 42L, 2025L })
+	@DisplayName("A batch in claim order should be merge-joined with the same result as when it is indexed")
+	public void validateMedicalClaims_SortedInput_MatchesIndexedStreams(long seed) {
+
+		// Arrange
+		RawMedicalClaimsData randomMedicalClaimsData = createRandomBatch(seed, 200, 1_000, 3_000);
+
+		List<Charge> sortedChargeList = new ArrayList<>(randomMedicalClaimsData.getChargeList());
+		sortedChargeList.sort(Comparator.comparingLong(Charge::getClaimId));
+
+		// Patients in reverse order of ID are looked up through an index rather than searched
+		List<Patient> reversedPatientList = new ArrayList<>(randomMedicalClaimsData.getPatientList());
+		Collections.reverse(reversedPatientList);
+
+		RawMedicalClaimsData rawMedicalClaimsData = new RawMedicalClaimsData(
+					randomMedicalClaimsData.getPatientList(), randomMedicalClaimsData.getClaimList(), sortedChargeList);
+		RawMedicalClaimsData reversedPatientsMedicalClaimsData = new RawMedicalClaimsData(
+					reversedPatientList, randomMedicalClaimsData.getClaimList(), sortedChargeList);
+
+		MedicalClaimsValidatorProperties medicalClaimsValidatorProperties
+												= new MedicalClaimsValidatorProperties();
+		medicalClaimsValidatorProperties.setSortedInputJoinEnabled(false);
+
+		ProcessedMedicalClaimsData processedMedicalClaimsDataExpected
+					= new MedicalClaimsValidatorService(clock, medicalClaimsValidatorProperties)
+							.validateMedicalClaims(rawMedicalClaimsData);
+
+		// Act
+		ProcessedMedicalClaimsData processedMedicalClaimsData
+					= createSortedInputJoinService(ValidationEngine.STREAMS).validateMedicalClaims(rawMedicalClaimsData);
+		ProcessedMedicalClaimsData reversedPatientsProcessedMedicalClaimsData
+					= createSortedInputJoinService(ValidationEngine.SINGLE_PASS)
+							.validateMedicalClaims(reversedPatientsMedicalClaimsData);
+
+		// Assert
+		assertEquals(processedMedicalClaimsDataExpected.getValidClaimIdSet(),
+							processedMedicalClaimsData.getValidClaimIdSet(),
+							"Expected set of valid Claim Ids does not match returned set.");
+		assertEquals(processedMedicalClaimsDataExpected.getInvalidClaimWithIssuesMap(),
+							processedMedicalClaimsData.getInvalidClaimWithIssuesMap(),
+							"Expected set of invalid Claim Ids does not match returned set.");
+		assertEquals(processedMedicalClaimsDataExpected.getValidClaimIdSet(),
+							reversedPatientsProcessedMedicalClaimsData.getValidClaimIdSet(),
+							"Expected set of valid Claim Ids does not match returned set for unsorted patients.");
+		assertEquals(processedMedicalClaimsDataExpected.getInvalidClaimWithIssuesMap(),
+							reversedPatientsProcessedMedicalClaimsData.getInvalidClaimWithIssuesMap(),
+							"Expected set of invalid Claim Ids does not match returned set for unsorted patients.");
+	}
+
+	private MedicalClaimsValidatorService createService(ValidationEngine validationEngine) {
+		MedicalClaimsValidatorProperties medicalClaimsValidatorProperties
+												= new MedicalClaimsValidatorProperties();
+		medicalClaimsValidatorProperties.setValidationEngine(validationEngine);
+
+		return new MedicalClaimsValidatorService(clock, medicalClaimsValidatorProperties);
+	}
+
+	private MedicalClaimsValidatorService createSortedInputJoinService(ValidationEngine validationEngine) {
+		MedicalClaimsValidatorProperties medicalClaimsValidatorProperties
+												= new MedicalClaimsValidatorProperties();
+		medicalClaimsValidatorProperties.setValidationEngine(validationEngine);
+		medicalClaimsValidatorProperties.setSortedInputJoinEnabled(true);
+
+		return new MedicalClaimsValidatorService(clock, medicalClaimsValidatorProperties);
+	}
+
+	/*
+	 * About 5% of claims reference a missing patient and about 5% of charges reference a
+	 * missing claim. Claims receive between zero and five charges drawn from a small set of
+	 * procedure codes, so duplicates within a claim are common.
+	 */
+	private RawMedicalClaimsData createRandomBatch(long seed, int patientCount, int claimCount,
+													int chargeCount) {
+		Random random = new Random(seed);
+
+		List<Patient> patientList = new ArrayList<>();
+		for (long patientId = 1; patientId <= patientCount; patientId++) {
+			LocalDate birthDate = LocalDate.of(1950, 1, 1).plusDays(random.nextInt(65 * 365));
+			patientList.add(new Patient(patientId, "First" + patientId, "Last" + patientId, birthDate));
+		}
+
+		List<Claim> claimList = new ArrayList<>();
+		for (long claimId = 1; claimId <= claimCount; claimId++) {
+			long patientId = (random.nextInt(20) == 0)
+								? patientCount + 1 + random.nextInt(10)
+								: 1 + random.nextInt(patientCount);
+			String placeOfService = PLACES_OF_SERVICE[random.nextInt(PLACES_OF_SERVICE.length)];
+			claimList.add(new Claim(claimId, patientId, LocalDate.of(2025, 1, 15), placeOfService));
+		}
+
+		List<Charge> chargeList = new ArrayList<>();
+		for (long chargeId = 1; chargeId <= chargeCount; chargeId++) {
+			long claimId = (random.nextInt(20) == 0)
+								? claimCount + 1 + random.nextInt(50)
+								: 1 + random.nextInt(claimCount);
+			long procedureCode = PROCEDURE_CODES[random.nextInt(PROCEDURE_CODES.length)];
+			chargeList.add(new Charge(chargeId, claimId, procedureCode, 1 + random.nextInt(1_000)));
+		}
+
+		return new RawMedicalClaimsData(patientList, claimList, chargeList);
+	}
+}
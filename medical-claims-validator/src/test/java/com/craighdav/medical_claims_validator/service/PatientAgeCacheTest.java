@@ -0,0 +1,104 @@
+package com.craighdav.medical_claims_validator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.craighdav.medical_claims_validator.service.PatientAgeCache.EvaluationDay;
+
+public class PatientAgeCacheTest {
+
+	@Test
+	@DisplayName("getAge should match Period years for every birth date around leap days and birthdays")
+	public void getAge_BirthDatesAroundBirthdays_MatchesPeriod() {
+
+		// Arrange
+		LocalDate[] evaluationDates = { LocalDate.of(2025, 7, 5), LocalDate.of(2024, 2, 29),
+										LocalDate.of(2025, 2, 28), LocalDate.of(2025, 3, 1),
+										LocalDate.of(2025, 12, 31), LocalDate.of(2026, 1, 1) };
+
+		for (LocalDate evaluationDate : evaluationDates) {
+			EvaluationDay evaluationDay = new PatientAgeCache(createClock(evaluationDate)).getEvaluationDay();
+
+			// Birth dates from 120 years before to 2 years after the evaluation date
+			for (LocalDate birthDate = evaluationDate.minusYears(120);
+					!birthDate.isAfter(evaluationDate.plusYears(2)); birthDate = birthDate.plusDays(1)) {
+
+				// Act
+				int age = evaluationDay.getAge(birthDate);
+
+				// Assert
+				assertEquals(birthDate.until(evaluationDate).getYears(), age,
+									"Expected age does not match returned age for birth date " + birthDate
+									+ " on " + evaluationDate + ".");
+			}
+		}
+	}
+
+	@Test
+	@DisplayName("getEvaluationDay should be reused within a day and replaced when the day rolls over")
+	public void getEvaluationDay_DayRollover_Replaced() {
+
+		// Arrange
+		MutableClock clock = new MutableClock(Instant.parse("2025-07-05T12:00:00Z"));
+		PatientAgeCache patientAgeCache = new PatientAgeCache(clock);
+		LocalDate birthDate = LocalDate.of(2007, 7, 6);
+
+		// Act
+		EvaluationDay evaluationDayMorning = patientAgeCache.getEvaluationDay();
+		clock.instant = Instant.parse("2025-07-05T23:59:59Z");
+		EvaluationDay evaluationDayEvening = patientAgeCache.getEvaluationDay();
+		clock.instant = Instant.parse("2025-07-06T00:00:00Z");
+		EvaluationDay evaluationDayNextDay = patientAgeCache.getEvaluationDay();
+
+		// Assert
+		assertSame(evaluationDayMorning, evaluationDayEvening,
+							"Expected the evaluation day to be reused within the same day.");
+		assertNotSame(evaluationDayEvening, evaluationDayNextDay,
+							"Expected a new evaluation day after the day rolled over.");
+		assertEquals(17, evaluationDayEvening.getAge(birthDate),
+							"Expected age before the birthday does not match returned age.");
+		assertEquals(18, evaluationDayNextDay.getAge(birthDate),
+							"Expected age on the birthday does not match returned age.");
+	}
+
+	private Clock createClock(LocalDate date) {
+		ZoneId zoneId = ZoneId.of("UTC");
+		return Clock.fixed(date.atStartOfDay(zoneId).toInstant(), zoneId);
+	}
+
+	/*
+	 * A UTC clock whose instant can be moved by the test.
+	 */
+	private static final class MutableClock extends Clock {
+
+		private Instant instant;
+
+		private MutableClock(Instant instant) {
+			this.instant = instant;
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneId.of("UTC");
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Instant instant() {
+			return instant;
+		}
+	}
+}
@@ -0,0 +1,191 @@
+package com.craighdav.medical_claims_validator.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.craighdav.medical_claims_validator.config.MedicalClaimsValidatorProperties;
+import com.craighdav.medical_claims_validator.model.Charge;
+import com.craighdav.medical_claims_validator.model.Claim;
+import com.craighdav.medical_claims_validator.model.Patient;
+import com.craighdav.medical_claims_validator.model.ProcessedMedicalClaimsData;
+import com.craighdav.medical_claims_validator.model.RawMedicalClaimsData;
+import com.craighdav.medical_claims_validator.registry.PatientRegistry;
+import com.craighdav.medical_claims_validator.rules.RuleSetRepository;
+import com.craighdav.medical_claims_validator.service.ValidationResultCache.ResultKey;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class ValidationResultCacheTest {
+
+	@TempDir
+	private Path temporaryDirectory;
+
+
+	@Test
+	@DisplayName("An identical batch should be served from the cache until the batch or the registry changes")
+	public void validateMedicalClaims_IdenticalBatch_CachedResultReturned() {
+
+		// Arrange
+		Clock clock = Clock.fixed(Instant.parse("2025-07-05T12:00:00Z"), ZoneId.of("UTC"));
+		PatientRegistry patientRegistry = new PatientRegistry(temporaryDirectory.resolve("patients.log"), 10);
+		MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+		ValidationResultCache validationResultCache = new ValidationResultCache(clock, 1_000_000L,
+					createMedicalClaimsValidatorService(clock, patientRegistry), patientRegistry, meterRegistry);
+
+		// Act
+		ProcessedMedicalClaimsData processedMedicalClaimsData
+					= validate(validationResultCache, LocalDate.of(1960, 2, 10), 470);
+		ProcessedMedicalClaimsData repeatedProcessedMedicalClaimsData
+					= validate(validationResultCache, LocalDate.of(1960, 2, 10), 470);
+		ProcessedMedicalClaimsData changedProcessedMedicalClaimsData
+					= validate(validationResultCache, LocalDate.of(1960, 2, 10), 471);
+
+		patientRegistry.upsert(List.of(new Patient(1102L, "Jane", "Smith", LocalDate.of(1970, 3, 4))));
+		ProcessedMedicalClaimsData reregisteredProcessedMedicalClaimsData
+					= validate(validationResultCache, LocalDate.of(1960, 2, 10), 470);
+
+		patientRegistry.close();
+
+		// Assert
+		assertSame(processedMedicalClaimsData, repeatedProcessedMedicalClaimsData,
+							"Expected the cached result for an identical batch.");
+		assertNotSame(processedMedicalClaimsData, changedProcessedMedicalClaimsData,
+							"Expected a new result for a changed batch.");
+		assertNotSame(processedMedicalClaimsData, reregisteredProcessedMedicalClaimsData,
+							"Expected a new result after the patient registry changed.");
+		assertEquals(processedMedicalClaimsData.getInvalidClaimWithIssuesMap(),
+							reregisteredProcessedMedicalClaimsData.getInvalidClaimWithIssuesMap(),
+							"Expected the same issues from validating the batch again.");
+
+		assertEquals(1.0, meterRegistry.get("claims.validation.result.cache.gets").tag("result", "hit")
+							.counter().count(), "Expected one cache hit.");
+		assertEquals(3.0, meterRegistry.get("claims.validation.result.cache.gets").tag("result", "miss")
+							.counter().count(), "Expected three cache misses.");
+	}
+
+	@Test
+	@DisplayName("A new day should evict earlier results, and results beyond the bytes limit should be evicted")
+	public void validateMedicalClaims_NewDayOrFull_EarlierResultsEvicted() {
+
+		// Arrange
+		MutableClock clock = new MutableClock(Instant.parse("2025-07-05T12:00:00Z"));
+		PatientRegistry patientRegistry = new PatientRegistry(null, 0);
+		MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+		// Room for the result of one single-claim batch only
+		ValidationResultCache validationResultCache = new ValidationResultCache(clock, 500L,
+					createMedicalClaimsValidatorService(clock, patientRegistry), patientRegistry, meterRegistry);
+
+		// The patient turns 18 on 2025-07-06, from when procedure 99129 is no longer allowed
+		LocalDate birthDate = LocalDate.of(2007, 7, 6);
+
+		// Act
+		ProcessedMedicalClaimsData underageProcessedMedicalClaimsData
+					= validate(validationResultCache, birthDate, 470);
+		validate(validationResultCache, birthDate, 471);
+		ProcessedMedicalClaimsData evictedProcessedMedicalClaimsData
+					= validate(validationResultCache, birthDate, 470);
+
+		clock.advance(Duration.ofDays(1));
+		ProcessedMedicalClaimsData adultProcessedMedicalClaimsData
+					= validate(validationResultCache, birthDate, 470);
+
+		// Assert
+		assertNotSame(underageProcessedMedicalClaimsData, evictedProcessedMedicalClaimsData,
+							"Expected the least recently used result to have been evicted.");
+		assertEquals(Set.of(5000L), underageProcessedMedicalClaimsData.getValidClaimIdSet(),
+							"Expected the claim to be valid while the patient is 17.");
+		assertEquals(Set.of(5000L), adultProcessedMedicalClaimsData.getInvalidClaimIssueMap().keySet(),
+							"Expected the claim to be invalid once the patient is 18.");
+		assertEquals(1, validationResultCache.getEntryCount(), "Expected only the new day's result to be cached.");
+		assertEquals(3.0, meterRegistry.get("claims.validation.result.cache.evictions").counter().count(),
+							"Expected two evictions for space and one for the new day.");
+	}
+
+	private static MedicalClaimsValidatorService createMedicalClaimsValidatorService(Clock clock,
+																			PatientRegistry patientRegistry) {
+		MedicalClaimsValidatorProperties medicalClaimsValidatorProperties = new MedicalClaimsValidatorProperties();
+
+		return new MedicalClaimsValidatorService(clock, medicalClaimsValidatorProperties,
+					new RuleSetRepository(medicalClaimsValidatorProperties.getRulesLocation()), patientRegistry);
+	}
+
+	/*
+	 * Validate a batch as POST /validateClaims does: look up the key of its body first, and
+	 * bind and validate the batch only without a cached result
+	 */
+	private static ProcessedMedicalClaimsData validate(ValidationResultCache validationResultCache,
+														LocalDate birthDate, int amount) {
+
+		String requestBody = "{\"patients\":[{\"id\":1101,\"firstName\":\"Bill\",\"lastName\":\"Smith\","
+					+ "\"birthDate\":\"" + birthDate + "\"}],"
+					+ "\"claims\":[{\"id\":5000,\"patientId\":1101,\"serviceDate\":\"2025-05-16\","
+					+ "\"placeOfService\":\"office\"}],"
+					+ "\"charges\":[{\"id\":22000,\"claimId\":5000,\"procedureCode\":99129,\"amount\":" + amount + "}]}";
+		ResultKey resultKey = validationResultCache.createKey("application/json",
+																requestBody.getBytes(StandardCharsets.UTF_8));
+
+		ProcessedMedicalClaimsData cachedProcessedMedicalClaimsData = validationResultCache.getCachedResult(resultKey);
+
+		return (cachedProcessedMedicalClaimsData != null) ? cachedProcessedMedicalClaimsData
+					: validationResultCache.validateMedicalClaims(createBatch(birthDate, amount), resultKey);
+	}
+
+	/*
+	 * A new batch of one claim with procedure 99129 at the office, built anew for every call
+	 */
+	private static RawMedicalClaimsData createBatch(LocalDate birthDate, int amount) {
+		return new RawMedicalClaimsData(
+					List.of(new Patient(1101L, "Bill", "Smith", birthDate)),
+					List.of(new Claim(5000L, 1101L, LocalDate.of(2025, 5, 16), "office")),
+					List.of(new Charge(22000L, 5000L, 99129L, amount)));
+	}
+
+	/*
+	 * A UTC clock whose instant can be moved by the test.
+	 */
+	private static final class MutableClock extends Clock {
+
+		private Instant instant;
+
+		private MutableClock(Instant instant) {
+			this.instant = instant;
+		}
+
+		private void advance(Duration duration) {
+			instant = instant.plus(duration);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneId.of("UTC");
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			throw new UnsupportedOperationException();
+		}
+
+		@Override
+		public Instant instant() {
+			return instant;
+		}
+	}
+}
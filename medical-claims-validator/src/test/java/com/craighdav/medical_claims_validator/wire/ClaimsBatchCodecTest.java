@@ -0,0 +1,197 @@
+package com.craighdav.medical_claims_validator.wire;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import com.craighdav.medical_claims_validator.generator.ClaimsDatasetGenerator;
+import com.craighdav.medical_claims_validator.generator.ClaimsDatasetOptions;
+import com.craighdav.medical_claims_validator.model.Claim;
+import com.craighdav.medical_claims_validator.model.ColumnarClaimsBatch;
+import com.craighdav.medical_claims_validator.model.IssueFormat;
+import com.craighdav.medical_claims_validator.model.Patient;
+import com.craighdav.medical_claims_validator.model.ProcessedMedicalClaimsData;
+import com.craighdav.medical_claims_validator.model.RawMedicalClaimsData;
+import com.craighdav.medical_claims_validator.service.MedicalClaimsValidatorService;
+
+public class ClaimsBatchCodecTest {
+
+	private final Clock clock;
+	private final ClaimsBatchEncoder claimsBatchEncoder = new ClaimsBatchEncoder();
+	private final ClaimsBatchDecoder claimsBatchDecoder = new ClaimsBatchDecoder();
+
+	public ClaimsBatchCodecTest() {
+		Instant fixedTestingInstant = Instant.parse("2025-07-05T12:00:00Z");
+		ZoneId zoneId = ZoneId.of("UTC");
+		clock = Clock.fixed(fixedTestingInstant, zoneId);
+	}
+
+
+	@Test
+	@DisplayName("A decoded claims batch should hold the encoded patients, claims and charges, including nulls")
+	public void decodeClaims_EncodedBatch_SameRecords() throws IOException {
+
+		// Arrange
+		RawMedicalClaimsData generatedData = generateDataset();
+
+		List<Patient> patientList = new ArrayList<>(generatedData.getPatientList());
+		patientList.add(new Patient(9001L, null, "Null-First-Name", null));
+
+		List<Claim> claimList = new ArrayList<>(generatedData.getClaimList());
+		claimList.add(new Claim(9002L, 9001L, null, null));
+		claimList.add(new Claim(9003L, 9001L, LocalDate.of(2025, 1, 31), "clinic ñ"));
+
+		RawMedicalClaimsData rawMedicalClaimsDataExpected 
+					= new RawMedicalClaimsData(patientList, claimList, generatedData.getChargeList());
+
+		// Act
+		RawMedicalClaimsData rawMedicalClaimsData 
+					= claimsBatchDecoder.decodeClaims(new ByteArrayInputStream(encodeClaims(rawMedicalClaimsDataExpected)));
+
+		// Assert
+		assertEquals(rawMedicalClaimsDataExpected.getPatientList().toString(), 
+						rawMedicalClaimsData.getPatientList().toString());
+		assertEquals(rawMedicalClaimsDataExpected.getClaimList().toString(), 
+						rawMedicalClaimsData.getClaimList().toString());
+		assertEquals(rawMedicalClaimsDataExpected.getChargeList().toString(), 
+						rawMedicalClaimsData.getChargeList().toString());
+	}
+
+	@Test
+	@DisplayName("A decoded claims batch should carry the columns read, equal to converting its records")
+	public void decodeClaims_EncodedBatch_ColumnsMatchRecords() throws IOException {
+
+		// Arrange
+		RawMedicalClaimsData generatedData = generateDataset();
+
+		List<Patient> patientList = new ArrayList<>(generatedData.getPatientList());
+		patientList.add(new Patient(9001L, null, "Null-First-Name", null));
+
+		List<Claim> claimList = new ArrayList<>(generatedData.getClaimList());
+		claimList.add(new Claim(9002L, 9001L, null, null));
+
+		byte[] encodedClaims = encodeClaims(new RawMedicalClaimsData(patientList, claimList, generatedData.getChargeList()));
+
+		// Act
+		RawMedicalClaimsData rawMedicalClaimsData 
+					= claimsBatchDecoder.decodeClaims(new ByteArrayInputStream(encodedClaims));
+		ColumnarClaimsBatch columnarClaimsBatch = ColumnarClaimsBatch.from(rawMedicalClaimsData);
+
+		// Assert
+		ColumnarClaimsBatch columnarClaimsBatchExpected = ColumnarClaimsBatch.from(new RawMedicalClaimsData(
+					rawMedicalClaimsData.getPatientList(), rawMedicalClaimsData.getClaimList(),
+					rawMedicalClaimsData.getChargeList()));
+
+		assertSame(columnarClaimsBatch, ColumnarClaimsBatch.from(rawMedicalClaimsData),
+						"Expected the decoded columns rather than a conversion of the records.");
+		assertArrayEquals(columnarClaimsBatchExpected.getPatientColumns().getBirthEpochDays(),
+						columnarClaimsBatch.getPatientColumns().getBirthEpochDays());
+		assertArrayEquals(columnarClaimsBatchExpected.getClaimColumns().getServiceEpochDays(),
+						columnarClaimsBatch.getClaimColumns().getServiceEpochDays());
+		assertArrayEquals(columnarClaimsBatchExpected.getClaimColumns().getPlaceOfServiceIndexes(),
+						columnarClaimsBatch.getClaimColumns().getPlaceOfServiceIndexes());
+		assertArrayEquals(columnarClaimsBatchExpected.getClaimColumns().getPlaceOfServiceDictionary(),
+						columnarClaimsBatch.getClaimColumns().getPlaceOfServiceDictionary());
+		assertArrayEquals(columnarClaimsBatchExpected.getChargeColumns().getClaimIds(),
+						columnarClaimsBatch.getChargeColumns().getClaimIds());
+		assertArrayEquals(columnarClaimsBatchExpected.getChargeColumns().getAmounts(),
+						columnarClaimsBatch.getChargeColumns().getAmounts());
+	}
+
+	@Test
+	@DisplayName("A decoded result should carry the same claims and issues as the JSON response, in either issue format")
+	public void decodeResult_EncodedResult_SameIssues() throws IOException {
+
+		// Arrange
+		ProcessedMedicalClaimsData processedMedicalClaimsData 
+					= new MedicalClaimsValidatorService(clock).validateMedicalClaims(generateDataset());
+
+		// Act
+		ClaimsBatchResult textResult = claimsBatchDecoder.decodeResult(new ByteArrayInputStream(
+								encodeResult(processedMedicalClaimsData.withIssueFormat(IssueFormat.TEXT))));
+		ClaimsBatchResult codesResult = claimsBatchDecoder.decodeResult(new ByteArrayInputStream(
+								encodeResult(processedMedicalClaimsData.withIssueFormat(IssueFormat.CODES))));
+
+		// Assert
+		assertTrue(!processedMedicalClaimsData.getInvalidClaimIssueMap().isEmpty(), 
+							"Expected the dataset to contain invalid claims.");
+
+		assertEquals(IssueFormat.TEXT, textResult.getIssueFormat());
+		assertEquals(processedMedicalClaimsData.getRuleSetVersion(), textResult.getRuleSetVersion());
+		assertEquals(processedMedicalClaimsData.getValidClaimIdSet(), textResult.getValidClaimIdSet());
+		assertEquals(processedMedicalClaimsData.getInvalidClaimWithIssuesMap(), 
+							textResult.getInvalidClaimWithIssuesMap(),
+							"Expected issue messages do not match decoded messages.");
+
+		assertEquals(IssueFormat.CODES, codesResult.getIssueFormat());
+		assertEquals(processedMedicalClaimsData.getValidClaimIdSet(), codesResult.getValidClaimIdSet());
+		assertEquals(processedMedicalClaimsData.getInvalidClaimIssueCodeMap(), 
+							codesResult.getInvalidClaimIssueCodeMap(),
+							"Expected issue codes do not match decoded codes.");
+	}
+
+	@Test
+	@DisplayName("Input that is not a complete claims batch should be rejected as malformed")
+	public void decodeClaims_MalformedInput_MalformedClaimsBatchException() throws IOException {
+
+		// Arrange
+		byte[] encodedClaims = encodeClaims(generateDataset());
+
+		byte[] wrongMagic = encodedClaims.clone();
+		wrongMagic[0] = 'X';
+
+		byte[] truncated = Arrays.copyOf(encodedClaims, encodedClaims.length - 3);
+		byte[] trailingData = Arrays.copyOf(encodedClaims, encodedClaims.length + 1);
+
+		// Act & Assert
+		assertThrows(MalformedClaimsBatchException.class, 
+							() -> claimsBatchDecoder.decodeClaims(new ByteArrayInputStream(wrongMagic)));
+		assertThrows(MalformedClaimsBatchException.class, 
+							() -> claimsBatchDecoder.decodeClaims(new ByteArrayInputStream(truncated)));
+		assertThrows(MalformedClaimsBatchException.class, 
+							() -> claimsBatchDecoder.decodeClaims(new ByteArrayInputStream(trailingData)));
+		assertThrows(MalformedClaimsBatchException.class, 
+							() -> claimsBatchDecoder.decodeResult(new ByteArrayInputStream(encodedClaims)));
+	}
+
+	private RawMedicalClaimsData generateDataset() {
+		ClaimsDatasetOptions options = new ClaimsDatasetOptions();
+		options.setSeed(11L);
+		options.setPatientCount(50);
+		options.setClaimCount(300);
+		options.setDuplicateRate(0.05);
+		options.setOrphanRate(0.05);
+
+		return new ClaimsDatasetGenerator(options).generateRawMedicalClaimsData();
+	}
+
+	private byte[] encodeClaims(RawMedicalClaimsData rawMedicalClaimsData) throws IOException {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		claimsBatchEncoder.encodeClaims(rawMedicalClaimsData, outputStream);
+
+		return outputStream.toByteArray();
+	}
+
+	private byte[] encodeResult(ProcessedMedicalClaimsData processedMedicalClaimsData) throws IOException {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		claimsBatchEncoder.encodeResult(processedMedicalClaimsData, outputStream);
+
+		return outputStream.toByteArray();
+	}
+}
@@ -0,0 +1,101 @@
+package com.craighdav.medical_claims_validator.wire;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.craighdav.medical_claims_validator.generator.ClaimsDatasetGenerator;
+import com.craighdav.medical_claims_validator.generator.ClaimsDatasetOptions;
+import com.craighdav.medical_claims_validator.model.Charge;
+import com.craighdav.medical_claims_validator.model.Claim;
+import com.craighdav.medical_claims_validator.model.RawMedicalClaimsData;
+
+public class MappedClaimsBatchTest {
+
+	@TempDir
+	private Path temporaryDirectory;
+
+
+	@Test
+	@DisplayName("Mapped columns should match the encoded records, also across region boundaries")
+	public void getColumns_SmallRegions_SameRecords() throws IOException {
+
+		// Arrange
+		RawMedicalClaimsData rawMedicalClaimsData = generateDataset();
+		Path batchPath = writeBatch(rawMedicalClaimsData);
+
+		// Act: 64 byte regions make many values straddle a region boundary
+		List<String> patients = new ArrayList<>();
+		List<String> claims = new ArrayList<>();
+		List<String> charges = new ArrayList<>();
+
+		try (MappedClaimsBatch mappedClaimsBatch = new MappedClaimsBatch(batchPath, 6)) {
+			for (int row = 0; row < mappedClaimsBatch.getPatientCount(); row++) {
+				patients.add(mappedClaimsBatch.getPatientId(row) + " " + mappedClaimsBatch.getPatientBirthDate(row));
+			}
+			for (int row = 0; row < mappedClaimsBatch.getClaimCount(); row++) {
+				claims.add(new Claim(mappedClaimsBatch.getClaimId(row), mappedClaimsBatch.getClaimPatientId(row), 
+										mappedClaimsBatch.getClaimServiceDate(row), 
+										mappedClaimsBatch.getClaimPlaceOfService(row)).toString());
+			}
+			for (int row = 0; row < mappedClaimsBatch.getChargeCount(); row++) {
+				charges.add(new Charge(mappedClaimsBatch.getChargeId(row), mappedClaimsBatch.getChargeClaimId(row), 
+										mappedClaimsBatch.getChargeProcedureCode(row), 
+										(int) mappedClaimsBatch.getChargeAmount(row)).toString());
+			}
+		}
+
+		// Assert
+		assertEquals(rawMedicalClaimsData.getPatientList().stream()
+							.map(patient -> patient.getId() + " " + patient.getBirthDate()).toList(), patients);
+		assertEquals(rawMedicalClaimsData.getClaimList().stream().map(Claim::toString).toList(), claims);
+		assertEquals(rawMedicalClaimsData.getChargeList().stream().map(Charge::toString).toList(), charges);
+	}
+
+	@Test
+	@DisplayName("A truncated file or trailing data should be rejected when the file is opened")
+	public void new_TruncatedOrTrailingData_MalformedClaimsBatchException() throws IOException {
+
+		// Arrange
+		byte[] batchBytes = Files.readAllBytes(writeBatch(generateDataset()));
+
+		Path truncatedPath = temporaryDirectory.resolve("truncated.bin");
+		Files.write(truncatedPath, Arrays.copyOf(batchBytes, batchBytes.length - 1));
+
+		Path trailingDataPath = temporaryDirectory.resolve("trailing.bin");
+		Files.write(trailingDataPath, Arrays.copyOf(batchBytes, batchBytes.length + 8));
+
+		// Act & Assert
+		assertThrows(MalformedClaimsBatchException.class, () -> new MappedClaimsBatch(truncatedPath).close());
+		assertThrows(MalformedClaimsBatchException.class, () -> new MappedClaimsBatch(trailingDataPath).close());
+	}
+
+	private RawMedicalClaimsData generateDataset() {
+		ClaimsDatasetOptions options = new ClaimsDatasetOptions();
+		options.setSeed(5L);
+		options.setPatientCount(40);
+		options.setClaimCount(150);
+
+		return new ClaimsDatasetGenerator(options).generateRawMedicalClaimsData();
+	}
+
+	private Path writeBatch(RawMedicalClaimsData rawMedicalClaimsData) throws IOException {
+		Path batchPath = Files.createTempFile(temporaryDirectory, "claims", ".bin");
+		try (OutputStream outputStream = Files.newOutputStream(batchPath)) {
+			new ClaimsBatchEncoder().encodeClaims(rawMedicalClaimsData, outputStream);
+		}
+
+		return batchPath;
+	}
+}
@@ -0,0 +1,85 @@
+package com.craighdav.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class LongHashSetTest {
+
+	@Test
+	@DisplayName("Set should keep every element when growing far beyond its initial capacity")
+	public void add_ManyElements_ResizesAndRetainsAll() {
+		
+		// Arrange
+		LongHashSet longHashSet = new LongHashSet();
+		int elementCount = 100_000;
+		
+		// Act
+		for (long element = 1; element <= elementCount; element++) {
+			longHashSet.add(element * 31);
+		}
+		
+		// Assert
+		assertEquals(elementCount, longHashSet.size());
+		for (long element = 1; element <= elementCount; element++) {
+			assertTrue(longHashSet.contains(element * 31));
+		}
+		assertFalse(longHashSet.contains(32L));
+	}
+	
+	@Test
+	@DisplayName("Adding an element twice should report it as already present")
+	public void add_DuplicateElement_ReturnsFalse() {
+		
+		// Arrange
+		LongHashSet longHashSet = new LongHashSet();
+		
+		// Act
+		boolean firstAdd = longHashSet.add(99396L);
+		boolean secondAdd = longHashSet.add(99396L);
+		boolean firstZeroAdd = longHashSet.add(0L);
+		boolean secondZeroAdd = longHashSet.add(0L);
+		
+		// Assert
+		assertTrue(firstAdd);
+		assertFalse(secondAdd);
+		assertTrue(firstZeroAdd);
+		assertFalse(secondZeroAdd);
+		assertEquals(2, longHashSet.size());
+	}
+	
+	@Test
+	@DisplayName("Random adds and removes should match java.util.HashSet")
+	public void addAndRemove_RandomOperations_MatchesHashSet() {
+		
+		// Arrange
+		// Elements sharing their low 32 bits collide unless the hash spreads the high bits
+		Random random = new Random(7L);
+		LongHashSet longHashSet = new LongHashSet(16);
+		Set<Long> hashSetExpected = new HashSet<>();
+		
+		// Act
+		for (int operation = 0; operation < 200_000; operation++) {
+			long element = ((long) random.nextInt(1_500)) << 32;
+			
+			if (random.nextInt(3) == 0) {
+				assertEquals(hashSetExpected.remove(element), longHashSet.remove(element));
+			} else {
+				assertEquals(hashSetExpected.add(element), longHashSet.add(element));
+			}
+		}
+		
+		// Assert
+		assertEquals(hashSetExpected.size(), longHashSet.size());
+		Set<Long> contentSet = new HashSet<>();
+		longHashSet.forEach(contentSet::add);
+		assertEquals(hashSetExpected, contentSet);
+	}
+}
@@ -0,0 +1,85 @@
+package com.craighdav.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class LongIntHashMapTest {
+
+	@Test
+	@DisplayName("Map should keep every entry when growing far beyond its initial capacity")
+	public void put_ManyEntries_ResizesAndRetainsAll() {
+		
+		// Arrange
+		LongIntHashMap longIntHashMap = new LongIntHashMap();
+		int entryCount = 100_000;
+		
+		// Act
+		for (int position = 0; position < entryCount; position++) {
+			longIntHashMap.put(5_000L + position, position);
+		}
+		
+		// Assert
+		assertEquals(entryCount, longIntHashMap.size());
+		for (int position = 0; position < entryCount; position++) {
+			assertEquals(position, longIntHashMap.getOrDefault(5_000L + position, -1));
+		}
+		assertEquals(-1, longIntHashMap.getOrDefault(4_999L, -1));
+	}
+	
+	@Test
+	@DisplayName("Random puts and removes should match java.util.HashMap")
+	public void putAndRemove_RandomOperations_MatchesHashMap() {
+		
+		// Arrange
+		// Keys sharing their low 32 bits collide unless the hash spreads the high bits
+		Random random = new Random(7L);
+		LongIntHashMap longIntHashMap = new LongIntHashMap(16);
+		Map<Long, Integer> hashMapExpected = new HashMap<>();
+		
+		// Act
+		for (int operation = 0; operation < 200_000; operation++) {
+			long key = ((long) random.nextInt(1_500)) << 32;
+			
+			if (random.nextInt(3) == 0) {
+				assertEquals(hashMapExpected.remove(key) != null, longIntHashMap.remove(key));
+			} else {
+				assertEquals(hashMapExpected.put(key, operation) == null, longIntHashMap.put(key, operation));
+			}
+		}
+		
+		// Assert
+		assertEquals(hashMapExpected.size(), longIntHashMap.size());
+		for (long key = 0; key < 1_500; key++) {
+			assertEquals(hashMapExpected.getOrDefault(key << 32, -1), longIntHashMap.getOrDefault(key << 32, -1));
+		}
+	}
+	
+	@Test
+	@DisplayName("Putting an existing key should replace its value and report no insertion")
+	public void put_ExistingKey_ReplacesValue() {
+		
+		// Arrange
+		LongIntHashMap longIntHashMap = new LongIntHashMap();
+		
+		// Act
+		boolean firstPut = longIntHashMap.put(1L << 40, 1);
+		boolean secondPut = longIntHashMap.put(1L << 40, 2);
+		boolean zeroPut = longIntHashMap.put(0L, 3);
+		
+		// Assert
+		assertTrue(firstPut);
+		assertFalse(secondPut);
+		assertTrue(zeroPut);
+		assertEquals(2, longIntHashMap.getOrDefault(1L << 40, -1));
+		assertEquals(3, longIntHashMap.getOrDefault(0L, -1));
+		assertEquals(2, longIntHashMap.size());
+	}
+}
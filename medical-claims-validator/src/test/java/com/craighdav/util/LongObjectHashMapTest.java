@@ -0,0 +1,104 @@
+package com.craighdav.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class LongObjectHashMapTest {
+
+	@Test
+	@DisplayName("Map should keep every entry when growing far beyond its initial capacity")
+	public void put_ManyEntries_ResizesAndRetainsAll() {
+		
+		// Arrange
+		LongObjectHashMap<String> longObjectHashMap = new LongObjectHashMap<>();
+		int entryCount = 100_000;
+		
+		// Act
+		for (long key = 1; key <= entryCount; key++) {
+			longObjectHashMap.put(key, "value" + key);
+		}
+		
+		// Assert
+		assertEquals(entryCount, longObjectHashMap.size());
+		for (long key = 1; key <= entryCount; key++) {
+			assertEquals("value" + key, longObjectHashMap.get(key));
+		}
+		assertNull(longObjectHashMap.get(entryCount + 1));
+	}
+	
+	@Test
+	@DisplayName("Keys sharing their low 32 bits should all be stored and found")
+	public void put_KeysWithIdenticalLowBits_AllRetrievable() {
+		
+		// Arrange
+		LongObjectHashMap<Long> longObjectHashMap = new LongObjectHashMap<>(4);
+		
+		// Act
+		for (long multiplier = 1; multiplier <= 1_000; multiplier++) {
+			longObjectHashMap.put(multiplier << 32, multiplier);
+		}
+		
+		// Assert
+		assertEquals(1_000, longObjectHashMap.size());
+		for (long multiplier = 1; multiplier <= 1_000; multiplier++) {
+			assertEquals(multiplier, longObjectHashMap.get(multiplier << 32));
+		}
+	}
+	
+	@Test
+	@DisplayName("Key 0 should be supported although it marks empty slots internally")
+	public void put_ZeroKey_StoredSeparately() {
+		
+		// Arrange
+		LongObjectHashMap<String> longObjectHashMap = new LongObjectHashMap<>();
+		
+		// Act
+		String previousValue = longObjectHashMap.put(0L, "zero");
+		String absentValue = longObjectHashMap.putIfAbsent(0L, "other");
+		
+		// Assert
+		assertNull(previousValue);
+		assertEquals("zero", absentValue);
+		assertTrue(longObjectHashMap.containsKey(0L));
+		assertEquals(1, longObjectHashMap.size());
+		assertEquals("zero", longObjectHashMap.remove(0L));
+		assertFalse(longObjectHashMap.containsKey(0L));
+	}
+	
+	@Test
+	@DisplayName("Random puts and removes should match java.util.HashMap")
+	public void putAndRemove_RandomOperations_MatchesHashMap() {
+		
+		// Arrange
+		// A narrow key range forces long probe runs, so removals exercise backward shifting
+		Random random = new Random(42L);
+		LongObjectHashMap<Long> longObjectHashMap = new LongObjectHashMap<>();
+		Map<Long, Long> hashMapExpected = new HashMap<>();
+		
+		// Act
+		for (int operation = 0; operation < 200_000; operation++) {
+			long key = random.nextInt(2_000) - 100;
+			
+			if (random.nextInt(3) == 0) {
+				assertEquals(hashMapExpected.remove(key), longObjectHashMap.remove(key));
+			} else {
+				assertEquals(hashMapExpected.put(key, (long) operation), longObjectHashMap.put(key, (long) operation));
+			}
+		}
+		
+		// Assert
+		assertEquals(hashMapExpected.size(), longObjectHashMap.size());
+		Map<Long, Long> contentMap = new HashMap<>();
+		longObjectHashMap.forEach(contentMap::put);
+		assertEquals(hashMapExpected, contentMap);
+	}
+}
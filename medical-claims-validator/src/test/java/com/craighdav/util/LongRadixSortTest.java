@@ -0,0 +1,45 @@
+package com.craighdav.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+public class LongRadixSortTest {
+
+	@ParameterizedTest
+	@ValueSource(ints = {0, 1, 100, LongRadixSort.RADIX_SORT_THRESHOLD, 100_000})
+	@DisplayName("Radix sort should order values, including negative and repeated ones, as Arrays.sort does")
+	public void sort_RandomValues_MatchesArraysSort(int count) {
+		
+		// Arrange
+		// Small values (constant high bytes), repeats, and values of every sign and magnitude
+		Random random = new Random(11L);
+		long[] values = new long[count + 3];
+		for (int index = 0; index < count; index++) {
+			switch (index % 3) {
+				case 0 -> values[index] = random.nextInt(1_000);
+				case 1 -> values[index] = random.nextLong();
+				default -> values[index] = -random.nextInt(50);
+			}
+		}
+		
+		// Values beyond count must be left where they are
+		values[count] = Long.MAX_VALUE;
+		values[count + 1] = Long.MIN_VALUE;
+		values[count + 2] = 0L;
+		
+		long[] valuesExpected = values.clone();
+		Arrays.sort(valuesExpected, 0, count);
+		
+		// Act
+		LongRadixSort.sort(values, count);
+		
+		// Assert
+		assertArrayEquals(valuesExpected, values, "Expected order does not match returned order.");
+	}
+}
@@ -0,0 +1,59 @@
+package com.craighdav.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class OffHeapLongTableTest {
+
+	@Test
+	@DisplayName("Table should keep every entry across chunks and return its chunks to the pool on close")
+	public void insert_ManyEntries_RetainsAllAndReleasesChunks() throws DirectMemoryLimitException {
+
+		// Arrange
+		DirectBufferPool directBufferPool = new DirectBufferPool(1L << 24, 4_096);
+		int entryCount = 50_000;
+
+		// Act
+		try (OffHeapLongTable offHeapLongTable = new OffHeapLongTable(directBufferPool, entryCount, 12)) {
+			for (int position = 0; position < entryCount; position++) {
+				int entry = offHeapLongTable.insert(position);
+				offHeapLongTable.putLong(entry, 0, position * 3L);
+				offHeapLongTable.putInt(entry, 8, position);
+			}
+
+			// Assert
+			assertEquals(entryCount, offHeapLongTable.size());
+			assertEquals(-1, offHeapLongTable.insert(42L), "Expected a duplicate key to be rejected.");
+			assertEquals(-1, offHeapLongTable.find(entryCount), "Expected a missing key not to be found.");
+			for (int position = 0; position < entryCount; position++) {
+				int entry = offHeapLongTable.find(position);
+				assertEquals(position * 3L, offHeapLongTable.getLong(entry, 0));
+				assertEquals(position, offHeapLongTable.getInt(entry, 8));
+			}
+		}
+
+		assertEquals(0L, directBufferPool.getInUseBytes(), "Expected every chunk to be released.");
+	}
+
+	@Test
+	@DisplayName("A table exceeding the pool's limit should fail and release the chunks acquired so far")
+	public void constructor_LimitExceeded_ThrowsAndReleasesChunks() throws DirectMemoryLimitException {
+
+		// Arrange
+		DirectBufferPool directBufferPool = new DirectBufferPool(64 * 1_024, 4_096);
+
+		// Act
+		assertThrows(DirectMemoryLimitException.class,
+						() -> new OffHeapLongTable(directBufferPool, 100_000, 8));
+
+		// Assert
+		assertEquals(0L, directBufferPool.getInUseBytes(), "Expected every chunk to be released.");
+		assertEquals(64 * 1_024, directBufferPool.getAllocatedBytes(), "Expected the chunks to be pooled.");
+		try (OffHeapLongTable offHeapLongTable = new OffHeapLongTable(directBufferPool, 1_000, 8)) {
+			assertEquals(-1, offHeapLongTable.find(7L), "Expected a reused chunk to be zero-filled.");
+		}
+	}
+}